@@ -20,6 +20,7 @@ public final class BillCalculationResponse {
     private final BigDecimal billBasedDiscount;
     private final BigDecimal totalDiscount;
     private final BigDecimal netPayable;
+    private final boolean persisted;
 
     private BillCalculationResponse(
             String billId,
@@ -30,7 +31,8 @@ public final class BillCalculationResponse {
             int percentageDiscountRate,
             BigDecimal billBasedDiscount,
             BigDecimal totalDiscount,
-            BigDecimal netPayable) {
+            BigDecimal netPayable,
+            boolean persisted) {
         this.billId = billId;
         this.customerId = customerId;
         this.calculatedAt = calculatedAt;
@@ -40,6 +42,7 @@ public final class BillCalculationResponse {
         this.billBasedDiscount = billBasedDiscount;
         this.totalDiscount = totalDiscount;
         this.netPayable = netPayable;
+        this.persisted = persisted;
     }
 
     public static Builder builder() {
@@ -56,6 +59,7 @@ public final class BillCalculationResponse {
         private BigDecimal billBasedDiscount;
         private BigDecimal totalDiscount;
         private BigDecimal netPayable;
+        private boolean persisted = true;
 
         public Builder billId(String billId) {
             this.billId = billId;
@@ -102,6 +106,11 @@ public final class BillCalculationResponse {
             return this;
         }
 
+        public Builder persisted(boolean persisted) {
+            this.persisted = persisted;
+            return this;
+        }
+
         public BillCalculationResponse build() {
             Objects.requireNonNull(billId, "Bill ID is required");
             Objects.requireNonNull(customerId, "Customer ID is required");
@@ -118,7 +127,8 @@ public final class BillCalculationResponse {
                     percentageDiscountRate,
                     billBasedDiscount,
                     totalDiscount,
-                    netPayable
+                    netPayable,
+                    persisted
             );
         }
     }
@@ -160,6 +170,15 @@ public final class BillCalculationResponse {
         return netPayable;
     }
 
+    /**
+     * False when the store was unavailable: the bill is journaled on the
+     * instance and saved once the store is back, until then it cannot be
+     * retrieved by id.
+     */
+    public boolean isPersisted() {
+        return persisted;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -61,6 +61,10 @@ public final class BillMapper {
     }
 
     public static BillCalculationResponse toResponse(Bill bill) {
+        return toResponse(bill, true);
+    }
+
+    public static BillCalculationResponse toResponse(Bill bill, boolean persisted) {
         // Get the discount breakdown from the Bill
         Bill.DiscountBreakdown breakdown = bill.calculateDiscount();
 
@@ -75,6 +79,7 @@ public final class BillMapper {
                 .billBasedDiscount(breakdown.getBillBasedDiscount().getAmount())
                 .totalDiscount(breakdown.getTotalDiscount().getAmount())
                 .netPayable(breakdown.getNetPayable().getAmount())
+                .persisted(persisted)
                 .build();
     }
 
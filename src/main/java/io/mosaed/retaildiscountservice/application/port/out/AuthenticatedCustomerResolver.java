@@ -0,0 +1,30 @@
+package io.mosaed.retaildiscountservice.application.port.out;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+
+import java.util.Optional;
+
+/**
+ * Port giving access to the customer authenticated for the current request.
+ *
+ * Authentication already loads the customer; use cases can reuse that
+ * snapshot instead of reading the same customer from persistence again.
+ */
+@FunctionalInterface
+public interface AuthenticatedCustomerResolver {
+
+    /**
+     * Resolver for contexts with no authenticated customer (tests, batch jobs)
+     */
+    AuthenticatedCustomerResolver NONE = Optional::empty;
+
+    /**
+     * The customer authenticated for the current request, if any
+     */
+    Optional<Customer> currentCustomer();
+}
@@ -0,0 +1,30 @@
+package io.mosaed.retaildiscountservice.application.port.out;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+
+/**
+ * Port for bills that could not be saved because the store is unavailable.
+ *
+ * The journal keeps them durably on the instance and saves them to the
+ * BillRepository, in the order they were taken, once the store is back.
+ */
+public interface BillJournal {
+
+    /**
+     * Journal for deployments without one: takes no bills
+     */
+    BillJournal NONE = bill -> false;
+
+    /**
+     * Durably record a bill to be saved later.
+     *
+     * @return false if this journal does not take bills, the caller must
+     *         then fail the request as it would without a journal
+     */
+    boolean append(Bill bill);
+}
@@ -7,11 +7,32 @@ package io.mosaed.retaildiscountservice.application.port.out;
 
 import io.mosaed.retaildiscountservice.domain.model.Customer;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CustomerRepository {
 
     Optional<Customer> findById(String customerId);
     Customer save(Customer customer);
     boolean existsById(String customerId);
+
+    /**
+     * Stream the id of every customer. The stream holds store resources and must be closed.
+     */
+    Stream<String> streamAllIds();
+
+    /**
+     * Find several customers at once, keyed by id; unknown ids are absent from the result.
+     * Stores that can fetch a batch in a single round trip should override this.
+     */
+    default Map<String, Customer> findAllById(Collection<String> customerIds) {
+        Map<String, Customer> customers = new LinkedHashMap<>();
+        for (String customerId : customerIds) {
+            findById(customerId).ifPresent(customer -> customers.put(customerId, customer));
+        }
+        return customers;
+    }
 }
@@ -0,0 +1,20 @@
+package io.mosaed.retaildiscountservice.application.port.out;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+/**
+ * Thrown by the persistence ports when the store cannot be reached (failover,
+ * network partition) or is known to be down and is not being called at all.
+ *
+ * Unlike other store errors this says nothing about the request itself: the
+ * same call is expected to work once the store is back.
+ */
+public class PersistenceUnavailableException extends RuntimeException {
+
+    public PersistenceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
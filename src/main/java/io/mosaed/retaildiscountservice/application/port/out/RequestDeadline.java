@@ -0,0 +1,30 @@
+package io.mosaed.retaildiscountservice.application.port.out;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+/**
+ * Port giving access to the deadline of the current request.
+ *
+ * Clients such as POS terminals give up on a request after a timeout of
+ * their own; work done for the request after that point is wasted. Use cases
+ * check the deadline between steps so an abandoned request stops early.
+ */
+@FunctionalInterface
+public interface RequestDeadline {
+
+    /**
+     * Deadline for contexts without one (tests, batch jobs)
+     */
+    RequestDeadline NONE = stage -> { };
+
+    /**
+     * Stop the current request if its deadline has passed.
+     *
+     * @param stage what the request was about to do, for metrics
+     * @throws RuntimeException (implementation specific) if the deadline has passed
+     */
+    void checkNotExceeded(String stage);
+}
@@ -11,13 +11,19 @@ import io.mosaed.retaildiscountservice.application.mapper.BillMapper;
 import io.mosaed.retaildiscountservice.application.port.in.CalculateBillUseCase;
 import io.mosaed.retaildiscountservice.application.port.in.GetBillUseCase;
 import io.mosaed.retaildiscountservice.application.port.in.ListBillsUseCase;
+import io.mosaed.retaildiscountservice.application.port.out.AuthenticatedCustomerResolver;
+import io.mosaed.retaildiscountservice.application.port.out.BillJournal;
 import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
 import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.application.port.out.PersistenceUnavailableException;
+import io.mosaed.retaildiscountservice.application.port.out.RequestDeadline;
 
 import io.mosaed.retaildiscountservice.domain.exception.CustomerNotFoundException;
 import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.BillIdGenerator;
 import io.mosaed.retaildiscountservice.domain.model.BillItem;
 import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.TimeOrderedBillIdGenerator;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,38 +34,74 @@ public class BillService implements CalculateBillUseCase, GetBillUseCase, ListBi
 
     private final CustomerRepository customerRepository;
     private final BillRepository billRepository;
+    private final BillIdGenerator billIdGenerator;
+    private final AuthenticatedCustomerResolver authenticatedCustomerResolver;
+    private final RequestDeadline requestDeadline;
+    private final BillJournal billJournal;
 
     public BillService(
             CustomerRepository customerRepository,
             BillRepository billRepository) {
+        this(customerRepository, billRepository, new TimeOrderedBillIdGenerator(),
+                AuthenticatedCustomerResolver.NONE, RequestDeadline.NONE, BillJournal.NONE);
+    }
+
+    /**
+     * Ports the service can do without take their NONE implementation.
+     */
+    public BillService(
+            CustomerRepository customerRepository,
+            BillRepository billRepository,
+            BillIdGenerator billIdGenerator,
+            AuthenticatedCustomerResolver authenticatedCustomerResolver,
+            RequestDeadline requestDeadline,
+            BillJournal billJournal) {
         this.customerRepository = customerRepository;
         this.billRepository = billRepository;
+        this.billIdGenerator = billIdGenerator;
+        this.authenticatedCustomerResolver = authenticatedCustomerResolver;
+        this.requestDeadline = requestDeadline;
+        this.billJournal = billJournal;
     }
 
     @Override
     public BillCalculationResponse execute(CalculateBillCommand command) {
 
-        // Step 1: Retrieve the customer from persistence
+        // Step 1: Retrieve the customer (reusing the authenticated one when it is the same)
         Customer customer = findCustomer(command.getCustomerId());
 
         // Step 2: Convert DTOs to domain objects
         List<BillItem> billItems = BillMapper.toDomainItems(command.getItems());
 
         // Step 3: Create the Bill aggregate
-        Bill bill = Bill.create(customer, billItems);
+        Bill bill = Bill.create(customer, billItems, billIdGenerator);
 
         // Step 4: The domain calculates the discount
         bill.calculateDiscount(); // This populates the cached breakdown
 
-        // Step 5: Persist the bill for audit trail
-        Bill savedBill = billRepository.save(bill);
+        // Step 5: Persist the bill for audit trail, unless the client has given up by now
+        requestDeadline.checkNotExceeded("bill.save");
+        Bill savedBill;
+        try {
+            savedBill = billRepository.save(bill);
+        } catch (PersistenceUnavailableException e) {
+            // The store is down: journal the bill and still answer with the calculated discounts
+            if (!billJournal.append(bill)) {
+                throw e;
+            }
+            return BillMapper.toResponse(bill, false);
+        }
 
         // Step 6: Convert domain result back to DTO
         return BillMapper.toResponse(savedBill);
     }
 
     private Customer findCustomer(String customerId) {
-        return customerRepository.findById(customerId)
+        // Billing the authenticated customer: it was just loaded to authenticate the request
+        Optional<Customer> authenticated = authenticatedCustomerResolver.currentCustomer()
+                .filter(customer -> customer.getCustomerId().equals(customerId));
+        return authenticated
+                .or(() -> customerRepository.findById(customerId))
                 .orElseThrow(() -> new CustomerNotFoundException(customerId));
     }
 
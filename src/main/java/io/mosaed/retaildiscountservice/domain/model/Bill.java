@@ -18,6 +18,8 @@ public class Bill {
     private static final int BILL_BASED_DISCOUNT_THRESHOLD = 100;
     private static final int BILL_BASED_DISCOUNT_AMOUNT = 5;
 
+    private static final BillIdGenerator DEFAULT_ID_GENERATOR = new TimeOrderedBillIdGenerator();
+
     private final String billId;
     private final LocalDateTime createdAt;
 
@@ -38,9 +40,13 @@ public class Bill {
     }
 
     public static Bill create(Customer customer, List<BillItem> items) {
+        return create(customer, items, DEFAULT_ID_GENERATOR);
+    }
+
+    public static Bill create(Customer customer, List<BillItem> items, BillIdGenerator idGenerator) {
         validateCreation(customer, items);
         Bill bill = new Bill(
-                UUID.randomUUID().toString(),
+                idGenerator.nextId(),
                 customer,
                 items,
                 LocalDateTime.now()
@@ -91,6 +97,9 @@ public class Bill {
             return cachedDiscount;
         }
 
+        DiscountCalculationEvent event = new DiscountCalculationEvent();
+        event.begin();
+
         Money totalAmount = getTotalAmount();
 
         // Step 1: Calculate percen-based discount
@@ -114,6 +123,14 @@ public class Bill {
                 customer.getDiscountPercentage()
         );
 
+        if (event.shouldCommit()) {
+            event.billId = billId;
+            event.customerType = customer.getEffectiveType().name();
+            event.itemCount = items.size();
+            event.percentageDiscountRate = cachedDiscount.getPercentageDiscountRate();
+            event.commit();
+        }
+
         // Register domain event for calculation
         registerEvent(new BillCalculated(
                 billId,
@@ -0,0 +1,17 @@
+package io.mosaed.retaildiscountservice.domain.model;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+/**
+ * Source of identifiers for new bills.
+ *
+ * Implementations must be thread-safe and never return the same id twice.
+ */
+@FunctionalInterface
+public interface BillIdGenerator {
+
+    String nextId();
+}
@@ -0,0 +1,39 @@
+package io.mosaed.retaildiscountservice.domain.model;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one discount calculation.
+ *
+ * Costs next to nothing unless a recording has the event enabled, so it is
+ * emitted from the aggregate itself rather than from a wrapper around it.
+ */
+@Name("io.mosaed.retaildiscount.DiscountCalculation")
+@Label("Discount Calculation")
+@Category({"Retail Discount Service", "Domain"})
+@Description("Discount calculation of one bill")
+@StackTrace(false)
+final class DiscountCalculationEvent extends Event {
+
+    @Label("Bill Id")
+    String billId;
+
+    @Label("Customer Type")
+    String customerType;
+
+    @Label("Item Count")
+    int itemCount;
+
+    @Label("Percentage Discount Rate")
+    int percentageDiscountRate;
+}
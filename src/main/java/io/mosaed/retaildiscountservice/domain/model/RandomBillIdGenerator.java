@@ -0,0 +1,22 @@
+package io.mosaed.retaildiscountservice.domain.model;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.util.UUID;
+
+/**
+ * Random UUIDv4 bill ids, the original scheme.
+ *
+ * Ids carry no ordering, so consecutive inserts land on random pages of the
+ * _id index, and every call goes through the shared SecureRandom.
+ */
+public final class RandomBillIdGenerator implements BillIdGenerator {
+
+    @Override
+    public String nextId() {
+        return UUID.randomUUID().toString();
+    }
+}
@@ -0,0 +1,136 @@
+package io.mosaed.retaildiscountservice.domain.model;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered bill ids following the UUIDv7 layout (RFC 9562):
+ * 48 bits of Unix milliseconds, a 12-bit counter, then 62 random bits.
+ *
+ * Ids sort by creation time, both as values and as strings, so new bills
+ * are appended to the right edge of the _id index instead of scattered over
+ * it. Ids from one generator are strictly increasing: the counter
+ * disambiguates ids within the same millisecond, and a CAS on a single
+ * AtomicLong keeps that lock-free. Randomness comes from ThreadLocalRandom,
+ * so there is no shared SecureRandom to contend on.
+ *
+ * Because the creation time is part of the id, stores can find a bill by id
+ * without an index on its time (see timestampOf).
+ */
+public final class TimeOrderedBillIdGenerator implements BillIdGenerator {
+
+    public enum Encoding {
+        /** Canonical 36-character UUID string */
+        UUID,
+        /** 26-character Crockford base32 of the same 128 bits (ULID style), still time-sortable */
+        COMPACT
+    }
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int COUNTER_BITS = 12;
+
+    private final Encoding encoding;
+    private final LongSupplier clock;
+
+    // Last issued (millis << 12 | counter)
+    private final AtomicLong lastTimestamp = new AtomicLong();
+
+    public TimeOrderedBillIdGenerator() {
+        this(Encoding.UUID);
+    }
+
+    public TimeOrderedBillIdGenerator(Encoding encoding) {
+        this(encoding, System::currentTimeMillis);
+    }
+
+    TimeOrderedBillIdGenerator(Encoding encoding, LongSupplier clock) {
+        this.encoding = encoding;
+        this.clock = clock;
+    }
+
+    @Override
+    public String nextId() {
+        // When the counter overflows it carries into the millis, running a little
+        // ahead of the clock rather than ever repeating or going backwards
+        long now = clock.getAsLong() << COUNTER_BITS;
+        long timestamp = lastTimestamp.updateAndGet(last -> Math.max(now, last + 1));
+
+        long millis = timestamp >>> COUNTER_BITS;
+        long counter = timestamp & ((1L << COUNTER_BITS) - 1);
+        long mostSignificant = (millis << 16) | (0x7L << 12) | counter;
+        long leastSignificant = (ThreadLocalRandom.current().nextLong() >>> 2) | 0x8000000000000000L;
+
+        return encoding == Encoding.UUID
+                ? new UUID(mostSignificant, leastSignificant).toString()
+                : base32(mostSignificant, leastSignificant);
+    }
+
+    /**
+     * Creation time encoded in an id issued by this generator, in either
+     * encoding. Empty for ids of any other format (e.g. imported bills).
+     */
+    public static Optional<Instant> timestampOf(String billId) {
+        long mostSignificant;
+        long leastSignificant;
+        if (billId.length() == 36) {
+            UUID uuid;
+            try {
+                uuid = UUID.fromString(billId);
+            } catch (IllegalArgumentException e) {
+                return Optional.empty();
+            }
+            mostSignificant = uuid.getMostSignificantBits();
+            leastSignificant = uuid.getLeastSignificantBits();
+        } else if (billId.length() == 26) {
+            // The first character only holds the top 3 bits
+            long[] bits = new long[2];
+            for (int i = 0; i < billId.length(); i++) {
+                int value = crockfordValue(billId.charAt(i));
+                if (value < 0 || (i == 0 && value > 7)) {
+                    return Optional.empty();
+                }
+                bits[0] = (bits[0] << 5) | (bits[1] >>> 59);
+                bits[1] = (bits[1] << 5) | value;
+            }
+            mostSignificant = bits[0];
+            leastSignificant = bits[1];
+        } else {
+            return Optional.empty();
+        }
+
+        // Version 7, IETF variant
+        if (((mostSignificant >>> 12) & 0xF) != 7 || (leastSignificant >>> 62) != 2) {
+            return Optional.empty();
+        }
+        return Optional.of(Instant.ofEpochMilli(mostSignificant >>> 16));
+    }
+
+    private static int crockfordValue(char c) {
+        for (int i = 0; i < CROCKFORD.length; i++) {
+            if (CROCKFORD[i] == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String base32(long mostSignificant, long leastSignificant) {
+        // 26 characters x 5 bits cover the 128 bits, least significant character last
+        char[] chars = new char[26];
+        for (int i = chars.length - 1; i >= 0; i--) {
+            chars[i] = CROCKFORD[(int) (leastSignificant & 31)];
+            leastSignificant = (leastSignificant >>> 5) | (mostSignificant << 59);
+            mostSignificant >>>= 5;
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,141 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+
+/**
+ * Cold tier for old bills: a directory of append-only segment files.
+ *
+ * Segments are never modified once written. New archive runs add a segment,
+ * readers see a stable snapshot of the segment list.
+ */
+public class BillArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillArchive.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".seg";
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final Path directory;
+    private final BillDocumentCodec codec;
+    private final int blockSize;
+
+    // Oldest first
+    private final List<BillSegment> segments = new CopyOnWriteArrayList<>();
+    private long nextSequence;
+
+    public BillArchive(Path directory, BillDocumentCodec codec, int blockSize) {
+        this.directory = directory;
+        this.codec = codec;
+        this.blockSize = blockSize;
+        openSegments();
+    }
+
+    /**
+     * Write documents as a new segment. Returns once the segment is durable and visible to readers.
+     */
+    public synchronized void append(List<BillDocument> documents) {
+        if (documents.isEmpty()) {
+            return;
+        }
+
+        Path target = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, nextSequence, SEGMENT_SUFFIX));
+        Path temp = directory.resolve(target.getFileName() + TEMP_SUFFIX);
+        try {
+            // Write aside and rename, so a crash never leaves a half-written segment
+            BillSegment.write(temp, documents, codec, blockSize);
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            segments.add(BillSegment.open(target, codec));
+            nextSequence++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write archive segment " + target, e);
+        }
+
+        logger.info("Archived {} bills into {}", documents.size(), target.getFileName());
+    }
+
+    public Optional<BillDocument> findById(String billId) {
+        // Newest segments first: a bill re-archived after a crash is found in its latest copy
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Optional<BillDocument> document = segments.get(i).findById(billId);
+            if (document.isPresent()) {
+                return document;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Bills of a customer created strictly between the bounds; null bounds are open
+     */
+    public List<BillDocument> findByCustomerId(String customerId, LocalDateTime from, LocalDateTime to) {
+        List<BillDocument> documents = new ArrayList<>();
+        for (BillSegment segment : segments) {
+            if (segment.overlaps(from, to)) {
+                documents.addAll(segment.findByCustomerId(customerId, from, to));
+            }
+        }
+        return documents;
+    }
+
+    /**
+     * Creation time of the newest archived bill, if anything is archived
+     */
+    public Optional<LocalDateTime> newestArchived() {
+        return segments.stream()
+                .map(BillSegment::newestCreatedAt)
+                .max(LocalDateTime::compareTo);
+    }
+
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+
+    public long documentCount() {
+        return segments.stream().mapToLong(BillSegment::documentCount).sum();
+    }
+
+    private void openSegments() {
+        try {
+            Files.createDirectories(directory);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path path : files.sorted().toList()) {
+                    String name = path.getFileName().toString();
+                    if (name.endsWith(TEMP_SUFFIX)) {
+                        // Left over from a crash during append
+                        Files.delete(path);
+                    } else if (name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX)) {
+                        segments.add(BillSegment.open(path, codec));
+                        long sequence = Long.parseLong(
+                                name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+                        nextSequence = Math.max(nextSequence, sequence + 1);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open bill archive in " + directory, e);
+        }
+
+        logger.info("Opened bill archive {} with {} segments ({} bills)",
+                directory, segments.size(), documentCount());
+    }
+}
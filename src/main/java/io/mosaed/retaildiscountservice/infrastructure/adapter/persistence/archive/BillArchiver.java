@@ -0,0 +1,105 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.BillCollectionLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Moves bills older than the configured age from MongoDB into the BillArchive.
+ *
+ * Each batch is written to the archive (durably) before it is removed from
+ * MongoDB. A crash in between leaves the bills in both tiers, which readers
+ * tolerate, and the next run archives them again.
+ */
+public class BillArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillArchiver.class);
+
+    private static final Sort OLDEST_FIRST = Sort.by(Sort.Direction.ASC, "createdAt");
+
+    private final MongoOperations mongoOperations;
+    private final BillCollectionLayout layout;
+    private final BillArchive archive;
+    private final Duration maxAge;
+    private final int batchSize;
+
+    public BillArchiver(
+            MongoOperations mongoOperations,
+            BillCollectionLayout layout,
+            BillArchive archive,
+            Duration maxAge,
+            int batchSize) {
+        this.mongoOperations = mongoOperations;
+        this.layout = layout;
+        this.archive = archive;
+        this.maxAge = maxAge;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${application.archive.interval:PT1H}",
+            fixedDelayString = "${application.archive.interval:PT1H}")
+    public void archiveOldBills() {
+        try {
+            archiveBillsCreatedBefore(LocalDateTime.now().minus(maxAge));
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run picks up where this one stopped
+            logger.error("Archiving old bills failed", e);
+        }
+    }
+
+    /**
+     * Archive every bill created before the cutoff.
+     *
+     * @return number of bills moved to the archive
+     */
+    public int archiveBillsCreatedBefore(LocalDateTime cutoff) {
+        int archived = 0;
+
+        for (String collection : layout.collectionsFor(LocalDateTime.MIN, cutoff)) {
+            while (true) {
+                // Step 1: Read the next batch of old bills
+                Query query = new Query(where("createdAt").lt(cutoff))
+                        .with(OLDEST_FIRST)
+                        .limit(batchSize);
+                List<BillDocument> batch = mongoOperations.find(query, BillDocument.class, collection);
+                if (batch.isEmpty()) {
+                    break;
+                }
+
+                // Step 2: Persist them as a new segment
+                archive.append(batch);
+
+                // Step 3: Only now remove them from the hot tier
+                List<String> ids = batch.stream().map(BillDocument::getBillId).toList();
+                mongoOperations.remove(new Query(where("billId").in(ids)), BillDocument.class, collection);
+
+                archived += batch.size();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        }
+
+        if (archived > 0) {
+            logger.info("Archived {} bills created before {}", archived, cutoff);
+        }
+        return archived;
+    }
+}
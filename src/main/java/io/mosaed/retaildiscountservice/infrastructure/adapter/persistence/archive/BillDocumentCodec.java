@@ -0,0 +1,43 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.MongoClientSettings;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+
+/**
+ * Encodes BillDocuments to BSON bytes and back using the same MongoConverter
+ * the live collections use, so archived bills have exactly the stored shape.
+ */
+public class BillDocumentCodec {
+
+    private static final DocumentCodec DOCUMENT_CODEC = new DocumentCodec(MongoClientSettings.getDefaultCodecRegistry());
+
+    private final MongoConverter converter;
+
+    public BillDocumentCodec(MongoConverter converter) {
+        this.converter = converter;
+    }
+
+    public byte[] encode(BillDocument document) {
+        Document bson = new Document();
+        converter.write(document, bson);
+        RawBsonDocument raw = new RawBsonDocument(bson, DOCUMENT_CODEC);
+
+        byte[] bytes = new byte[raw.getByteBuffer().remaining()];
+        raw.getByteBuffer().get(bytes);
+        return bytes;
+    }
+
+    public BillDocument decode(byte[] bytes, int offset, int length) {
+        Document bson = new RawBsonDocument(bytes, offset, length).decode(DOCUMENT_CODEC);
+        return converter.read(BillDocument.class, bson);
+    }
+}
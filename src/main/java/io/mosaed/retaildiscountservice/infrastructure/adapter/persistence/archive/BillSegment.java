@@ -0,0 +1,370 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * One immutable, memory-mapped archive segment.
+ *
+ * FILE LAYOUT:
+ *
+ *   header      int magic, int version
+ *   blocks      deflate-compressed runs of [int length][BSON bytes], sorted by
+ *               (customer_id, created_at)
+ *   block index one entry per block: offset, sizes, first and last
+ *               (customer_id, created_at) key - the sparse index
+ *   id table    entry count, int offsets, then [billId, block number] entries
+ *               sorted by billId so lookups binary-search the mapped file
+ *   footer      long block index offset, long id table offset, int magic
+ *
+ * Only the sparse block index is held on the heap; the id table and the
+ * blocks are read straight from the mapping.
+ */
+public final class BillSegment {
+
+    static final int MAGIC = 0x42534547; // "BSEG"
+    static final int VERSION = 1;
+    private static final int FOOTER_SIZE = Long.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final Comparator<BillDocument> KEY_ORDER = Comparator
+            .comparing(BillDocument::getCustomerId)
+            .thenComparing(BillDocument::getCreatedAt)
+            .thenComparing(BillDocument::getBillId);
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final BillDocumentCodec codec;
+    private final List<Block> blocks;
+    private final int idCount;
+    private final int idOffsetsStart;
+    private final int idEntriesStart;
+    private final long minCreatedAt;
+    private final long maxCreatedAt;
+
+    private BillSegment(Path path, MappedByteBuffer buffer, BillDocumentCodec codec) {
+        this.path = path;
+        this.buffer = buffer;
+        this.codec = codec;
+
+        int size = buffer.capacity();
+        if (size < 8 + FOOTER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(size - Integer.BYTES) != MAGIC) {
+            throw new IllegalStateException("Not a bill archive segment: " + path);
+        }
+        if (buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IllegalStateException("Unsupported segment version in " + path);
+        }
+
+        int blockIndexOffset = (int) buffer.getLong(size - FOOTER_SIZE);
+        int idTableOffset = (int) buffer.getLong(size - FOOTER_SIZE + Long.BYTES);
+
+        // Load the sparse block index
+        ByteBuffer index = buffer.duplicate().position(blockIndexOffset);
+        int blockCount = index.getInt();
+        List<Block> loaded = new ArrayList<>(blockCount);
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (int i = 0; i < blockCount; i++) {
+            Block block = new Block(
+                    index.getInt(), index.getInt(), index.getInt(), index.getInt(),
+                    readString(index), index.getLong(),
+                    readString(index), index.getLong(),
+                    index.getLong(), index.getLong());
+            loaded.add(block);
+            min = Math.min(min, block.minCreatedAt());
+            max = Math.max(max, block.maxCreatedAt());
+        }
+        this.blocks = List.copyOf(loaded);
+        this.minCreatedAt = min;
+        this.maxCreatedAt = max;
+
+        this.idCount = buffer.getInt(idTableOffset);
+        this.idOffsetsStart = idTableOffset + Integer.BYTES;
+        this.idEntriesStart = idOffsetsStart + idCount * Integer.BYTES;
+    }
+
+    /**
+     * Map an existing segment file
+     */
+    public static BillSegment open(Path path, BillDocumentCodec codec) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new BillSegment(path, buffer, codec);
+        }
+    }
+
+    /**
+     * Write documents as a new segment file. The file is fsynced before this returns.
+     */
+    public static void write(Path target, List<BillDocument> documents, BillDocumentCodec codec, int blockSize)
+            throws IOException {
+        List<BillDocument> sorted = new ArrayList<>(documents);
+        sorted.sort(KEY_ORDER);
+
+        List<Block> blocks = new ArrayList<>();
+        List<IdEntry> ids = new ArrayList<>(sorted.size());
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+
+            // Step 1: compressed blocks of documents
+            for (int start = 0; start < sorted.size(); start += blockSize) {
+                List<BillDocument> chunk = sorted.subList(start, Math.min(start + blockSize, sorted.size()));
+                int blockNumber = blocks.size();
+
+                ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                DataOutputStream rawOut = new DataOutputStream(raw);
+                long min = Long.MAX_VALUE;
+                long max = Long.MIN_VALUE;
+                for (BillDocument document : chunk) {
+                    byte[] bson = codec.encode(document);
+                    rawOut.writeInt(bson.length);
+                    rawOut.write(bson);
+                    ids.add(new IdEntry(document.getBillId(), blockNumber));
+                    long createdAt = toMillis(document.getCreatedAt());
+                    min = Math.min(min, createdAt);
+                    max = Math.max(max, createdAt);
+                }
+
+                byte[] compressed = deflate(raw.toByteArray());
+                BillDocument first = chunk.get(0);
+                BillDocument last = chunk.get(chunk.size() - 1);
+                blocks.add(new Block(out.size(), compressed.length, raw.size(), chunk.size(),
+                        first.getCustomerId(), toMillis(first.getCreatedAt()),
+                        last.getCustomerId(), toMillis(last.getCreatedAt()),
+                        min, max));
+                out.write(compressed);
+            }
+
+            // Step 2: sparse block index
+            long blockIndexOffset = out.size();
+            out.writeInt(blocks.size());
+            for (Block block : blocks) {
+                out.writeInt(block.offset());
+                out.writeInt(block.compressedLength());
+                out.writeInt(block.rawLength());
+                out.writeInt(block.documentCount());
+                writeString(out, block.firstCustomerId());
+                out.writeLong(block.firstCreatedAt());
+                writeString(out, block.lastCustomerId());
+                out.writeLong(block.lastCreatedAt());
+                out.writeLong(block.minCreatedAt());
+                out.writeLong(block.maxCreatedAt());
+            }
+
+            // Step 3: billId lookup table
+            long idTableOffset = out.size();
+            // Sorted by UTF-8 bytes, the order findById compares in
+            ids.sort(Comparator.comparing((IdEntry id) -> utf8(id.billId()), Arrays::compareUnsigned));
+            out.writeInt(ids.size());
+            int relative = 0;
+            for (IdEntry id : ids) {
+                out.writeInt(relative);
+                relative += Short.BYTES + utf8(id.billId()).length + Integer.BYTES;
+            }
+            for (IdEntry id : ids) {
+                writeString(out, id.billId());
+                out.writeInt(id.block());
+            }
+
+            // Step 4: footer
+            out.writeLong(blockIndexOffset);
+            out.writeLong(idTableOffset);
+            out.writeInt(MAGIC);
+        }
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+    }
+
+    public Optional<BillDocument> findById(String billId) {
+        if (billId == null) {
+            return Optional.empty();
+        }
+        byte[] key = utf8(billId);
+
+        // Binary search over the id table inside the mapping
+        int low = 0;
+        int high = idCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = idEntriesStart + buffer.getInt(idOffsetsStart + mid * Integer.BYTES);
+            int length = Short.toUnsignedInt(buffer.getShort(entry));
+            int cmp = compareUtf8(entry + Short.BYTES, length, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                int blockNumber = buffer.getInt(entry + Short.BYTES + length);
+                return readBlock(blocks.get(blockNumber)).stream()
+                        .filter(document -> billId.equals(document.getBillId()))
+                        .findFirst();
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Bills of a customer created strictly between the bounds; null bounds are open
+     */
+    public List<BillDocument> findByCustomerId(String customerId, LocalDateTime from, LocalDateTime to) {
+        long lowMillis = from == null ? Long.MIN_VALUE : toMillis(from);
+        long highMillis = to == null ? Long.MAX_VALUE : toMillis(to);
+
+        List<BillDocument> result = new ArrayList<>();
+        for (Block block : blocks) {
+            if (!block.mayContain(customerId, lowMillis, highMillis)) {
+                continue;
+            }
+            for (BillDocument document : readBlock(block)) {
+                if (customerId.equals(document.getCustomerId())
+                        && (from == null || document.getCreatedAt().isAfter(from))
+                        && (to == null || document.getCreatedAt().isBefore(to))) {
+                    result.add(document);
+                }
+            }
+        }
+        return result;
+    }
+
+    public boolean overlaps(LocalDateTime from, LocalDateTime to) {
+        return (from == null || maxCreatedAt >= toMillis(from)) && (to == null || minCreatedAt <= toMillis(to));
+    }
+
+    public LocalDateTime newestCreatedAt() {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(maxCreatedAt), ZoneOffset.UTC);
+    }
+
+    public int documentCount() {
+        return idCount;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    private List<BillDocument> readBlock(Block block) {
+        byte[] raw = new byte[block.rawLength()];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice(block.offset(), block.compressedLength()));
+            inflater.inflate(raw);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Corrupt block at offset " + block.offset() + " in " + path, e);
+        } finally {
+            inflater.end();
+        }
+
+        List<BillDocument> documents = new ArrayList<>(block.documentCount());
+        ByteBuffer entries = ByteBuffer.wrap(raw);
+        while (entries.hasRemaining()) {
+            int length = entries.getInt();
+            documents.add(codec.decode(raw, entries.position(), length));
+            entries.position(entries.position() + length);
+        }
+        return documents;
+    }
+
+    private int compareUtf8(int position, int length, byte[] key) {
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Integer.compare(Byte.toUnsignedInt(buffer.get(position + i)), Byte.toUnsignedInt(key[i]));
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2 + 64);
+            byte[] chunk = new byte[8192];
+            while (!deflater.finished()) {
+                compressed.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = utf8(value);
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[Short.toUnsignedInt(in.getShort())];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] utf8(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static long toMillis(LocalDateTime dateTime) {
+        return dateTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    private record IdEntry(String billId, int block) {
+    }
+
+    /**
+     * Sparse index entry. Documents are sorted by (customer, created_at), so a
+     * block can only hold a customer's bills if the customer falls between its
+     * first and last keys.
+     */
+    private record Block(int offset, int compressedLength, int rawLength, int documentCount,
+                         String firstCustomerId, long firstCreatedAt,
+                         String lastCustomerId, long lastCreatedAt,
+                         long minCreatedAt, long maxCreatedAt) {
+
+        boolean mayContain(String customerId, long fromMillis, long toMillis) {
+            int afterFirst = customerId.compareTo(firstCustomerId);
+            int beforeLast = customerId.compareTo(lastCustomerId);
+            if (afterFirst < 0 || beforeLast > 0) {
+                return false;
+            }
+            // Within a single-customer stretch the created_at keys bound the block too
+            if (afterFirst == 0 && toMillis < firstCreatedAt) {
+                return false;
+            }
+            return beforeLast != 0 || fromMillis <= lastCreatedAt;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.bloom;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ *
+ * Sized from the expected number of entries and the target false positive
+ * probability. Bits are set with a CAS per word, so concurrent adds and
+ * lookups need no lock. The k bit positions come from two 64-bit hashes
+ * (Kirsch-Mitzenmacher double hashing).
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    private final LongAdder bitsSet = new LongAdder();
+    private final LongAdder entries = new LongAdder();
+
+    public BloomFilter(long expectedEntries, double falsePositiveProbability) {
+        if (expectedEntries < 1 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("Invalid Bloom filter sizing");
+        }
+        // m = -n ln(p) / ln(2)^2, k = m/n ln(2)
+        long bits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int wordCount = Math.toIntExact((bits + Long.SIZE - 1) / Long.SIZE);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedEntries * Math.log(2)));
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            setBit(Math.floorMod(h1 + i * h2, bitCount));
+        }
+        entries.increment();
+    }
+
+    /**
+     * False means the value was definitely never added; true means it probably was.
+     */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Current false positive probability, estimated from the share of bits set
+     */
+    public double expectedFalsePositiveProbability() {
+        return Math.pow((double) bitsSet.sum() / bitCount, hashCount);
+    }
+
+    /**
+     * Number of add calls, duplicates included
+     */
+    public long entries() {
+        return entries.sum();
+    }
+
+    public long sizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    public int hashCount() {
+        return hashCount;
+    }
+
+    private void setBit(long bit) {
+        int index = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        long word;
+        do {
+            word = words.get(index);
+            if ((word & mask) != 0) {
+                return;
+            }
+        } while (!words.compareAndSet(index, word, word | mask));
+        bitsSet.increment();
+    }
+
+    // 64-bit FNV-1a over the UTF-8 bytes
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // MurmurHash3 finalizer, spreads FNV's weak low bits
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,186 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.bloom;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of every known customer id, used to turn lookups of ids that
+ * do not exist into a memory check instead of a store miss.
+ *
+ * The filter is built by streaming the ids from the store, and rebuilt
+ * periodically: this resets its fill as ids accumulate and picks up customers
+ * written by other processes. Until the first build completes the filter
+ * answers "maybe" for everything, so nothing is rejected on its say-so.
+ *
+ * Between rebuilds the filter only learns the customers saved through this
+ * instance. Unless it is authoritative (this instance sees every customer
+ * write), an id the filter does not know is therefore still looked up in
+ * the store, and learned if it is found there: a customer created by another
+ * instance or written to the database directly is never turned away.
+ */
+public class CustomerIdFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CustomerIdFilter.class);
+
+    private final CustomerRepository customerStore;
+    private final long expectedCustomers;
+    private final double falsePositiveProbability;
+    private final boolean authoritative;
+
+    // Null until the first build completes
+    private volatile BloomFilter active;
+    // Non-null while a rebuild is streaming ids
+    private volatile BloomFilter building;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder learned = new LongAdder();
+
+    /**
+     * @param authoritative whether every customer write goes through this instance, so an
+     *                      id the filter does not know definitely does not exist
+     */
+    public CustomerIdFilter(
+            CustomerRepository customerStore,
+            long expectedCustomers,
+            double falsePositiveProbability,
+            boolean authoritative) {
+        this.customerStore = customerStore;
+        this.expectedCustomers = expectedCustomers;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.authoritative = authoritative;
+    }
+
+    /**
+     * False only when the customer definitely does not exist: the filter is
+     * built, authoritative and has never seen the id.
+     */
+    public boolean mightExist(String customerId) {
+        BloomFilter filter = active;
+        if (filter == null || !authoritative || filter.mightContain(customerId)) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Record a customer that was just saved to the store.
+     */
+    public void add(String customerId) {
+        // Read building before active: a rebuild that swaps in between still
+        // streams from the store after the save, so the id is not lost
+        BloomFilter next = building;
+        BloomFilter current = active;
+        if (current != null) {
+            current.add(customerId);
+        }
+        if (next != null) {
+            next.add(customerId);
+        }
+    }
+
+    /**
+     * A lookup found the customer in the store; learn it if it was written
+     * elsewhere since the last build.
+     */
+    public void recordFound(String customerId) {
+        BloomFilter filter = active;
+        if (filter != null && !filter.mightContain(customerId)) {
+            add(customerId);
+            learned.increment();
+        }
+    }
+
+    /**
+     * A lookup found nothing in the store; a false positive if the filter claimed the id.
+     */
+    public void recordNotFound(String customerId) {
+        BloomFilter filter = active;
+        if (filter != null && filter.mightContain(customerId)) {
+            falsePositives.increment();
+        }
+    }
+
+    @Scheduled(
+            initialDelay = 0,
+            fixedDelayString = "${application.persistence.customer-filter.rebuild-interval:PT15M}")
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        BloomFilter filter = new BloomFilter(expectedCustomers, falsePositiveProbability);
+        building = filter;
+        try (Stream<String> ids = customerStore.streamAllIds()) {
+            ids.forEach(filter::add);
+            active = filter;
+
+            logger.info("Built customer id filter: {} ids, {} KiB, {} hashes, estimated false positive rate {} in {} ms",
+                    filter.entries(), filter.sizeInBytes() / 1024, filter.hashCount(),
+                    String.format("%.5f", filter.expectedFalsePositiveProbability()),
+                    (System.nanoTime() - start) / 1_000_000);
+            if (filter.entries() > expectedCustomers) {
+                logger.warn("Customer id filter holds {} ids, more than the {} it is sized for",
+                        filter.entries(), expectedCustomers);
+            }
+        } catch (DataAccessException e) {
+            // Keep using the previous filter (or none) until a rebuild succeeds
+            logger.warn("Could not build customer id filter: {}", e.getMessage());
+        } finally {
+            building = null;
+        }
+    }
+
+    public boolean isReady() {
+        return active != null;
+    }
+
+    public double expectedFalsePositiveProbability() {
+        BloomFilter filter = active;
+        return filter == null ? 0.0 : filter.expectedFalsePositiveProbability();
+    }
+
+    public long sizeInBytes() {
+        BloomFilter filter = active;
+        return filter == null ? 0 : filter.sizeInBytes();
+    }
+
+    public long entries() {
+        BloomFilter filter = active;
+        return filter == null ? 0 : filter.entries();
+    }
+
+    /**
+     * Lookups answered "does not exist" without touching the store
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Lookups let through that the store then did not find
+     */
+    public long falsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Customers found in the store that the filter did not know yet
+     */
+    public long learned() {
+        return learned.sum();
+    }
+
+    public boolean isAuthoritative() {
+        return authoritative;
+    }
+}
@@ -0,0 +1,56 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.BatchLoader;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * CustomerRepository decorator that folds single lookups from concurrent
+ * requests into batched findAllById calls on the store.
+ */
+public class BatchingCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final BatchLoader<String, Customer> batchLoader;
+
+    public BatchingCustomerRepository(CustomerRepository delegate, BatchLoader<String, Customer> batchLoader) {
+        this.delegate = delegate;
+        this.batchLoader = batchLoader;
+    }
+
+    @Override
+    public Optional<Customer> findById(String customerId) {
+        return Optional.ofNullable(batchLoader.load(customerId));
+    }
+
+    @Override
+    public Map<String, Customer> findAllById(Collection<String> customerIds) {
+        // Already a batch
+        return delegate.findAllById(customerIds);
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        return delegate.save(customer);
+    }
+
+    @Override
+    public boolean existsById(String customerId) {
+        return delegate.existsById(customerId);
+    }
+
+    @Override
+    public Stream<String> streamAllIds() {
+        return delegate.streamAllIds();
+    }
+}
@@ -0,0 +1,87 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * CustomerRepository decorator that keeps recently used customers in memory.
+ *
+ * Only customers that exist are cached; unknown ids are the id filter's job.
+ * Entries expire after a while, so changes made by other instances are picked
+ * up eventually. Saves through this instance update the cache right away.
+ */
+public class CachingCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final Cache<String, Customer> cache;
+
+    public CachingCustomerRepository(CustomerRepository delegate, Cache<String, Customer> cache) {
+        this.delegate = delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Optional<Customer> findById(String customerId) {
+        Customer cached = cache.getIfPresent(customerId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        // Load outside the cache: concurrent misses are coalesced further down
+        Optional<Customer> customer = delegate.findById(customerId);
+        customer.ifPresent(found -> cache.put(customerId, found));
+        return customer;
+    }
+
+    @Override
+    public Map<String, Customer> findAllById(Collection<String> customerIds) {
+        Map<String, Customer> customers = new LinkedHashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String customerId : customerIds) {
+            Customer cached = cache.getIfPresent(customerId);
+            if (cached != null) {
+                customers.put(customerId, cached);
+            } else {
+                missing.add(customerId);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            Map<String, Customer> loaded = delegate.findAllById(missing);
+            cache.putAll(loaded);
+            customers.putAll(loaded);
+        }
+        return customers;
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        Customer saved = delegate.save(customer);
+        cache.put(saved.getCustomerId(), saved);
+        return saved;
+    }
+
+    @Override
+    public boolean existsById(String customerId) {
+        return cache.getIfPresent(customerId) != null || delegate.existsById(customerId);
+    }
+
+    @Override
+    public Stream<String> streamAllIds() {
+        return delegate.streamAllIds();
+    }
+}
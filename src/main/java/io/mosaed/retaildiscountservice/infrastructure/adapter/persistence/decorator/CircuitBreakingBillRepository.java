@@ -0,0 +1,83 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.PersistenceUnavailableException;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.CircuitBreaker;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.CircuitBreakerOpenException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * BillRepository decorator that calls the store through a circuit breaker.
+ *
+ * Calls rejected by the open breaker and calls that failed because the store
+ * is unreachable both surface as PersistenceUnavailableException, so callers
+ * can tell "store down" from any other store error.
+ */
+public class CircuitBreakingBillRepository implements BillRepository {
+
+    private final BillRepository delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakingBillRepository(BillRepository delegate, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Bill save(Bill bill) {
+        return guarded(() -> delegate.save(bill));
+    }
+
+    @Override
+    public Optional<Bill> findById(String billId) {
+        return guarded(() -> delegate.findById(billId));
+    }
+
+    @Override
+    public List<Bill> findByCustomerId(String customerId) {
+        return guarded(() -> delegate.findByCustomerId(customerId));
+    }
+
+    @Override
+    public List<Bill> findByCustomerIdAndDateRange(String customerId, LocalDateTime from, LocalDateTime to) {
+        return guarded(() -> delegate.findByCustomerIdAndDateRange(customerId, from, to));
+    }
+
+    @Override
+    public List<Bill> findRecentBills(int limit) {
+        return guarded(() -> delegate.findRecentBills(limit));
+    }
+
+    @Override
+    public boolean deleteById(String billId) {
+        return guarded(() -> delegate.deleteById(billId));
+    }
+
+    @Override
+    public boolean existsById(String billId) {
+        return guarded(() -> delegate.existsById(billId));
+    }
+
+    private <T> T guarded(Supplier<T> call) {
+        try {
+            return circuitBreaker.call(call);
+        } catch (CircuitBreakerOpenException e) {
+            throw new PersistenceUnavailableException("Bill store unavailable, not called", e);
+        } catch (RuntimeException e) {
+            if (circuitBreaker.isFailure(e)) {
+                throw new PersistenceUnavailableException("Bill store unavailable", e);
+            }
+            throw e;
+        }
+    }
+}
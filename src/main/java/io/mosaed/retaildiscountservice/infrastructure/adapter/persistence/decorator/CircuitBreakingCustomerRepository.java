@@ -0,0 +1,73 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.application.port.out.PersistenceUnavailableException;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.CircuitBreaker;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.CircuitBreakerOpenException;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * CustomerRepository decorator that calls the store through a circuit breaker
+ * (see CircuitBreakingBillRepository). Sits below the cache, so customers
+ * cached before the store went down are still served while it is open.
+ */
+public class CircuitBreakingCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakingCustomerRepository(CustomerRepository delegate, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public Optional<Customer> findById(String customerId) {
+        return guarded(() -> delegate.findById(customerId));
+    }
+
+    @Override
+    public Map<String, Customer> findAllById(Collection<String> customerIds) {
+        return guarded(() -> delegate.findAllById(customerIds));
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        return guarded(() -> delegate.save(customer));
+    }
+
+    @Override
+    public boolean existsById(String customerId) {
+        return guarded(() -> delegate.existsById(customerId));
+    }
+
+    @Override
+    public Stream<String> streamAllIds() {
+        // Only opening the cursor is guarded, the stream is consumed by the caller
+        return guarded(delegate::streamAllIds);
+    }
+
+    private <T> T guarded(Supplier<T> call) {
+        try {
+            return circuitBreaker.call(call);
+        } catch (CircuitBreakerOpenException e) {
+            throw new PersistenceUnavailableException("Customer store unavailable, not called", e);
+        } catch (RuntimeException e) {
+            if (circuitBreaker.isFailure(e)) {
+                throw new PersistenceUnavailableException("Customer store unavailable", e);
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.BillItem;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.SingleFlight;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * BillRepository decorator that coalesces concurrent lookups of the same bill
+ * into a single store query. Everything else goes straight to the store.
+ *
+ * Callers share the data read, not the aggregate: Bill caches its discount
+ * and collects domain events without synchronization, so every caller gets
+ * a Bill of its own, built from an immutable snapshot of the shared read.
+ */
+public class CoalescingBillRepository implements BillRepository {
+
+    private final BillRepository delegate;
+    private final SingleFlight<String, Optional<SharedBill>> findById;
+
+    public CoalescingBillRepository(BillRepository delegate, SingleFlight<String, Optional<SharedBill>> findById) {
+        this.delegate = delegate;
+        this.findById = findById;
+    }
+
+    @Override
+    public Bill save(Bill bill) {
+        return delegate.save(bill);
+    }
+
+    @Override
+    public Optional<Bill> findById(String billId) {
+        return findById.execute(billId, () -> delegate.findById(billId).map(SharedBill::of))
+                .map(SharedBill::toDomain);
+    }
+
+    @Override
+    public List<Bill> findByCustomerId(String customerId) {
+        return delegate.findByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Bill> findByCustomerIdAndDateRange(String customerId, LocalDateTime from, LocalDateTime to) {
+        return delegate.findByCustomerIdAndDateRange(customerId, from, to);
+    }
+
+    @Override
+    public List<Bill> findRecentBills(int limit) {
+        return delegate.findRecentBills(limit);
+    }
+
+    @Override
+    public boolean deleteById(String billId) {
+        return delegate.deleteById(billId);
+    }
+
+    @Override
+    public boolean existsById(String billId) {
+        return delegate.existsById(billId);
+    }
+
+    /**
+     * What a coalesced lookup hands to every caller; Customer and BillItem are immutable
+     */
+    public record SharedBill(String billId, Customer customer, List<BillItem> items, LocalDateTime createdAt) {
+
+        static SharedBill of(Bill bill) {
+            return new SharedBill(bill.getBillId(), bill.getCustomer(), List.copyOf(bill.getItems()), bill.getCreatedAt());
+        }
+
+        Bill toDomain() {
+            return Bill.reconstitute(billId, customer, items, createdAt);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.SingleFlight;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * CustomerRepository decorator that coalesces concurrent lookups of the same
+ * customer into a single store query.
+ */
+public class CoalescingCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final SingleFlight<String, Optional<Customer>> findById;
+
+    public CoalescingCustomerRepository(
+            CustomerRepository delegate,
+            SingleFlight<String, Optional<Customer>> findById) {
+        this.delegate = delegate;
+        this.findById = findById;
+    }
+
+    @Override
+    public Optional<Customer> findById(String customerId) {
+        return findById.execute(customerId, () -> delegate.findById(customerId));
+    }
+
+    @Override
+    public Map<String, Customer> findAllById(Collection<String> customerIds) {
+        return delegate.findAllById(customerIds);
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        return delegate.save(customer);
+    }
+
+    @Override
+    public boolean existsById(String customerId) {
+        return delegate.existsById(customerId);
+    }
+
+    @Override
+    public Stream<String> streamAllIds() {
+        return delegate.streamAllIds();
+    }
+}
@@ -0,0 +1,83 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.bloom.CustomerIdFilter;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * CustomerRepository decorator that answers lookups of ids the Bloom filter
+ * rules out without going to the store, and keeps the filter up to date on
+ * save and with the customers lookups find.
+ */
+public class FilteringCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final CustomerIdFilter filter;
+
+    public FilteringCustomerRepository(CustomerRepository delegate, CustomerIdFilter filter) {
+        this.delegate = delegate;
+        this.filter = filter;
+    }
+
+    @Override
+    public Optional<Customer> findById(String customerId) {
+        if (!filter.mightExist(customerId)) {
+            return Optional.empty();
+        }
+        Optional<Customer> customer = delegate.findById(customerId);
+        if (customer.isPresent()) {
+            filter.recordFound(customerId);
+        } else {
+            filter.recordNotFound(customerId);
+        }
+        return customer;
+    }
+
+    @Override
+    public Map<String, Customer> findAllById(Collection<String> customerIds) {
+        List<String> candidates = customerIds.stream()
+                .filter(filter::mightExist)
+                .toList();
+        if (candidates.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Customer> customers = delegate.findAllById(candidates);
+        customers.keySet().forEach(filter::recordFound);
+        return customers;
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        Customer saved = delegate.save(customer);
+        filter.add(saved.getCustomerId());
+        return saved;
+    }
+
+    @Override
+    public boolean existsById(String customerId) {
+        if (!filter.mightExist(customerId)) {
+            return false;
+        }
+        boolean exists = delegate.existsById(customerId);
+        if (exists) {
+            filter.recordFound(customerId);
+        }
+        return exists;
+    }
+
+    @Override
+    public Stream<String> streamAllIds() {
+        return delegate.streamAllIds();
+    }
+}
@@ -0,0 +1,347 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * Durable append-only record log backing the file store.
+ *
+ * Each record is framed as [int length][int crc32c][payload]. On open the log
+ * is replayed; a torn or corrupt tail (crash during a write) is truncated at
+ * the last intact record.
+ *
+ * Writes use group commit: appenders write their record and wait, while a
+ * single flusher thread fsyncs at most once per sync interval on behalf of
+ * every record written since the previous fsync.
+ */
+public final class AppendOnlyLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppendOnlyLog.class);
+
+    private static final int HEADER_SIZE = Integer.BYTES + Integer.BYTES;
+    private static final int MAX_RECORD_SIZE = 16 * 1024 * 1024;
+
+    // Below this many records compaction is not worth the rewrite
+    private static final long MIN_RECORDS_FOR_COMPACTION = 1024;
+
+    private final Path path;
+    private final Duration syncInterval;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition syncRequested = lock.newCondition();
+    private final Condition durableAdvanced = lock.newCondition();
+
+    // Guarded by lock
+    private FileChannel channel;
+    private long appendedSequence;
+    private long durableSequence;
+    private long records;
+    private IOException syncFailure;
+    private boolean closed;
+
+    private final Thread flusher;
+
+    private AppendOnlyLog(Path path, Duration syncInterval, FileChannel channel, long records) {
+        this.path = path;
+        this.syncInterval = syncInterval;
+        this.channel = channel;
+        this.records = records;
+        this.flusher = Thread.ofPlatform()
+                .daemon()
+                .name("log-flusher-" + path.getFileName())
+                .start(this::runFlusher);
+    }
+
+    /**
+     * Open (or create) the log, passing every intact record to the handler in write order.
+     */
+    public static AppendOnlyLog open(Path path, Duration syncInterval, Consumer<byte[]> replayHandler) {
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.deleteIfExists(compactionFile(path));
+
+            long records = 0;
+            long validLength = 0;
+            if (Files.exists(path)) {
+                try (InputStream file = Files.newInputStream(path);
+                     DataInputStream in = new DataInputStream(new BufferedInputStream(file, 1 << 16))) {
+                    byte[] payload;
+                    while ((payload = readRecord(in)) != null) {
+                        replayHandler.accept(payload);
+                        validLength += HEADER_SIZE + payload.length;
+                        records++;
+                    }
+                }
+            }
+
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() > validLength) {
+                logger.warn("Truncating {} bytes of incomplete records at the end of {}",
+                        channel.size() - validLength, path);
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+            channel.position(validLength);
+
+            logger.info("Opened {} with {} records", path, records);
+            return new AppendOnlyLog(path, syncInterval, channel, records);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open log " + path, e);
+        }
+    }
+
+    /**
+     * Append a record and return once it is durable on disk.
+     */
+    public void append(byte[] payload) {
+        ByteBuffer frame = frame(payload);
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Log is closed: " + path);
+            }
+
+            // Step 1: Write the record (lands in the page cache)
+            while (frame.hasRemaining()) {
+                channel.write(frame);
+            }
+            long sequence = ++appendedSequence;
+            records++;
+
+            // Step 2: Wait for the flusher to cover it with an fsync
+            syncRequested.signal();
+            while (durableSequence < sequence) {
+                if (syncFailure != null) {
+                    throw new UncheckedIOException("Failed to sync " + path, syncFailure);
+                }
+                durableAdvanced.awaitUninterruptibly();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to " + path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replace the whole log with the given records (compaction).
+     *
+     * The new log is written aside, fsynced and atomically renamed over the old
+     * one, so a crash leaves either the old or the new log intact. The caller
+     * must make sure no append races with the snapshot it passes in.
+     */
+    public void rewrite(List<byte[]> payloads) {
+        lock.lock();
+        try {
+            Path temp = compactionFile(path);
+            try (FileChannel out = FileChannel.open(temp,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                DataOutputStream stream = new DataOutputStream(
+                        new BufferedOutputStream(Channels.newOutputStream(out), 1 << 16));
+                for (byte[] payload : payloads) {
+                    stream.write(frame(payload).array());
+                }
+                stream.flush();
+                out.force(true);
+            }
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            syncDirectory();
+
+            long before = records;
+            channel.close();
+            channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+            records = payloads.size();
+
+            // Everything appended so far is part of the fsynced snapshot
+            durableSequence = appendedSequence;
+            durableAdvanced.signalAll();
+
+            logger.info("Compacted {} from {} to {} records", path.getFileName(), before, records);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compact " + path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * True when most records in the log are superseded and a rewrite would pay off.
+     */
+    public boolean needsCompaction(long liveRecords) {
+        long total = records();
+        return total >= MIN_RECORDS_FOR_COMPACTION && total > 2 * liveRecords;
+    }
+
+    public long records() {
+        lock.lock();
+        try {
+            return records;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            syncRequested.signal();
+        } finally {
+            lock.unlock();
+        }
+
+        try {
+            flusher.join();
+            channel.close();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to close " + path, e);
+        }
+    }
+
+    private void runFlusher() {
+        while (true) {
+            long target;
+            FileChannel current;
+
+            lock.lock();
+            try {
+                while (!closed && durableSequence == appendedSequence) {
+                    syncRequested.awaitUninterruptibly();
+                }
+                if (durableSequence == appendedSequence) {
+                    return; // closed and nothing left to sync
+                }
+                target = appendedSequence;
+                current = channel;
+            } finally {
+                lock.unlock();
+            }
+
+            // fsync outside the lock so new records keep queuing up for the next batch
+            IOException failure = null;
+            try {
+                current.force(false);
+            } catch (IOException e) {
+                failure = e;
+            }
+
+            lock.lock();
+            try {
+                if (current != channel) {
+                    // Swapped by a compaction, which already made everything durable
+                    continue;
+                }
+                if (failure != null) {
+                    logger.error("Failed to sync {}", path, failure);
+                    syncFailure = failure;
+                    durableAdvanced.signalAll();
+                    return;
+                }
+                durableSequence = Math.max(durableSequence, target);
+                durableAdvanced.signalAll();
+            } finally {
+                lock.unlock();
+            }
+
+            pauseBetweenSyncs();
+        }
+    }
+
+    private void pauseBetweenSyncs() {
+        if (syncInterval.isZero()) {
+            return;
+        }
+        try {
+            TimeUnit.NANOSECONDS.sleep(syncInterval.toNanos());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Read the next record, or null at the end of the log or at a torn/corrupt record.
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            int checksum = in.readInt();
+            if (length < 0 || length > MAX_RECORD_SIZE) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            return checksum(payload) == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static ByteBuffer frame(byte[] payload) {
+        ByteBuffer frame = ByteBuffer.allocate(HEADER_SIZE + payload.length);
+        frame.putInt(payload.length);
+        frame.putInt(checksum(payload));
+        frame.put(payload);
+        return frame.flip();
+    }
+
+    private static int checksum(byte[] payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static Path compactionFile(Path path) {
+        return path.resolveSibling(path.getFileName() + ".compact");
+    }
+
+    private void syncDirectory() {
+        // Make the rename itself durable; not supported on every platform
+        try (FileChannel directory = FileChannel.open(path.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            logger.debug("Could not sync directory of {}", path, e);
+        }
+    }
+}
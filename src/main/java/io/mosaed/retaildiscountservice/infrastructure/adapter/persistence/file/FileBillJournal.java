@@ -0,0 +1,152 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillJournal;
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.application.port.out.PersistenceUnavailableException;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.StoredBill;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Store-and-forward journal of bills taken while the store was unavailable.
+ *
+ * Bills are appended to bill-journal.log on local disk (group-committed like
+ * the file store) and queued in memory. The replay saves them to the bill
+ * repository oldest first and stops at the first one that fails, so they
+ * reach the store in the order they were taken; the log is then rewritten
+ * with what is left. A crash between a save and the rewrite replays that
+ * bill again on the next run, which saving by bill id makes harmless.
+ */
+public class FileBillJournal implements BillJournal, Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileBillJournal.class);
+
+    static final String LOG_FILE = "bill-journal.log";
+
+    private final AppendOnlyLog log;
+    private final BillRepository billRepository;
+    private final CustomerRepository customerRepository;
+
+    private final Queue<StoredBill> pending = new ConcurrentLinkedQueue<>();
+    private final LongAdder appended = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+
+    // Appenders share the lock, the rewrite after a replay takes it exclusively
+    private final ReadWriteLock rewriteLock = new ReentrantReadWriteLock();
+
+    public FileBillJournal(
+            Path directory,
+            Duration syncInterval,
+            BillRepository billRepository,
+            CustomerRepository customerRepository) {
+        this.billRepository = billRepository;
+        this.customerRepository = customerRepository;
+        this.log = AppendOnlyLog.open(directory.resolve(LOG_FILE), syncInterval,
+                payload -> pending.add(FileRecordCodec.decodeBill(payload)));
+        if (!pending.isEmpty()) {
+            logger.warn("{} bills journaled before the restart are waiting to be saved", pending.size());
+        }
+    }
+
+    @Override
+    public boolean append(Bill bill) {
+        StoredBill stored = StoredBill.of(bill);
+        rewriteLock.readLock().lock();
+        try {
+            // Durable first, then queued
+            log.append(FileRecordCodec.encodeBill(stored));
+            pending.add(stored);
+        } finally {
+            rewriteLock.readLock().unlock();
+        }
+        appended.increment();
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${application.persistence.journal.replay-interval:PT5S}")
+    public void replayPending() {
+        if (!pending.isEmpty()) {
+            replay();
+        }
+    }
+
+    /**
+     * Save journaled bills in order until the journal is empty or a save fails.
+     *
+     * @return the number of bills taken off the journal
+     */
+    public synchronized int replay() {
+        int done = 0;
+        try {
+            StoredBill next;
+            while ((next = pending.peek()) != null) {
+                Optional<Customer> customer = customerRepository.findById(next.customerId());
+                if (customer.isPresent()) {
+                    billRepository.save(next.toDomain(customer.get()));
+                    replayed.increment();
+                } else {
+                    // Nothing to attach the bill to any more; retrying would block the rest forever
+                    logger.error("Dropping journaled bill {}: customer {} no longer exists",
+                            next.billId(), next.customerId());
+                }
+                pending.poll();
+                done++;
+            }
+        } catch (PersistenceUnavailableException e) {
+            logger.debug("Store still unavailable, {} journaled bills left", pending.size());
+        } catch (RuntimeException e) {
+            logger.warn("Replay of journaled bill {} failed, retrying later", pending.peek().billId(), e);
+        } finally {
+            if (done > 0) {
+                truncate();
+                logger.info("Saved {} journaled bills, {} left", done, pending.size());
+            }
+        }
+        return done;
+    }
+
+    public int pending() {
+        return pending.size();
+    }
+
+    public long appended() {
+        return appended.sum();
+    }
+
+    public long replayed() {
+        return replayed.sum();
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    private void truncate() {
+        rewriteLock.writeLock().lock();
+        try {
+            log.rewrite(pending.stream().map(FileRecordCodec::encodeBill).toList());
+        } finally {
+            rewriteLock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.StoredBill;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * File-based implementation of the BillRepository output port, for
+ * deployments without MongoDB.
+ *
+ * Bills are indexed in memory (see InMemoryBillRepository); bills.log is the
+ * durable copy, holding saves and deletions, and is replayed on startup.
+ * Writes return once group-committed to disk, reads never touch the disk.
+ */
+public class FileBillRepository extends InMemoryBillRepository implements Closeable {
+
+    static final String LOG_FILE = "bills.log";
+
+    private final AppendOnlyLog log;
+
+    // Writers share the lock, compaction takes it exclusively so its snapshot matches the log
+    private final ReadWriteLock compactionLock = new ReentrantReadWriteLock();
+
+    public FileBillRepository(Path directory, Duration syncInterval, CustomerRepository customerRepository) {
+        super(customerRepository);
+        this.log = AppendOnlyLog.open(directory.resolve(LOG_FILE), syncInterval, this::replay);
+    }
+
+    @Override
+    public Bill save(Bill bill) {
+        compactionLock.readLock().lock();
+        try {
+            // Durable first, then visible
+            log.append(FileRecordCodec.encodeBill(StoredBill.of(bill)));
+            return super.save(bill);
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean deleteById(String billId) {
+        compactionLock.readLock().lock();
+        try {
+            if (!existsById(billId)) {
+                return false;
+            }
+            log.append(FileRecordCodec.encodeBillDeleted(billId));
+            return super.deleteById(billId);
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.persistence.file.compaction-interval:PT10M}")
+    public void compactIfNeeded() {
+        if (log.needsCompaction(size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite the log with one record per live bill, dropping deletions and overwritten saves
+     */
+    public void compact() {
+        compactionLock.writeLock().lock();
+        try {
+            log.rewrite(storedBills().stream().map(FileRecordCodec::encodeBill).toList());
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    private void replay(byte[] payload) {
+        switch (FileRecordCodec.typeOf(payload)) {
+            case FileRecordCodec.BILL -> restore(FileRecordCodec.decodeBill(payload));
+            case FileRecordCodec.BILL_DELETED -> super.deleteById(FileRecordCodec.decodeBillDeleted(payload));
+            default -> throw new IllegalStateException(
+                    "Unknown record type " + FileRecordCodec.typeOf(payload) + " in " + LOG_FILE);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryCustomerRepository;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * File-based implementation of the CustomerRepository output port, for
+ * deployments without MongoDB.
+ *
+ * Every customer lives in memory (see InMemoryCustomerRepository);
+ * customers.log is the durable copy and is replayed on startup. Reads never
+ * touch the disk.
+ */
+public class FileCustomerRepository extends InMemoryCustomerRepository implements Closeable {
+
+    static final String LOG_FILE = "customers.log";
+
+    private final AppendOnlyLog log;
+
+    // Writers share the lock, compaction takes it exclusively so its snapshot matches the log
+    private final ReadWriteLock compactionLock = new ReentrantReadWriteLock();
+
+    public FileCustomerRepository(Path directory, Duration syncInterval) {
+        this.log = AppendOnlyLog.open(directory.resolve(LOG_FILE), syncInterval,
+                payload -> super.save(FileRecordCodec.decodeCustomer(payload)));
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        compactionLock.readLock().lock();
+        try {
+            // Durable first, then visible
+            log.append(FileRecordCodec.encodeCustomer(customer));
+            return super.save(customer);
+        } finally {
+            compactionLock.readLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${application.persistence.file.compaction-interval:PT10M}")
+    public void compactIfNeeded() {
+        if (log.needsCompaction(customers().size())) {
+            compact();
+        }
+    }
+
+    /**
+     * Rewrite the log with one record per customer
+     */
+    public void compact() {
+        compactionLock.writeLock().lock();
+        try {
+            log.rewrite(customers().stream().map(FileRecordCodec::encodeCustomer).toList());
+        } finally {
+            compactionLock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+}
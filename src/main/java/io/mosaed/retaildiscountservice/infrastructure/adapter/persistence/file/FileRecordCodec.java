@@ -0,0 +1,157 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.domain.model.BillItem;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.domain.model.ItemCategory;
+import io.mosaed.retaildiscountservice.domain.model.Money;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.StoredBill;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary encoding of the records kept in the file store logs.
+ *
+ * Every record starts with a type byte so the formats can evolve.
+ */
+final class FileRecordCodec {
+
+    static final byte CUSTOMER = 1;
+    static final byte BILL = 2;
+    static final byte BILL_DELETED = 3;
+
+    private FileRecordCodec() {
+    }
+
+    static byte[] encodeCustomer(Customer customer) {
+        return encode(out -> {
+            out.writeByte(CUSTOMER);
+            out.writeUTF(customer.getCustomerId());
+            out.writeUTF(customer.getExplicitType().name());
+            out.writeLong(customer.getRegistrationDate().toEpochDay());
+        });
+    }
+
+    static Customer decodeCustomer(byte[] payload) {
+        return decode(payload, CUSTOMER, in -> Customer.of(
+                in.readUTF(),
+                CustomerType.valueOf(in.readUTF()),
+                LocalDate.ofEpochDay(in.readLong())));
+    }
+
+    static byte[] encodeBill(StoredBill bill) {
+        return encode(out -> {
+            out.writeByte(BILL);
+            out.writeUTF(bill.billId());
+            out.writeUTF(bill.customerId());
+            out.writeLong(bill.createdAt().toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(bill.createdAt().getNano());
+            out.writeInt(bill.items().size());
+            for (BillItem item : bill.items()) {
+                out.writeUTF(item.getName());
+                out.writeUTF(item.getCategory().name());
+                writeDecimal(out, item.getUnitPrice().getAmount());
+                out.writeInt(item.getQuantity());
+            }
+        });
+    }
+
+    static StoredBill decodeBill(byte[] payload) {
+        return decode(payload, BILL, in -> {
+            String billId = in.readUTF();
+            String customerId = in.readUTF();
+            LocalDateTime createdAt = LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+            int itemCount = in.readInt();
+            List<BillItem> items = new ArrayList<>(itemCount);
+            for (int i = 0; i < itemCount; i++) {
+                items.add(BillItem.of(
+                        in.readUTF(),
+                        ItemCategory.valueOf(in.readUTF()),
+                        Money.of(readDecimal(in)),
+                        in.readInt()));
+            }
+            return new StoredBill(billId, customerId, createdAt, List.copyOf(items));
+        });
+    }
+
+    static byte[] encodeBillDeleted(String billId) {
+        return encode(out -> {
+            out.writeByte(BILL_DELETED);
+            out.writeUTF(billId);
+        });
+    }
+
+    static String decodeBillDeleted(byte[] payload) {
+        return decode(payload, BILL_DELETED, in -> in.readUTF());
+    }
+
+    static byte typeOf(byte[] payload) {
+        return payload[0];
+    }
+
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        byte[] unscaled = value.unscaledValue().toByteArray();
+        out.writeInt(value.scale());
+        out.writeByte(unscaled.length);
+        out.write(unscaled);
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        int scale = in.readInt();
+        byte[] unscaled = new byte[in.readUnsignedByte()];
+        in.readFully(unscaled);
+        return new BigDecimal(new BigInteger(unscaled), scale);
+    }
+
+    private static byte[] encode(Writer writer) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+            DataOutputStream out = new DataOutputStream(bytes);
+            writer.write(out);
+            out.flush();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <T> T decode(byte[] payload, byte expectedType, Reader<T> reader) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            byte type = in.readByte();
+            if (type != expectedType) {
+                throw new IllegalArgumentException("Unexpected record type " + type + ", expected " + expectedType);
+            }
+            return reader.read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Writer {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface Reader<T> {
+        T read(DataInputStream in) throws IOException;
+    }
+}
@@ -0,0 +1,131 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory indexes over stored bills: by billId, by (customerId, createdAt)
+ * and by createdAt alone for the recent-bills query.
+ *
+ * Reads are lock-free. Writes lock only the hash bin of their billId, so the
+ * secondary indexes of one bill move together while different bills are
+ * written in parallel.
+ */
+final class BillIndex {
+
+    private record Key(LocalDateTime createdAt, String billId) {
+    }
+
+    private static final Comparator<Key> NEWEST_FIRST = Comparator
+            .comparing(Key::createdAt, Comparator.reverseOrder())
+            .thenComparing(Key::billId);
+
+    private final Map<String, StoredBill> byId = new ConcurrentHashMap<>();
+    private final Map<String, NavigableMap<Key, StoredBill>> byCustomer = new ConcurrentHashMap<>();
+    private final NavigableMap<Key, StoredBill> byCreatedAt = new ConcurrentSkipListMap<>(NEWEST_FIRST);
+
+    void put(StoredBill bill) {
+        byId.compute(bill.billId(), (billId, previous) -> {
+            if (previous != null) {
+                unindex(previous);
+            }
+            Key key = keyOf(bill);
+            byCustomer.computeIfAbsent(bill.customerId(), id -> new ConcurrentSkipListMap<>(NEWEST_FIRST))
+                    .put(key, bill);
+            byCreatedAt.put(key, bill);
+            return bill;
+        });
+    }
+
+    StoredBill remove(String billId) {
+        StoredBill[] removed = new StoredBill[1];
+        byId.computeIfPresent(billId, (id, previous) -> {
+            unindex(previous);
+            removed[0] = previous;
+            return null;
+        });
+        return removed[0];
+    }
+
+    StoredBill get(String billId) {
+        return byId.get(billId);
+    }
+
+    boolean contains(String billId) {
+        return byId.containsKey(billId);
+    }
+
+    /**
+     * All bills of the customer, newest first
+     */
+    List<StoredBill> byCustomer(String customerId) {
+        NavigableMap<Key, StoredBill> customerBills = byCustomer.get(customerId);
+        return customerBills == null ? List.of() : new ArrayList<>(customerBills.values());
+    }
+
+    /**
+     * Bills of the customer created strictly between the bounds, newest first
+     */
+    List<StoredBill> byCustomerBetween(String customerId, LocalDateTime from, LocalDateTime to) {
+        NavigableMap<Key, StoredBill> customerBills = byCustomer.get(customerId);
+        if (customerBills == null) {
+            return List.of();
+        }
+
+        List<StoredBill> result = new ArrayList<>();
+        // Newest first: start at the upper bound and walk back in time
+        for (StoredBill bill : customerBills.tailMap(new Key(to, ""), true).values()) {
+            if (!bill.createdAt().isAfter(from)) {
+                break;
+            }
+            if (bill.createdAt().isBefore(to)) {
+                result.add(bill);
+            }
+        }
+        return result;
+    }
+
+    List<StoredBill> newest(int limit) {
+        List<StoredBill> result = new ArrayList<>(Math.min(limit, byId.size()));
+        for (StoredBill bill : byCreatedAt.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(bill);
+        }
+        return result;
+    }
+
+    Collection<StoredBill> all() {
+        return byId.values();
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    private void unindex(StoredBill bill) {
+        Key key = keyOf(bill);
+        NavigableMap<Key, StoredBill> customerBills = byCustomer.get(bill.customerId());
+        if (customerBills != null) {
+            customerBills.remove(key);
+        }
+        byCreatedAt.remove(key);
+    }
+
+    private static Key keyOf(StoredBill bill) {
+        return new Key(bill.createdAt(), bill.billId());
+    }
+}
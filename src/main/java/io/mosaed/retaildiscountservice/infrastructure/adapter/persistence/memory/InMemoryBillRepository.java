@@ -0,0 +1,105 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * In-memory implementation of the BillRepository output port.
+ *
+ * Used by the "perf" profile to measure the service without a database, and
+ * as the read side of the file store. Bills are kept as immutable StoredBill
+ * snapshots in a BillIndex; a fresh Bill aggregate is built on every read
+ * because Bill caches its calculation and collects events.
+ */
+public class InMemoryBillRepository implements BillRepository {
+
+    private final BillIndex index = new BillIndex();
+    private final CustomerRepository customerRepository;
+
+    public InMemoryBillRepository(CustomerRepository customerRepository) {
+        this.customerRepository = customerRepository;
+    }
+
+    @Override
+    public Bill save(Bill bill) {
+        StoredBill stored = StoredBill.of(bill);
+        index.put(stored);
+
+        // The bill already carries its customer, no need to look it up again
+        return stored.toDomain(bill.getCustomer());
+    }
+
+    @Override
+    public Optional<Bill> findById(String billId) {
+        return Optional.ofNullable(index.get(billId)).flatMap(this::toDomain);
+    }
+
+    @Override
+    public List<Bill> findByCustomerId(String customerId) {
+        return toDomain(index.byCustomer(customerId));
+    }
+
+    @Override
+    public List<Bill> findByCustomerIdAndDateRange(String customerId, LocalDateTime from, LocalDateTime to) {
+        return toDomain(index.byCustomerBetween(customerId, from, to));
+    }
+
+    @Override
+    public List<Bill> findRecentBills(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        return toDomain(index.newest(limit));
+    }
+
+    @Override
+    public boolean deleteById(String billId) {
+        return index.remove(billId) != null;
+    }
+
+    @Override
+    public boolean existsById(String billId) {
+        return index.contains(billId);
+    }
+
+    /**
+     * Put a stored bill back without going through save (e.g. replaying a log)
+     */
+    protected void restore(StoredBill bill) {
+        index.put(bill);
+    }
+
+    /**
+     * Live view of every stored bill
+     */
+    protected Collection<StoredBill> storedBills() {
+        return index.all();
+    }
+
+    protected int size() {
+        return index.size();
+    }
+
+    private Optional<Bill> toDomain(StoredBill stored) {
+        // Bills whose customer is gone are skipped (data integrity issue), as in the MongoDB adapter
+        return customerRepository.findById(stored.customerId()).map(stored::toDomain);
+    }
+
+    private List<Bill> toDomain(List<StoredBill> stored) {
+        return stored.stream()
+                .map(this::toDomain)
+                .flatMap(Optional::stream)
+                .toList();
+    }
+}
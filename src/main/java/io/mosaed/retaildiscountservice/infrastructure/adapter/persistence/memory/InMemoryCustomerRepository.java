@@ -0,0 +1,55 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory implementation of the CustomerRepository output port.
+ *
+ * Used by the "perf" profile to measure the service without a database, and
+ * as the read side of the file store.
+ */
+public class InMemoryCustomerRepository implements CustomerRepository {
+
+    private final Map<String, Customer> customers = new ConcurrentHashMap<>();
+
+    @Override
+    public Optional<Customer> findById(String customerId) {
+        return Optional.ofNullable(customers.get(customerId));
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        // Customer is immutable, so the instance itself can be shared
+        customers.put(customer.getCustomerId(), customer);
+        return customer;
+    }
+
+    @Override
+    public boolean existsById(String customerId) {
+        return customers.containsKey(customerId);
+    }
+
+    @Override
+    public Stream<String> streamAllIds() {
+        return customers.keySet().stream();
+    }
+
+    /**
+     * Live view of every stored customer
+     */
+    protected Collection<Customer> customers() {
+        return customers.values();
+    }
+}
@@ -0,0 +1,34 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.BillItem;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Immutable snapshot of a bill as held by the in-memory (and file) store.
+ *
+ * Only the customer id is kept; the Customer is resolved on read, like the
+ * MongoDB adapter does, so customer changes are reflected in old bills.
+ */
+public record StoredBill(String billId, String customerId, LocalDateTime createdAt, List<BillItem> items) {
+
+    public static StoredBill of(Bill bill) {
+        return new StoredBill(
+                bill.getBillId(),
+                bill.getCustomer().getCustomerId(),
+                bill.getCreatedAt(),
+                List.copyOf(bill.getItems()));
+    }
+
+    public Bill toDomain(Customer customer) {
+        return Bill.reconstitute(billId, customer, items, createdAt);
+    }
+}
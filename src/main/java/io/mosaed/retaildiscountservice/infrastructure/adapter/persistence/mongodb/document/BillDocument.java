@@ -8,6 +8,7 @@ package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongo
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
 
@@ -17,6 +18,22 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+/**
+ * MongoDB representation of a Bill.
+ *
+ * Monetary amounts are stored as Decimal128 rather than the default string
+ * form, so they can be summed, compared and range-indexed on the server.
+ * Documents written before that change still hold strings; they are read
+ * transparently and rewritten by MonetaryFieldMigration.
+ *
+ * Indexes, each one a write on every insert, so only what a query needs:
+ * - _id: lookups by bill id
+ * - customer_created_idx: bills of a customer, optionally within a date
+ *   range, newest first
+ * - created_at: newest bills, and the oldest for archiving and retention
+ * They are created by MongoIndexInitializer, which also drops indexes
+ * retired from this list.
+ */
 @Document(collection = "bills")
 @CompoundIndex(name = "customer_created_idx", def = "{'customer_id': 1, 'created_at': -1}")
 public class BillDocument {
@@ -24,8 +41,8 @@ public class BillDocument {
     @Id
     private String billId;
 
+    // No index of its own: customer_created_idx serves lookups by customer
     @Field("customer_id")
-    @Indexed
     private String customerId;
 
     @Field("customer_type")
@@ -34,26 +51,27 @@ public class BillDocument {
     @Field("items")
     private List<BillItemDocument> items = new ArrayList<>();
 
+    // Recent bills, archiving and retention (may carry a TTL, see BillRetention)
     @Field("created_at")
     @Indexed
     private LocalDateTime createdAt;
 
-    @Field("total_amount")
+    @Field(name = "total_amount", targetType = FieldType.DECIMAL128)
     private BigDecimal totalAmount;
 
-    @Field("percentage_discount")
+    @Field(name = "percentage_discount", targetType = FieldType.DECIMAL128)
     private BigDecimal percentageDiscount;
 
     @Field("percentage_discount_rate")
     private int percentageDiscountRate;
 
-    @Field("bill_based_discount")
+    @Field(name = "bill_based_discount", targetType = FieldType.DECIMAL128)
     private BigDecimal billBasedDiscount;
 
-    @Field("total_discount")
+    @Field(name = "total_discount", targetType = FieldType.DECIMAL128)
     private BigDecimal totalDiscount;
 
-    @Field("net_payable")
+    @Field(name = "net_payable", targetType = FieldType.DECIMAL128)
     private BigDecimal netPayable;
 
     public BillDocument() {
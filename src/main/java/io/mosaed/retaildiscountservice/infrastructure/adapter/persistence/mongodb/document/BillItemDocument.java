@@ -6,10 +6,16 @@ package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongo
  */
 
 import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
 
 import java.math.BigDecimal;
 import java.util.Objects;
 
+/**
+ * Embedded line item of a BillDocument.
+ *
+ * Amounts are stored as Decimal128 so they stay exact and numeric in MongoDB.
+ */
 public class BillItemDocument {
 
     @Field("name")
@@ -18,7 +24,7 @@ public class BillItemDocument {
     @Field("category")
     private String category;
 
-    @Field("unit_price")
+    @Field(name = "unit_price", targetType = FieldType.DECIMAL128)
     private BigDecimal unitPrice;
 
     @Field("quantity")
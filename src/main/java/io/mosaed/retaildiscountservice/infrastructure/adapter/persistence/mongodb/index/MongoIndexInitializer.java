@@ -0,0 +1,127 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.index;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.MongoException;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.CustomerDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.BillCollectionLayout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+
+import java.util.List;
+
+/**
+ * Creates the indexes declared on the documents, off the startup path.
+ *
+ * Replaces spring.data.mongodb.auto-index-creation, which creates them
+ * synchronously while the mapping context initializes. createIndexes is
+ * idempotent and cheap when the indexes exist, which is the case for every
+ * start but the first; until it finishes on a fresh database queries are
+ * correct, only slower. An index that exists with other options is kept.
+ *
+ * Indexes no longer declared on BillDocument are dropped, so existing
+ * databases stop paying for them on every insert.
+ *
+ * Only bill collections that exist are visited when the layout indexes the
+ * collections it creates (monthly buckets), so months without bills are not
+ * created empty just to carry indexes.
+ */
+public class MongoIndexInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    // Server error codes for an index that exists with the same name or keys but other options
+    private static final int INDEX_OPTIONS_CONFLICT = 85;
+    private static final int INDEX_KEY_SPECS_CONFLICT = 86;
+
+    // customer_id: a prefix of customer_created_idx, which serves every query by customer
+    static final List<String> RETIRED_BILL_INDEXES = List.of("customer_id");
+
+    private final MongoOperations mongoOperations;
+    private final IndexResolver indexResolver;
+    private final BillCollectionLayout layout;
+
+    public MongoIndexInitializer(
+            MongoOperations mongoOperations,
+            IndexResolver indexResolver,
+            BillCollectionLayout layout) {
+        this.mongoOperations = mongoOperations;
+        this.indexResolver = indexResolver;
+        this.layout = layout;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startInBackground() {
+        Thread.ofVirtual().name("mongo-index-initializer").start(() -> {
+            try {
+                ensureIndexes();
+            } catch (RuntimeException e) {
+                // Not fatal: the application works without them, just slower
+                logger.error("Could not create MongoDB indexes", e);
+            }
+        });
+    }
+
+    public void ensureIndexes() {
+        long start = System.nanoTime();
+
+        ensureIndexes(CustomerDocument.class, mongoOperations.getCollectionName(CustomerDocument.class));
+        for (String collection : layout.allCollections()) {
+            if (layout.indexesNewCollections() && !mongoOperations.collectionExists(collection)) {
+                continue;
+            }
+            ensureIndexes(BillDocument.class, collection);
+            dropRetiredIndexes(collection);
+        }
+
+        logger.info("MongoDB indexes verified in {} ms", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void ensureIndexes(Class<?> documentType, String collection) {
+        IndexOperations indexOps = mongoOperations.indexOps(collection);
+        indexResolver.resolveIndexFor(documentType).forEach(index -> {
+            try {
+                indexOps.ensureIndex(index);
+            } catch (DataAccessException e) {
+                if (!isOptionsConflict(e)) {
+                    throw e;
+                }
+                // Same keys, other options set on purpose (e.g. the TTL the bill retention adds)
+                logger.info("Keeping existing index {} on {}: {}", index.getIndexKeys(), collection,
+                        e.getMostSpecificCause().getMessage());
+            }
+        });
+    }
+
+    private void dropRetiredIndexes(String collection) {
+        IndexOperations indexOps = mongoOperations.indexOps(collection);
+        indexOps.getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .filter(RETIRED_BILL_INDEXES::contains)
+                .forEach(name -> {
+                    indexOps.dropIndex(name);
+                    logger.info("Dropped retired index {} on {}", name, collection);
+                });
+    }
+
+    private static boolean isOptionsConflict(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoException mongoException) {
+                int code = mongoException.getCode();
+                return code == INDEX_OPTIONS_CONFLICT || code == INDEX_KEY_SPECS_CONFLICT;
+            }
+        }
+        return false;
+    }
+}
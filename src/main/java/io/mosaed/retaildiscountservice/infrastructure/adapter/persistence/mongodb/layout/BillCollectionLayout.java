@@ -0,0 +1,53 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Decides which MongoDB collection(s) hold bills.
+ *
+ * The repository adapter never hardcodes a collection name. It asks the layout
+ * where a bill should be written and which collections a query must visit, so
+ * the physical layout (one flat collection or time buckets) can change without
+ * touching the query code.
+ */
+public interface BillCollectionLayout {
+
+    /**
+     * Collection a bill created at the given time is written to
+     */
+    String collectionFor(LocalDateTime createdAt);
+
+    /**
+     * Collections that may contain bills created within the range, newest first
+     */
+    List<String> collectionsFor(LocalDateTime from, LocalDateTime to);
+
+    /**
+     * Every collection that may contain bills, newest first
+     */
+    List<String> allCollections();
+
+    /**
+     * Whether the layout creates each collection with its indexes before the
+     * first write. Collections that do not exist yet then need no indexes
+     * from anyone else.
+     */
+    default boolean indexesNewCollections() {
+        return false;
+    }
+
+    /**
+     * Drop whole collections holding only bills created before the given month.
+     * Layouts that cannot drop data in bulk return an empty list.
+     *
+     * @return names of the dropped collections
+     */
+    List<String> dropCollectionsBefore(YearMonth cutoff);
+}
@@ -0,0 +1,41 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Default layout: every bill lives in the single "bills" collection.
+ */
+public class FlatBillCollectionLayout implements BillCollectionLayout {
+
+    public static final String COLLECTION = "bills";
+
+    private static final List<String> COLLECTIONS = List.of(COLLECTION);
+
+    @Override
+    public String collectionFor(LocalDateTime createdAt) {
+        return COLLECTION;
+    }
+
+    @Override
+    public List<String> collectionsFor(LocalDateTime from, LocalDateTime to) {
+        return COLLECTIONS;
+    }
+
+    @Override
+    public List<String> allCollections() {
+        return COLLECTIONS;
+    }
+
+    @Override
+    public List<String> dropCollectionsBefore(YearMonth cutoff) {
+        // A single collection can only be trimmed document by document
+        return List.of();
+    }
+}
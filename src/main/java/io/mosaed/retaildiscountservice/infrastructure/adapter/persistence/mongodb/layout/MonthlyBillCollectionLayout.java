@@ -0,0 +1,159 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Time-bucketed layout: one collection per calendar month of created_at,
+ * named bills_yyyy_MM (for example bills_2024_01).
+ *
+ * Range queries only visit the months they overlap, each bucket carries its own
+ * small indexes, and retiring a month is a single dropCollection instead of
+ * millions of individual deletes.
+ */
+public class MonthlyBillCollectionLayout implements BillCollectionLayout {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonthlyBillCollectionLayout.class);
+
+    static final String PREFIX = "bills_";
+    private static final DateTimeFormatter BUCKET_FORMAT = DateTimeFormatter.ofPattern("uuuu_MM");
+
+    private final MongoOperations mongoOperations;
+    private final IndexResolver indexResolver;
+
+    // Buckets known to exist with their indexes in place
+    private final ConcurrentSkipListSet<YearMonth> buckets = new ConcurrentSkipListSet<>();
+
+    public MonthlyBillCollectionLayout(MongoOperations mongoOperations, IndexResolver indexResolver) {
+        this.mongoOperations = mongoOperations;
+        this.indexResolver = indexResolver;
+        this.buckets.addAll(existingBuckets());
+    }
+
+    @Override
+    public String collectionFor(LocalDateTime createdAt) {
+        YearMonth month = YearMonth.from(createdAt);
+        if (!buckets.contains(month)) {
+            ensureBucket(month);
+        }
+        return nameOf(month);
+    }
+
+    @Override
+    public List<String> collectionsFor(LocalDateTime from, LocalDateTime to) {
+        // Clamp the requested range to the months that can hold data, so an
+        // open-ended range does not enumerate centuries of empty buckets
+        YearMonth first = max(YearMonth.from(from), oldestPossibleBucket());
+        YearMonth last = min(YearMonth.from(to), newestPossibleBucket());
+        return monthsNewestFirst(first, last);
+    }
+
+    @Override
+    public List<String> allCollections() {
+        return monthsNewestFirst(oldestPossibleBucket(), newestPossibleBucket());
+    }
+
+    @Override
+    public boolean indexesNewCollections() {
+        return true; // see ensureBucket
+    }
+
+    @Override
+    public synchronized List<String> dropCollectionsBefore(YearMonth cutoff) {
+        // Re-read from the server so buckets written by other instances are included
+        buckets.addAll(existingBuckets());
+
+        List<String> dropped = new ArrayList<>();
+        for (YearMonth month : buckets.headSet(cutoff)) {
+            String name = nameOf(month);
+            mongoOperations.dropCollection(name);
+            buckets.remove(month);
+            dropped.add(name);
+            logger.info("Dropped bill bucket {}", name);
+        }
+        return dropped;
+    }
+
+    private synchronized void ensureBucket(YearMonth month) {
+        if (buckets.contains(month)) {
+            return;
+        }
+
+        // createIndexes creates the collection implicitly and is idempotent,
+        // so concurrent instances racing on a new month are harmless
+        String name = nameOf(month);
+        IndexOperations indexOps = mongoOperations.indexOps(name);
+        indexResolver.resolveIndexFor(BillDocument.class).forEach(indexOps::ensureIndex);
+
+        buckets.add(month);
+        logger.info("Created bill bucket {}", name);
+    }
+
+    /**
+     * Another instance may already be writing to the current month before this
+     * one has seen the bucket, so the current month is always considered, even
+     * before any bucket exists.
+     */
+    private YearMonth newestPossibleBucket() {
+        // Iterators, not last(): a concurrent drop may empty the set in between
+        Iterator<YearMonth> newest = buckets.descendingIterator();
+        return newest.hasNext() ? max(newest.next(), YearMonth.now()) : YearMonth.now();
+    }
+
+    private YearMonth oldestPossibleBucket() {
+        Iterator<YearMonth> oldest = buckets.iterator();
+        return oldest.hasNext() ? min(oldest.next(), YearMonth.now()) : YearMonth.now();
+    }
+
+    private List<YearMonth> existingBuckets() {
+        List<YearMonth> existing = new ArrayList<>();
+        for (String name : mongoOperations.getCollectionNames()) {
+            if (name.startsWith(PREFIX)) {
+                try {
+                    existing.add(YearMonth.parse(name.substring(PREFIX.length()), BUCKET_FORMAT));
+                } catch (DateTimeParseException e) {
+                    // Not a bucket, e.g. a manually created collection
+                }
+            }
+        }
+        return existing;
+    }
+
+    private static List<String> monthsNewestFirst(YearMonth first, YearMonth last) {
+        List<String> names = new ArrayList<>();
+        for (YearMonth month = last; !month.isBefore(first); month = month.minusMonths(1)) {
+            names.add(nameOf(month));
+        }
+        return names;
+    }
+
+    static String nameOf(YearMonth month) {
+        return PREFIX + month.format(BUCKET_FORMAT);
+    }
+
+    private static YearMonth max(YearMonth a, YearMonth b) {
+        return a.isAfter(b) ? a : b;
+    }
+
+    private static YearMonth min(YearMonth a, YearMonth b) {
+        return a.isBefore(b) ? a : b;
+    }
+}
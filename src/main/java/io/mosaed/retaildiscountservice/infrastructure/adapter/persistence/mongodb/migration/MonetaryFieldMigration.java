@@ -0,0 +1,156 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.migration;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.BillCollectionLayout;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.mongodb.client.model.Filters.in;
+
+/**
+ * Online migration of bill amounts from strings to Decimal128.
+ *
+ * Runs in the background after startup while the application keeps serving:
+ * bills still holding string amounts are converted in small batches with a
+ * server-side pipeline update, so no document travels through the
+ * application. Reads do not depend on it, because the mapping layer reads
+ * both forms. Once every bill is converted a run is a single empty query.
+ */
+public class MonetaryFieldMigration {
+
+    private static final Logger logger = LoggerFactory.getLogger(MonetaryFieldMigration.class);
+
+    private static final List<String> AMOUNT_FIELDS = List.of(
+            "total_amount", "percentage_discount", "bill_based_discount", "total_discount", "net_payable");
+
+    private final MongoOperations mongoOperations;
+    private final BillCollectionLayout layout;
+    private final int batchSize;
+    private final Duration pause;
+
+    public MonetaryFieldMigration(
+            MongoOperations mongoOperations,
+            BillCollectionLayout layout,
+            int batchSize,
+            Duration pause) {
+        this.mongoOperations = mongoOperations;
+        this.layout = layout;
+        this.batchSize = batchSize;
+        this.pause = pause;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startInBackground() {
+        Thread.ofVirtual().name("monetary-field-migration").start(() -> {
+            try {
+                migrate();
+            } catch (RuntimeException e) {
+                // Harmless to stop half way; the next start continues from what is left
+                logger.error("Monetary field migration failed", e);
+            }
+        });
+    }
+
+    /**
+     * Convert every bill that still stores amounts as strings.
+     *
+     * @return number of bills converted
+     */
+    public long migrate() {
+        long converted = 0;
+        for (String collection : layout.allCollections()) {
+            converted += migrateCollection(collection);
+        }
+        if (converted > 0) {
+            logger.info("Converted amounts of {} bills to Decimal128", converted);
+        }
+        return converted;
+    }
+
+    private long migrateCollection(String collection) {
+        long converted = 0;
+        while (true) {
+            // Step 1: Pick the next batch of unconverted bills (ids only)
+            List<Object> ids = new ArrayList<>();
+            mongoOperations.getCollection(collection)
+                    .find(legacyFilter())
+                    .projection(new Document("_id", 1))
+                    .limit(batchSize)
+                    .forEach(document -> ids.add(document.get("_id")));
+            if (ids.isEmpty()) {
+                return converted;
+            }
+
+            // Step 2: Convert their string amounts on the server
+            converted += mongoOperations.getCollection(collection)
+                    .updateMany(in("_id", ids), conversionPipeline())
+                    .getModifiedCount();
+
+            // Step 3: Give foreground traffic room before the next batch
+            if (!pause.isZero()) {
+                try {
+                    Thread.sleep(pause);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return converted;
+                }
+            }
+        }
+    }
+
+    /**
+     * Bills with at least one amount still stored as a string
+     */
+    static Document legacyFilter() {
+        List<Document> conditions = new ArrayList<>();
+        for (String field : AMOUNT_FIELDS) {
+            conditions.add(new Document(field, new Document("$type", "string")));
+        }
+        conditions.add(new Document("items.unit_price", new Document("$type", "string")));
+        return new Document("$or", conditions);
+    }
+
+    /**
+     * Converts the string amounts only; amounts that are missing or already
+     * converted keep their value, so no field is ever set to null.
+     */
+    static List<Bson> conversionPipeline() {
+        Document set = new Document();
+        for (String field : AMOUNT_FIELDS) {
+            set.append(field, toDecimalIfString("$" + field));
+        }
+        set.append("items", new Document("$cond", List.of(
+                new Document("$isArray", "$items"),
+                new Document("$map", new Document()
+                        .append("input", "$items")
+                        .append("as", "item")
+                        .append("in", new Document("$mergeObjects", List.of(
+                                "$$item",
+                                new Document("unit_price", toDecimalIfString("$$item.unit_price")))))),
+                "$items")));
+        return List.of(new Document("$set", set));
+    }
+
+    /**
+     * A missing field evaluates to missing in the else branch, which $set leaves out
+     */
+    private static Document toDecimalIfString(String field) {
+        return new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$type", field), "string")),
+                new Document("$toDecimal", field),
+                field));
+    }
+}
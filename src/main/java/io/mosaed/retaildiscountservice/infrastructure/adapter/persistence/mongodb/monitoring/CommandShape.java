@@ -0,0 +1,94 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.monitoring;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shape of a command with its values redacted, for logs.
+ *
+ * Field names and operators are kept, every value is replaced by "?", so two
+ * queries differing only in their values (customer ids, amounts, dates) have
+ * the same shape. Sort, projection, hint and the top-level numeric options
+ * (limit, batchSize, ...) are kept as they are: they describe the query, not
+ * the data. Arrays keep their first element and the number of others.
+ */
+public final class CommandShape {
+
+    private static final BsonString REDACTED = new BsonString("?");
+
+    // Driver and session plumbing, not part of the query
+    private static final Set<String> IGNORED = Set.of(
+            "$db", "lsid", "$clusterTime", "$readPreference", "txnNumber", "autocommit",
+            "startTransaction", "apiVersion", "apiStrict", "apiDeprecationErrors", "readConcern", "writeConcern");
+
+    // Structure of the query rather than data: kept verbatim at any depth
+    private static final Set<String> STRUCTURAL = Set.of(
+            "sort", "projection", "hint", "$sort", "$project", "$limit", "$skip");
+
+    private CommandShape() {
+    }
+
+    public static BsonDocument of(BsonDocument command) {
+        BsonDocument shape = new BsonDocument();
+        boolean first = true;
+        for (Map.Entry<String, BsonValue> entry : command.entrySet()) {
+            String key = entry.getKey();
+            BsonValue value = entry.getValue();
+            if (IGNORED.contains(key)) {
+                continue;
+            }
+            if (first || STRUCTURAL.contains(key) || !(value.isDocument() || value.isArray())) {
+                // The command name with its collection, and scalar options such as limit
+                shape.put(key, value);
+            } else {
+                shape.put(key, redact(value));
+            }
+            first = false;
+        }
+        return shape;
+    }
+
+    /**
+     * Command without the driver and session fields, suitable for wrapping in an explain
+     */
+    public static BsonDocument withoutDriverFields(BsonDocument command) {
+        BsonDocument copy = new BsonDocument();
+        command.forEach((key, value) -> {
+            if (!IGNORED.contains(key)) {
+                copy.put(key, value);
+            }
+        });
+        return copy;
+    }
+
+    private static BsonValue redact(BsonValue value) {
+        if (value.isDocument()) {
+            BsonDocument redacted = new BsonDocument();
+            value.asDocument().forEach((key, nested) ->
+                    redacted.put(key, STRUCTURAL.contains(key) ? nested : redact(nested)));
+            return redacted;
+        }
+        if (value.isArray()) {
+            BsonArray array = value.asArray();
+            BsonArray redacted = new BsonArray();
+            if (!array.isEmpty()) {
+                redacted.add(redact(array.get(0)));
+            }
+            if (array.size() > 1) {
+                redacted.add(new BsonString("... " + (array.size() - 1) + " more"));
+            }
+            return redacted;
+        }
+        return REDACTED;
+    }
+}
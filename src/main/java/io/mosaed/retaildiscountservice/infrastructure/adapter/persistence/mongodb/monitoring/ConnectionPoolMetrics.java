@@ -0,0 +1,110 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.monitoring;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionPoolClosedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Connection pool wait and saturation, per server.
+ *
+ * Complements Spring Boot's MongoMetricsConnectionPoolListener (pool size,
+ * checked out, wait queue) with what tells a saturated pool apart from a
+ * slow database:
+ * - mongodb.driver.pool.checkout.wait: time from asking for a connection to
+ *   getting one (histogram), including checkouts that fail
+ * - mongodb.driver.pool.checkout.failed: failed checkouts by reason (timeout, ...)
+ * - mongodb.driver.pool.saturation: checked out connections / max pool size
+ */
+public class ConnectionPoolMetrics implements ConnectionPoolListener {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<ServerId, Pool> pools = new ConcurrentHashMap<>();
+
+    public ConnectionPoolMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        ServerId serverId = event.getServerId();
+        Tags tags = Tags.of("server.address", serverId.getAddress().toString());
+        int maxSize = event.getSettings().getMaxSize();
+
+        AtomicInteger checkedOut = new AtomicInteger();
+        Timer checkoutWait = Timer.builder("mongodb.driver.pool.checkout.wait")
+                .description("Time waited for a connection from the pool")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge saturation = Gauge.builder("mongodb.driver.pool.saturation", checkedOut,
+                        current -> maxSize == 0 ? 0.0 : (double) current.get() / maxSize)
+                .description("Share of the pool's maximum size checked out")
+                .tags(tags)
+                .register(meterRegistry);
+
+        pools.put(serverId, new Pool(tags, checkedOut, checkoutWait, List.of(checkoutWait, saturation)));
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        Pool pool = pools.get(event.getConnectionId().getServerId());
+        if (pool != null) {
+            pool.checkedOut().incrementAndGet();
+            pool.checkoutWait().record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        Pool pool = pools.get(event.getServerId());
+        if (pool != null) {
+            pool.checkoutWait().record(event.getElapsedTime(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+            Counter.builder("mongodb.driver.pool.checkout.failed")
+                    .description("Connection checkouts that failed")
+                    .tags(pool.tags())
+                    .tag("reason", event.getReason().name().toLowerCase())
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        Pool pool = pools.get(event.getConnectionId().getServerId());
+        if (pool != null) {
+            pool.checkedOut().decrementAndGet();
+        }
+    }
+
+    @Override
+    public void connectionPoolClosed(ConnectionPoolClosedEvent event) {
+        Pool pool = pools.remove(event.getServerId());
+        if (pool != null) {
+            pool.meters().forEach(meterRegistry::remove);
+        }
+    }
+
+    private record Pool(Tags tags, AtomicInteger checkedOut, Timer checkoutWait, List<Meter> meters) {
+    }
+}
@@ -0,0 +1,82 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.monitoring;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * One-line summary of the winning plan in an explain result, outermost
+ * stage first: "LIMIT > FETCH > IXSCAN customer_created_idx".
+ *
+ * Handles the classic and the slot-based (queryPlan) formats, and plans
+ * nested in aggregation stages.
+ */
+public final class PlanSummary {
+
+    private static final BsonString UNKNOWN_STAGE = new BsonString("?");
+
+    private PlanSummary() {
+    }
+
+    public static String of(BsonDocument explainResult) {
+        return findWinningPlan(explainResult)
+                .map(PlanSummary::describe)
+                .orElse("no plan (command does not use a query plan)");
+    }
+
+    private static Optional<BsonDocument> findWinningPlan(BsonDocument document) {
+        BsonValue winningPlan = document.get("winningPlan");
+        if (winningPlan != null && winningPlan.isDocument()) {
+            BsonDocument plan = winningPlan.asDocument();
+            // Slot-based engine (MongoDB 7+) nests the classic tree under queryPlan
+            return Optional.of(plan.isDocument("queryPlan") ? plan.getDocument("queryPlan") : plan);
+        }
+
+        // Depth first: queryPlanner, $cursor stages, shards
+        for (BsonValue value : document.values()) {
+            Optional<BsonDocument> found = Optional.empty();
+            if (value.isDocument()) {
+                found = findWinningPlan(value.asDocument());
+            } else if (value.isArray()) {
+                for (BsonValue element : value.asArray()) {
+                    if (element.isDocument() && (found = findWinningPlan(element.asDocument())).isPresent()) {
+                        break;
+                    }
+                }
+            }
+            if (found.isPresent()) {
+                return found;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static String describe(BsonDocument stage) {
+        StringBuilder summary = new StringBuilder(stage.getString("stage", UNKNOWN_STAGE).getValue());
+        if (stage.isString("indexName")) {
+            summary.append(' ').append(stage.getString("indexName").getValue());
+        }
+
+        if (stage.isDocument("inputStage")) {
+            summary.append(" > ").append(describe(stage.getDocument("inputStage")));
+        } else if (stage.isArray("inputStages")) {
+            List<String> branches = new ArrayList<>();
+            stage.getArray("inputStages").forEach(input -> {
+                if (input.isDocument()) {
+                    branches.add(describe(input.asDocument()));
+                }
+            });
+            summary.append(" > (").append(String.join(" | ", branches)).append(')');
+        }
+        return summary.toString();
+    }
+}
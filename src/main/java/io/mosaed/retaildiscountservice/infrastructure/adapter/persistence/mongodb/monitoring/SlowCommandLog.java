@@ -0,0 +1,167 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.monitoring;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.TokenBucket;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Driver-level log of MongoDB commands slower than a threshold.
+ *
+ * Every slow command is counted (mongodb.driver.commands.slow, by command and
+ * collection); log lines are rate limited so a slow database cannot flood the
+ * log. A logged line carries the redacted shape of the command (see
+ * CommandShape) and, for queries, a summary of the plan MongoDB chose, taken
+ * from an explain run in the background after the fact.
+ *
+ * The driver only lends the command document to listeners for the duration
+ * of the callback, so a query has to be copied when it starts to be
+ * explained later, before anyone knows whether it will be slow. Only a
+ * sample of the queries (explainSampleRate) is copied; the others are
+ * logged without shape and plan. Latency histograms for every command come from Spring Boot's
+ * MongoMetricsCommandListener (mongodb.driver.commands).
+ */
+public class SlowCommandLog implements CommandListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(SlowCommandLog.class);
+
+    // Commands MongoDB can explain without executing them (queryPlanner verbosity)
+    private static final Set<String> EXPLAINABLE = Set.of(
+            "find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+
+    private final long thresholdNanos;
+    private final TokenBucket logRate;
+    private final double explainSampleRate;
+    private final Supplier<MongoClient> mongoClient;
+    private final MeterRegistry meterRegistry;
+    private final Counter unlogged;
+
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * @param explainSampleRate fraction of the explainable commands copied so
+     *                          they can be explained if slow, 0 for none
+     */
+    public SlowCommandLog(
+            Duration threshold,
+            TokenBucket logRate,
+            double explainSampleRate,
+            Supplier<MongoClient> mongoClient,
+            MeterRegistry meterRegistry) {
+        this.thresholdNanos = threshold.toNanos();
+        this.logRate = logRate;
+        this.explainSampleRate = explainSampleRate;
+        this.mongoClient = mongoClient;
+        this.meterRegistry = meterRegistry;
+        this.unlogged = Counter.builder("mongodb.driver.commands.slow.unlogged")
+                .description("Slow commands counted but left out of the log by its rate limit")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String commandName = event.getCommandName();
+        if ("explain".equals(commandName)) {
+            return; // our own explains
+        }
+        BsonDocument command = event.getCommand();
+        // Decide before copying: most commands are fast and the copy would be wasted
+        BsonDocument copy = sampledForExplain(commandName)
+                ? CommandShape.withoutDriverFields(command).clone()
+                : null;
+        inFlight.put(event.getRequestId(), new Started(collectionOf(commandName, command), copy));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getDatabaseName(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS), "success");
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        completed(event.getRequestId(), event.getCommandName(), event.getDatabaseName(),
+                event.getElapsedTime(TimeUnit.NANOSECONDS), "failed: " + event.getThrowable().getClass().getSimpleName());
+    }
+
+    private void completed(int requestId, String commandName, String database, long elapsedNanos, String status) {
+        Started started = inFlight.remove(requestId);
+        if (started == null || elapsedNanos < thresholdNanos) {
+            return;
+        }
+
+        Counter.builder("mongodb.driver.commands.slow")
+                .description("Commands slower than the slow-command threshold")
+                .tag("command", commandName)
+                .tag("collection", started.collection())
+                .register(meterRegistry)
+                .increment();
+
+        if (logRate.tryAcquire() != 0) {
+            unlogged.increment();
+            return;
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        if (started.command() == null) {
+            logger.warn("Slow MongoDB command {} on {}: {} ms ({})",
+                    commandName, started.collection(), elapsedMillis, status);
+            return;
+        }
+
+        // Explaining costs a round trip: do it off the caller's thread, only for logged commands
+        BsonDocument shape = CommandShape.of(started.command());
+        Thread.ofVirtual().name("mongo-slow-command-explain").start(() ->
+                logger.warn("Slow MongoDB command {} on {}: {} ms ({}), shape {}, plan {}",
+                        commandName, started.collection(), elapsedMillis, status,
+                        shape.toJson(), explain(database, started.command())));
+    }
+
+    private boolean sampledForExplain(String commandName) {
+        return explainSampleRate > 0
+                && EXPLAINABLE.contains(commandName)
+                && (explainSampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < explainSampleRate);
+    }
+
+    String explain(String database, BsonDocument command) {
+        try {
+            BsonDocument result = mongoClient.get().getDatabase(database).runCommand(
+                    new BsonDocument("explain", command).append("verbosity", new BsonString("queryPlanner")),
+                    BsonDocument.class);
+            return PlanSummary.of(result);
+        } catch (RuntimeException e) {
+            return "unavailable (" + e.getMessage() + ")";
+        }
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command) {
+        // getMore names its collection separately; the command value is the cursor id
+        BsonValue value = command.get("getMore".equals(commandName) ? "collection" : commandName);
+        return value != null && value.isString() ? value.asString().getValue() : "none";
+    }
+
+    private record Started(String collection, BsonDocument command) {
+    }
+}
@@ -9,51 +9,118 @@ import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
 import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
 import io.mosaed.retaildiscountservice.domain.model.Bill;
 import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.TimeOrderedBillIdGenerator;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive.BillArchive;
 import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.BillCollectionLayout;
 import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.mapper.PersistenceMapper;
-import org.springframework.data.domain.PageRequest;
+import io.mosaed.retaildiscountservice.infrastructure.deadline.RequestDeadlines;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Sort;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Repository;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * MongoDB implementation of the BillRepository output port.
+ *
+ * Bills may be spread over several collections (see BillCollectionLayout), so
+ * queries go through MongoOperations with an explicit collection name instead
+ * of a Spring Data repository bound to a single collection.
+ *
+ * When the cold-tier BillArchive is enabled, lookups by id and per-customer
+ * queries also consult the archive; the most recent bills never leave MongoDB.
+ *
+ * When a RecentBillsBuffer is configured, findRecentBills is answered from
+ * memory whenever the buffer can, instead of a sorted query.
+ *
+ * Lookups by id start with the collection owning the creation time encoded
+ * in a time-ordered id, so a bill is found in one round trip whatever the
+ * layout. Ids of another format, and ids that exist nowhere, still visit
+ * every collection of the layout: one round trip per month under the
+ * monthly layout.
+ *
+ * Reads run with maxTimeMS set to the time the current request has left
+ * (see RequestDeadlines), and nothing more is sent once it has passed.
+ */
 @Repository
+@Qualifier("billStore")
+@ConditionalOnProperty(name = "application.persistence.store", havingValue = "mongo", matchIfMissing = true)
 public class MongoBillRepository implements BillRepository {
 
-    private final SpringBillRepository springRepository;
+    private static final Logger logger = LoggerFactory.getLogger(MongoBillRepository.class);
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "createdAt");
+    private static final Comparator<BillDocument> NEWEST_DOCUMENT_FIRST =
+            Comparator.comparing(BillDocument::getCreatedAt).reversed();
+
+    // Leeway between the time in a bill id and its createdAt around a month boundary
+    private static final Duration ID_TIME_SKEW = Duration.ofMinutes(1);
+
+    private final MongoOperations mongoOperations;
+    private final BillCollectionLayout layout;
     private final CustomerRepository customerRepository;
 
+    // Null unless application.archive.enabled=true
+    private final BillArchive archive;
+
+    // Null when application.persistence.recent-bills.capacity is 0
+    private final RecentBillsBuffer recentBills;
+
+    // Null outside the full application context (slice tests)
+    private final RequestDeadlines deadlines;
+
     public MongoBillRepository(
-            SpringBillRepository springRepository,
-            CustomerRepository customerRepository) {
-        this.springRepository = springRepository;
+            MongoOperations mongoOperations,
+            BillCollectionLayout layout,
+            CustomerRepository customerRepository,
+            ObjectProvider<BillArchive> archive,
+            ObjectProvider<RecentBillsBuffer> recentBills,
+            ObjectProvider<RequestDeadlines> deadlines) {
+        this.mongoOperations = mongoOperations;
+        this.layout = layout;
         this.customerRepository = customerRepository;
+        this.archive = archive.getIfAvailable();
+        this.recentBills = recentBills.getIfAvailable();
+        this.deadlines = deadlines.getIfAvailable();
     }
 
     @Override
     public Bill save(Bill bill) {
-        // Convert to document and save
+        // Convert to document and save into the collection owning its creation time
         BillDocument document = PersistenceMapper.toDocument(bill);
-        BillDocument saved = springRepository.save(document);
-
-        // Load the customer to reconstruct the domain Bill
-        // This should always succeed because the Bill already has a Customer
-        Customer customer = customerRepository.findById(saved.getCustomerId())
-                .orElseThrow(() -> new IllegalStateException(
-                        "Customer not found for saved bill: " + saved.getCustomerId()
-                ));
+        BillDocument saved = mongoOperations.save(document, layout.collectionFor(document.getCreatedAt()));
+        if (recentBills != null) {
+            recentBills.add(saved);
+        }
 
-        // Reconstruct the domain Bill with the customer
-        return PersistenceMapper.toDomain(saved, customer);
+        // No need to load the customer again: the bill already carries it
+        return PersistenceMapper.toDomain(saved, bill.getCustomer());
     }
 
     @Override
     public Optional<Bill> findById(String billId) {
-        return springRepository.findById(billId)
+        return findDocumentById(billId)
                 .flatMap(document -> {
                     // Load the associated customer
                     Optional<Customer> customerOpt =
@@ -72,76 +139,190 @@ public class MongoBillRepository implements BillRepository {
                 });
     }
 
+    /**
+     * Only deletes from MongoDB; archived segments are immutable.
+     */
     @Override
     public boolean deleteById(String billId) {
-        if (springRepository.existsById(billId)) {
-            springRepository.deleteById(billId);
-            return true;
+        for (String collection : collectionsById(billId)) {
+            checkDeadline("bills.delete");
+            if (mongoOperations.remove(byId(billId), BillDocument.class, collection).getDeletedCount() > 0) {
+                if (recentBills != null) {
+                    recentBills.remove(billId);
+                }
+                return true;
+            }
         }
         return false;
     }
 
     @Override
     public boolean existsById(String billId) {
-        return springRepository.existsById(billId);
+        for (String collection : collectionsById(billId)) {
+            if (bounded("bills.exists", byId(billId), query -> mongoOperations.exists(query, BillDocument.class, collection))) {
+                return true;
+            }
+        }
+        return archive != null && archive.findById(billId).isPresent();
     }
 
     @Override
     public List<Bill> findByCustomerId(String customerId) {
-        List<BillDocument> documents = springRepository.findByCustomerId(customerId);
-        return convertDocumentsToBills(documents);
+        Query query = new Query(where("customerId").is(customerId)).with(NEWEST_FIRST);
+        List<BillDocument> documents = findInAll(query, layout.allCollections());
+        return convertDocumentsToBills(withArchived(documents, customerId, null, null));
     }
 
     @Override
     public List<Bill> findByCustomerIdAndDateRange(String customerId, LocalDateTime from, LocalDateTime to) {
-        List<BillDocument> documents = springRepository.findByCustomerIdAndCreatedAtBetween(
-                customerId, from, to);
-        return convertDocumentsToBills(documents);
+        // Bounds are exclusive, matching the derived "CreatedAtBetween" query this replaced
+        Query query = new Query(where("customerId").is(customerId).and("createdAt").gt(from).lt(to))
+                .with(NEWEST_FIRST);
+        List<BillDocument> documents = findInAll(query, layout.collectionsFor(from, to));
+        return convertDocumentsToBills(withArchived(documents, customerId, from, to));
     }
 
     @Override
     public List<Bill> findRecentBills(int limit) {
-        PageRequest pageRequest = PageRequest.of(0, limit, Sort.by(Sort.Direction.DESC, "createdAt"));
-        List<BillDocument> documents = springRepository.findAll(pageRequest).getContent();
+        if (limit <= 0) {
+            return List.of(); // Mongo treats a zero limit as "no limit"
+        }
+
+        List<BillDocument> documents = recentBills == null
+                ? findRecentDocuments(limit)
+                : recentBills.newest(limit).orElseGet(() -> findRecentDocuments(limit));
         return convertDocumentsToBills(documents);
     }
 
     /**
-     * Helper method to convert a list of BillDocuments to Bills.
-     * Handles customer lookup for each bill.
+     * Reload the recent-bills buffer from MongoDB: first at startup, then
+     * periodically to pick up bills saved by other instances.
      */
-    private List<Bill> convertDocumentsToBills(List<BillDocument> documents) {
-        return documents.stream()
-                .map(document -> {
-                    // Load the customer for this bill
-                    Optional<Customer> customerOpt = customerRepository.findById(document.getCustomerId());
+    @Scheduled(
+            initialDelay = 0,
+            fixedDelayString = "${application.persistence.recent-bills.resync-interval:PT1M}")
+    public void refreshRecentBills() {
+        if (recentBills == null) {
+            return;
+        }
+        try {
+            recentBills.reset(findRecentDocuments(recentBills.capacity()));
+        } catch (DataAccessException e) {
+            // Until the next attempt succeeds findRecentBills keeps using MongoDB
+            logger.warn("Could not refresh recent bills: {}", e.getMessage());
+        }
+    }
 
-                    // Skip bills with missing customers (data integrity issue)
-                    if (customerOpt.isEmpty()) {
-                        return null;
-                    }
+    private List<BillDocument> findRecentDocuments(int limit) {
+        // Collections are ordered newest first, so stop as soon as the limit is reached
+        List<BillDocument> documents = new ArrayList<>();
+        for (String collection : layout.allCollections()) {
+            Query query = new Query().with(NEWEST_FIRST).limit(limit - documents.size());
+            documents.addAll(bounded("bills.findRecent", query,
+                    bounded -> mongoOperations.find(bounded, BillDocument.class, collection)));
+            if (documents.size() >= limit) {
+                break;
+            }
+        }
+        return documents;
+    }
 
-                    return PersistenceMapper.toDomain(document, customerOpt.get());
-                })
-                .filter(bill -> bill != null) // Filter out nulls from missing customers
-                .collect(Collectors.toList());
+    private Optional<BillDocument> findDocumentById(String billId) {
+        for (String collection : collectionsById(billId)) {
+            BillDocument document = bounded("bills.findById", byId(billId),
+                    query -> mongoOperations.findOne(query, BillDocument.class, collection));
+            if (document != null) {
+                return Optional.of(document);
+            }
+        }
+        return archive != null ? archive.findById(billId) : Optional.empty();
     }
-}
 
-interface SpringBillRepository extends MongoRepository<BillDocument, String> {
-    // All standard CRUD methods are auto-implemented by Spring Data
+    /**
+     * Collections that may hold the bill, in the order to visit them: the
+     * month encoded in a time-ordered id first, then every other one.
+     */
+    private List<String> collectionsById(String billId) {
+        List<String> all = layout.allCollections();
+        if (all.size() <= 1) {
+            return all;
+        }
+        return TimeOrderedBillIdGenerator.timestampOf(billId)
+                .map(instant -> LocalDateTime.ofInstant(instant, ZoneId.systemDefault()))
+                .map(createdAt -> {
+                    List<String> ordered = new ArrayList<>(
+                            layout.collectionsFor(createdAt.minus(ID_TIME_SKEW), createdAt.plus(ID_TIME_SKEW)));
+                    all.stream().filter(collection -> !ordered.contains(collection)).forEach(ordered::add);
+                    return ordered;
+                })
+                .orElse(all);
+    }
 
     /**
-     * Find all bills for a specific customer
+     * Merge archived bills of the customer into documents read from MongoDB.
+     * A bill present in both tiers (archiving interrupted by a crash) is taken
+     * from MongoDB once.
      */
-    List<BillDocument> findByCustomerId(String customerId);
+    private List<BillDocument> withArchived(
+            List<BillDocument> documents, String customerId, LocalDateTime from, LocalDateTime to) {
+        if (archive == null || archive.isEmpty()) {
+            return documents;
+        }
+
+        List<BillDocument> archived = archive.findByCustomerId(customerId, from, to);
+        if (archived.isEmpty()) {
+            return documents;
+        }
+
+        Map<String, BillDocument> merged = new LinkedHashMap<>();
+        documents.forEach(document -> merged.put(document.getBillId(), document));
+        archived.forEach(document -> merged.putIfAbsent(document.getBillId(), document));
+
+        List<BillDocument> result = new ArrayList<>(merged.values());
+        result.sort(NEWEST_DOCUMENT_FIRST);
+        return result;
+    }
+
+    private List<BillDocument> findInAll(Query query, List<String> collections) {
+        List<BillDocument> documents = new ArrayList<>();
+        for (String collection : collections) {
+            documents.addAll(bounded("bills.find", query,
+                    bounded -> mongoOperations.find(bounded, BillDocument.class, collection)));
+        }
+        return documents;
+    }
+
+    private <T> T bounded(String stage, Query query, Function<Query, T> call) {
+        return deadlines == null ? call.apply(query) : deadlines.bounded(stage, query, call);
+    }
+
+    private void checkDeadline(String stage) {
+        if (deadlines != null) {
+            deadlines.checkNotExceeded(stage);
+        }
+    }
+
+    private static Query byId(String billId) {
+        return new Query(where("billId").is(billId));
+    }
 
     /**
-     * Find bills for a customer within a date range
+     * Helper method to convert a list of BillDocuments to Bills.
+     * Handles customer lookup for each bill.
      */
-    List<BillDocument> findByCustomerIdAndCreatedAtBetween(
-            String customerId,
-            LocalDateTime from,
-            LocalDateTime to
-    );
+    private List<Bill> convertDocumentsToBills(List<BillDocument> documents) {
+        if (documents.isEmpty()) {
+            return List.of();
+        }
+
+        // Load every customer of the page in one query instead of one per bill
+        Map<String, Customer> customers = customerRepository.findAllById(documents.stream()
+                .map(BillDocument::getCustomerId)
+                .collect(Collectors.toSet()));
+
+        return documents.stream()
+                .filter(document -> customers.containsKey(document.getCustomerId())) // Skip bills with missing customers (data integrity issue)
+                .map(document -> PersistenceMapper.toDomain(document, customers.get(document.getCustomerId())))
+                .collect(Collectors.toList());
+    }
 }
@@ -9,10 +9,23 @@ import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
 import io.mosaed.retaildiscountservice.domain.model.Customer;
 import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.CustomerDocument;
 import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.mapper.PersistenceMapper;
+import io.mosaed.retaildiscountservice.infrastructure.deadline.RequestDeadlines;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 
 /**
  * MongoDB implementation of the CustomerRepository output port.
@@ -40,11 +53,20 @@ import java.util.Optional;
  * This pattern is sometimes called the "Repository Adapter" pattern or
  * "Anti-Corruption Repository" - it prevents Spring Data from leaking into
  * our clean architecture layers.
+ *
+ * Lookups go through MongoOperations instead, so they can carry the time
+ * the current request has left as maxTimeMS (see RequestDeadlines).
  */
 @Repository
+@Qualifier("customerStore")
+@ConditionalOnProperty(name = "application.persistence.store", havingValue = "mongo", matchIfMissing = true)
 public class MongoCustomerRepository implements CustomerRepository {
 
     private final SpringCustomerRepository springRepository;
+    private final MongoOperations mongoOperations;
+
+    // Null outside the full application context (slice tests)
+    private final RequestDeadlines deadlines;
 
     /**
      * Constructor injection of Spring Data repository.
@@ -54,15 +76,20 @@ public class MongoCustomerRepository implements CustomerRepository {
      * That's the "magic" of Spring Data - you just declare the interface,
      * Spring implements it for you.
      */
-    public MongoCustomerRepository(SpringCustomerRepository springRepository) {
+    public MongoCustomerRepository(
+            SpringCustomerRepository springRepository,
+            MongoOperations mongoOperations,
+            ObjectProvider<RequestDeadlines> deadlines) {
         this.springRepository = springRepository;
+        this.mongoOperations = mongoOperations;
+        this.deadlines = deadlines.getIfAvailable();
     }
 
     /**
      * Find a customer by ID.
      *
      * FLOW:
-     * 1. Ask Spring Data to find the CustomerDocument
+     * 1. Find the CustomerDocument, within the time the request has left
      * 2. If found, convert it to domain Customer using mapper
      * 3. Return Optional<Customer> to the application layer
      *
@@ -70,7 +97,9 @@ public class MongoCustomerRepository implements CustomerRepository {
      */
     @Override
     public Optional<Customer> findById(String customerId) {
-        return springRepository.findById(customerId)
+        Query query = new Query(where("_id").is(customerId));
+        return Optional.ofNullable(bounded("customers.findById", query,
+                        bounded -> mongoOperations.findOne(bounded, CustomerDocument.class)))
                 .map(PersistenceMapper::toDomain);
     }
 
@@ -107,8 +136,38 @@ public class MongoCustomerRepository implements CustomerRepository {
      */
     @Override
     public boolean existsById(String customerId) {
+        if (deadlines != null) {
+            deadlines.checkNotExceeded("customers.exists");
+        }
         return springRepository.existsById(customerId);
     }
+
+    /**
+     * Find several customers with a single {_id: {$in: [...]}} query.
+     */
+    @Override
+    public Map<String, Customer> findAllById(Collection<String> customerIds) {
+        if (customerIds.isEmpty()) {
+            return Map.of();
+        }
+        Query query = new Query(where("_id").in(customerIds));
+        return bounded("customers.findAllById", query,
+                        bounded -> mongoOperations.find(bounded, CustomerDocument.class)).stream()
+                .map(PersistenceMapper::toDomain)
+                .collect(Collectors.toMap(Customer::getCustomerId, Function.identity()));
+    }
+
+    /**
+     * Stream every customer id through a cursor, fetching only _id.
+     */
+    @Override
+    public Stream<String> streamAllIds() {
+        return springRepository.streamAllIds().map(CustomerDocument::getCustomerId);
+    }
+
+    private <T> T bounded(String stage, Query query, Function<Query, T> call) {
+        return deadlines == null ? call.apply(query) : deadlines.bounded(stage, query, call);
+    }
 }
 
 /**
@@ -143,4 +202,10 @@ interface SpringCustomerRepository extends MongoRepository<CustomerDocument, Str
     // List<CustomerDocument> findByRegistrationDateAfter(LocalDate date);
 
     // Spring Data derives the MongoDB query from the method name!
-}
\ No newline at end of file
+
+    /**
+     * Cursor over all customers, projected to _id only
+     */
+    @org.springframework.data.mongodb.repository.Query(value = "{}", fields = "{ '_id': 1 }")
+    Stream<CustomerDocument> streamAllIds();
+}
@@ -0,0 +1,172 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.repository;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded ring buffer of the most recently saved bills.
+ *
+ * Every save claims the next slot with a single atomic increment and
+ * overwrites the oldest entry; readers copy the slots without taking any
+ * lock. The buffer only answers when it can answer exactly: when at least
+ * the requested number of bills is buffered, or when it is known to hold
+ * every bill there is.
+ *
+ * Eviction follows insertion order, not creation time, so a bill saved out
+ * of order (e.g. a journaled bill replayed late with its original time) can
+ * outlive newer ones. The ring therefore remembers the newest creation time
+ * of any bill it may be missing, and only answers when every bill it returns
+ * is at least that new.
+ */
+public final class RecentBillsBuffer {
+
+    private static final Comparator<BillDocument> NEWEST_FIRST =
+            Comparator.comparing(BillDocument::getCreatedAt).reversed();
+
+    /**
+     * One generation of the buffer; replaced as a whole on reset so readers
+     * never see a half-rebuilt ring.
+     */
+    private record Ring(
+            AtomicReferenceArray<BillDocument> slots,
+            AtomicLong sequence,
+            boolean seeded,
+            boolean seededWithEverything,
+            AtomicReference<LocalDateTime> newestMissing) {
+
+        Ring(int capacity, boolean seeded, boolean seededWithEverything, LocalDateTime newestMissing) {
+            this(new AtomicReferenceArray<>(capacity), new AtomicLong(), seeded, seededWithEverything,
+                    new AtomicReference<>(newestMissing));
+        }
+
+        void missing(LocalDateTime createdAt) {
+            newestMissing.accumulateAndGet(createdAt, (a, b) -> a.isAfter(b) ? a : b);
+        }
+    }
+
+    private final int capacity;
+    private volatile Ring ring;
+
+    public RecentBillsBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ring = new Ring(capacity, false, false, LocalDateTime.MIN);
+    }
+
+    public void add(BillDocument bill) {
+        add(ring, bill);
+    }
+
+    public void remove(String billId) {
+        AtomicReferenceArray<BillDocument> slots = ring.slots();
+        for (int i = 0; i < capacity; i++) {
+            BillDocument bill = slots.get(i);
+            if (bill != null && billId.equals(bill.getBillId())) {
+                slots.compareAndSet(i, bill, null);
+            }
+        }
+    }
+
+    /**
+     * Replace the contents with the newest bills read from the database.
+     *
+     * Bills saved while that read was in flight are kept by merging in the
+     * current contents. A save landing between the merge and the swap is only
+     * missed until the next reset.
+     *
+     * @param newestFirst up to capacity bills, newest first
+     */
+    public synchronized void reset(List<BillDocument> newestFirst) {
+        Map<String, BillDocument> merged = new LinkedHashMap<>();
+        snapshot(ring).forEach(bill -> merged.put(bill.getBillId(), bill));
+        newestFirst.forEach(bill -> merged.putIfAbsent(bill.getBillId(), bill));
+
+        List<BillDocument> bills = new ArrayList<>(merged.values());
+        bills.sort(NEWEST_FIRST);
+        if (bills.size() > capacity) {
+            bills = bills.subList(0, capacity);
+        }
+
+        // Bills the read did not return are older than the oldest one it did
+        boolean everything = newestFirst.size() < capacity;
+        Ring next = new Ring(capacity, true, everything,
+                everything ? LocalDateTime.MIN : newestFirst.get(newestFirst.size() - 1).getCreatedAt());
+        // Oldest first, so the ring's eviction order follows creation time
+        for (int i = bills.size() - 1; i >= 0; i--) {
+            add(next, bills.get(i));
+        }
+        ring = next;
+    }
+
+    /**
+     * The newest bills, newest first, or empty if the buffer cannot answer
+     * exactly and the caller has to query the database.
+     */
+    public Optional<List<BillDocument>> newest(int limit) {
+        Ring current = ring;
+        if (!current.seeded() || limit > capacity) {
+            return Optional.empty();
+        }
+
+        List<BillDocument> bills = snapshot(current);
+        // Holding everything stays true until the first eviction
+        boolean complete = current.seededWithEverything() && current.sequence().get() <= capacity;
+        if (bills.size() < limit && !complete) {
+            return Optional.empty();
+        }
+
+        bills.sort(NEWEST_FIRST);
+        List<BillDocument> newest = bills.size() > limit ? List.copyOf(bills.subList(0, limit)) : bills;
+
+        // A bill saved out of order may have outlived a newer evicted one
+        if (!newest.isEmpty()
+                && newest.get(newest.size() - 1).getCreatedAt().isBefore(current.newestMissing().get())) {
+            return Optional.empty();
+        }
+        return Optional.of(newest);
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void add(Ring target, BillDocument bill) {
+        int slot = (int) (target.sequence().getAndIncrement() % capacity);
+        // Record the evicted bill before it disappears, so no reader sees it missing unrecorded
+        BillDocument evicted;
+        do {
+            evicted = target.slots().get(slot);
+            if (evicted != null) {
+                target.missing(evicted.getCreatedAt());
+            }
+        } while (!target.slots().compareAndSet(slot, evicted, bill));
+    }
+
+    private List<BillDocument> snapshot(Ring source) {
+        List<BillDocument> bills = new ArrayList<>(capacity);
+        for (int i = 0; i < capacity; i++) {
+            BillDocument bill = source.slots().get(i);
+            if (bill != null) {
+                bills.add(bill);
+            }
+        }
+        return bills;
+    }
+}
@@ -0,0 +1,303 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.retention;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive.BillArchive;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.BillCollectionLayout;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Keeps bills for a fixed retention period, so the bills collections and
+ * their indexes stop growing once the period is full.
+ *
+ * Two modes:
+ * - DELETE: a scheduled run removes expired bills oldest first, in chunks of
+ *   chunkSize with a pause in between and at most maxDeletesPerRun per run,
+ *   so deletes never arrive as one burst of writes. With the monthly layout
+ *   months that expired as a whole are dropped instead. With an archive,
+ *   each chunk is exported to it before it is removed.
+ * - TTL: the created_at index becomes a TTL index and MongoDB's TTL monitor
+ *   removes expired bills itself (flat layout only).
+ *
+ * Each run also measures the collections and projects their size once the
+ * retention period is full, from the bills taken over the last week.
+ */
+public class BillRetention {
+
+    private static final Logger logger = LoggerFactory.getLogger(BillRetention.class);
+
+    public enum Mode { DELETE, TTL }
+
+    static final String CREATED_AT_INDEX = "created_at";
+
+    private static final Sort OLDEST_FIRST = Sort.by(Sort.Direction.ASC, "createdAt");
+    private static final Duration RATE_WINDOW = Duration.ofDays(7);
+
+    private final MongoOperations mongoOperations;
+    private final BillCollectionLayout layout;
+    private final BillArchive archive;
+    private final Mode mode;
+    private final Duration retention;
+    private final int chunkSize;
+    private final Duration pause;
+    private final long maxDeletesPerRun;
+    private final DataSize indexBudget;
+
+    private final LongAdder deleted = new LongAdder();
+    private volatile WorkingSetEstimate current = WorkingSetEstimate.EMPTY;
+    private volatile WorkingSetEstimate expected = WorkingSetEstimate.EMPTY;
+
+    /**
+     * @param archive     where expired bills are exported before they are deleted, null for none
+     * @param indexBudget index size the expected working set should stay within, zero for no check
+     */
+    public BillRetention(
+            MongoOperations mongoOperations,
+            BillCollectionLayout layout,
+            @Nullable BillArchive archive,
+            Mode mode,
+            Duration retention,
+            int chunkSize,
+            Duration pause,
+            long maxDeletesPerRun,
+            DataSize indexBudget) {
+        if (mode == Mode.TTL && archive != null) {
+            throw new IllegalStateException("Bills expired by a TTL index cannot be exported, use the delete mode");
+        }
+        if (chunkSize <= 0 || maxDeletesPerRun <= 0) {
+            throw new IllegalArgumentException("chunkSize and maxDeletesPerRun must be positive");
+        }
+        this.mongoOperations = mongoOperations;
+        this.layout = layout;
+        this.archive = archive;
+        this.mode = mode;
+        this.retention = retention;
+        this.chunkSize = chunkSize;
+        this.pause = pause;
+        this.maxDeletesPerRun = maxDeletesPerRun;
+        this.indexBudget = indexBudget;
+    }
+
+    @Scheduled(
+            initialDelayString = "${application.persistence.retention.initial-delay:PT1M}",
+            fixedDelayString = "${application.persistence.retention.interval:PT15M}")
+    public void enforce() {
+        try {
+            if (mode == Mode.TTL) {
+                ensureTtlIndexes();
+            } else {
+                purgeBillsCreatedBefore(LocalDateTime.now().minus(retention));
+            }
+        } catch (RuntimeException e) {
+            // Keep the schedule alive; the next run picks up where this one stopped
+            logger.error("Enforcing the bill retention failed", e);
+        }
+
+        try {
+            estimateWorkingSet();
+        } catch (RuntimeException e) {
+            logger.warn("Could not estimate the bills working set", e);
+        }
+    }
+
+    /**
+     * Delete bills created before the cutoff: whole expired months, then at
+     * most maxDeletesPerRun bills one chunk at a time.
+     *
+     * @return number of bills deleted
+     */
+    public long purgeBillsCreatedBefore(LocalDateTime cutoff) {
+        // Step 1: Drop months that expired as a whole, unless each bill has to be exported
+        long dropped = archive == null ? dropExpiredMonths(YearMonth.from(cutoff)) : 0;
+
+        long purged = 0;
+
+        // Step 2: Delete what is left in chunks, oldest first
+        for (String collection : layout.collectionsFor(LocalDateTime.MIN, cutoff)) {
+            while (purged < maxDeletesPerRun) {
+                int limit = (int) Math.min(chunkSize, maxDeletesPerRun - purged);
+                List<String> ids = nextChunk(collection, cutoff, limit);
+                if (ids.isEmpty()) {
+                    break;
+                }
+
+                long removed = mongoOperations
+                        .remove(new Query(where("billId").in(ids)), BillDocument.class, collection)
+                        .getDeletedCount();
+                deleted.add(removed);
+                purged += removed;
+                if (ids.size() < limit || purged >= maxDeletesPerRun) {
+                    break;
+                }
+
+                // Step 3: Give foreground writes room before the next chunk
+                if (!pause.isZero()) {
+                    try {
+                        Thread.sleep(pause);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return dropped + purged;
+                    }
+                }
+            }
+        }
+
+        if (dropped + purged > 0) {
+            logger.info("Deleted {} bills created before {}", dropped + purged, cutoff);
+        }
+        if (purged >= maxDeletesPerRun) {
+            logger.info("Reached {} deletes for this run, the rest is deleted in the next runs", maxDeletesPerRun);
+        }
+        return dropped + purged;
+    }
+
+    /**
+     * Turn the created_at index into a TTL index expiring bills after the retention period.
+     */
+    public void ensureTtlIndexes() {
+        long seconds = retention.toSeconds();
+        for (String collection : layout.allCollections()) {
+            IndexOperations indexOps = mongoOperations.indexOps(collection);
+            Optional<IndexInfo> index = indexOps.getIndexInfo().stream()
+                    .filter(info -> CREATED_AT_INDEX.equals(info.getName()))
+                    .findFirst();
+
+            if (index.isEmpty()) {
+                indexOps.ensureIndex(new Index()
+                        .on("created_at", Sort.Direction.ASC)
+                        .named(CREATED_AT_INDEX)
+                        .expire(retention));
+                logger.info("Created TTL index {} on {} expiring bills after {}", CREATED_AT_INDEX, collection, retention);
+            } else if (!index.get().getExpireAfter().equals(Optional.of(Duration.ofSeconds(seconds)))) {
+                // Changes the index in place, without a rebuild (MongoDB 5.1+)
+                mongoOperations.executeCommand(new Document("collMod", collection)
+                        .append("index", new Document("name", CREATED_AT_INDEX)
+                                .append("expireAfterSeconds", seconds)));
+                logger.info("Index {} on {} now expires bills after {}", CREATED_AT_INDEX, collection, retention);
+            }
+        }
+    }
+
+    /**
+     * Measure the bills collections and project their size once the retention period is full.
+     */
+    public WorkingSetEstimate estimateWorkingSet() {
+        WorkingSetEstimate measured = WorkingSetEstimate.EMPTY;
+        for (String collection : layout.allCollections()) {
+            if (mongoOperations.collectionExists(collection)) {
+                measured = measured.plus(collectionStats(collection));
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime since = now.minus(RATE_WINDOW);
+        long recent = 0;
+        for (String collection : layout.collectionsFor(since, now)) {
+            recent += mongoOperations.count(new Query(where("createdAt").gte(since)), BillDocument.class, collection);
+        }
+        double billsPerDay = (double) recent / RATE_WINDOW.toDays();
+
+        current = measured;
+        expected = measured.retaining(billsPerDay, retention);
+
+        logger.info("Bills working set: {} bills, {} MB indexes now; {} bills, {} MB indexes expected at {} bills/day",
+                current.documents(), current.indexBytes() >> 20,
+                expected.documents(), expected.indexBytes() >> 20, Math.round(billsPerDay));
+        if (indexBudget.toBytes() > 0 && expected.indexBytes() > indexBudget.toBytes()) {
+            logger.warn("Expected bills index size of {} MB exceeds the budget of {} MB, shorten the retention period",
+                    expected.indexBytes() >> 20, indexBudget.toMegabytes());
+        }
+        return expected;
+    }
+
+    public WorkingSetEstimate current() {
+        return current;
+    }
+
+    public WorkingSetEstimate expected() {
+        return expected;
+    }
+
+    public long deleted() {
+        return deleted.sum();
+    }
+
+    private long dropExpiredMonths(YearMonth cutoff) {
+        // Count first: the bills of a dropped collection are deleted too
+        Map<String, Long> counts = new HashMap<>();
+        for (String collection : layout.collectionsFor(LocalDateTime.MIN, cutoff.atDay(1).atStartOfDay().minusNanos(1))) {
+            counts.put(collection, mongoOperations.estimatedCount(collection));
+        }
+
+        long dropped = 0;
+        for (String collection : layout.dropCollectionsBefore(cutoff)) {
+            dropped += counts.getOrDefault(collection, 0L);
+        }
+        deleted.add(dropped);
+        return dropped;
+    }
+
+    private List<String> nextChunk(String collection, LocalDateTime cutoff, int limit) {
+        Query query = new Query(where("createdAt").lt(cutoff))
+                .with(OLDEST_FIRST)
+                .limit(limit);
+
+        if (archive != null) {
+            // Durable in the archive before it is removed, as the archiver does
+            List<BillDocument> chunk = mongoOperations.find(query, BillDocument.class, collection);
+            archive.append(chunk);
+            return chunk.stream().map(BillDocument::getBillId).toList();
+        }
+
+        // Ids only; the created_at index finds and orders them
+        query.fields().include("billId");
+        return mongoOperations.find(query, BillDocument.class, collection).stream()
+                .map(BillDocument::getBillId)
+                .toList();
+    }
+
+    private WorkingSetEstimate collectionStats(String collection) {
+        Document stats = mongoOperations.getCollection(collection)
+                .aggregate(List.of(new Document("$collStats", new Document("storageStats", new Document()))))
+                .first();
+        if (stats == null) {
+            return WorkingSetEstimate.EMPTY;
+        }
+        Document storage = stats.get("storageStats", Document.class);
+        return new WorkingSetEstimate(
+                longValue(storage, "count"),
+                longValue(storage, "size"),
+                longValue(storage, "totalIndexSize"));
+    }
+
+    private static long longValue(Document document, String key) {
+        Object value = document.get(key);
+        return value instanceof Number number ? number.longValue() : 0;
+    }
+}
@@ -0,0 +1,45 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.retention;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.Duration;
+
+/**
+ * Size of the bills store: documents, their data and their indexes, in bytes.
+ *
+ * Used both for what the collections hold now (from $collStats) and for
+ * what they will hold once the retention policy is in steady state, i.e.
+ * the ingest rate times the retention period at today's bytes per bill.
+ */
+public record WorkingSetEstimate(long documents, long dataBytes, long indexBytes) {
+
+    public static final WorkingSetEstimate EMPTY = new WorkingSetEstimate(0, 0, 0);
+
+    private static final double SECONDS_PER_DAY = Duration.ofDays(1).toSeconds();
+
+    public WorkingSetEstimate plus(WorkingSetEstimate other) {
+        return new WorkingSetEstimate(
+                documents + other.documents,
+                dataBytes + other.dataBytes,
+                indexBytes + other.indexBytes);
+    }
+
+    /**
+     * Steady-state size when billsPerDay are kept for the retention period.
+     * Without any bill to measure, only the document count is known.
+     */
+    public WorkingSetEstimate retaining(double billsPerDay, Duration retention) {
+        long expectedDocuments = Math.round(billsPerDay * retention.toSeconds() / SECONDS_PER_DAY);
+        if (documents == 0) {
+            return new WorkingSetEstimate(expectedDocuments, 0, 0);
+        }
+        double scale = (double) expectedDocuments / documents;
+        return new WorkingSetEstimate(
+                expectedDocuments,
+                Math.round(dataBytes * scale),
+                Math.round(indexBytes * scale));
+    }
+}
@@ -11,6 +11,8 @@ import io.mosaed.retaildiscountservice.application.dto.BillItemDto;
 import io.mosaed.retaildiscountservice.application.port.in.CalculateBillUseCase;
 import io.mosaed.retaildiscountservice.application.port.in.GetBillUseCase;
 import io.mosaed.retaildiscountservice.application.port.in.ListBillsUseCase;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane.TrafficClass;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane.TrafficLane;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -78,6 +80,12 @@ public class BillController {
                     description = "Bill created successfully",
                     content = @Content(schema = @Schema(implementation = BillCalculationResponse.class))
             ),
+            @ApiResponse(
+                    responseCode = "202",
+                    description = "Store unavailable: discounts calculated, the bill (persisted=false) " +
+                            "is saved once the store is back",
+                    content = @Content(schema = @Schema(implementation = BillCalculationResponse.class))
+            ),
             @ApiResponse(
                     responseCode = "400",
                     description = "Invalid request body or validation error"
@@ -92,6 +100,7 @@ public class BillController {
             )
     })
     @PostMapping
+    @TrafficLane(TrafficClass.CHECKOUT)
     public ResponseEntity<BillCalculationResponse> createBill(
             @Parameter(description = "Bill creation request with items and optional customer ID")
             @Valid @RequestBody CreateBillRequest request) {
@@ -109,6 +118,12 @@ public class BillController {
         // Execute the use case
         BillCalculationResponse response = calculateBillUseCase.execute(command);
 
+        if (!response.isPersisted()) {
+            // Journaled, not retrievable until it reaches the store: no Location yet
+            logger.warn("Bill {} journaled, the store is unavailable", response.getBillId());
+            return ResponseEntity.accepted().body(response);
+        }
+
         logger.info("Bill created successfully. Bill ID: {}, Net Payable: {}",
                 response.getBillId(), response.getNetPayable());
 
@@ -147,6 +162,7 @@ public class BillController {
             )
     })
     @GetMapping("/{id}")
+    @TrafficLane(TrafficClass.SINGLE_READ)
     public ResponseEntity<BillCalculationResponse> getBill(
             @Parameter(description = "Unique identifier of the bill", required = true)
             @PathVariable String id) {
@@ -183,6 +199,7 @@ public class BillController {
             )
     })
     @GetMapping
+    @TrafficLane(TrafficClass.REPORT)
     public ResponseEntity<List<BillCalculationResponse>> listBills(
             @Parameter(description = "Filter by customer ID (uses authenticated user if not provided)")
             @RequestParam(required = false) String customerId,
@@ -0,0 +1,79 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.deadline;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane.TrafficClass;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane.TrafficLane;
+import io.mosaed.retaildiscountservice.infrastructure.deadline.RequestDeadlines;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Sets the deadline of each request to a bill endpoint.
+ *
+ * Clients state how long they will wait in the X-Request-Timeout header
+ * (milliseconds); without it the default of the endpoint's traffic class
+ * applies. The header can shorten the deadline but never extend it past
+ * the configured maximum. Registered ahead of the lanes, so time spent
+ * queueing for a lane counts against the deadline.
+ */
+public class DeadlineInterceptor implements HandlerInterceptor {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final RequestDeadlines deadlines;
+    private final Map<TrafficClass, Duration> defaults;
+    private final Duration maximum;
+
+    public DeadlineInterceptor(RequestDeadlines deadlines, Map<TrafficClass, Duration> defaults, Duration maximum) {
+        this.deadlines = deadlines;
+        this.defaults = new EnumMap<>(defaults);
+        this.maximum = maximum;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return true;
+        }
+        TrafficLane lane = method.getMethodAnnotation(TrafficLane.class);
+        if (lane == null) {
+            return true;
+        }
+
+        Duration timeout = requested(request).orElse(defaults.get(lane.value()));
+        if (timeout != null) {
+            deadlines.start(timeout.compareTo(maximum) > 0 ? maximum : timeout);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        deadlines.clear();
+    }
+
+    private static Optional<Duration> requested(HttpServletRequest request) {
+        String header = request.getHeader(TIMEOUT_HEADER);
+        if (header == null) {
+            return Optional.empty();
+        }
+        try {
+            long millis = Long.parseLong(header.trim());
+            return millis >= 0 ? Optional.of(Duration.ofMillis(millis)) : Optional.empty();
+        } catch (NumberFormatException e) {
+            // A malformed header is not worth failing the request over
+            return Optional.empty();
+        }
+    }
+}
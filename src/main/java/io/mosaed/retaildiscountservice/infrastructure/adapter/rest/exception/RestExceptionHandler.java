@@ -5,9 +5,14 @@ package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.exception;
  * @author MOSAED ALOTAIBI
  */
 
+import io.mosaed.retaildiscountservice.application.port.out.PersistenceUnavailableException;
 import io.mosaed.retaildiscountservice.domain.exception.*;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.BulkheadFullException;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.ConcurrencyLimitExceededException;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.DeadlineExceededException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -26,6 +31,9 @@ public class RestExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(RestExceptionHandler.class);
 
+    // Names the limiter that shed the request, so clients and dashboards can tell it from other 503s
+    static final String CONCURRENCY_LIMIT_HEADER = "X-Concurrency-Limited";
+
     @ExceptionHandler(CustomerNotFoundException.class)
     public ResponseEntity<ErrorResponse> handleCustomerNotFound(
             CustomerNotFoundException ex,
@@ -101,6 +109,88 @@ public class RestExceptionHandler {
         return new ResponseEntity<>(errorResponse, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<ErrorResponse> handleBulkheadFull(
+            BulkheadFullException ex,
+            WebRequest request) {
+
+        logger.warn("Request shed: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message("The service is busy. Please retry later.")
+                .path(extractPath(request))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(ConcurrencyLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleConcurrencyLimitExceeded(
+            ConcurrencyLimitExceededException ex,
+            WebRequest request) {
+
+        logger.warn("Request shed: {}", ex.getMessage());
+
+        // Distinct from a full bulkhead: the store behind is slowing down
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message("The service is overloaded. Please retry later.")
+                .path(extractPath(request))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .header(CONCURRENCY_LIMIT_HEADER, ex.getLimiter())
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ErrorResponse> handleDeadlineExceeded(
+            DeadlineExceededException ex,
+            WebRequest request) {
+
+        // The client has most likely given up already; nothing to retry for it
+        logger.info("Request abandoned: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.GATEWAY_TIMEOUT.value())
+                .error(HttpStatus.GATEWAY_TIMEOUT.getReasonPhrase())
+                .message("The request did not complete within its deadline.")
+                .path(extractPath(request))
+                .build();
+
+        return new ResponseEntity<>(errorResponse, HttpStatus.GATEWAY_TIMEOUT);
+    }
+
+    @ExceptionHandler(PersistenceUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePersistenceUnavailable(
+            PersistenceUnavailableException ex,
+            WebRequest request) {
+
+        // Expected during a database failover; the circuit breaker already logged it
+        logger.warn("Store unavailable: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                .error(HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase())
+                .message("Bills are temporarily unavailable. Please retry later.")
+                .path(extractPath(request))
+                .build();
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ErrorResponse> handleGenericException(
             Exception ex,
@@ -0,0 +1,167 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.filter;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.exception.RestExceptionHandler.ErrorResponse;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.TokenBucket;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the bill endpoints.
+ *
+ * Two independent limits, both failing fast with 429 and Retry-After:
+ * - a token bucket per authenticated customer, so one client flooding the
+ *   API cannot starve the others
+ * - a global cap on requests in flight, so the service sheds load instead
+ *   of queuing until every request times out
+ *
+ * Buckets live in a bounded Caffeine cache (striped, lock-free reads) and
+ * are evicted after being idle, so memory stays flat however many
+ * customers show up.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionControlFilter.class);
+
+    private static final String BILLS_PATH = "/bills";
+    private static final String HEALTH_PATH = "/bills/health";
+    private static final long GLOBAL_RETRY_AFTER_SECONDS = 1;
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final Cache<String, TokenBucket> buckets;
+    private final Semaphore inFlight;
+    private final ObjectMapper objectMapper;
+
+    private final Counter customerRejections;
+    private final Counter globalRejections;
+
+    public AdmissionControlFilter(
+            double ratePerSecond,
+            int burst,
+            long maxTrackedCustomers,
+            Duration idleTimeout,
+            int maxConcurrentRequests,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxTrackedCustomers)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.inFlight = new Semaphore(maxConcurrentRequests);
+        this.objectMapper = objectMapper;
+
+        this.customerRejections = Counter.builder("admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("limit", "customer")
+                .register(meterRegistry);
+        this.globalRejections = Counter.builder("admission.rejected")
+                .description("Requests rejected by admission control")
+                .tag("limit", "global")
+                .register(meterRegistry);
+        meterRegistry.gauge("admission.in.flight", inFlight,
+                semaphore -> maxConcurrentRequests - semaphore.availablePermits());
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return !path.startsWith(BILLS_PATH) || path.equals(HEALTH_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        // Step 1: Per-customer rate limit
+        String customerId = authenticatedCustomerId();
+        if (customerId != null) {
+            long waitNanos = buckets.get(customerId, id -> new TokenBucket(ratePerSecond, burst)).tryAcquire();
+            if (waitNanos > 0) {
+                customerRejections.increment();
+                logger.debug("Rate limit exceeded for customer {}", customerId);
+                reject(request, response, toRetryAfterSeconds(waitNanos),
+                        "Too many requests for this customer. Please retry later.");
+                return;
+            }
+        }
+
+        // Step 2: Global concurrency cap
+        if (!inFlight.tryAcquire()) {
+            globalRejections.increment();
+            reject(request, response, GLOBAL_RETRY_AFTER_SECONDS,
+                    "The service is at capacity. Please retry later.");
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inFlight.release();
+        }
+    }
+
+    private String authenticatedCustomerId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null
+                || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return null;
+        }
+        return authentication.getName();
+    }
+
+    private void reject(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            long retryAfterSeconds,
+            String message) throws IOException {
+
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(LocalDateTime.now())
+                .status(HttpStatus.TOO_MANY_REQUESTS.value())
+                .error(HttpStatus.TOO_MANY_REQUESTS.getReasonPhrase())
+                .message(message)
+                .path(request.getRequestURI())
+                .build();
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), errorResponse);
+    }
+
+    private static long toRetryAfterSeconds(long waitNanos) {
+        // Retry-After is in whole seconds; round up so clients do not retry too early
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
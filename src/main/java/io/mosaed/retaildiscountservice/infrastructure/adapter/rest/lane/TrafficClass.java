@@ -0,0 +1,34 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+/**
+ * Classes of traffic that get their own bulkhead.
+ */
+public enum TrafficClass {
+
+    /** Bill creation, latency critical */
+    CHECKOUT("checkout"),
+
+    /** Single bill lookups by id */
+    SINGLE_READ("single-read"),
+
+    /** List and date range queries, potentially heavy */
+    REPORT("report");
+
+    private final String key;
+
+    TrafficClass(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Name used in configuration keys and metric tags
+     */
+    public String key() {
+        return key;
+    }
+}
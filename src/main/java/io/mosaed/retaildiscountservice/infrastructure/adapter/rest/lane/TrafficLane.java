@@ -0,0 +1,24 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Assigns a controller method to a traffic class.
+ * Handlers without it are not bulkheaded.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface TrafficLane {
+
+    TrafficClass value();
+}
@@ -0,0 +1,107 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.Bulkhead;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.BulkheadFullException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs each annotated handler inside the bulkhead of its traffic class.
+ *
+ * Every class has its own concurrency limit and wait queue, so a storm of
+ * report queries saturates (and gets rejected from) the report lane only;
+ * checkout keeps its slots and its share of the MongoDB connection pool.
+ */
+public class TrafficLaneInterceptor implements HandlerInterceptor {
+
+    private static final String ACQUIRED_ATTRIBUTE = TrafficLaneInterceptor.class.getName() + ".bulkhead";
+
+    private final Map<TrafficClass, Lane> lanes = new EnumMap<>(TrafficClass.class);
+
+    public TrafficLaneInterceptor(Map<TrafficClass, Bulkhead> bulkheads, MeterRegistry meterRegistry) {
+        bulkheads.forEach((trafficClass, bulkhead) ->
+                lanes.put(trafficClass, new Lane(bulkhead, trafficClass, meterRegistry)));
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Lane lane = laneOf(handler);
+        if (lane == null) {
+            return true;
+        }
+
+        long start = System.nanoTime();
+        try {
+            lane.bulkhead.acquire();
+        } catch (BulkheadFullException e) {
+            lane.rejected.increment();
+            throw e;
+        }
+        lane.waitTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        request.setAttribute(ACQUIRED_ATTRIBUTE, lane.bulkhead);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ACQUIRED_ATTRIBUTE) instanceof Bulkhead bulkhead) {
+            request.removeAttribute(ACQUIRED_ATTRIBUTE);
+            bulkhead.release();
+        }
+    }
+
+    private Lane laneOf(Object handler) {
+        if (!(handler instanceof HandlerMethod method)) {
+            return null;
+        }
+        TrafficLane annotation = method.getMethodAnnotation(TrafficLane.class);
+        return annotation == null ? null : lanes.get(annotation.value());
+    }
+
+    private static final class Lane {
+        private final Bulkhead bulkhead;
+        private final Counter rejected;
+        private final Timer waitTime;
+
+        private Lane(Bulkhead bulkhead, TrafficClass trafficClass, MeterRegistry meterRegistry) {
+            this.bulkhead = bulkhead;
+            String tag = trafficClass.key();
+
+            Gauge.builder("bulkhead.active", bulkhead, Bulkhead::active)
+                    .description("Requests running in the lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.queued", bulkhead, Bulkhead::queued)
+                    .description("Requests waiting for a slot in the lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            Gauge.builder("bulkhead.max.concurrent", bulkhead, Bulkhead::getMaxConcurrent)
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("bulkhead.rejected")
+                    .description("Requests rejected because the lane was saturated")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+            this.waitTime = Timer.builder("bulkhead.wait")
+                    .description("Time spent waiting for a slot in the lane")
+                    .tag("lane", tag)
+                    .register(meterRegistry);
+        }
+    }
+}
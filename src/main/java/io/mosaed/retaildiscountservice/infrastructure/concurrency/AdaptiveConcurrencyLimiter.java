@@ -0,0 +1,154 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Concurrency limit that follows the latency of what it protects.
+ *
+ * Gradient algorithm: every completed call compares its latency with a long
+ * running average (the baseline). While latency stays within tolerance of
+ * the baseline the limit grows by a little headroom (about sqrt(limit));
+ * once calls get slower than that, the limit shrinks in proportion, down to
+ * half per step. Calls beyond the limit are rejected right away instead of
+ * queueing behind a slow store.
+ *
+ * The limit only grows while it is actually used (at least half of it in
+ * flight), so a quiet period does not inflate it. The baseline decays
+ * towards the current latency when the two drift far apart, so a lasting
+ * shift (new hardware, a bigger data set) is eventually accepted as normal.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    private static final int BASELINE_WINDOW = 600;
+    private static final int BASELINE_WARM_UP = 10;
+    private static final double MIN_GRADIENT = 0.5;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final LongSupplier nanoClock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    // Read without the lock by tryAcquire and the metrics
+    private volatile double limit;
+
+    // Guarded by this
+    private double baselineNanos;
+    private long samples;
+
+    /**
+     * @param tolerance how much slower than the baseline calls may get before
+     *                  the limit shrinks, e.g. 1.5
+     * @param smoothing weight of each new estimate, between 0 (never moves) and 1
+     */
+    public AdaptiveConcurrencyLimiter(
+            String name, int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        this(name, initialLimit, minLimit, maxLimit, tolerance, smoothing, System::nanoTime);
+    }
+
+    public AdaptiveConcurrencyLimiter(
+            String name, int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing,
+            LongSupplier nanoClock) {
+        if (minLimit <= 0 || minLimit > initialLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits for concurrency limiter " + name);
+        }
+        if (tolerance < 1.0 || smoothing <= 0.0 || smoothing > 1.0) {
+            throw new IllegalArgumentException("Invalid tolerance or smoothing for concurrency limiter " + name);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.nanoClock = nanoClock;
+        this.limit = initialLimit;
+    }
+
+    /**
+     * Run the action if the limit allows it.
+     *
+     * @throws ConcurrencyLimitExceededException if the limit is reached
+     */
+    public <T> T call(Supplier<T> action) {
+        // Step 1: Take a slot, or reject without waiting
+        int current = inFlight.incrementAndGet();
+        if (current > (int) limit) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            throw new ConcurrencyLimitExceededException(name, (int) limit);
+        }
+
+        // Step 2: Run and feed the latency back into the limit
+        long start = nanoClock.getAsLong();
+        try {
+            return action.get();
+        } finally {
+            inFlight.decrementAndGet();
+            onSample(nanoClock.getAsLong() - start, current);
+        }
+    }
+
+    /**
+     * Adjust the limit from the latency of one call and the calls in flight when it started.
+     */
+    synchronized void onSample(long latencyNanos, int inFlightAtStart) {
+        long latency = Math.max(1, latencyNanos);
+
+        // Step 1: Update the baseline (plain average until there are enough samples)
+        samples++;
+        if (samples <= BASELINE_WARM_UP) {
+            baselineNanos += (latency - baselineNanos) / samples;
+            return;
+        }
+        baselineNanos += (latency - baselineNanos) * 2.0 / (BASELINE_WINDOW + 1);
+
+        // Step 2: Let the baseline follow a lasting drop in latency
+        if (baselineNanos / latency > 2.0) {
+            baselineNanos *= 0.95;
+        }
+
+        // Step 3: No evidence the limit is too low if it is not even half used
+        double current = limit;
+        if (inFlightAtStart < current / 2) {
+            return;
+        }
+
+        // Step 4: Shrink in proportion to the slowdown, otherwise add some headroom
+        double gradient = Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * baselineNanos / latency));
+        double estimate = current * gradient + Math.sqrt(current);
+        double next = current * (1 - smoothing) + estimate * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public synchronized double baselineMillis() {
+        return baselineNanos / 1_000_000.0;
+    }
+}
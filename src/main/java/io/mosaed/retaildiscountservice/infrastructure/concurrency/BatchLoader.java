@@ -0,0 +1,239 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Collects keys requested by concurrent callers into batches (DataLoader style).
+ *
+ * The first key of a batch opens a window; the batch is dispatched when the
+ * window closes or as soon as it holds maxBatchSize keys, whichever comes
+ * first. Each batch is loaded with a single call to the batch function and
+ * every caller gets the value for its own key (null if the key is unknown).
+ *
+ * Request deadlines travel with the batch: it is loaded with the latest
+ * deadline of its callers (none if any caller has none), so the store
+ * bounds the query by the longest any caller is still willing to wait and
+ * no caller fails on another caller's shorter deadline. Each caller waits
+ * at most until its own deadline.
+ */
+public final class BatchLoader<K, V> implements AutoCloseable {
+
+    /**
+     * Expiry of a caller without a deadline
+     */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    /**
+     * Access to the deadline of the request running on the current thread.
+     */
+    public interface Deadlines {
+
+        Deadlines NONE = new Deadlines() {
+            @Override
+            public long currentExpiry() {
+                return NO_DEADLINE;
+            }
+
+            @Override
+            public <T> T runUntil(long expiry, Supplier<T> call) {
+                return call.get();
+            }
+        };
+
+        /**
+         * System.nanoTime at which the current request expires, NO_DEADLINE for none
+         */
+        long currentExpiry();
+
+        /**
+         * Run the call with the given expiry as the current thread's deadline
+         */
+        <T> T runUntil(long expiry, Supplier<T> call);
+    }
+
+    private final String name;
+    private final Function<Collection<K>, Map<K, V>> batchFunction;
+    private final Deadlines deadlines;
+    private final long windowNanos;
+    private final int maxBatchSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScheduledExecutorService timer;
+
+    // Guarded by lock
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private long pendingExpiry = Long.MIN_VALUE;
+    private long batchNumber;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder keys = new LongAdder();
+
+    public BatchLoader(String name, Function<Collection<K>, Map<K, V>> batchFunction, Duration window, int maxBatchSize) {
+        this(name, batchFunction, window, maxBatchSize, Deadlines.NONE);
+    }
+
+    public BatchLoader(
+            String name,
+            Function<Collection<K>, Map<K, V>> batchFunction,
+            Duration window,
+            int maxBatchSize,
+            Deadlines deadlines) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("maxBatchSize must be positive");
+        }
+        this.name = name;
+        this.batchFunction = batchFunction;
+        this.deadlines = deadlines;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.timer = Executors.newSingleThreadScheduledExecutor(
+                Thread.ofPlatform().daemon().name("batch-loader-" + name).factory());
+    }
+
+    /**
+     * Load one key as part of the current batch, waiting for the result at
+     * most until the current request's deadline.
+     *
+     * @throws DeadlineExceededException if the deadline passes first
+     */
+    public V load(K key) {
+        long expiry = deadlines.currentExpiry();
+        CompletableFuture<V> future = loadAsync(key, expiry);
+        try {
+            if (expiry == NO_DEADLINE) {
+                return future.join();
+            }
+            return future.get(Math.max(0, expiry - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (CompletionException | ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("batch." + name);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("batch." + name, e);
+        }
+    }
+
+    public CompletableFuture<V> loadAsync(K key) {
+        return loadAsync(key, deadlines.currentExpiry());
+    }
+
+    private CompletableFuture<V> loadAsync(K key, long expiry) {
+        Batch<K, V> full = null;
+        CompletableFuture<V> future;
+
+        lock.lock();
+        try {
+            // The batch may take as long as its most patient caller allows
+            pendingExpiry = Math.max(pendingExpiry, expiry);
+
+            // A key already waiting in this batch shares its future
+            future = pending.get(key);
+            if (future != null) {
+                return future;
+            }
+            future = new CompletableFuture<>();
+            pending.put(key, future);
+
+            if (pending.size() >= maxBatchSize) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                // First key of a new batch: close the window later
+                long batch = batchNumber;
+                timer.schedule(() -> flush(batch), windowNanos, TimeUnit.NANOSECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (full != null) {
+            // The caller that filled the batch loads it on its own thread
+            dispatch(full);
+        }
+        return future;
+    }
+
+    private void flush(long batch) {
+        Batch<K, V> due = null;
+        lock.lock();
+        try {
+            // Skip if the batch was already dispatched for being full
+            if (batch == batchNumber && !pending.isEmpty()) {
+                due = takePending();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        if (due != null) {
+            Batch<K, V> batchToLoad = due;
+            Thread.ofVirtual().start(() -> dispatch(batchToLoad));
+        }
+    }
+
+    private Batch<K, V> takePending() {
+        Batch<K, V> batch = new Batch<>(pending, pendingExpiry);
+        pending = new LinkedHashMap<>();
+        pendingExpiry = Long.MIN_VALUE;
+        batchNumber++;
+        return batch;
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        batches.increment();
+        keys.add(batch.futures().size());
+        try {
+            // On whichever thread loads it, the batch carries its own deadline
+            Map<K, V> values = deadlines.runUntil(batch.expiry(),
+                    () -> batchFunction.apply(Collections.unmodifiableSet(batch.futures().keySet())));
+            batch.futures().forEach((key, future) -> future.complete(values.get(key)));
+        } catch (Throwable t) {
+            batch.futures().values().forEach(future -> future.completeExceptionally(t));
+        }
+    }
+
+    /**
+     * Batches dispatched, i.e. round trips to the batch function
+     */
+    public long batches() {
+        return batches.sum();
+    }
+
+    /**
+     * Keys loaded across all batches
+     */
+    public long keys() {
+        return keys.sum();
+    }
+
+    @Override
+    public void close() {
+        timer.shutdownNow();
+    }
+
+    private record Batch<K, V>(Map<K, CompletableFuture<V>> futures, long expiry) {
+    }
+}
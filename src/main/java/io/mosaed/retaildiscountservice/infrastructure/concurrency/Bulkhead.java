@@ -0,0 +1,96 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Bounded concurrency compartment with a bounded wait queue.
+ *
+ * At most maxConcurrent callers run at once. Up to maxQueued more may wait,
+ * each for at most queueTimeout; everyone else is rejected immediately, so a
+ * saturated compartment never ties up threads it does not own.
+ */
+public final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final long queueTimeoutNanos;
+
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueued, Duration queueTimeout) {
+        if (maxConcurrent <= 0 || maxQueued < 0) {
+            throw new IllegalArgumentException("Invalid limits for bulkhead " + name);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = maxQueued;
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Take a slot, waiting in the queue if there is room in it.
+     * Every successful call must be paired with {@link #release()}.
+     *
+     * @throws BulkheadFullException if both the slots and the queue are taken,
+     *                               or the queue wait timed out
+     */
+    public void acquire() {
+        // Step 1: Fast path, a free slot
+        if (permits.tryAcquire()) {
+            return;
+        }
+
+        // Step 2: Claim a place in the queue, or give up right away
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new BulkheadFullException(name);
+        }
+
+        // Step 3: Wait for a slot
+        try {
+            if (!permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new BulkheadFullException(name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(name);
+        } finally {
+            queued.decrementAndGet();
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    public int active() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    public int queued() {
+        return queued.get();
+    }
+}
@@ -0,0 +1,23 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+/**
+ * Thrown when a bulkhead has no free slot and no room left in its queue.
+ */
+public class BulkheadFullException extends RuntimeException {
+
+    private final String bulkhead;
+
+    public BulkheadFullException(String bulkhead) {
+        super("Bulkhead '" + bulkhead + "' is saturated");
+        this.bulkhead = bulkhead;
+    }
+
+    public String getBulkhead() {
+        return bulkhead;
+    }
+}
@@ -0,0 +1,226 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Count-based circuit breaker.
+ *
+ * While CLOSED every call goes through and its outcome is kept in a window
+ * of the last windowSize calls. Once at least minimumCalls are recorded and
+ * the share of failures reaches the threshold the breaker opens: calls are
+ * rejected right away with CircuitBreakerOpenException instead of each
+ * waiting for a server that is not there. After openDuration the breaker
+ * lets halfOpenCalls probe calls through (HALF_OPEN); if they all succeed
+ * it closes again, the first failure opens it for another openDuration.
+ *
+ * Only exceptions matching the failure predicate count as failures; any
+ * other exception means the downstream answered and counts as a success.
+ */
+public final class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final Predicate<Throwable> failure;
+    private final LongSupplier nanoClock;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+
+    // Read without the lock by the metrics
+    private volatile State state = State.CLOSED;
+
+    // Guarded by this; ring buffer of outcomes, true for a failure
+    private final boolean[] window;
+    private int recorded;
+    private int next;
+    private int failuresInWindow;
+    private long openedAt;
+    private int probes;
+    private int probeSuccesses;
+
+    /**
+     * @param failureRateThreshold share of failed calls that opens the breaker, e.g. 0.5
+     * @param failure              which exceptions mean the downstream is unavailable
+     */
+    public CircuitBreaker(
+            String name, int windowSize, int minimumCalls, double failureRateThreshold,
+            Duration openDuration, int halfOpenCalls, Predicate<Throwable> failure) {
+        this(name, windowSize, minimumCalls, failureRateThreshold, openDuration, halfOpenCalls, failure,
+                System::nanoTime);
+    }
+
+    CircuitBreaker(
+            String name, int windowSize, int minimumCalls, double failureRateThreshold,
+            Duration openDuration, int halfOpenCalls, Predicate<Throwable> failure, LongSupplier nanoClock) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("Need 0 < minimumCalls <= windowSize");
+        }
+        if (failureRateThreshold <= 0 || failureRateThreshold > 1) {
+            throw new IllegalArgumentException("failureRateThreshold must be in (0, 1]");
+        }
+        if (halfOpenCalls <= 0) {
+            throw new IllegalArgumentException("halfOpenCalls must be positive");
+        }
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.failure = failure;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Run the call through the breaker.
+     *
+     * @throws CircuitBreakerOpenException if the breaker is open
+     */
+    public <T> T call(Supplier<T> call) {
+        if (!tryAcquire()) {
+            rejected.increment();
+            throw new CircuitBreakerOpenException(name);
+        }
+
+        try {
+            T result = call.get();
+            onSuccess();
+            return result;
+        } catch (RuntimeException e) {
+            if (isFailure(e)) {
+                failures.increment();
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            throw e;
+        }
+    }
+
+    public boolean isFailure(Throwable throwable) {
+        return failure.test(throwable);
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public State state() {
+        return state;
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long failures() {
+        return failures.sum();
+    }
+
+    private synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nanoClock.getAsLong() - openedAt < openNanos) {
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+                probes = 0;
+                probeSuccesses = 0;
+                // fall through: this call is the first probe
+            default:
+                if (probes >= halfOpenCalls) {
+                    return false;
+                }
+                probes++;
+                return true;
+        }
+    }
+
+    private synchronized void onSuccess() {
+        switch (state) {
+            case CLOSED -> record(false);
+            case HALF_OPEN -> {
+                if (++probeSuccesses >= halfOpenCalls) {
+                    resetWindow();
+                    transitionTo(State.CLOSED);
+                }
+            }
+            case OPEN -> {
+                // Started before the breaker opened, the probes decide
+            }
+        }
+    }
+
+    private synchronized void onFailure() {
+        switch (state) {
+            case CLOSED -> {
+                record(true);
+                if (recorded >= minimumCalls && failuresInWindow >= failureRateThreshold * recorded) {
+                    open();
+                }
+            }
+            case HALF_OPEN -> open();
+            case OPEN -> {
+                // Already open
+            }
+        }
+    }
+
+    private void record(boolean failed) {
+        if (recorded == window.length) {
+            if (window[next]) {
+                failuresInWindow--;
+            }
+        } else {
+            recorded++;
+        }
+        window[next] = failed;
+        if (failed) {
+            failuresInWindow++;
+        }
+        next = (next + 1) % window.length;
+    }
+
+    private void open() {
+        openedAt = nanoClock.getAsLong();
+        transitionTo(State.OPEN);
+    }
+
+    private void resetWindow() {
+        recorded = 0;
+        next = 0;
+        failuresInWindow = 0;
+    }
+
+    private void transitionTo(State target) {
+        State previous = state;
+        state = target;
+        if (target == State.OPEN) {
+            logger.warn("Circuit breaker '{}' {} -> OPEN, calls are rejected for {} ms",
+                    name, previous, openNanos / 1_000_000);
+        } else {
+            logger.info("Circuit breaker '{}' {} -> {}", name, previous, target);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+/**
+ * Thrown instead of calling through an open circuit breaker.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+
+    private final String breaker;
+
+    public CircuitBreakerOpenException(String breaker) {
+        super("Circuit breaker '" + breaker + "' is open");
+        this.breaker = breaker;
+    }
+
+    public String getBreaker() {
+        return breaker;
+    }
+}
@@ -0,0 +1,29 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+/**
+ * Thrown when an adaptive concurrency limiter is at its current limit.
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+    private final String limiter;
+    private final int limit;
+
+    public ConcurrencyLimitExceededException(String limiter, int limit) {
+        super("Concurrency limit of '" + limiter + "' reached (" + limit + " in flight)");
+        this.limiter = limiter;
+        this.limit = limit;
+    }
+
+    public String getLimiter() {
+        return limiter;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+}
@@ -0,0 +1,29 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+/**
+ * Thrown when a request reaches a stage after its deadline has passed, or
+ * when the database stopped a query at the request's time limit.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    private final String stage;
+
+    public DeadlineExceededException(String stage) {
+        super("Request deadline exceeded before " + stage);
+        this.stage = stage;
+    }
+
+    public DeadlineExceededException(String stage, Throwable cause) {
+        super("Request deadline exceeded during " + stage, cause);
+        this.stage = stage;
+    }
+
+    public String getStage() {
+        return stage;
+    }
+}
@@ -0,0 +1,119 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent loads of the same key into one.
+ *
+ * The first caller for a key (the leader) runs the load on its own thread;
+ * callers arriving while it is in flight (followers) wait for and share its
+ * result, or its exception. Nothing is cached: the key is forgotten as soon
+ * as the load finishes, so the next caller starts a fresh load.
+ *
+ * Followers wait at most maxWait. A follower that gives up loads the key
+ * itself, so a stuck leader delays its followers by at most maxWait instead
+ * of taking them down with it. Likewise a follower loads on its own when the
+ * leader failed on its request deadline.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final long maxWaitNanos;
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public SingleFlight(Duration maxWait) {
+        this.maxWaitNanos = maxWait.toNanos();
+    }
+
+    public V execute(K key, Supplier<V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing == null) {
+            leaders.increment();
+            return lead(key, flight, loader);
+        }
+
+        followers.increment();
+        try {
+            return existing.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DeadlineExceededException) {
+                // The leader ran out of its own request's time, not necessarily ours
+                return loader.get();
+            }
+            throw propagate(e.getCause());
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.get();
+        }
+    }
+
+    private V lead(K key, CompletableFuture<V> flight, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            // Forget the key before publishing, so later callers never see a finished flight
+            inFlight.remove(key, flight);
+            flight.complete(value);
+            return value;
+        } catch (Throwable t) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    private static RuntimeException propagate(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+
+    /**
+     * Loads actually executed
+     */
+    public long leaders() {
+        return leaders.sum();
+    }
+
+    /**
+     * Calls served by someone else's load
+     */
+    public long followers() {
+        return followers.sum();
+    }
+
+    /**
+     * Followers that gave up waiting and loaded on their own
+     */
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,62 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Implemented as the equivalent "virtual scheduling" form (GCRA): the whole
+ * state is a single timestamp, the theoretical arrival time of the next
+ * request, advanced with a CAS. No refill thread, no lock, one word per bucket.
+ */
+public final class TokenBucket {
+
+    private final long nanosPerToken;
+    private final long burstNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param tokensPerSecond sustained rate
+     * @param capacity        burst size; the bucket starts full
+     */
+    public TokenBucket(double tokensPerSecond, int capacity) {
+        this(tokensPerSecond, capacity, System::nanoTime);
+    }
+
+    public TokenBucket(double tokensPerSecond, int capacity, LongSupplier nanoClock) {
+        if (tokensPerSecond <= 0 || capacity <= 0) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.nanosPerToken = Math.max(1, (long) (1_000_000_000L / tokensPerSecond));
+        this.burstNanos = nanosPerToken * capacity;
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Take one token if available.
+     *
+     * @return 0 if a token was taken, otherwise the nanoseconds until one will be
+     */
+    public long tryAcquire() {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival, now) + nanosPerToken;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
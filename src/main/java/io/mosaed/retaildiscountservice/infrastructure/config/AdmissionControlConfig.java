@@ -0,0 +1,55 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.filter.AdmissionControlFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Admission control for the bill endpoints (application.admission.*).
+ *
+ * The filter runs inside the security filter chain (see SecurityConfig),
+ * after authentication, so it can key buckets by the authenticated customer.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public AdmissionControlFilter admissionControlFilter(
+            @Value("${application.admission.per-customer.rate:50}") double ratePerSecond,
+            @Value("${application.admission.per-customer.burst:100}") int burst,
+            @Value("${application.admission.per-customer.max-tracked:100000}") long maxTrackedCustomers,
+            @Value("${application.admission.per-customer.idle-timeout:PT10M}") Duration idleTimeout,
+            @Value("${application.admission.max-concurrent:500}") int maxConcurrentRequests,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        return new AdmissionControlFilter(
+                ratePerSecond, burst, maxTrackedCustomers, idleTimeout, maxConcurrentRequests,
+                objectMapper, meterRegistry);
+    }
+
+    /**
+     * Keep Spring Boot from also registering the filter with the servlet
+     * container, where it would run before authentication.
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilterRegistration(
+            AdmissionControlFilter admissionControlFilter) {
+        FilterRegistrationBean<AdmissionControlFilter> registration =
+                new FilterRegistrationBean<>(admissionControlFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
+}
@@ -5,20 +5,58 @@ package io.mosaed.retaildiscountservice.infrastructure.config;
  * @author MOSAED ALOTAIBI
  */
 
-import io.mosaed.retaildiscountservice.application.port.in.CalculateBillUseCase;
+import io.mosaed.retaildiscountservice.application.port.out.AuthenticatedCustomerResolver;
+import io.mosaed.retaildiscountservice.application.port.out.BillJournal;
 import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
 import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.application.port.out.RequestDeadline;
 import io.mosaed.retaildiscountservice.application.service.BillService;
+import io.mosaed.retaildiscountservice.domain.model.BillIdGenerator;
+import io.mosaed.retaildiscountservice.domain.model.RandomBillIdGenerator;
+import io.mosaed.retaildiscountservice.domain.model.TimeOrderedBillIdGenerator;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class ApplicationConfig {
 
+    /**
+     * Implements every use case; the controller gets the decorated ones from
+     * UseCaseDecoratorConfig where there are any.
+     */
     @Bean
-    public CalculateBillUseCase calculateBillUseCase(
+    public BillService billService(
             CustomerRepository customerRepository,
-            BillRepository billRepository) {
-        return new BillService(customerRepository, billRepository);
+            BillRepository billRepository,
+            BillIdGenerator billIdGenerator,
+            ObjectProvider<AuthenticatedCustomerResolver> authenticatedCustomerResolver,
+            ObjectProvider<RequestDeadline> requestDeadline,
+            ObjectProvider<BillJournal> billJournal) {
+        return new BillService(
+                customerRepository,
+                billRepository,
+                billIdGenerator,
+                authenticatedCustomerResolver.getIfAvailable(() -> AuthenticatedCustomerResolver.NONE),
+                requestDeadline.getIfAvailable(() -> RequestDeadline.NONE),
+                billJournal.getIfAvailable(() -> BillJournal.NONE));
+    }
+
+    /**
+     * application.bills.id-generator selects the bill id scheme:
+     * - uuid-v7 (default): time-ordered UUID, 36 characters
+     * - compact: the same time-ordered value as 26 Crockford base32 characters
+     * - random: UUIDv4, the original scheme
+     */
+    @Bean
+    public BillIdGenerator billIdGenerator(
+            @Value("${application.bills.id-generator:uuid-v7}") String scheme) {
+        return switch (scheme.toLowerCase()) {
+            case "uuid-v7" -> new TimeOrderedBillIdGenerator(TimeOrderedBillIdGenerator.Encoding.UUID);
+            case "compact" -> new TimeOrderedBillIdGenerator(TimeOrderedBillIdGenerator.Encoding.COMPACT);
+            case "random" -> new RandomBillIdGenerator();
+            default -> throw new IllegalArgumentException("Unknown bill id generator: " + scheme);
+        };
     }
 }
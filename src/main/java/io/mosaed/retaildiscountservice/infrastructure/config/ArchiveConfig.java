@@ -0,0 +1,49 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive.BillArchive;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive.BillArchiver;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive.BillDocumentCodec;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.BillCollectionLayout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Cold-tier archive of old bills, enabled with application.archive.enabled=true.
+ *
+ * Bills older than application.archive.max-age are moved out of MongoDB into
+ * compressed, memory-mapped segment files. MongoBillRepository falls back to
+ * the archive for lookups that miss the hot tier.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.archive.enabled", havingValue = "true")
+public class ArchiveConfig {
+
+    @Bean
+    public BillArchive billArchive(
+            MongoTemplate mongoTemplate,
+            @Value("${application.archive.directory:./data/archive}") Path directory,
+            @Value("${application.archive.block-size:256}") int blockSize) {
+        return new BillArchive(directory, new BillDocumentCodec(mongoTemplate.getConverter()), blockSize);
+    }
+
+    @Bean
+    public BillArchiver billArchiver(
+            MongoTemplate mongoTemplate,
+            BillCollectionLayout billCollectionLayout,
+            BillArchive billArchive,
+            @Value("${application.archive.max-age:P365D}") Duration maxAge,
+            @Value("${application.archive.batch-size:50000}") int batchSize) {
+        return new BillArchiver(mongoTemplate, billCollectionLayout, billArchive, maxAge, batchSize);
+    }
+}
@@ -0,0 +1,54 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file.FileBillJournal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Degraded mode for POST /bills while the store is unavailable: bills that
+ * cannot be saved are journaled on local disk, the client still gets the
+ * calculated discounts (flagged as not persisted), and the journal is
+ * replayed into the store once it is back. Enabled with
+ * application.persistence.journal.enabled.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.persistence.journal.enabled", havingValue = "true")
+public class BillJournalConfig {
+
+    @Bean
+    public FileBillJournal billJournal(
+            @Value("${application.persistence.journal.directory:./data/journal}") Path directory,
+            @Value("${application.persistence.journal.sync-interval:2ms}") Duration syncInterval,
+            BillRepository billRepository,
+            CustomerRepository customerRepository,
+            MeterRegistry meterRegistry) {
+        FileBillJournal journal = new FileBillJournal(directory, syncInterval, billRepository, customerRepository);
+
+        Gauge.builder("bill.journal.pending", journal, FileBillJournal::pending)
+                .description("Journaled bills waiting to be saved to the store")
+                .register(meterRegistry);
+        FunctionCounter.builder("bill.journal.appended", journal, FileBillJournal::appended)
+                .description("Bills journaled because the store was unavailable")
+                .register(meterRegistry);
+        FunctionCounter.builder("bill.journal.replayed", journal, FileBillJournal::replayed)
+                .description("Journaled bills saved to the store")
+                .register(meterRegistry);
+
+        return journal;
+    }
+}
@@ -0,0 +1,101 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.BaseUnits;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive.BillArchive;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.BillCollectionLayout;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.FlatBillCollectionLayout;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.retention.BillRetention;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.retention.WorkingSetEstimate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Retention policy for bills in MongoDB, enabled with
+ * application.persistence.retention.enabled=true.
+ *
+ * Bills older than application.persistence.retention.period are deleted in
+ * small scheduled chunks or expired by a TTL index, optionally exported to
+ * the archive first. The current and expected size of the bills collections
+ * and the deletes are published as metrics.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.persistence.retention.enabled", havingValue = "true")
+public class BillRetentionConfig {
+
+    @Bean
+    public BillRetention billRetention(
+            MongoTemplate mongoTemplate,
+            BillCollectionLayout billCollectionLayout,
+            ObjectProvider<BillArchive> billArchive,
+            @Value("${application.persistence.retention.mode:delete}") String mode,
+            @Value("${application.persistence.retention.period:P365D}") Duration period,
+            @Value("${application.persistence.retention.export:false}") boolean export,
+            @Value("${application.persistence.retention.chunk-size:1000}") int chunkSize,
+            @Value("${application.persistence.retention.pause:200ms}") Duration pause,
+            @Value("${application.persistence.retention.max-deletes-per-run:100000}") long maxDeletesPerRun,
+            @Value("${application.persistence.retention.index-budget:0B}") DataSize indexBudget,
+            MeterRegistry meterRegistry) {
+
+        BillRetention.Mode retentionMode = BillRetention.Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        if (retentionMode == BillRetention.Mode.TTL && !(billCollectionLayout instanceof FlatBillCollectionLayout)) {
+            // Monthly buckets expire by dropping whole months in the delete mode
+            throw new IllegalStateException("The ttl retention mode needs the flat bills layout");
+        }
+        BillArchive archive = null;
+        if (export) {
+            archive = billArchive.getIfAvailable();
+            if (archive == null) {
+                throw new IllegalStateException("Exporting expired bills needs application.archive.enabled=true");
+            }
+        }
+
+        BillRetention retention = new BillRetention(mongoTemplate, billCollectionLayout, archive,
+                retentionMode, period, chunkSize, pause, maxDeletesPerRun, indexBudget);
+
+        registerWorkingSet(meterRegistry, retention, "current", BillRetention::current);
+        registerWorkingSet(meterRegistry, retention, "expected", BillRetention::expected);
+        FunctionCounter.builder("bills.retention.deleted", retention, BillRetention::deleted)
+                .description("Bills deleted by the retention policy (TTL deletes are done by MongoDB itself)")
+                .register(meterRegistry);
+
+        return retention;
+    }
+
+    private static void registerWorkingSet(
+            MeterRegistry meterRegistry,
+            BillRetention retention,
+            String state,
+            Function<BillRetention, WorkingSetEstimate> estimate) {
+        Gauge.builder("bills.retention.documents", retention, r -> estimate.apply(r).documents())
+                .tag("state", state)
+                .description("Bills in MongoDB, now or once the retention period is full")
+                .register(meterRegistry);
+        Gauge.builder("bills.retention.data.size", retention, r -> estimate.apply(r).dataBytes())
+                .tag("state", state)
+                .baseUnit(BaseUnits.BYTES)
+                .description("Uncompressed size of the bills, now or once the retention period is full")
+                .register(meterRegistry);
+        Gauge.builder("bills.retention.index.size", retention, r -> estimate.apply(r).indexBytes())
+                .tag("state", state)
+                .baseUnit(BaseUnits.BYTES)
+                .description("Size of the bills indexes, now or once the retention period is full")
+                .register(meterRegistry);
+    }
+}
@@ -11,6 +11,7 @@ import io.mosaed.retaildiscountservice.domain.model.CustomerType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
@@ -24,6 +25,7 @@ public class DataInitializer {
 
     @Bean
     @Profile("!test")
+    @ConditionalOnProperty(name = "application.seed-data.enabled", havingValue = "true", matchIfMissing = true)
     public CommandLineRunner initializeData(CustomerRepository customerRepository) {
         return args -> {
             logger.info("Initializing test customer data...");
@@ -0,0 +1,60 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.deadline.DeadlineInterceptor;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane.TrafficClass;
+import io.mosaed.retaildiscountservice.infrastructure.deadline.RequestDeadlines;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Request deadlines (application.deadlines.*).
+ *
+ * RequestDeadlines is always registered, the stores depend on it; with the
+ * interceptor disabled no request ever gets a deadline and it does nothing.
+ */
+@Configuration
+public class DeadlineConfig {
+
+    @Bean
+    public RequestDeadlines requestDeadlines(MeterRegistry meterRegistry) {
+        return new RequestDeadlines(meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.deadlines.enabled", havingValue = "true", matchIfMissing = true)
+    public WebMvcConfigurer deadlineInterceptorConfigurer(
+            RequestDeadlines requestDeadlines,
+            @Value("${application.deadlines.checkout:PT2S}") Duration checkout,
+            @Value("${application.deadlines.single-read:PT2S}") Duration singleRead,
+            @Value("${application.deadlines.report:PT2S}") Duration report,
+            @Value("${application.deadlines.max:PT10S}") Duration maximum) {
+        Map<TrafficClass, Duration> defaults = new EnumMap<>(TrafficClass.class);
+        defaults.put(TrafficClass.CHECKOUT, checkout);
+        defaults.put(TrafficClass.SINGLE_READ, singleRead);
+        defaults.put(TrafficClass.REPORT, report);
+        DeadlineInterceptor interceptor = new DeadlineInterceptor(requestDeadlines, defaults, maximum);
+
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                // Ahead of the lanes: queueing for a slot uses up the deadline too
+                registry.addInterceptor(interceptor).order(Ordered.HIGHEST_PRECEDENCE);
+            }
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.fault.FaultInjectionEndpoint;
+import io.mosaed.retaildiscountservice.infrastructure.fault.FaultInjector;
+import io.mosaed.retaildiscountservice.infrastructure.fault.FaultInjectors;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Fault injection for load tests (application.fault-injection.enabled):
+ * latency, stalls and errors injected right in front of the store adapters,
+ * below every other decorator, so timeouts, admission control, caching and
+ * the circuit breaker see them like a slow or flaky MongoDB. The decorators
+ * are wired in RepositoryDecoratorConfig; faults are off until set through
+ * the faults actuator endpoint. Never registered with the prod profile.
+ */
+@Configuration
+@Profile("!prod")
+@ConditionalOnProperty(name = "application.fault-injection.enabled", havingValue = "true")
+public class FaultInjectionConfig {
+
+    @Bean
+    public FaultInjectors faultInjectors(MeterRegistry meterRegistry) {
+        FaultInjectors faultInjectors = new FaultInjectors();
+
+        for (FaultInjector injector : faultInjectors.all()) {
+            FunctionCounter.builder("fault.injected", injector, FaultInjector::delayed)
+                    .description("Calls delayed, stalled or failed on purpose")
+                    .tag("target", injector.target())
+                    .tag("fault", "latency")
+                    .register(meterRegistry);
+            FunctionCounter.builder("fault.injected", injector, FaultInjector::stalled)
+                    .description("Calls delayed, stalled or failed on purpose")
+                    .tag("target", injector.target())
+                    .tag("fault", "stall")
+                    .register(meterRegistry);
+            FunctionCounter.builder("fault.injected", injector, FaultInjector::failed)
+                    .description("Calls delayed, stalled or failed on purpose")
+                    .tag("target", injector.target())
+                    .tag("fault", "error")
+                    .register(meterRegistry);
+        }
+
+        return faultInjectors;
+    }
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public FaultInjectionEndpoint faultInjectionEndpoint(FaultInjectors faultInjectors) {
+        return new FaultInjectionEndpoint(faultInjectors);
+    }
+}
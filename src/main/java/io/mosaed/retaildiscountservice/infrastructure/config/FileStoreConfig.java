@@ -0,0 +1,45 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file.FileBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file.FileCustomerRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Embedded file store, selected with application.persistence.store=file
+ * (the "edge" profile). Replaces the MongoDB adapters for single-box
+ * deployments with no database server.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.persistence.store", havingValue = "file")
+public class FileStoreConfig {
+
+    @Bean
+    @Qualifier("customerStore")
+    public FileCustomerRepository fileCustomerRepository(
+            @Value("${application.persistence.file.directory:./data/store}") Path directory,
+            @Value("${application.persistence.file.sync-interval:2ms}") Duration syncInterval) {
+        return new FileCustomerRepository(directory, syncInterval);
+    }
+
+    @Bean
+    @Qualifier("billStore")
+    public FileBillRepository fileBillRepository(
+            @Value("${application.persistence.file.directory:./data/store}") Path directory,
+            @Value("${application.persistence.file.sync-interval:2ms}") Duration syncInterval,
+            CustomerRepository customerRepository) {
+        return new FileBillRepository(directory, syncInterval, customerRepository);
+    }
+}
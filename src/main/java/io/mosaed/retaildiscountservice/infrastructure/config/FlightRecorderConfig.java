@@ -0,0 +1,30 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.jfr.FlightRecorderEndpoint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Flight recorder endpoint. The events are wired with the other decorators
+ * (UseCaseDecoratorConfig, RepositoryDecoratorConfig); the calculation event
+ * is emitted by the domain.
+ */
+@Configuration
+public class FlightRecorderConfig {
+
+    @Bean
+    @ConditionalOnAvailableEndpoint
+    public FlightRecorderEndpoint flightRecorderEndpoint(
+            @Value("${application.jfr.max-age:PT1H}") Duration maxAge) {
+        return new FlightRecorderEndpoint(maxAge);
+    }
+}
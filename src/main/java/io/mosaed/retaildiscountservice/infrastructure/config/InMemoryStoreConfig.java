@@ -0,0 +1,36 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryCustomerRepository;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Volatile in-memory store, selected with application.persistence.store=memory
+ * (the "perf" profile). Lets load tests measure the service's own throughput
+ * without a database in the way. Nothing survives a restart.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.persistence.store", havingValue = "memory")
+public class InMemoryStoreConfig {
+
+    @Bean
+    @Qualifier("customerStore")
+    public InMemoryCustomerRepository inMemoryCustomerRepository() {
+        return new InMemoryCustomerRepository();
+    }
+
+    @Bean
+    @Qualifier("billStore")
+    public InMemoryBillRepository inMemoryBillRepository(CustomerRepository customerRepository) {
+        return new InMemoryBillRepository(customerRepository);
+    }
+}
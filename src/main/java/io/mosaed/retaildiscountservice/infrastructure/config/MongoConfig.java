@@ -0,0 +1,84 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.index.MongoIndexInitializer;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.BillCollectionLayout;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.FlatBillCollectionLayout;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.MonthlyBillCollectionLayout;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.migration.MonetaryFieldMigration;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.repository.RecentBillsBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+
+import java.time.Duration;
+
+/**
+ * MongoDB storage configuration.
+ *
+ * application.persistence.bills.layout selects how bills are laid out:
+ * - flat (default): a single "bills" collection
+ * - monthly: one collection per month of created_at (bills_yyyy_MM)
+ *
+ * It also registers the background index creation, the background migration
+ * of legacy string amounts to Decimal128 and the in-memory buffer serving
+ * recent bills.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.persistence.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(MongoConfig.class);
+
+    @Bean
+    public BillCollectionLayout billCollectionLayout(
+            MongoTemplate mongoTemplate,
+            @Value("${application.persistence.bills.layout:flat}") String layout) {
+
+        if ("monthly".equalsIgnoreCase(layout)) {
+            logger.info("Bills are stored in monthly collections");
+            IndexResolver indexResolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+            return new MonthlyBillCollectionLayout(mongoTemplate, indexResolver);
+        }
+        return new FlatBillCollectionLayout();
+    }
+
+    /**
+     * Index creation after startup, replacing spring.data.mongodb.auto-index-creation
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.persistence.index-initialization.enabled", havingValue = "true", matchIfMissing = true)
+    public MongoIndexInitializer mongoIndexInitializer(
+            MongoTemplate mongoTemplate,
+            BillCollectionLayout billCollectionLayout) {
+        IndexResolver indexResolver = IndexResolver.create(mongoTemplate.getConverter().getMappingContext());
+        return new MongoIndexInitializer(mongoTemplate, indexResolver, billCollectionLayout);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.persistence.decimal-migration.enabled", havingValue = "true", matchIfMissing = true)
+    public MonetaryFieldMigration monetaryFieldMigration(
+            MongoTemplate mongoTemplate,
+            BillCollectionLayout billCollectionLayout,
+            @Value("${application.persistence.decimal-migration.batch-size:1000}") int batchSize,
+            @Value("${application.persistence.decimal-migration.pause:100ms}") Duration pause) {
+        return new MonetaryFieldMigration(mongoTemplate, billCollectionLayout, batchSize, pause);
+    }
+
+    @Bean
+    @ConditionalOnExpression("${application.persistence.recent-bills.capacity:1000} > 0")
+    public RecentBillsBuffer recentBillsBuffer(
+            @Value("${application.persistence.recent-bills.capacity:1000}") int capacity) {
+        return new RecentBillsBuffer(capacity);
+    }
+}
@@ -0,0 +1,62 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.client.MongoClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.monitoring.ConnectionPoolMetrics;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.monitoring.SlowCommandLog;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.TokenBucket;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Driver-level MongoDB monitoring (application.persistence.slow-commands.*).
+ *
+ * Registers the slow-command log and the pool wait/saturation metrics on the
+ * MongoClient Spring Boot builds. Per-command latency timers come from Boot's
+ * own command listener; see management.metrics.distribution in application.yml.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.persistence.store", havingValue = "mongo", matchIfMissing = true)
+public class MongoMonitoringConfig {
+
+    @Bean
+    public ConnectionPoolMetrics mongoConnectionPoolMetrics(MeterRegistry meterRegistry) {
+        return new ConnectionPoolMetrics(meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "application.persistence.slow-commands.enabled", havingValue = "true", matchIfMissing = true)
+    public SlowCommandLog slowCommandLog(
+            @Value("${application.persistence.slow-commands.threshold:100ms}") Duration threshold,
+            @Value("${application.persistence.slow-commands.log-rate:1}") double logRate,
+            @Value("${application.persistence.slow-commands.log-burst:10}") int logBurst,
+            @Value("${application.persistence.slow-commands.explain:false}") boolean explain,
+            @Value("${application.persistence.slow-commands.explain-sample-rate:0.01}") double explainSampleRate,
+            ObjectProvider<MongoClient> mongoClient,
+            MeterRegistry meterRegistry) {
+        // The client is only needed once a slow command is explained, long after it is built
+        return new SlowCommandLog(threshold, new TokenBucket(logRate, logBurst), explain ? explainSampleRate : 0,
+                mongoClient::getObject, meterRegistry);
+    }
+
+    @Bean
+    public MongoClientSettingsBuilderCustomizer mongoMonitoringCustomizer(
+            ConnectionPoolMetrics connectionPoolMetrics,
+            ObjectProvider<SlowCommandLog> slowCommandLog) {
+        return settings -> {
+            settings.applyToConnectionPoolSettings(pool -> pool.addConnectionPoolListener(connectionPoolMetrics));
+            slowCommandLog.ifAvailable(settings::addCommandListener);
+        };
+    }
+}
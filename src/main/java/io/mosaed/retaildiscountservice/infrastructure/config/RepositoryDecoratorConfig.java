@@ -0,0 +1,302 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.bloom.CustomerIdFilter;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator.BatchingCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator.CachingCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator.CircuitBreakingBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator.CircuitBreakingCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator.CoalescingBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator.CoalescingCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator.FilteringCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.BatchLoader;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.CircuitBreaker;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.SingleFlight;
+import io.mosaed.retaildiscountservice.infrastructure.deadline.RequestDeadlines;
+import io.mosaed.retaildiscountservice.infrastructure.fault.FaultInjectors;
+import io.mosaed.retaildiscountservice.infrastructure.jfr.RecordingBillRepository;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+
+import java.time.Duration;
+
+/**
+ * Decorators in front of the selected store.
+ *
+ * The store adapters are registered under the "billStore" and "customerStore"
+ * qualifiers; the decorated repositories defined here are the primary beans
+ * the rest of the application gets injected. Customer lookups go through
+ * the id filter (unknown ids), the cache (recently used ids), coalescing
+ * (same id) and then batching (distinct ids), each switchable under
+ * application.persistence.*. Bill store calls emit flight recorder events
+ * unless application.jfr.events.enabled is false.
+ *
+ * Both stores are called through one circuit breaker: when the database
+ * fails over, calls fail fast with PersistenceUnavailableException instead
+ * of each waiting out the server selection timeout. The customer cache sits
+ * above it and keeps answering for the customers it holds.
+ *
+ * With fault injection on (FaultInjectionConfig, never in prod) the stores
+ * are wrapped first, so every decorator here sees the injected faults.
+ */
+@Configuration
+public class RepositoryDecoratorConfig {
+
+    @Bean
+    @Primary
+    public BillRepository billRepository(
+            @Qualifier("billStore") BillRepository billStore,
+            @Value("${application.persistence.coalescing.enabled:true}") boolean coalescing,
+            @Value("${application.persistence.coalescing.max-wait:PT2S}") Duration maxWait,
+            @Value("${application.jfr.events.enabled:true}") boolean flightRecorderEvents,
+            ObjectProvider<CircuitBreaker> persistenceCircuitBreaker,
+            ObjectProvider<FaultInjectors> faultInjectors,
+            MeterRegistry meterRegistry) {
+        FaultInjectors injectors = faultInjectors.getIfAvailable();
+        BillRepository repository = injectors != null ? injectors.decorate(billStore) : billStore;
+
+        if (flightRecorderEvents) {
+            repository = new RecordingBillRepository(repository);
+        }
+        CircuitBreaker circuitBreaker = persistenceCircuitBreaker.getIfAvailable();
+        if (circuitBreaker != null) {
+            repository = new CircuitBreakingBillRepository(repository, circuitBreaker);
+        }
+        if (coalescing) {
+            repository = new CoalescingBillRepository(repository, singleFlight("bill.findById", maxWait, meterRegistry));
+        }
+        return repository;
+    }
+
+    @Bean
+    @Primary
+    public CustomerRepository customerRepository(
+            @Qualifier("customerStore") CustomerRepository customerStore,
+            ObjectProvider<BatchLoader<String, Customer>> customerBatchLoader,
+            ObjectProvider<CustomerIdFilter> customerIdFilter,
+            ObjectProvider<Cache<String, Customer>> customerCache,
+            @Value("${application.persistence.coalescing.enabled:true}") boolean coalescing,
+            @Value("${application.persistence.coalescing.max-wait:PT2S}") Duration maxWait,
+            ObjectProvider<CircuitBreaker> persistenceCircuitBreaker,
+            ObjectProvider<FaultInjectors> faultInjectors,
+            MeterRegistry meterRegistry) {
+        CustomerRepository repository = withFaults(customerStore, faultInjectors);
+
+        BatchLoader<String, Customer> batchLoader = customerBatchLoader.getIfAvailable();
+        if (batchLoader != null) {
+            repository = new BatchingCustomerRepository(repository, batchLoader);
+        }
+        // Above batching, which loads on its own thread: failures come back to the caller here
+        CircuitBreaker circuitBreaker = persistenceCircuitBreaker.getIfAvailable();
+        if (circuitBreaker != null) {
+            repository = new CircuitBreakingCustomerRepository(repository, circuitBreaker);
+        }
+        if (coalescing) {
+            repository = new CoalescingCustomerRepository(
+                    repository, singleFlight("customer.findById", maxWait, meterRegistry));
+        }
+        Cache<String, Customer> cache = customerCache.getIfAvailable();
+        if (cache != null) {
+            repository = new CachingCustomerRepository(repository, cache);
+        }
+        CustomerIdFilter filter = customerIdFilter.getIfAvailable();
+        if (filter != null) {
+            repository = new FilteringCustomerRepository(repository, filter);
+        }
+        return repository;
+    }
+
+    /**
+     * Opens when most recent store calls failed because the store could not
+     * be reached. Errors the store answered with (duplicate key, bad query)
+     * and request deadlines do not count.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.persistence.circuit-breaker.enabled", havingValue = "true", matchIfMissing = true)
+    public CircuitBreaker persistenceCircuitBreaker(
+            @Value("${application.persistence.circuit-breaker.window-size:20}") int windowSize,
+            @Value("${application.persistence.circuit-breaker.minimum-calls:10}") int minimumCalls,
+            @Value("${application.persistence.circuit-breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+            @Value("${application.persistence.circuit-breaker.open-duration:PT10S}") Duration openDuration,
+            @Value("${application.persistence.circuit-breaker.half-open-calls:3}") int halfOpenCalls,
+            MeterRegistry meterRegistry) {
+        CircuitBreaker circuitBreaker = new CircuitBreaker("persistence", windowSize, minimumCalls,
+                failureRateThreshold, openDuration, halfOpenCalls, RepositoryDecoratorConfig::isStoreUnavailable);
+
+        Gauge.builder("circuit.breaker.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("0 closed, 1 open, 2 half-open")
+                .tag("name", circuitBreaker.name())
+                .register(meterRegistry);
+        FunctionCounter.builder("circuit.breaker.failures", circuitBreaker, CircuitBreaker::failures)
+                .description("Calls that failed because the store could not be reached")
+                .tag("name", circuitBreaker.name())
+                .register(meterRegistry);
+        FunctionCounter.builder("circuit.breaker.rejected", circuitBreaker, CircuitBreaker::rejected)
+                .description("Calls rejected without calling the store")
+                .tag("name", circuitBreaker.name())
+                .register(meterRegistry);
+
+        return circuitBreaker;
+    }
+
+    /**
+     * Collects customer lookups from concurrent requests into one findAllById
+     * ($in) per window. Worth it when the store is a network round trip away.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.persistence.customer-batching.enabled", havingValue = "true", matchIfMissing = true)
+    public BatchLoader<String, Customer> customerBatchLoader(
+            @Qualifier("customerStore") CustomerRepository customerStore,
+            @Value("${application.persistence.customer-batching.window:500us}") Duration window,
+            @Value("${application.persistence.customer-batching.max-batch-size:100}") int maxBatchSize,
+            ObjectProvider<FaultInjectors> faultInjectors,
+            ObjectProvider<RequestDeadlines> requestDeadlines,
+            MeterRegistry meterRegistry) {
+        // Loads on its own thread straight from the store, so it needs the faults of its own
+        CustomerRepository store = withFaults(customerStore, faultInjectors);
+        // ... and the deadline of its callers, for maxTimeMS
+        BatchLoader.Deadlines deadlines = requestDeadlines.getIfAvailable();
+        if (deadlines == null) {
+            deadlines = BatchLoader.Deadlines.NONE;
+        }
+        BatchLoader<String, Customer> batchLoader =
+                new BatchLoader<>("customers", store::findAllById, window, maxBatchSize, deadlines);
+
+        FunctionCounter.builder("batchloader.batches", batchLoader, BatchLoader::batches)
+                .description("Batches dispatched to the store (round trips)")
+                .tag("loader", "customers")
+                .register(meterRegistry);
+        FunctionCounter.builder("batchloader.keys", batchLoader, BatchLoader::keys)
+                .description("Keys loaded through batches")
+                .tag("loader", "customers")
+                .register(meterRegistry);
+
+        return batchLoader;
+    }
+
+    /**
+     * Recently used customers. Every request looks its customer up at least
+     * once (authentication), and customers change rarely.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.persistence.customer-cache.enabled", havingValue = "true", matchIfMissing = true)
+    public Cache<String, Customer> customerCache(
+            @Value("${application.persistence.customer-cache.max-size:100000}") long maxSize,
+            @Value("${application.persistence.customer-cache.time-to-live:PT10M}") Duration timeToLive,
+            MeterRegistry meterRegistry) {
+        Cache<String, Customer> cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        return CaffeineCacheMetrics.monitor(meterRegistry, cache, "customers");
+    }
+
+    /**
+     * Bloom filter of all customer ids, so unknown ids (scripted clients,
+     * misconfigured terminals) are rejected without a store miss. Only for
+     * single-writer deployments: application.persistence.customer-filter.authoritative
+     * has to confirm that every customer write goes through this instance.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "application.persistence.customer-filter.enabled", havingValue = "true")
+    public CustomerIdFilter customerIdFilter(
+            @Qualifier("customerStore") CustomerRepository customerStore,
+            @Value("${application.persistence.customer-filter.expected-customers:1000000}") long expectedCustomers,
+            @Value("${application.persistence.customer-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+            @Value("${application.persistence.customer-filter.authoritative:false}") boolean authoritative,
+            MeterRegistry meterRegistry) {
+        if (!authoritative) {
+            // It would never reject, yet still scan every customer id on each rebuild
+            throw new IllegalStateException("The customer filter needs application.persistence.customer-filter"
+                    + ".authoritative=true (every customer write goes through this instance)");
+        }
+        CustomerIdFilter filter = new CustomerIdFilter(
+                customerStore, expectedCustomers, falsePositiveProbability, authoritative);
+
+        Gauge.builder("customer.filter.false.positive.probability", filter, CustomerIdFilter::expectedFalsePositiveProbability)
+                .description("False positive probability estimated from the filter's fill")
+                .register(meterRegistry);
+        Gauge.builder("customer.filter.size", filter, CustomerIdFilter::sizeInBytes)
+                .description("Memory held by the filter's bit array")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("customer.filter.entries", filter, CustomerIdFilter::entries)
+                .description("Customer ids added to the filter")
+                .register(meterRegistry);
+        FunctionCounter.builder("customer.filter.rejected", filter, CustomerIdFilter::rejected)
+                .description("Lookups of unknown ids answered without the store")
+                .register(meterRegistry);
+        FunctionCounter.builder("customer.filter.false.positives", filter, CustomerIdFilter::falsePositives)
+                .description("Lookups the filter let through that the store did not find")
+                .register(meterRegistry);
+        FunctionCounter.builder("customer.filter.learned", filter, CustomerIdFilter::learned)
+                .description("Customers found in the store that the filter did not know (written elsewhere)")
+                .register(meterRegistry);
+
+        return filter;
+    }
+
+    private static <K, V> SingleFlight<K, V> singleFlight(String operation, Duration maxWait, MeterRegistry meterRegistry) {
+        SingleFlight<K, V> singleFlight = new SingleFlight<>(maxWait);
+
+        FunctionCounter.builder("singleflight.calls", singleFlight, SingleFlight::leaders)
+                .description("Calls that executed the load themselves")
+                .tag("operation", operation)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("singleflight.calls", singleFlight, SingleFlight::followers)
+                .description("Calls that shared a load already in flight")
+                .tag("operation", operation)
+                .tag("role", "follower")
+                .register(meterRegistry);
+        FunctionCounter.builder("singleflight.timeouts", singleFlight, SingleFlight::timeouts)
+                .description("Followers that stopped waiting and loaded on their own")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("singleflight.coalescing.ratio", singleFlight, RepositoryDecoratorConfig::coalescingRatio)
+                .description("Share of calls served by another call's load")
+                .tag("operation", operation)
+                .register(meterRegistry);
+
+        return singleFlight;
+    }
+
+    private static CustomerRepository withFaults(
+            CustomerRepository customerStore, ObjectProvider<FaultInjectors> faultInjectors) {
+        FaultInjectors injectors = faultInjectors.getIfAvailable();
+        return injectors != null ? injectors.decorate(customerStore) : customerStore;
+    }
+
+    private static boolean isStoreUnavailable(Throwable throwable) {
+        // Covers the translated driver errors: no server selected, socket errors, timeouts
+        return throwable instanceof DataAccessResourceFailureException
+                || throwable instanceof TransientDataAccessException;
+    }
+
+    private static double coalescingRatio(SingleFlight<?, ?> singleFlight) {
+        long followers = singleFlight.followers();
+        long total = singleFlight.leaders() + followers;
+        return total == 0 ? 0.0 : (double) followers / total;
+    }
+}
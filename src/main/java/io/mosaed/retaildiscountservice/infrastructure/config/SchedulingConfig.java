@@ -0,0 +1,17 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (archiving, maintenance).
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
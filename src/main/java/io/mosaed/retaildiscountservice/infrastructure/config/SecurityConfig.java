@@ -2,6 +2,8 @@ package io.mosaed.retaildiscountservice.infrastructure.config;
 
 /// @author MOSAED ALOTAIBI
 
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.filter.AdmissionControlFilter;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -11,18 +13,21 @@ import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain securityFilterChain(
+            HttpSecurity http,
+            ObjectProvider<AdmissionControlFilter> admissionControlFilter) throws Exception {
         http
                 .csrf(AbstractHttpConfigurer::disable) // Lambda can be replaced with method reference (thanks to my IDE hint)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/bills/health").permitAll()
-                        .requestMatchers("/actuator/health").permitAll() // Just for my sanity
+                        .requestMatchers("/actuator/health", "/actuator/health/**").permitAll() // Just for my sanity
                         // /bills/** matches /bills/calculate, /bills/123, /bills/foo/bar, etc.
                         .requestMatchers("/bills/**").authenticated()
                         .anyRequest().authenticated()
@@ -33,6 +38,9 @@ public class SecurityConfig {
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
                 );
 
+        // Rate limit only requests that made it through authentication and authorization
+        admissionControlFilter.ifAvailable(filter -> http.addFilterAfter(filter, AuthorizationFilter.class));
+
         return http.build();
     }
 
@@ -0,0 +1,60 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane.TrafficClass;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane.TrafficLaneInterceptor;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.Bulkhead;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Per traffic class bulkheads (application.lanes.&lt;class&gt;.*).
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.lanes.enabled", havingValue = "true", matchIfMissing = true)
+public class TrafficLaneConfig implements WebMvcConfigurer {
+
+    private final TrafficLaneInterceptor trafficLaneInterceptor;
+
+    public TrafficLaneConfig(
+            @Value("${application.lanes.checkout.max-concurrent:32}") int checkoutMaxConcurrent,
+            @Value("${application.lanes.checkout.max-queued:32}") int checkoutMaxQueued,
+            @Value("${application.lanes.checkout.queue-timeout:200ms}") Duration checkoutQueueTimeout,
+            @Value("${application.lanes.single-read.max-concurrent:32}") int singleReadMaxConcurrent,
+            @Value("${application.lanes.single-read.max-queued:32}") int singleReadMaxQueued,
+            @Value("${application.lanes.single-read.queue-timeout:200ms}") Duration singleReadQueueTimeout,
+            @Value("${application.lanes.report.max-concurrent:32}") int reportMaxConcurrent,
+            @Value("${application.lanes.report.max-queued:32}") int reportMaxQueued,
+            @Value("${application.lanes.report.queue-timeout:200ms}") Duration reportQueueTimeout,
+            MeterRegistry meterRegistry) {
+        Map<TrafficClass, Bulkhead> bulkheads = new EnumMap<>(TrafficClass.class);
+        bulkheads.put(TrafficClass.CHECKOUT, bulkhead(TrafficClass.CHECKOUT,
+                checkoutMaxConcurrent, checkoutMaxQueued, checkoutQueueTimeout));
+        bulkheads.put(TrafficClass.SINGLE_READ, bulkhead(TrafficClass.SINGLE_READ,
+                singleReadMaxConcurrent, singleReadMaxQueued, singleReadQueueTimeout));
+        bulkheads.put(TrafficClass.REPORT, bulkhead(TrafficClass.REPORT,
+                reportMaxConcurrent, reportMaxQueued, reportQueueTimeout));
+        this.trafficLaneInterceptor = new TrafficLaneInterceptor(bulkheads, meterRegistry);
+    }
+
+    private static Bulkhead bulkhead(TrafficClass trafficClass, int maxConcurrent, int maxQueued, Duration queueTimeout) {
+        return new Bulkhead(trafficClass.key(), maxConcurrent, maxQueued, queueTimeout);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(trafficLaneInterceptor);
+    }
+}
@@ -0,0 +1,116 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.application.port.in.CalculateBillUseCase;
+import io.mosaed.retaildiscountservice.application.port.in.ListBillsUseCase;
+import io.mosaed.retaildiscountservice.application.service.BillService;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.AdaptiveConcurrencyLimiter;
+import io.mosaed.retaildiscountservice.infrastructure.jfr.RecordingCalculateBillUseCase;
+import io.mosaed.retaildiscountservice.infrastructure.limit.LimitedCalculateBillUseCase;
+import io.mosaed.retaildiscountservice.infrastructure.limit.LimitedListBillsUseCase;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Decorators in front of the use cases.
+ *
+ * The undecorated BillService stays registered; the primary beans defined
+ * here are what the controller gets. Calculation runs
+ * under an adaptive concurrency limit (application.concurrency-limit.*) and
+ * emits a flight recorder event (application.jfr.events.enabled); listings
+ * run under a limit of their own, since they are slower and would otherwise
+ * drag the checkout baseline along.
+ */
+@Configuration
+public class UseCaseDecoratorConfig {
+
+    @Bean
+    @Primary
+    public CalculateBillUseCase decoratedCalculateBillUseCase(
+            BillService billService,
+            @Value("${application.jfr.events.enabled:true}") boolean flightRecorderEvents,
+            @Value("${application.concurrency-limit.enabled:true}") boolean limited,
+            @Value("${application.concurrency-limit.calculate-bill.initial-limit:${application.concurrency-limit.initial-limit:20}}") int initialLimit,
+            @Value("${application.concurrency-limit.calculate-bill.min-limit:${application.concurrency-limit.min-limit:4}}") int minLimit,
+            @Value("${application.concurrency-limit.calculate-bill.max-limit:${application.concurrency-limit.max-limit:200}}") int maxLimit,
+            @Value("${application.concurrency-limit.calculate-bill.tolerance:${application.concurrency-limit.tolerance:1.5}}") double tolerance,
+            @Value("${application.concurrency-limit.calculate-bill.smoothing:${application.concurrency-limit.smoothing:0.2}}") double smoothing,
+            MeterRegistry meterRegistry) {
+        CalculateBillUseCase useCase = billService;
+
+        if (limited) {
+            AdaptiveConcurrencyLimiter limiter = limiter("calculate-bill",
+                    initialLimit, minLimit, maxLimit, tolerance, smoothing, meterRegistry);
+            useCase = new LimitedCalculateBillUseCase(useCase, limiter);
+        }
+        // Outermost, so requests rejected by the limiter show up in recordings too
+        if (flightRecorderEvents) {
+            useCase = new RecordingCalculateBillUseCase(useCase);
+        }
+        return useCase;
+    }
+
+    @Bean
+    @Primary
+    public ListBillsUseCase decoratedListBillsUseCase(
+            BillService billService,
+            @Value("${application.concurrency-limit.enabled:true}") boolean limited,
+            @Value("${application.concurrency-limit.list-bills.initial-limit:${application.concurrency-limit.initial-limit:20}}") int initialLimit,
+            @Value("${application.concurrency-limit.list-bills.min-limit:${application.concurrency-limit.min-limit:4}}") int minLimit,
+            @Value("${application.concurrency-limit.list-bills.max-limit:${application.concurrency-limit.max-limit:200}}") int maxLimit,
+            @Value("${application.concurrency-limit.list-bills.tolerance:${application.concurrency-limit.tolerance:1.5}}") double tolerance,
+            @Value("${application.concurrency-limit.list-bills.smoothing:${application.concurrency-limit.smoothing:0.2}}") double smoothing,
+            MeterRegistry meterRegistry) {
+        if (!limited) {
+            return billService;
+        }
+        AdaptiveConcurrencyLimiter limiter = limiter("list-bills",
+                initialLimit, minLimit, maxLimit, tolerance, smoothing, meterRegistry);
+        return new LimitedListBillsUseCase(billService, limiter);
+    }
+
+    /**
+     * Settings come from application.concurrency-limit.&lt;operation&gt;.*,
+     * falling back to the shared application.concurrency-limit.* ones.
+     */
+    private static AdaptiveConcurrencyLimiter limiter(
+            String operation,
+            int initialLimit,
+            int minLimit,
+            int maxLimit,
+            double tolerance,
+            double smoothing,
+            MeterRegistry meterRegistry) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                operation, initialLimit, minLimit, maxLimit, tolerance, smoothing);
+
+        Gauge.builder("concurrency.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive concurrency limit")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limit.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Calls running under the limit")
+                .tag("operation", operation)
+                .register(meterRegistry);
+        Gauge.builder("concurrency.limit.baseline", limiter, AdaptiveConcurrencyLimiter::baselineMillis)
+                .description("Long running average latency the limit is adjusted against")
+                .tag("operation", operation)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        FunctionCounter.builder("concurrency.limit.rejected", limiter, AdaptiveConcurrencyLimiter::rejected)
+                .description("Calls rejected because the limit was reached")
+                .tag("operation", operation)
+                .register(meterRegistry);
+
+        return limiter;
+    }
+}
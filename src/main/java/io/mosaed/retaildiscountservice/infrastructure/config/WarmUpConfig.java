@@ -0,0 +1,44 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.warmup.ApplicationWarmUp;
+import io.mosaed.retaildiscountservice.infrastructure.warmup.WarmUpSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Warm-up before readiness (application.warm-up.*).
+ *
+ * The bean is also the "warmUp" health indicator of the readiness group, so
+ * it is registered even when the warm-up is disabled (it then reports UP).
+ */
+@Configuration
+public class WarmUpConfig {
+
+    @Bean
+    public ApplicationWarmUp warmUp(
+            BillRepository billRepository,
+            CustomerRepository customerRepository,
+            ObjectMapper objectMapper,
+            @Value("${application.warm-up.enabled:true}") boolean enabled,
+            @Value("${application.warm-up.budget:PT30S}") Duration budget,
+            @Value("${application.warm-up.recent-bills:5000}") int recentBills,
+            @Value("${application.warm-up.prime-customers:1000}") int primeCustomers,
+            @Value("${application.warm-up.calculations:20000}") int calculations,
+            @Value("${application.warm-up.http-requests:500}") int httpRequests,
+            @Value("${server.servlet.context-path:}") String contextPath) {
+        WarmUpSettings settings = new WarmUpSettings(
+                enabled, budget, recentBills, primeCustomers, calculations, httpRequests, contextPath);
+        return new ApplicationWarmUp(billRepository, customerRepository, objectMapper, settings);
+    }
+}
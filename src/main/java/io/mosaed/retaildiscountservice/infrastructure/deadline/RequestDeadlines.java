@@ -0,0 +1,164 @@
+package io.mosaed.retaildiscountservice.infrastructure.deadline;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.MongoExecutionTimeoutException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.mosaed.retaildiscountservice.application.port.out.RequestDeadline;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.BatchLoader;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.DeadlineExceededException;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Deadline of the request running on the current thread.
+ *
+ * The REST layer sets it when a request starts (see DeadlineInterceptor)
+ * and clears it when it ends; without one every method here is a no-op.
+ * Stores use it to give queries a server-side time limit (maxTimeMS) equal
+ * to the time the request has left, and to skip work once it has passed.
+ *
+ * Work abandoned because of a deadline is counted per stage, split by
+ * whether it was skipped here or stopped by the database.
+ *
+ * Work done on behalf of a request on another thread (a customer batch)
+ * carries the deadline over with runUntil.
+ */
+public class RequestDeadlines implements RequestDeadline, BatchLoader.Deadlines {
+
+    private static final String SKIPPED = "skipped";
+    private static final String STOPPED = "stopped";
+
+    private final ThreadLocal<Long> expiresAt = new ThreadLocal<>();
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Map<String, Counter> exceeded = new ConcurrentHashMap<>();
+
+    public RequestDeadlines(MeterRegistry meterRegistry) {
+        this(meterRegistry, System::nanoTime);
+    }
+
+    RequestDeadlines(MeterRegistry meterRegistry, LongSupplier nanoClock) {
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Give the current thread's request this much time from now on.
+     */
+    public void start(Duration timeout) {
+        expiresAt.set(nanoClock.getAsLong() + timeout.toNanos());
+    }
+
+    public void clear() {
+        expiresAt.remove();
+    }
+
+    /**
+     * Time the current request has left; empty when it has no deadline.
+     */
+    public Optional<Duration> remaining() {
+        Long deadline = expiresAt.get();
+        return deadline == null
+                ? Optional.empty()
+                : Optional.of(Duration.ofNanos(Math.max(0, deadline - nanoClock.getAsLong())));
+    }
+
+    @Override
+    public long currentExpiry() {
+        Long deadline = expiresAt.get();
+        return deadline == null ? BatchLoader.NO_DEADLINE : deadline;
+    }
+
+    @Override
+    public <T> T runUntil(long expiry, Supplier<T> call) {
+        Long previous = expiresAt.get();
+        if (expiry == BatchLoader.NO_DEADLINE) {
+            expiresAt.remove();
+        } else {
+            expiresAt.set(expiry);
+        }
+        try {
+            return call.get();
+        } finally {
+            if (previous == null) {
+                expiresAt.remove();
+            } else {
+                expiresAt.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public void checkNotExceeded(String stage) {
+        remainingOrThrow(stage);
+    }
+
+    /**
+     * Run a query bounded by the time the request has left.
+     *
+     * @throws DeadlineExceededException if the deadline passed before the
+     *                                   query or the database stopped it at the limit
+     */
+    public <T> T bounded(String stage, Query query, Function<Query, T> call) {
+        Duration remaining = remainingOrThrow(stage);
+        if (remaining == null) {
+            return call.apply(query);
+        }
+
+        // maxTimeMS is whole milliseconds and 0 means no limit
+        query.maxTime(Duration.ofMillis(Math.max(1, remaining.toMillis())));
+        try {
+            return call.apply(query);
+        } catch (RuntimeException e) {
+            if (isServerTimeout(e)) {
+                count(stage, STOPPED);
+                throw new DeadlineExceededException(stage, e);
+            }
+            throw e;
+        }
+    }
+
+    private Duration remainingOrThrow(String stage) {
+        Long deadline = expiresAt.get();
+        if (deadline == null) {
+            return null;
+        }
+        long remaining = deadline - nanoClock.getAsLong();
+        if (remaining <= 0) {
+            count(stage, SKIPPED);
+            throw new DeadlineExceededException(stage);
+        }
+        return Duration.ofNanos(remaining);
+    }
+
+    private void count(String stage, String outcome) {
+        exceeded.computeIfAbsent(stage + '|' + outcome, key -> Counter.builder("request.deadline.exceeded")
+                .description("Work abandoned because the request deadline had passed")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .register(meterRegistry))
+                .increment();
+    }
+
+    private static boolean isServerTimeout(Throwable e) {
+        // Spring's translation wraps the driver exception
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof MongoExecutionTimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
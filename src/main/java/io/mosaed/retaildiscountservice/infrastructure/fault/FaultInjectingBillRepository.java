@@ -0,0 +1,70 @@
+package io.mosaed.retaildiscountservice.infrastructure.fault;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * BillRepository decorator that makes the store slow or flaky on demand
+ * (see FaultInjector). For load tests only.
+ */
+public class FaultInjectingBillRepository implements BillRepository {
+
+    private final BillRepository delegate;
+    private final FaultInjector faultInjector;
+
+    public FaultInjectingBillRepository(BillRepository delegate, FaultInjector faultInjector) {
+        this.delegate = delegate;
+        this.faultInjector = faultInjector;
+    }
+
+    @Override
+    public Bill save(Bill bill) {
+        faultInjector.beforeCall();
+        return delegate.save(bill);
+    }
+
+    @Override
+    public Optional<Bill> findById(String billId) {
+        faultInjector.beforeCall();
+        return delegate.findById(billId);
+    }
+
+    @Override
+    public List<Bill> findByCustomerId(String customerId) {
+        faultInjector.beforeCall();
+        return delegate.findByCustomerId(customerId);
+    }
+
+    @Override
+    public List<Bill> findByCustomerIdAndDateRange(String customerId, LocalDateTime from, LocalDateTime to) {
+        faultInjector.beforeCall();
+        return delegate.findByCustomerIdAndDateRange(customerId, from, to);
+    }
+
+    @Override
+    public List<Bill> findRecentBills(int limit) {
+        faultInjector.beforeCall();
+        return delegate.findRecentBills(limit);
+    }
+
+    @Override
+    public boolean deleteById(String billId) {
+        faultInjector.beforeCall();
+        return delegate.deleteById(billId);
+    }
+
+    @Override
+    public boolean existsById(String billId) {
+        faultInjector.beforeCall();
+        return delegate.existsById(billId);
+    }
+}
@@ -0,0 +1,60 @@
+package io.mosaed.retaildiscountservice.infrastructure.fault;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * CustomerRepository decorator that makes the store slow or flaky on demand
+ * (see FaultInjector). A batched findAllById is one call, like the single
+ * $in query it stands for. For load tests only.
+ */
+public class FaultInjectingCustomerRepository implements CustomerRepository {
+
+    private final CustomerRepository delegate;
+    private final FaultInjector faultInjector;
+
+    public FaultInjectingCustomerRepository(CustomerRepository delegate, FaultInjector faultInjector) {
+        this.delegate = delegate;
+        this.faultInjector = faultInjector;
+    }
+
+    @Override
+    public Optional<Customer> findById(String customerId) {
+        faultInjector.beforeCall();
+        return delegate.findById(customerId);
+    }
+
+    @Override
+    public Map<String, Customer> findAllById(Collection<String> customerIds) {
+        faultInjector.beforeCall();
+        return delegate.findAllById(customerIds);
+    }
+
+    @Override
+    public Customer save(Customer customer) {
+        faultInjector.beforeCall();
+        return delegate.save(customer);
+    }
+
+    @Override
+    public boolean existsById(String customerId) {
+        faultInjector.beforeCall();
+        return delegate.existsById(customerId);
+    }
+
+    @Override
+    public Stream<String> streamAllIds() {
+        faultInjector.beforeCall();
+        return delegate.streamAllIds();
+    }
+}
@@ -0,0 +1,131 @@
+package io.mosaed.retaildiscountservice.infrastructure.fault;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.fault.FaultProfile.Latency;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Actuator endpoint to degrade the store ports of a running instance.
+ *
+ * - GET /actuator/faults lists the targets ("bills", "customers") with their
+ *   current profile and how many calls were delayed, stalled and failed
+ * - POST /actuator/faults/{target} sets the target's profile: latency
+ *   (none, fixed, uniform, long_tail), base, max, tailIndex, errorRate,
+ *   stallRate, stall; anything left out is taken from the current profile
+ * - DELETE /actuator/faults/{target} turns the target's faults off, DELETE
+ *   /actuator/faults turns all of them off
+ *
+ * Only registered outside the prod profile and when
+ * application.fault-injection.enabled is set.
+ */
+@Endpoint(id = "faults")
+public class FaultInjectionEndpoint {
+
+    private final FaultInjectors faultInjectors;
+
+    public FaultInjectionEndpoint(FaultInjectors faultInjectors) {
+        this.faultInjectors = faultInjectors;
+    }
+
+    @ReadOperation
+    public List<FaultDescriptor> faults() {
+        return faultInjectors.all().stream()
+                .map(FaultDescriptor::of)
+                .toList();
+    }
+
+    @ReadOperation
+    public FaultDescriptor fault(@Selector String target) {
+        return faultInjectors.find(target).map(FaultDescriptor::of).orElse(null);
+    }
+
+    @WriteOperation
+    public FaultDescriptor configure(
+            @Selector String target,
+            @Nullable String latency,
+            @Nullable Duration base,
+            @Nullable Duration max,
+            @Nullable Double tailIndex,
+            @Nullable Double errorRate,
+            @Nullable Double stallRate,
+            @Nullable Duration stall) {
+        FaultInjector injector = injector(target);
+        FaultProfile current = injector.profile();
+
+        FaultProfile profile;
+        try {
+            profile = new FaultProfile(
+                    latency != null ? latency(latency) : current.latency(),
+                    base != null ? base : current.base(),
+                    max != null ? max : current.max(),
+                    tailIndex != null ? tailIndex : current.tailIndex(),
+                    errorRate != null ? errorRate : current.errorRate(),
+                    stallRate != null ? stallRate : current.stallRate(),
+                    stall != null ? stall : current.stall());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(e.getMessage(), "Invalid fault profile");
+        }
+
+        injector.setProfile(profile);
+        return FaultDescriptor.of(injector);
+    }
+
+    @DeleteOperation
+    public FaultDescriptor clear(@Selector String target) {
+        FaultInjector injector = injector(target);
+        injector.setProfile(FaultProfile.NONE);
+        return FaultDescriptor.of(injector);
+    }
+
+    @DeleteOperation
+    public List<FaultDescriptor> clearAll() {
+        faultInjectors.all().forEach(injector -> injector.setProfile(FaultProfile.NONE));
+        return faults();
+    }
+
+    private FaultInjector injector(String target) {
+        return faultInjectors.find(target).orElseThrow(() -> new InvalidEndpointRequestException(
+                "Unknown target '" + target + "'", "Unknown target"));
+    }
+
+    private static Latency latency(String latency) {
+        try {
+            return Latency.valueOf(latency.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidEndpointRequestException(
+                    "Unknown latency '" + latency + "', expected one of " + List.of(Latency.values()),
+                    "Unknown latency");
+        }
+    }
+
+    public record FaultDescriptor(
+            String target,
+            FaultProfile profile,
+            long delayed,
+            long stalled,
+            long failed) {
+
+        static FaultDescriptor of(FaultInjector injector) {
+            return new FaultDescriptor(
+                    injector.target(),
+                    injector.profile(),
+                    injector.delayed(),
+                    injector.stalled(),
+                    injector.failed());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package io.mosaed.retaildiscountservice.infrastructure.fault;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Applies the current FaultProfile of one target (a port) to calls made
+ * through it. The profile can be swapped at any time; calls already
+ * sleeping finish with the one they started with.
+ */
+public final class FaultInjector {
+
+    private final String target;
+
+    private volatile FaultProfile profile = FaultProfile.NONE;
+
+    private final LongAdder delayed = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public FaultInjector(String target) {
+        this.target = target;
+    }
+
+    /**
+     * Run before each call: sleeps for the injected latency and stall, then
+     * throws if the call is picked to fail.
+     *
+     * @throws InjectedFaultException for the calls picked to fail
+     */
+    public void beforeCall() {
+        FaultProfile current = profile;
+        if (!current.isActive()) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // Step 1: Stall a share of the calls
+        if (current.stallRate() > 0 && random.nextDouble() < current.stallRate()) {
+            stalled.increment();
+            sleep(current.stall().toNanos());
+        }
+
+        // Step 2: Latency from the distribution
+        long latencyNanos = current.sampleLatencyNanos(random);
+        if (latencyNanos > 0) {
+            delayed.increment();
+            sleep(latencyNanos);
+        }
+
+        // Step 3: Fail a share of the calls, after the latency like a real timeout
+        if (current.errorRate() > 0 && random.nextDouble() < current.errorRate()) {
+            failed.increment();
+            throw new InjectedFaultException(target);
+        }
+    }
+
+    public String target() {
+        return target;
+    }
+
+    public FaultProfile profile() {
+        return profile;
+    }
+
+    public void setProfile(FaultProfile profile) {
+        this.profile = profile;
+    }
+
+    public long delayed() {
+        return delayed.sum();
+    }
+
+    public long stalled() {
+        return stalled.sum();
+    }
+
+    public long failed() {
+        return failed.sum();
+    }
+
+    private static void sleep(long nanos) {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
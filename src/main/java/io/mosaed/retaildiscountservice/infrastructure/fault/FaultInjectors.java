@@ -0,0 +1,46 @@
+package io.mosaed.retaildiscountservice.infrastructure.fault;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The fault injectors of an instance, one per decorated port.
+ */
+public final class FaultInjectors {
+
+    public static final String BILLS = "bills";
+    public static final String CUSTOMERS = "customers";
+
+    private final Map<String, FaultInjector> injectors = new LinkedHashMap<>();
+
+    public FaultInjectors() {
+        injectors.put(BILLS, new FaultInjector(BILLS));
+        injectors.put(CUSTOMERS, new FaultInjector(CUSTOMERS));
+    }
+
+    public BillRepository decorate(BillRepository billRepository) {
+        return new FaultInjectingBillRepository(billRepository, injectors.get(BILLS));
+    }
+
+    public CustomerRepository decorate(CustomerRepository customerRepository) {
+        return new FaultInjectingCustomerRepository(customerRepository, injectors.get(CUSTOMERS));
+    }
+
+    public Optional<FaultInjector> find(String target) {
+        return Optional.ofNullable(injectors.get(target));
+    }
+
+    public Collection<FaultInjector> all() {
+        return injectors.values();
+    }
+}
@@ -0,0 +1,81 @@
+package io.mosaed.retaildiscountservice.infrastructure.fault;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.Duration;
+import java.util.random.RandomGenerator;
+
+/**
+ * What a fault injector does to each call.
+ *
+ * Latency is added to every call, drawn from one of:
+ * - FIXED: always base
+ * - UNIFORM: evenly between base and max
+ * - LONG_TAIL: Pareto with scale base and the given tail index, capped at max;
+ *   most calls take about base, a few take many times longer (1.5 puts the
+ *   p99 near 20x base, lower indexes give heavier tails)
+ *
+ * On top of that, stallRate of the calls hang for stall (a primary stepping
+ * down, a full connection pool) and errorRate of the calls fail.
+ */
+public record FaultProfile(
+        Latency latency,
+        Duration base,
+        Duration max,
+        double tailIndex,
+        double errorRate,
+        double stallRate,
+        Duration stall) {
+
+    public enum Latency { NONE, FIXED, UNIFORM, LONG_TAIL }
+
+    public static final FaultProfile NONE =
+            new FaultProfile(Latency.NONE, Duration.ZERO, Duration.ZERO, 1.5, 0.0, 0.0, Duration.ZERO);
+
+    public FaultProfile {
+        if (latency == null || base == null || max == null || stall == null) {
+            throw new IllegalArgumentException("latency, base, max and stall are required");
+        }
+        if (base.isNegative() || max.isNegative() || stall.isNegative()) {
+            throw new IllegalArgumentException("Durations must not be negative");
+        }
+        if ((latency == Latency.UNIFORM || latency == Latency.LONG_TAIL) && max.compareTo(base) < 0) {
+            throw new IllegalArgumentException("max must not be below base");
+        }
+        if (tailIndex <= 0) {
+            throw new IllegalArgumentException("tailIndex must be positive");
+        }
+        if (!isRate(errorRate) || !isRate(stallRate)) {
+            throw new IllegalArgumentException("Rates must be between 0 and 1");
+        }
+    }
+
+    public boolean isActive() {
+        return latency != Latency.NONE || errorRate > 0 || stallRate > 0;
+    }
+
+    /**
+     * Latency to add to one call
+     */
+    long sampleLatencyNanos(RandomGenerator random) {
+        long baseNanos = base.toNanos();
+        long maxNanos = max.toNanos();
+        return switch (latency) {
+            case NONE -> 0;
+            case FIXED -> baseNanos;
+            case UNIFORM -> baseNanos + (long) (random.nextDouble() * (maxNanos - baseNanos));
+            case LONG_TAIL -> {
+                // Inverse transform: base / U^(1/alpha), U in (0, 1]
+                double u = 1.0 - random.nextDouble();
+                yield (long) Math.min(maxNanos, baseNanos / Math.pow(u, 1.0 / tailIndex));
+            }
+        };
+    }
+
+    private static boolean isRate(double rate) {
+        return rate >= 0 && rate <= 1;
+    }
+}
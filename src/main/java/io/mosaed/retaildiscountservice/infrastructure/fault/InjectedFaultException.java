@@ -0,0 +1,20 @@
+package io.mosaed.retaildiscountservice.infrastructure.fault;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.springframework.dao.DataAccessResourceFailureException;
+
+/**
+ * Failure raised by a fault injector. A resource failure like the ones the
+ * MongoDB driver raises when no server can be reached, so the circuit
+ * breaker and the degraded mode handle it like the real thing.
+ */
+public class InjectedFaultException extends DataAccessResourceFailureException {
+
+    public InjectedFaultException(String target) {
+        super("Injected fault in '" + target + "'");
+    }
+}
@@ -0,0 +1,41 @@
+package io.mosaed.retaildiscountservice.infrastructure.jfr;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for one call into the bill store.
+ */
+@Name("io.mosaed.retaildiscount.BillRepository")
+@Label("Bill Repository Operation")
+@Category({"Retail Discount Service", "Persistence"})
+@Description("Call into the bill store, with the number of bills and items written or read")
+@StackTrace(false)
+class BillRepositoryEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Store")
+    String store;
+
+    @Label("Bills")
+    @Description("Bills written or returned")
+    int bills;
+
+    @Label("Items")
+    @Description("Line items across those bills, the bulk of every stored document")
+    int items;
+
+    @Label("Failure")
+    String failure;
+}
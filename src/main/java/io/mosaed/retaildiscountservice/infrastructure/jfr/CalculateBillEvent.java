@@ -0,0 +1,40 @@
+package io.mosaed.retaildiscountservice.infrastructure.jfr;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Flight recorder event for a whole bill calculation request, from the
+ * customer lookup to the saved bill.
+ */
+@Name("io.mosaed.retaildiscount.CalculateBill")
+@Label("Calculate Bill")
+@Category({"Retail Discount Service", "Application"})
+@Description("Calculate bill use case, end to end")
+@StackTrace(false)
+class CalculateBillEvent extends Event {
+
+    @Label("Customer Id")
+    String customerId;
+
+    @Label("Item Count")
+    int itemCount;
+
+    @Label("Bill Id")
+    String billId;
+
+    @Label("Percentage Discount Rate")
+    int percentageDiscountRate;
+
+    @Label("Failure")
+    String failure;
+}
@@ -0,0 +1,156 @@
+package io.mosaed.retaildiscountservice.infrastructure.jfr;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import jdk.jfr.Configuration;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Actuator endpoint to drive flight recordings on a running instance.
+ *
+ * - GET /actuator/jfr lists the recordings, including one started with
+ *   -XX:StartFlightRecording
+ * - POST /actuator/jfr starts one: name, settings ("default" or "profile"),
+ *   optional duration after which it stops by itself
+ * - GET /actuator/jfr/{name} dumps what a recording holds so far as a .jfr file
+ * - DELETE /actuator/jfr/{name} stops a running recording (its data can still
+ *   be dumped), and discards a stopped one
+ *
+ * Not exposed over HTTP by default; add "jfr" to the exposed endpoints only
+ * where the actuator is not reachable by customers.
+ */
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private static final List<String> SETTINGS = List.of("default", "profile");
+
+    private final Duration maxAge;
+
+    public FlightRecorderEndpoint(Duration maxAge) {
+        this.maxAge = maxAge;
+    }
+
+    @ReadOperation
+    public List<RecordingDescriptor> recordings() {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .map(RecordingDescriptor::of)
+                .toList();
+    }
+
+    @WriteOperation
+    public RecordingDescriptor start(@Nullable String name, @Nullable String settings, @Nullable Duration duration) {
+        String recordingName = name != null ? name : "recording-" + Instant.now().getEpochSecond();
+        if (find(recordingName).isPresent()) {
+            throw new InvalidEndpointRequestException(
+                    "Recording '" + recordingName + "' already exists", "Duplicate recording name");
+        }
+
+        Recording recording = new Recording(configuration(settings != null ? settings : "default"));
+        recording.setName(recordingName);
+        recording.setToDisk(true);
+        // Keeps a forgotten recording from filling the disk
+        recording.setMaxAge(maxAge);
+        if (duration != null) {
+            recording.setDuration(duration);
+        }
+        recording.start();
+        return RecordingDescriptor.of(recording);
+    }
+
+    @ReadOperation(produces = "application/octet-stream")
+    public Resource dump(@Selector String name) throws IOException {
+        Optional<Recording> recording = find(name);
+        if (recording.isEmpty()) {
+            return null;
+        }
+
+        // Dumped to a temporary file that goes away once the response is written
+        Path file = Files.createTempFile("jfr-" + name + "-", ".jfr");
+        try {
+            recording.get().dump(file);
+            return new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE));
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+    }
+
+    @DeleteOperation
+    public RecordingDescriptor stop(@Selector String name) {
+        Optional<Recording> found = find(name);
+        if (found.isEmpty()) {
+            return null;
+        }
+
+        Recording recording = found.get();
+        if (recording.getState() == RecordingState.RUNNING || recording.getState() == RecordingState.DELAYED) {
+            recording.stop();
+        } else {
+            recording.close();
+        }
+        return RecordingDescriptor.of(recording);
+    }
+
+    private static Optional<Recording> find(String name) {
+        return FlightRecorder.getFlightRecorder().getRecordings().stream()
+                .filter(recording -> name.equals(recording.getName()))
+                .findFirst();
+    }
+
+    private static Configuration configuration(String settings) {
+        if (!SETTINGS.contains(settings)) {
+            throw new InvalidEndpointRequestException(
+                    "Unknown settings '" + settings + "', expected one of " + SETTINGS, "Unknown settings");
+        }
+        try {
+            return Configuration.getConfiguration(settings);
+        } catch (IOException | ParseException e) {
+            throw new IllegalStateException("Cannot load JFR settings " + settings, e);
+        }
+    }
+
+    public record RecordingDescriptor(
+            long id,
+            String name,
+            RecordingState state,
+            Instant startTime,
+            Duration duration,
+            Duration maxAge,
+            long size) {
+
+        static RecordingDescriptor of(Recording recording) {
+            return new RecordingDescriptor(
+                    recording.getId(),
+                    recording.getName(),
+                    recording.getState(),
+                    recording.getStartTime(),
+                    recording.getDuration(),
+                    recording.getMaxAge(),
+                    recording.getSize());
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package io.mosaed.retaildiscountservice.infrastructure.jfr;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * BillRepository decorator that emits a BillRepositoryEvent per call.
+ *
+ * Sits directly on the store, so the events time the store itself and not
+ * the coalescing in front of it.
+ */
+public class RecordingBillRepository implements BillRepository {
+
+    private final BillRepository delegate;
+    private final String store;
+
+    public RecordingBillRepository(BillRepository delegate) {
+        this.delegate = delegate;
+        this.store = delegate.getClass().getSimpleName();
+    }
+
+    @Override
+    public Bill save(Bill bill) {
+        return record("save", () -> delegate.save(bill), saved -> 1, saved -> saved.getItems().size());
+    }
+
+    @Override
+    public Optional<Bill> findById(String billId) {
+        return record("findById", () -> delegate.findById(billId),
+                found -> found.isPresent() ? 1 : 0,
+                found -> found.map(bill -> bill.getItems().size()).orElse(0));
+    }
+
+    @Override
+    public List<Bill> findByCustomerId(String customerId) {
+        return record("findByCustomerId", () -> delegate.findByCustomerId(customerId),
+                List::size, RecordingBillRepository::items);
+    }
+
+    @Override
+    public List<Bill> findByCustomerIdAndDateRange(String customerId, LocalDateTime from, LocalDateTime to) {
+        return record("findByCustomerIdAndDateRange", () -> delegate.findByCustomerIdAndDateRange(customerId, from, to),
+                List::size, RecordingBillRepository::items);
+    }
+
+    @Override
+    public List<Bill> findRecentBills(int limit) {
+        return record("findRecentBills", () -> delegate.findRecentBills(limit),
+                List::size, RecordingBillRepository::items);
+    }
+
+    @Override
+    public boolean deleteById(String billId) {
+        return record("deleteById", () -> delegate.deleteById(billId), deleted -> deleted ? 1 : 0, deleted -> 0);
+    }
+
+    @Override
+    public boolean existsById(String billId) {
+        return record("existsById", () -> delegate.existsById(billId), exists -> 0, exists -> 0);
+    }
+
+    private <T> T record(String operation, Supplier<T> call, ToIntFunction<T> bills, ToIntFunction<T> items) {
+        BillRepositoryEvent event = new BillRepositoryEvent();
+        event.begin();
+        try {
+            T result = call.get();
+            if (event.shouldCommit()) {
+                event.bills = bills.applyAsInt(result);
+                event.items = items.applyAsInt(result);
+            }
+            return result;
+        } catch (RuntimeException e) {
+            event.failure = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.operation = operation;
+                event.store = store;
+                event.commit();
+            }
+        }
+    }
+
+    private static int items(List<Bill> bills) {
+        int items = 0;
+        for (Bill bill : bills) {
+            items += bill.getItems().size();
+        }
+        return items;
+    }
+}
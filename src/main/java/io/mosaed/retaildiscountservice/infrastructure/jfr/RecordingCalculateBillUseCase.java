@@ -0,0 +1,45 @@
+package io.mosaed.retaildiscountservice.infrastructure.jfr;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.dto.BillCalculationResponse;
+import io.mosaed.retaildiscountservice.application.dto.CalculateBillCommand;
+import io.mosaed.retaildiscountservice.application.port.in.CalculateBillUseCase;
+
+/**
+ * CalculateBillUseCase decorator that emits a CalculateBillEvent per call.
+ */
+public class RecordingCalculateBillUseCase implements CalculateBillUseCase {
+
+    private final CalculateBillUseCase delegate;
+
+    public RecordingCalculateBillUseCase(CalculateBillUseCase delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public BillCalculationResponse execute(CalculateBillCommand command) {
+        CalculateBillEvent event = new CalculateBillEvent();
+        event.begin();
+        try {
+            BillCalculationResponse response = delegate.execute(command);
+            if (event.shouldCommit()) {
+                event.billId = response.getBillId();
+                event.percentageDiscountRate = response.getPercentageDiscountRate();
+            }
+            return response;
+        } catch (RuntimeException e) {
+            event.failure = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            if (event.shouldCommit()) {
+                event.customerId = command.getCustomerId();
+                event.itemCount = command.getItems() == null ? 0 : command.getItems().size();
+                event.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.mosaed.retaildiscountservice.infrastructure.limit;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.dto.BillCalculationResponse;
+import io.mosaed.retaildiscountservice.application.dto.CalculateBillCommand;
+import io.mosaed.retaildiscountservice.application.port.in.CalculateBillUseCase;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.AdaptiveConcurrencyLimiter;
+
+/**
+ * CalculateBillUseCase decorator running every call under an adaptive concurrency limit.
+ */
+public class LimitedCalculateBillUseCase implements CalculateBillUseCase {
+
+    private final CalculateBillUseCase delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public LimitedCalculateBillUseCase(CalculateBillUseCase delegate, AdaptiveConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public BillCalculationResponse execute(CalculateBillCommand command) {
+        return limiter.call(() -> delegate.execute(command));
+    }
+}
@@ -0,0 +1,45 @@
+package io.mosaed.retaildiscountservice.infrastructure.limit;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.dto.BillCalculationResponse;
+import io.mosaed.retaildiscountservice.application.port.in.ListBillsUseCase;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.AdaptiveConcurrencyLimiter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * ListBillsUseCase decorator running every call under an adaptive concurrency limit.
+ */
+public class LimitedListBillsUseCase implements ListBillsUseCase {
+
+    private final ListBillsUseCase delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+
+    public LimitedListBillsUseCase(ListBillsUseCase delegate, AdaptiveConcurrencyLimiter limiter) {
+        this.delegate = delegate;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public List<BillCalculationResponse> findByCustomerId(String customerId) {
+        return limiter.call(() -> delegate.findByCustomerId(customerId));
+    }
+
+    @Override
+    public List<BillCalculationResponse> findByCustomerIdAndDateRange(
+            String customerId,
+            LocalDateTime from,
+            LocalDateTime to) {
+        return limiter.call(() -> delegate.findByCustomerIdAndDateRange(customerId, from, to));
+    }
+
+    @Override
+    public List<BillCalculationResponse> findRecentBills(int limit) {
+        return limiter.call(() -> delegate.findRecentBills(limit));
+    }
+}
@@ -0,0 +1,27 @@
+package io.mosaed.retaildiscountservice.infrastructure.security;
+
+/// @author MOSAED ALOTAIBI
+
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Authenticated user that carries the domain Customer loaded during
+ * authentication, so the request does not have to load it again.
+ */
+public class CustomerPrincipal extends User {
+
+    private final Customer customer;
+
+    public CustomerPrincipal(Customer customer, String password, Collection<? extends GrantedAuthority> authorities) {
+        super(customer.getCustomerId(), password, authorities);
+        this.customer = customer;
+    }
+
+    public Customer getCustomer() {
+        return customer;
+    }
+}
@@ -5,7 +5,6 @@ package io.mosaed.retaildiscountservice.infrastructure.security;
 import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
 import io.mosaed.retaildiscountservice.domain.model.Customer;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -32,15 +31,11 @@ public class CustomerUserDetailsService implements UserDetailsService {
 
         String authority = "ROLE_" + customer.getEffectiveType().name();
 
-        return User.builder()
-                .username(customer.getCustomerId())
-                .password(password)
-                .authorities(Collections.singletonList(new SimpleGrantedAuthority(authority)))
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(false)
-                .build();
+        // Carry the customer itself, so the request can reuse it instead of loading it again
+        return new CustomerPrincipal(
+                customer,
+                password,
+                Collections.singletonList(new SimpleGrantedAuthority(authority)));
     }
 
     private String getPasswordForCustomer(Customer customer) {
@@ -0,0 +1,32 @@
+package io.mosaed.retaildiscountservice.infrastructure.security;
+
+/// @author MOSAED ALOTAIBI
+
+import io.mosaed.retaildiscountservice.application.port.out.AuthenticatedCustomerResolver;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Resolves the authenticated customer from the request's SecurityContext.
+ *
+ * Sessions are stateless, so the principal is loaded fresh on every request
+ * and the snapshot is never older than the request itself.
+ */
+@Component
+public class SecurityContextCustomerResolver implements AuthenticatedCustomerResolver {
+
+    @Override
+    public Optional<Customer> currentCustomer() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null
+                && authentication.isAuthenticated()
+                && authentication.getPrincipal() instanceof CustomerPrincipal principal) {
+            return Optional.of(principal.getCustomer());
+        }
+        return Optional.empty();
+    }
+}
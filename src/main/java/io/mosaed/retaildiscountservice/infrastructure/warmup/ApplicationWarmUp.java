@@ -0,0 +1,239 @@
+package io.mosaed.retaildiscountservice.infrastructure.warmup;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.mosaed.retaildiscountservice.application.dto.BillItemDto;
+import io.mosaed.retaildiscountservice.application.mapper.BillMapper;
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.domain.model.ItemCategory;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.BillController.CreateBillRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Runs the hot paths before the instance takes traffic.
+ *
+ * Right after a start the calculation, Jackson, the security filter chain
+ * and the store driver run interpreted and with cold caches, so the first
+ * requests are much slower than the rest. Once the application is ready the
+ * warm-up primes the customer cache with the most active customers, runs the
+ * calculation and mapping path on synthetic bills and sends requests through
+ * the local HTTP stack. Until it finishes (or its time budget runs out) this
+ * indicator reports OUT_OF_SERVICE, which keeps the readiness group down.
+ *
+ * Synthetic bills are never saved and synthetic requests are rejected by
+ * authentication, so the warm-up leaves no data behind.
+ */
+public class ApplicationWarmUp implements HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApplicationWarmUp.class);
+
+    private enum Phase { PENDING, RUNNING, DONE, DISABLED }
+
+    private final BillRepository billRepository;
+    private final CustomerRepository customerRepository;
+    private final ObjectMapper objectMapper;
+    private final WarmUpSettings settings;
+
+    private final List<Customer> syntheticCustomers;
+    private final List<String> syntheticRequests;
+
+    private volatile Phase phase;
+    private volatile Map<String, Object> result = Map.of();
+
+    public ApplicationWarmUp(
+            BillRepository billRepository,
+            CustomerRepository customerRepository,
+            ObjectMapper objectMapper,
+            WarmUpSettings settings) {
+        this.billRepository = billRepository;
+        this.customerRepository = customerRepository;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+        this.phase = settings.enabled() ? Phase.PENDING : Phase.DISABLED;
+        this.syntheticCustomers = syntheticCustomers();
+        this.syntheticRequests = syntheticRequests();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startInBackground(ApplicationReadyEvent event) {
+        if (phase != Phase.PENDING) {
+            return;
+        }
+        int port = serverPort(event.getApplicationContext());
+        Thread.ofVirtual().name("application-warm-up").start(() -> run(port));
+    }
+
+    @Override
+    public Health health() {
+        return switch (phase) {
+            case PENDING, RUNNING -> Health.outOfService().withDetail("phase", phase).build();
+            case DONE -> Health.up().withDetails(result).build();
+            case DISABLED -> Health.up().withDetail("phase", phase).build();
+        };
+    }
+
+    /**
+     * Run every warm-up step within the budget. Never throws: a step that
+     * fails is logged and skipped, the instance just starts colder.
+     */
+    void run(int port) {
+        phase = Phase.RUNNING;
+        long start = System.nanoTime();
+        long deadline = start + settings.budget().toNanos();
+
+        // Step 1: Load the customers most likely to come first (also warms the store driver)
+        int customers = step("customer priming", this::primeCustomers);
+
+        // Step 2: Exercise calculation, mapping and JSON on synthetic bills
+        int calculations = step("calculation", () -> exerciseCalculation(deadline));
+
+        // Step 3: Send requests through the HTTP stack and the security filter chain
+        int requests = port > 0 ? step("http", () -> exerciseHttp(port, deadline)) : 0;
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        result = Map.of(
+                "phase", Phase.DONE,
+                "durationMs", elapsedMillis,
+                "customersPrimed", customers,
+                "calculations", calculations,
+                "httpRequests", requests,
+                "budgetExhausted", System.nanoTime() >= deadline);
+        phase = Phase.DONE;
+
+        logger.info("Warm-up finished in {} ms: {} customers primed, {} calculations, {} HTTP requests",
+                elapsedMillis, customers, calculations, requests);
+    }
+
+    int primeCustomers() {
+        if (settings.primeCustomers() <= 0) {
+            return 0;
+        }
+
+        // Most bills among the recent ones: the customers likely to be back first
+        List<String> mostActive = billRepository.findRecentBills(settings.recentBills()).stream()
+                .collect(Collectors.groupingBy(bill -> bill.getCustomer().getCustomerId(), Collectors.counting()))
+                .entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(settings.primeCustomers())
+                .map(Map.Entry::getKey)
+                .toList();
+
+        return mostActive.isEmpty() ? 0 : customerRepository.findAllById(mostActive).size();
+    }
+
+    int exerciseCalculation(long deadline) throws IOException {
+        int iterations = 0;
+        while (iterations < settings.calculations() && System.nanoTime() < deadline) {
+            String body = syntheticRequests.get(iterations % syntheticRequests.size());
+            Customer customer = syntheticCustomers.get(iterations % syntheticCustomers.size());
+
+            // Same path as a checkout request, minus persistence
+            CreateBillRequest request = objectMapper.readValue(body, CreateBillRequest.class);
+            Bill bill = Bill.create(customer, BillMapper.toDomainItems(request.getItems()));
+            objectMapper.writeValueAsBytes(BillMapper.toResponse(bill));
+            iterations++;
+        }
+        return iterations;
+    }
+
+    int exerciseHttp(int port, long deadline) throws IOException, InterruptedException {
+        URI uri = URI.create("http://localhost:" + port + settings.contextPath() + "/bills");
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+
+        int requests = 0;
+        while (requests < settings.httpRequests() && System.nanoTime() < deadline) {
+            // Unauthenticated on purpose: answered with 401, nothing is created
+            HttpRequest request = HttpRequest.newBuilder(uri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(syntheticRequests.get(requests % syntheticRequests.size())))
+                    .build();
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+            requests++;
+        }
+        return requests;
+    }
+
+    private int step(String name, WarmUpStep step) {
+        try {
+            return step.run();
+        } catch (Exception e) {
+            logger.warn("Warm-up step '{}' failed, skipping it", name, e);
+            return 0;
+        }
+    }
+
+    private static int serverPort(ApplicationContext context) {
+        return context instanceof WebServerApplicationContext web && web.getWebServer() != null
+                ? web.getWebServer().getPort()
+                : -1;
+    }
+
+    private static List<Customer> syntheticCustomers() {
+        List<Customer> customers = new ArrayList<>();
+        for (CustomerType type : CustomerType.values()) {
+            customers.add(Customer.of("warm-up-" + type.name().toLowerCase(), type, LocalDate.now().minusYears(3)));
+        }
+        return List.copyOf(customers);
+    }
+
+    private List<String> syntheticRequests() {
+        // Bills of growing size mixing every category, as JSON like clients send them
+        List<String> requests = new ArrayList<>();
+        ItemCategory[] categories = ItemCategory.values();
+        for (int size = 1; size <= 8; size++) {
+            List<BillItemDto> items = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                ItemCategory category = categories[(size + i) % categories.length];
+                items.add(BillItemDto.of("Item " + i, category.name(), 9.99 * (i + 1), i % 3 + 1));
+            }
+            CreateBillRequest request = new CreateBillRequest();
+            request.setItems(items);
+            requests.add(toJson(request));
+        }
+        return List.copyOf(requests);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot serialize warm-up request", e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface WarmUpStep {
+        int run() throws Exception;
+    }
+}
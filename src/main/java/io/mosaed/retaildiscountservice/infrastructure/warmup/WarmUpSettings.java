@@ -0,0 +1,29 @@
+package io.mosaed.retaildiscountservice.infrastructure.warmup;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import java.time.Duration;
+
+/**
+ * What the warm-up does and how long it may take.
+ *
+ * @param enabled        false reports ready right away
+ * @param budget         time after which the remaining steps are cut short
+ * @param recentBills    recent bills scanned to find the most active customers
+ * @param primeCustomers most active customers loaded into the cache
+ * @param calculations   synthetic bills run through calculation and mapping
+ * @param httpRequests   requests sent through the local HTTP stack
+ * @param contextPath    servlet context path of the local server
+ */
+public record WarmUpSettings(
+        boolean enabled,
+        Duration budget,
+        int recentBills,
+        int primeCustomers,
+        int calculations,
+        int httpRequests,
+        String contextPath) {
+}
@@ -0,0 +1,227 @@
+package io.mosaed.retaildiscountservice;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.dto.BillItemDto;
+import io.mosaed.retaildiscountservice.application.dto.CalculateBillCommand;
+import io.mosaed.retaildiscountservice.application.mapper.BillMapper;
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.service.BillService;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.BillItem;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.mapper.PersistenceMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.assertj.core.api.Assumptions.*;
+
+/**
+ * Bytes allocated per operation on the request hot path.
+ *
+ * Each path is warmed up until the JIT has compiled it, then run again while
+ * the thread's allocation counter is read before and after. The per-path
+ * budgets live in allocation-budgets.properties next to this class; when a
+ * change legitimately needs more, raise the budget in the same commit so the
+ * increase is reviewed. Run with -Dallocation.report=true to print the
+ * measured values.
+ */
+@DisplayName("Hot path allocation budgets")
+class AllocationBudgetTest {
+
+    private static final int WARM_UP_OPERATIONS = 20_000;
+    private static final int MEASURED_OPERATIONS = 10_000;
+
+    private static com.sun.management.ThreadMXBean threads;
+    private static Properties budgets;
+
+    private BillService billService;
+    private List<CalculateBillCommand> commands;
+    private Customer customer;
+
+    @BeforeAll
+    static void loadBudgets() throws IOException {
+        assumeThat(ManagementFactory.getThreadMXBean())
+                .as("JVM exposes per-thread allocation counters")
+                .isInstanceOf(com.sun.management.ThreadMXBean.class);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        budgets = new Properties();
+        try (InputStream in = AllocationBudgetTest.class.getResourceAsStream("allocation-budgets.properties")) {
+            assertThat(in).as("allocation-budgets.properties").isNotNull();
+            budgets.load(in);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        InMemoryCustomerRepository customers = new InMemoryCustomerRepository();
+        customer = customers.save(Customer.of("EMP001", CustomerType.EMPLOYEE, LocalDate.of(2020, 1, 1)));
+        billService = new BillService(customers, new DiscardingBillRepository());
+
+        // Representative checkout sizes: a single item, a basket, a big cart
+        commands = List.of(
+                command(1),
+                command(5),
+                command(20));
+    }
+
+    @Test
+    @DisplayName("BillService.execute stays within its allocation budget")
+    void billServiceExecute() {
+        assertWithinBudget("bill-service.execute",
+                i -> billService.execute(commands.get(i % commands.size())));
+    }
+
+    @Test
+    @DisplayName("BillMapper.toResponse stays within its allocation budget")
+    void billMapperToResponse() {
+        // Fresh bills as they come back from the store: the discount is not calculated yet
+        assertWithinBudget("bill-mapper.to-response", freshBills(),
+                bills -> i -> BillMapper.toResponse(bills.get(i)));
+    }
+
+    @Test
+    @DisplayName("PersistenceMapper.toDocument stays within its allocation budget")
+    void persistenceMapperToDocument() {
+        // Bills as they are saved: the discount is already calculated
+        assertWithinBudget("persistence-mapper.to-document", calculatedBills(),
+                bills -> i -> PersistenceMapper.toDocument(bills.get(i)));
+    }
+
+    private void assertWithinBudget(String path, IntConsumer operation) {
+        assertWithinBudget(path, operations -> null, ignored -> operation);
+    }
+
+    /**
+     * Run the operation over inputs prepared outside the measured window, so
+     * only the operation's own allocations are counted.
+     */
+    private <T> void assertWithinBudget(String path, InputFactory<T> inputs, OperationFactory<T> operation) {
+        long budget = Long.parseLong(budgets.getProperty(path, "-1").trim());
+        assertThat(budget).as("budget for %s in allocation-budgets.properties", path).isPositive();
+
+        // Step 1: Warm up until compiled (escape analysis changes what is allocated)
+        IntConsumer warmUp = operation.create(inputs.create(WARM_UP_OPERATIONS));
+        for (int i = 0; i < WARM_UP_OPERATIONS; i++) {
+            warmUp.accept(i);
+        }
+
+        // Step 2: Measure
+        IntConsumer measured = operation.create(inputs.create(MEASURED_OPERATIONS));
+        long threadId = Thread.currentThread().threadId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < MEASURED_OPERATIONS; i++) {
+            measured.accept(i);
+        }
+        long bytesPerOperation = (threads.getThreadAllocatedBytes(threadId) - before) / MEASURED_OPERATIONS;
+
+        if (Boolean.getBoolean("allocation.report")) {
+            System.out.printf("%s: %d bytes/op (budget %d)%n", path, bytesPerOperation, budget);
+        }
+        assertThat(bytesPerOperation)
+                .as("bytes allocated per %s (budget in allocation-budgets.properties)", path)
+                .isLessThanOrEqualTo(budget);
+    }
+
+    private InputFactory<List<Bill>> freshBills() {
+        return count -> {
+            List<Bill> bills = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                CalculateBillCommand command = commands.get(i % commands.size());
+                bills.add(Bill.reconstitute("bill-" + i, customer,
+                        BillMapper.toDomainItems(command.getItems()), LocalDateTime.of(2024, 1, 1, 12, 0)));
+            }
+            return bills;
+        };
+    }
+
+    private InputFactory<List<Bill>> calculatedBills() {
+        InputFactory<List<Bill>> fresh = freshBills();
+        return count -> {
+            List<Bill> bills = fresh.create(count);
+            bills.forEach(Bill::calculateDiscount);
+            return bills;
+        };
+    }
+
+    private static CalculateBillCommand command(int itemCount) {
+        String[] categories = {"GROCERY", "ELECTRONICS", "CLOTHING", "HOME_GOODS", "OTHER"};
+        List<BillItemDto> items = new ArrayList<>(itemCount);
+        for (int i = 0; i < itemCount; i++) {
+            items.add(BillItemDto.of("Item " + i, categories[i % categories.length], 19.99 + i, i % 3 + 1));
+        }
+        return CalculateBillCommand.of("EMP001", items);
+    }
+
+    @FunctionalInterface
+    private interface InputFactory<T> {
+        T create(int count);
+    }
+
+    @FunctionalInterface
+    private interface OperationFactory<T> {
+        IntConsumer create(T inputs);
+    }
+
+    /**
+     * Store stand-in: the budget covers the service, not a particular store
+     */
+    private static final class DiscardingBillRepository implements BillRepository {
+
+        @Override
+        public Bill save(Bill bill) {
+            return bill;
+        }
+
+        @Override
+        public Optional<Bill> findById(String billId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public List<Bill> findByCustomerId(String customerId) {
+            return List.of();
+        }
+
+        @Override
+        public List<Bill> findByCustomerIdAndDateRange(String customerId, LocalDateTime from, LocalDateTime to) {
+            return List.of();
+        }
+
+        @Override
+        public List<Bill> findRecentBills(int limit) {
+            return List.of();
+        }
+
+        @Override
+        public boolean deleteById(String billId) {
+            return false;
+        }
+
+        @Override
+        public boolean existsById(String billId) {
+            return false;
+        }
+    }
+}
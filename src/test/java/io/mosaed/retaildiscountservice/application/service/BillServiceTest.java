@@ -8,8 +8,12 @@ package io.mosaed.retaildiscountservice.application.service;
 import io.mosaed.retaildiscountservice.application.dto.BillCalculationResponse;
 import io.mosaed.retaildiscountservice.application.dto.BillItemDto;
 import io.mosaed.retaildiscountservice.application.dto.CalculateBillCommand;
+import io.mosaed.retaildiscountservice.application.port.out.AuthenticatedCustomerResolver;
+import io.mosaed.retaildiscountservice.application.port.out.BillJournal;
 import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
 import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.application.port.out.PersistenceUnavailableException;
+import io.mosaed.retaildiscountservice.application.port.out.RequestDeadline;
 import io.mosaed.retaildiscountservice.domain.exception.CustomerNotFoundException;
 import io.mosaed.retaildiscountservice.domain.exception.InvalidBillException;
 import io.mosaed.retaildiscountservice.domain.model.Customer;
@@ -29,6 +33,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -98,6 +103,7 @@ class BillServiceTest {
         assertThat(response.getTotalAmount()).isEqualByComparingTo(new BigDecimal("1000.00"));
         assertThat(response.getPercentageDiscountRate()).isEqualTo(30);
         assertThat(response.getNetPayable()).isEqualByComparingTo(new BigDecimal("665.00"));
+        assertThat(response.isPersisted()).isTrue();
 
         // Verify interactions with mocks
         verify(customerRepository).findById("EMP001");
@@ -107,6 +113,135 @@ class BillServiceTest {
         verifyNoMoreInteractions(customerRepository, billRepository);
     }
 
+    @Test
+    @DisplayName("Should assign bill ids from the configured generator")
+    void shouldAssignBillIdsFromConfiguredGenerator() {
+        // Given a service with a fixed id generator
+        BillService service = new BillService(customerRepository, billRepository, () -> "BILL-42",
+                AuthenticatedCustomerResolver.NONE, RequestDeadline.NONE, BillJournal.NONE);
+        CalculateBillCommand command = CalculateBillCommand.of(
+                "EMP001",
+                List.of(BillItemDto.of("Laptop", "ELECTRONICS", 1000.00, 1))
+        );
+        when(customerRepository.findById("EMP001")).thenReturn(Optional.of(testCustomer));
+        when(billRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When executing the use case
+        BillCalculationResponse response = service.execute(command);
+
+        // Then the bill carries the generated id
+        assertThat(response.getBillId()).isEqualTo("BILL-42");
+    }
+
+    @Test
+    @DisplayName("Should reuse the authenticated customer instead of loading it again")
+    void shouldReuseAuthenticatedCustomer() {
+        // Given the request was authenticated as EMP001
+        BillService service = new BillService(
+                customerRepository, billRepository, () -> "BILL-1", () -> Optional.of(testCustomer),
+                RequestDeadline.NONE, BillJournal.NONE);
+        CalculateBillCommand command = CalculateBillCommand.of(
+                "EMP001",
+                List.of(BillItemDto.of("Laptop", "ELECTRONICS", 1000.00, 1))
+        );
+        when(billRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When billing the authenticated customer
+        BillCalculationResponse response = service.execute(command);
+
+        // Then the customer is not read from the repository
+        assertThat(response.getPercentageDiscountRate()).isEqualTo(30);
+        verifyNoInteractions(customerRepository);
+    }
+
+    @Test
+    @DisplayName("Should load the customer when billing someone other than the authenticated customer")
+    void shouldLoadCustomerWhenIdsDiffer() {
+        // Given the request was authenticated as another customer
+        Customer other = Customer.of("CUST001", CustomerType.REGULAR, LocalDate.now().minusYears(1));
+        BillService service = new BillService(
+                customerRepository, billRepository, () -> "BILL-1", () -> Optional.of(other),
+                RequestDeadline.NONE, BillJournal.NONE);
+        CalculateBillCommand command = CalculateBillCommand.of(
+                "EMP001",
+                List.of(BillItemDto.of("Laptop", "ELECTRONICS", 1000.00, 1))
+        );
+        when(customerRepository.findById("EMP001")).thenReturn(Optional.of(testCustomer));
+        when(billRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        BillCalculationResponse response = service.execute(command);
+
+        // Then the billed customer is the one from the command
+        assertThat(response.getCustomerId()).isEqualTo("EMP001");
+        verify(customerRepository).findById("EMP001");
+    }
+
+    @Test
+    @DisplayName("Should not save the bill once the request deadline has passed")
+    void shouldNotSaveAfterDeadline() {
+        // Given a request whose client has given up by the time the bill is calculated
+        BillService service = new BillService(
+                customerRepository, billRepository, () -> "BILL-1", () -> Optional.of(testCustomer),
+                stage -> {
+                    throw new IllegalStateException("deadline exceeded before " + stage);
+                },
+                BillJournal.NONE);
+        CalculateBillCommand command = CalculateBillCommand.of(
+                "EMP001",
+                List.of(BillItemDto.of("Laptop", "ELECTRONICS", 1000.00, 1))
+        );
+
+        // When / Then
+        assertThatThrownBy(() -> service.execute(command))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bill.save");
+        verifyNoInteractions(billRepository);
+    }
+
+    @Test
+    @DisplayName("Should journal the bill and answer unpersisted when the store is unavailable")
+    void shouldJournalBillWhenStoreUnavailable() {
+        // Given a store that is down and a journal that takes bills
+        List<Bill> journaled = new ArrayList<>();
+        BillJournal journal = journaled::add;
+        BillService service = new BillService(
+                customerRepository, billRepository, () -> "BILL-1", () -> Optional.of(testCustomer),
+                RequestDeadline.NONE, journal);
+        when(billRepository.save(any()))
+                .thenThrow(new PersistenceUnavailableException("down", new RuntimeException()));
+        CalculateBillCommand command = CalculateBillCommand.of(
+                "EMP001",
+                List.of(BillItemDto.of("Laptop", "ELECTRONICS", 1000.00, 1))
+        );
+
+        // When
+        BillCalculationResponse response = service.execute(command);
+
+        // Then the discounts are calculated as usual, flagged as not persisted
+        assertThat(response.isPersisted()).isFalse();
+        assertThat(response.getBillId()).isEqualTo("BILL-1");
+        assertThat(response.getNetPayable()).isEqualByComparingTo(new BigDecimal("665.00"));
+        assertThat(journaled).extracting(Bill::getBillId).containsExactly("BILL-1");
+    }
+
+    @Test
+    @DisplayName("Should fail when the store is unavailable and there is no journal")
+    void shouldFailWhenStoreUnavailableWithoutJournal() {
+        // Given
+        when(customerRepository.findById("EMP001")).thenReturn(Optional.of(testCustomer));
+        when(billRepository.save(any()))
+                .thenThrow(new PersistenceUnavailableException("down", new RuntimeException()));
+        CalculateBillCommand command = CalculateBillCommand.of(
+                "EMP001",
+                List.of(BillItemDto.of("Laptop", "ELECTRONICS", 1000.00, 1))
+        );
+
+        // When / Then
+        assertThatThrownBy(() -> billService.execute(command))
+                .isInstanceOf(PersistenceUnavailableException.class);
+    }
+
     @Test
     @DisplayName("Should throw CustomerNotFoundException when customer doesn't exist")
     void shouldThrowCustomerNotFoundExceptionWhenCustomerDoesNotExist() {
@@ -0,0 +1,130 @@
+package io.mosaed.retaildiscountservice.domain.model;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TimeOrderedBillIdGenerator Tests")
+class TimeOrderedBillIdGeneratorTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Test
+    @DisplayName("Should produce version 7 UUIDs carrying the creation time")
+    void shouldProduceVersion7Uuids() {
+        // Given
+        TimeOrderedBillIdGenerator generator =
+                new TimeOrderedBillIdGenerator(TimeOrderedBillIdGenerator.Encoding.UUID, () -> NOW);
+
+        // When
+        UUID id = UUID.fromString(generator.nextId());
+
+        // Then
+        assertThat(id.version()).isEqualTo(7);
+        assertThat(id.variant()).isEqualTo(2);
+        assertThat(id.getMostSignificantBits() >>> 16).isEqualTo(NOW);
+    }
+
+    @Test
+    @DisplayName("Should keep ids strictly increasing within one millisecond and when the clock goes back")
+    void shouldBeMonotonic() {
+        // Given - a clock stuck on one millisecond, then stepping back
+        long[] clock = {NOW};
+        TimeOrderedBillIdGenerator generator =
+                new TimeOrderedBillIdGenerator(TimeOrderedBillIdGenerator.Encoding.UUID, () -> clock[0]);
+
+        // When
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            ids.add(generator.nextId());
+        }
+        clock[0] = NOW - 1_000;
+        ids.add(generator.nextId());
+
+        // Then - string order is creation order
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should encode compact ids as 26 sortable base32 characters")
+    void shouldEncodeCompactIds() {
+        // Given
+        long[] clock = {NOW};
+        TimeOrderedBillIdGenerator generator =
+                new TimeOrderedBillIdGenerator(TimeOrderedBillIdGenerator.Encoding.COMPACT, () -> clock[0]);
+
+        // When
+        String first = generator.nextId();
+        clock[0] = NOW + 1;
+        String second = generator.nextId();
+
+        // Then
+        assertThat(first).hasSize(26).matches("[0-9A-HJKMNP-TV-Z]+");
+        assertThat(second).isGreaterThan(first);
+    }
+
+    @Test
+    @DisplayName("Should never hand out the same id to concurrent callers")
+    void shouldBeUniqueUnderConcurrency() throws Exception {
+        // Given
+        TimeOrderedBillIdGenerator generator = new TimeOrderedBillIdGenerator();
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 20_000; i++) {
+                    ids.add(generator.nextId());
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        assertThat(ids).hasSize(8 * 20_000);
+    }
+
+    @Test
+    @DisplayName("Should read the creation time back from ids in both encodings")
+    void shouldDecodeTimestamp() {
+        for (TimeOrderedBillIdGenerator.Encoding encoding : TimeOrderedBillIdGenerator.Encoding.values()) {
+            // Given
+            TimeOrderedBillIdGenerator generator = new TimeOrderedBillIdGenerator(encoding, () -> NOW);
+
+            // When
+            String id = generator.nextId();
+
+            // Then
+            assertThat(TimeOrderedBillIdGenerator.timestampOf(id)).as(id).contains(Instant.ofEpochMilli(NOW));
+        }
+    }
+
+    @Test
+    @DisplayName("Should not read a creation time from ids of another format")
+    void shouldIgnoreForeignIds() {
+        assertThat(TimeOrderedBillIdGenerator.timestampOf("BILL-3-4")).isEmpty();
+        assertThat(TimeOrderedBillIdGenerator.timestampOf(UUID.randomUUID().toString())).isEmpty();
+        assertThat(TimeOrderedBillIdGenerator.timestampOf("ZZZZZZZZZZZZZZZZZZZZZZZZZZ")).isEmpty();
+    }
+}
@@ -0,0 +1,141 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillItemDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("BillArchive Tests")
+class BillArchiveTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2023, 1, 1, 10, 0);
+
+    @TempDir
+    Path directory;
+
+    private BillDocumentCodec codec;
+
+    @BeforeEach
+    void setUp() {
+        // Same conversions as the application's MongoTemplate, without a database
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        codec = new BillDocumentCodec(converter);
+    }
+
+    @Test
+    @DisplayName("Should find every archived bill by id with all fields intact")
+    void shouldFindArchivedBillsById() {
+        // Given - enough bills to span several blocks
+        BillArchive archive = new BillArchive(directory, codec, 8);
+        List<BillDocument> bills = bills("customer-", 100);
+        archive.append(bills);
+
+        // When / Then
+        for (BillDocument bill : bills) {
+            BillDocument found = archive.findById(bill.getBillId()).orElseThrow();
+            assertThat(found.getCustomerId()).isEqualTo(bill.getCustomerId());
+            assertThat(found.getCreatedAt()).isEqualTo(bill.getCreatedAt());
+            assertThat(found.getNetPayable()).isEqualByComparingTo(bill.getNetPayable());
+            assertThat(found.getItems()).containsExactlyElementsOf(bill.getItems());
+        }
+        assertThat(archive.findById("missing")).isEmpty();
+        assertThat(archive.documentCount()).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should return only the customer's bills strictly inside the range")
+    void shouldFilterByCustomerAndExclusiveRange() {
+        // Given - customer-3 has bills at BASE + 3, 13, 23, ... hours
+        BillArchive archive = new BillArchive(directory, codec, 4);
+        archive.append(bills("customer-", 100));
+
+        // When
+        List<BillDocument> all = archive.findByCustomerId("customer-3", null, null);
+        List<BillDocument> ranged = archive.findByCustomerId(
+                "customer-3", BASE.plusHours(13), BASE.plusHours(43));
+
+        // Then
+        assertThat(all).hasSize(10).allMatch(bill -> bill.getCustomerId().equals("customer-3"));
+        assertThat(ranged).extracting(BillDocument::getCreatedAt)
+                .containsExactlyInAnyOrder(BASE.plusHours(23), BASE.plusHours(33));
+    }
+
+    @Test
+    @DisplayName("Should reopen existing segments and discard unfinished ones")
+    void shouldReopenSegmentsAfterRestart() throws IOException {
+        // Given - two segments and a leftover from a crashed append
+        BillArchive archive = new BillArchive(directory, codec, 16);
+        archive.append(bills("a-", 10));
+        archive.append(bills("b-", 10));
+        Path leftover = Files.writeString(directory.resolve("segment-00000000000000000002.seg.tmp"), "partial");
+
+        // When
+        BillArchive reopened = new BillArchive(directory, codec, 16);
+        reopened.append(bills("c-", 10));
+
+        // Then
+        assertThat(leftover).doesNotExist();
+        assertThat(reopened.documentCount()).isEqualTo(30);
+        assertThat(reopened.findByCustomerId("b-1", null, null)).hasSize(1);
+        assertThat(reopened.newestArchived()).contains(BASE.plusHours(9));
+    }
+
+    @Test
+    @DisplayName("Should report an empty archive when nothing was archived")
+    void shouldBeEmptyInitially() {
+        BillArchive archive = new BillArchive(directory, codec, 16);
+
+        assertThat(archive.isEmpty()).isTrue();
+        assertThat(archive.newestArchived()).isEmpty();
+        assertThat(archive.findByCustomerId("customer-1", null, null)).isEmpty();
+    }
+
+    /**
+     * Bill i belongs to prefix + (i % 10) and was created i hours after BASE
+     */
+    private static List<BillDocument> bills(String customerPrefix, int count) {
+        List<BillDocument> bills = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            BigDecimal amount = new BigDecimal("100.00").add(BigDecimal.valueOf(i));
+            bills.add(new BillDocument(
+                    customerPrefix + "bill-" + i,
+                    customerPrefix + (i % 10),
+                    "REGULAR",
+                    List.of(new BillItemDocument("Item " + i, "GROCERY", amount, 1)),
+                    BASE.plusHours(i),
+                    amount,
+                    BigDecimal.ZERO,
+                    0,
+                    new BigDecimal("5.00"),
+                    new BigDecimal("5.00"),
+                    amount.subtract(new BigDecimal("5.00"))));
+        }
+        return bills;
+    }
+}
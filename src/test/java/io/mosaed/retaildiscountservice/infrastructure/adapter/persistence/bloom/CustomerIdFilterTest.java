@@ -0,0 +1,111 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.bloom;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator.FilteringCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryCustomerRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CustomerIdFilter Tests")
+class CustomerIdFilterTest {
+
+    private InMemoryCustomerRepository store;
+    private CustomerIdFilter filter;
+    private FilteringCustomerRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        store = new InMemoryCustomerRepository();
+        store.save(customer("CUST001"));
+        // Authoritative: every customer write goes through this repository
+        filter = new CustomerIdFilter(store, 1000, 0.01, true);
+        repository = new FilteringCustomerRepository(store, filter);
+    }
+
+    @Test
+    @DisplayName("Should let every lookup through until the filter is built")
+    void shouldPassThroughBeforeBuild() {
+        assertThat(filter.isReady()).isFalse();
+        assertThat(filter.mightExist("UNKNOWN")).isTrue();
+        assertThat(filter.rejected()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reject unknown ids and keep known ones after the build")
+    void shouldRejectUnknownIds() {
+        // When
+        filter.rebuild();
+
+        // Then
+        assertThat(repository.findById("CUST001")).isPresent();
+        assertThat(repository.findById("NOPE-42")).isEmpty();
+        assertThat(filter.rejected()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should learn customers saved after the build")
+    void shouldAddSavedCustomers() {
+        filter.rebuild();
+
+        repository.save(customer("CUST002"));
+
+        assertThat(filter.mightExist("CUST002")).isTrue();
+        assertThat(repository.findById("CUST002")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Should find and learn customers written to the store by someone else")
+    void shouldFindCustomersWrittenElsewhere() {
+        // Given a filter that is not the only writer, built before the customer was created
+        CustomerIdFilter shared = new CustomerIdFilter(store, 1000, 0.01, false);
+        FilteringCustomerRepository sharedRepository = new FilteringCustomerRepository(store, shared);
+        shared.rebuild();
+        store.save(customer("CUST003"));
+
+        // When
+        assertThat(sharedRepository.findById("CUST003")).isPresent();
+
+        // Then the filter knows it from now on, and nothing was rejected
+        assertThat(shared.learned()).isEqualTo(1);
+        assertThat(shared.mightExist("CUST003")).isTrue();
+        assertThat(sharedRepository.findAllById(List.of("CUST003", "CUST001"))).containsOnlyKeys("CUST003", "CUST001");
+        assertThat(sharedRepository.findById("NOPE-42")).isEmpty();
+        assertThat(shared.rejected()).isZero();
+        assertThat(shared.falsePositives()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stay close to the configured false positive rate")
+    void shouldRespectFalsePositiveRate() {
+        // Given a filter filled to its expected size
+        BloomFilter bloom = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> bloom.add("CUST" + i));
+
+        // When probing ids that were never added
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> bloom.mightContain("OTHER" + i))
+                .count();
+
+        // Then no false negatives, and roughly 1% false positives
+        assertThat(IntStream.range(0, 10_000).allMatch(i -> bloom.mightContain("CUST" + i))).isTrue();
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(bloom.expectedFalsePositiveProbability()).isBetween(0.005, 0.02);
+    }
+
+    private static Customer customer(String id) {
+        return Customer.of(id, CustomerType.REGULAR, LocalDate.of(2020, 1, 1));
+    }
+}
@@ -0,0 +1,97 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.BillItem;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.domain.model.ItemCategory;
+import io.mosaed.retaildiscountservice.domain.model.Money;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.SingleFlight;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CoalescingBillRepository Tests")
+class CoalescingBillRepositoryTest {
+
+    @Test
+    @DisplayName("Should give every concurrent reader of the same bill its own aggregate")
+    void shouldGiveEveryReaderItsOwnBill() throws Exception {
+        // Given a stored bill whose store read is held open until every reader has arrived
+        InMemoryCustomerRepository customers = new InMemoryCustomerRepository();
+        Customer customer = customers.save(Customer.of("EMP001", CustomerType.EMPLOYEE, LocalDate.now().minusYears(3)));
+        InMemoryBillRepository store = new InMemoryBillRepository(customers);
+        store.save(Bill.reconstitute("BILL-1", customer,
+                List.of(BillItem.of("Laptop", ItemCategory.ELECTRONICS, Money.of(1000.00), 1)),
+                LocalDateTime.of(2024, 1, 1, 9, 0)));
+
+        AtomicInteger reads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        InMemoryBillRepository slowStore = new InMemoryBillRepository(customers) {
+            @Override
+            public Optional<Bill> findById(String billId) {
+                reads.incrementAndGet();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return store.findById(billId);
+            }
+        };
+        SingleFlight<String, Optional<CoalescingBillRepository.SharedBill>> singleFlight =
+                new SingleFlight<>(Duration.ofSeconds(10));
+        CoalescingBillRepository repository = new CoalescingBillRepository(slowStore, singleFlight);
+        int readers = 16;
+
+        // When every reader maps the bill to a response at the same time, as GET /bills/{id} does
+        List<Bill> bills = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < readers; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                Bill bill = repository.findById("BILL-1").orElseThrow();
+                bill.calculateDiscount();
+                bills.add(bill);
+            }));
+        }
+        while (singleFlight.leaders() + singleFlight.followers() < readers) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then one store read, but no aggregate shared between readers
+        assertThat(reads.get()).isEqualTo(1);
+        assertThat(bills).hasSize(readers);
+        Set<Bill> distinct = Collections.newSetFromMap(new IdentityHashMap<>());
+        distinct.addAll(bills);
+        assertThat(distinct).hasSize(readers);
+        assertThat(bills).allSatisfy(bill -> {
+            assertThat(bill.getNetPayableAmount().getAmount()).isEqualByComparingTo("665.00");
+            assertThat(bill.pullDomainEvents()).hasSize(1);
+        });
+    }
+}
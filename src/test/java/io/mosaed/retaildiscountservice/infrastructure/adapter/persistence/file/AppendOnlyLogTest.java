@@ -0,0 +1,155 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AppendOnlyLog Tests")
+class AppendOnlyLogTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should replay every appended record in order after reopening")
+    void shouldReplayRecordsAfterReopen() {
+        // Given
+        Path path = directory.resolve("test.log");
+        try (AppendOnlyLog log = AppendOnlyLog.open(path, Duration.ZERO, payload -> { })) {
+            log.append(bytes("first"));
+            log.append(bytes("second"));
+        }
+
+        // When
+        List<String> replayed = replay(path);
+
+        // Then
+        assertThat(replayed).containsExactly("first", "second");
+    }
+
+    @Test
+    @DisplayName("Should drop a torn record at the end of the log and keep appending after it")
+    void shouldTruncateTornTail() throws IOException {
+        // Given - a crash in the middle of writing the third record
+        Path path = directory.resolve("test.log");
+        try (AppendOnlyLog log = AppendOnlyLog.open(path, Duration.ZERO, payload -> { })) {
+            log.append(bytes("first"));
+            log.append(bytes("second"));
+        }
+        long intactLength = Files.size(path);
+        Files.write(path, new byte[]{0, 0, 0, 42, 1, 2}, StandardOpenOption.APPEND);
+
+        // When
+        List<String> replayed = new ArrayList<>();
+        try (AppendOnlyLog log = AppendOnlyLog.open(path, Duration.ZERO, payload -> replayed.add(string(payload)))) {
+            assertThat(Files.size(path)).isEqualTo(intactLength);
+            log.append(bytes("third"));
+        }
+
+        // Then
+        assertThat(replayed).containsExactly("first", "second");
+        assertThat(replay(path)).containsExactly("first", "second", "third");
+    }
+
+    @Test
+    @DisplayName("Should stop replaying at a record whose checksum does not match")
+    void shouldStopAtCorruptRecord() throws IOException {
+        // Given - the last byte of the second record flipped on disk
+        Path path = directory.resolve("test.log");
+        try (AppendOnlyLog log = AppendOnlyLog.open(path, Duration.ZERO, payload -> { })) {
+            log.append(bytes("first"));
+            log.append(bytes("second"));
+        }
+        byte[] content = Files.readAllBytes(path);
+        content[content.length - 1] ^= 0x7F;
+        Files.write(path, content);
+
+        // When / Then
+        assertThat(replay(path)).containsExactly("first");
+    }
+
+    @Test
+    @DisplayName("Should make every concurrent append durable")
+    void shouldGroupCommitConcurrentAppends() throws Exception {
+        // Given
+        Path path = directory.resolve("test.log");
+        int threads = 8;
+        int perThread = 200;
+
+        // When
+        try (AppendOnlyLog log = AppendOnlyLog.open(path, Duration.ofMillis(1), payload -> { })) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        log.append(bytes(thread + "-" + i));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            executor.shutdown();
+            assertThat(log.records()).isEqualTo(threads * perThread);
+        }
+
+        // Then
+        assertThat(replay(path)).hasSize(threads * perThread).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Should replace the log contents on rewrite and keep appending afterwards")
+    void shouldRewriteLog() {
+        // Given
+        Path path = directory.resolve("test.log");
+        try (AppendOnlyLog log = AppendOnlyLog.open(path, Duration.ZERO, payload -> { })) {
+            for (int i = 0; i < 10; i++) {
+                log.append(bytes("old-" + i));
+            }
+
+            // When
+            log.rewrite(List.of(bytes("kept")));
+            log.append(bytes("new"));
+
+            // Then
+            assertThat(log.records()).isEqualTo(2);
+        }
+        assertThat(replay(path)).containsExactly("kept", "new");
+    }
+
+    private static List<String> replay(Path path) {
+        List<String> replayed = new CopyOnWriteArrayList<>();
+        AppendOnlyLog.open(path, Duration.ZERO, payload -> replayed.add(string(payload))).close();
+        return replayed;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] payload) {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,239 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.dto.BillCalculationResponse;
+import io.mosaed.retaildiscountservice.application.dto.BillItemDto;
+import io.mosaed.retaildiscountservice.application.dto.CalculateBillCommand;
+import io.mosaed.retaildiscountservice.application.port.out.AuthenticatedCustomerResolver;
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.RequestDeadline;
+import io.mosaed.retaildiscountservice.application.service.BillService;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.domain.model.TimeOrderedBillIdGenerator;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.decorator.CircuitBreakingBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Store failover as seen by POST /bills: the bill store is a stand-in that
+ * fails like an unreachable MongoDB while switched off.
+ */
+@DisplayName("Bill journal failover Tests")
+class FileBillJournalTest {
+
+    @TempDir
+    Path directory;
+
+    private InMemoryCustomerRepository customerRepository;
+    private FaultInjectingBillRepository store;
+    private BillRepository billRepository;
+    private FileBillJournal journal;
+    private BillService billService;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository = new InMemoryCustomerRepository();
+        customerRepository.save(Customer.of("EMP001", CustomerType.EMPLOYEE, LocalDate.now().minusYears(3)));
+        customerRepository.save(Customer.of("CUST002", CustomerType.REGULAR, LocalDate.now().minusMonths(6)));
+
+        store = new FaultInjectingBillRepository(new InMemoryBillRepository(customerRepository));
+        CircuitBreaker circuitBreaker = new CircuitBreaker("persistence", 4, 2, 0.5, Duration.ZERO, 1,
+                e -> e instanceof DataAccessResourceFailureException);
+        billRepository = new CircuitBreakingBillRepository(store, circuitBreaker);
+        openJournal();
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Should answer with the calculated discounts while the store is down")
+    void shouldAnswerUnpersistedWhileStoreIsDown() {
+        // Given
+        store.failing = true;
+
+        // When
+        BillCalculationResponse response = billService.execute(command("EMP001", 1000.00));
+
+        // Then the same discounts as usual, flagged and journaled instead of saved
+        assertThat(response.isPersisted()).isFalse();
+        assertThat(response.getPercentageDiscountRate()).isEqualTo(30);
+        assertThat(response.getNetPayable()).isEqualByComparingTo("665.00");
+        assertThat(journal.pending()).isEqualTo(1);
+        assertThat(store.saved).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should save journaled bills in order once the store is back")
+    void shouldReplayInOrderOnceStoreIsBack() {
+        // Given bills taken during the outage
+        store.failing = true;
+        List<String> billIds = List.of(
+                billService.execute(command("EMP001", 100.00)).getBillId(),
+                billService.execute(command("CUST002", 200.00)).getBillId(),
+                billService.execute(command("EMP001", 300.00)).getBillId());
+
+        // When the store is still down, nothing is lost
+        assertThat(journal.replay()).isZero();
+        assertThat(journal.pending()).isEqualTo(3);
+
+        // When it is back
+        store.failing = false;
+        int replayed = journal.replay();
+
+        // Then every bill reaches the store, oldest first
+        assertThat(replayed).isEqualTo(3);
+        assertThat(store.saved).containsExactlyElementsOf(billIds);
+        assertThat(store.findById(billIds.get(1)).orElseThrow().calculateDiscount().getNetPayable().getAmount())
+                .isEqualByComparingTo("190.00");
+        assertThat(journal.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should keep journaled bills across a restart")
+    void shouldKeepJournaledBillsAcrossRestart() {
+        // Given
+        store.failing = true;
+        String billId = billService.execute(command("CUST002", 200.00)).getBillId();
+
+        // When the instance restarts before the store is back
+        journal.close();
+        openJournal();
+
+        // Then the bill is still waiting, and is saved once the store is back
+        assertThat(journal.pending()).isEqualTo(1);
+        store.failing = false;
+        journal.replay();
+        assertThat(store.saved).containsExactly(billId);
+
+        // And the journal is empty after another restart
+        journal.close();
+        openJournal();
+        assertThat(journal.pending()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stop calling the store once the circuit breaker opens")
+    void shouldStopCallingStoreOnceBreakerOpens() {
+        // Given
+        store.failing = true;
+
+        // When requests keep coming in during the outage
+        CircuitBreaker circuitBreaker = new CircuitBreaker("persistence", 4, 2, 0.5, Duration.ofHours(1), 1,
+                e -> e instanceof DataAccessResourceFailureException);
+        BillService service = billService(new CircuitBreakingBillRepository(store, circuitBreaker));
+        for (int i = 0; i < 10; i++) {
+            assertThat(service.execute(command("EMP001", 100.00)).isPersisted()).isFalse();
+        }
+
+        // Then only the calls that opened the breaker reached the store
+        assertThat(store.calls).isEqualTo(2);
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(journal.pending()).isEqualTo(10);
+    }
+
+    private void openJournal() {
+        journal = new FileBillJournal(directory, Duration.ZERO, billRepository, customerRepository);
+        billService = billService(billRepository);
+    }
+
+    private BillService billService(BillRepository repository) {
+        return new BillService(customerRepository, repository, new TimeOrderedBillIdGenerator(),
+                AuthenticatedCustomerResolver.NONE, RequestDeadline.NONE, journal);
+    }
+
+    private static CalculateBillCommand command(String customerId, double price) {
+        return CalculateBillCommand.of(customerId, List.of(BillItemDto.of("Item", "ELECTRONICS", price, 1)));
+    }
+
+    /**
+     * Bill store that fails like an unreachable database while failing is set.
+     */
+    static class FaultInjectingBillRepository implements BillRepository {
+
+        private final BillRepository delegate;
+        final List<String> saved = new CopyOnWriteArrayList<>();
+        volatile boolean failing;
+        volatile int calls;
+
+        FaultInjectingBillRepository(BillRepository delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public Bill save(Bill bill) {
+            checkAvailable();
+            Bill result = delegate.save(bill);
+            saved.add(bill.getBillId());
+            return result;
+        }
+
+        @Override
+        public Optional<Bill> findById(String billId) {
+            checkAvailable();
+            return delegate.findById(billId);
+        }
+
+        @Override
+        public List<Bill> findByCustomerId(String customerId) {
+            checkAvailable();
+            return delegate.findByCustomerId(customerId);
+        }
+
+        @Override
+        public List<Bill> findByCustomerIdAndDateRange(String customerId, LocalDateTime from, LocalDateTime to) {
+            checkAvailable();
+            return delegate.findByCustomerIdAndDateRange(customerId, from, to);
+        }
+
+        @Override
+        public List<Bill> findRecentBills(int limit) {
+            checkAvailable();
+            return delegate.findRecentBills(limit);
+        }
+
+        @Override
+        public boolean deleteById(String billId) {
+            checkAvailable();
+            return delegate.deleteById(billId);
+        }
+
+        @Override
+        public boolean existsById(String billId) {
+            checkAvailable();
+            return delegate.existsById(billId);
+        }
+
+        private void checkAvailable() {
+            calls++;
+            if (failing) {
+                throw new DataAccessResourceFailureException("Timed out while waiting for a server");
+            }
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.file;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.BillItem;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.domain.model.ItemCategory;
+import io.mosaed.retaildiscountservice.domain.model.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("File store repository Tests")
+class FileBillRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @TempDir
+    Path directory;
+
+    private FileCustomerRepository customerRepository;
+    private FileBillRepository billRepository;
+    private Customer employee;
+    private Customer regular;
+
+    @BeforeEach
+    void setUp() {
+        open();
+        employee = customerRepository.save(Customer.of("EMP001", CustomerType.EMPLOYEE, LocalDate.now().minusYears(3)));
+        regular = customerRepository.save(Customer.of("CUST002", CustomerType.REGULAR, LocalDate.now().minusMonths(6)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        close();
+    }
+
+    @Nested
+    @DisplayName("Queries")
+    class Queries {
+
+        @Test
+        @DisplayName("Should find a saved bill with its items and current customer")
+        void shouldFindSavedBill() {
+            // Given
+            Bill bill = billRepository.save(bill("bill-1", employee, BASE));
+
+            // When
+            Bill found = billRepository.findById("bill-1").orElseThrow();
+
+            // Then
+            assertThat(found.getCustomer()).isEqualTo(employee);
+            assertThat(found.getItems()).isEqualTo(bill.getItems());
+            assertThat(found.getNetPayableAmount()).isEqualTo(bill.getNetPayableAmount());
+            assertThat(billRepository.existsById("bill-1")).isTrue();
+            assertThat(billRepository.findById("missing")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("Should return a customer's bills in an exclusive range, newest first")
+        void shouldQueryCustomerRangeNewestFirst() {
+            // Given
+            for (int day = 0; day < 5; day++) {
+                billRepository.save(bill("emp-" + day, employee, BASE.plusDays(day)));
+                billRepository.save(bill("reg-" + day, regular, BASE.plusDays(day)));
+            }
+
+            // When
+            List<Bill> bills = billRepository.findByCustomerIdAndDateRange(
+                    "EMP001", BASE.plusDays(1), BASE.plusDays(4));
+
+            // Then
+            assertThat(bills).extracting(Bill::getBillId).containsExactly("emp-3", "emp-2");
+            assertThat(billRepository.findByCustomerId("CUST002")).hasSize(5);
+        }
+
+        @Test
+        @DisplayName("Should return the most recent bills across customers")
+        void shouldReturnRecentBills() {
+            // Given
+            billRepository.save(bill("a", employee, BASE));
+            billRepository.save(bill("b", regular, BASE.plusHours(1)));
+            billRepository.save(bill("c", employee, BASE.plusHours(2)));
+
+            // When / Then
+            assertThat(billRepository.findRecentBills(2)).extracting(Bill::getBillId).containsExactly("c", "b");
+            assertThat(billRepository.findRecentBills(0)).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Crash recovery")
+    class CrashRecovery {
+
+        @Test
+        @DisplayName("Should restore bills, deletions and customers after a restart")
+        void shouldRestoreStateAfterRestart() {
+            // Given
+            billRepository.save(bill("kept", employee, BASE));
+            billRepository.save(bill("deleted", regular, BASE.plusHours(1)));
+            assertThat(billRepository.deleteById("deleted")).isTrue();
+
+            // When
+            close();
+            open();
+
+            // Then
+            assertThat(customerRepository.existsById("EMP001")).isTrue();
+            assertThat(billRepository.findById("kept")).isPresent();
+            assertThat(billRepository.existsById("deleted")).isFalse();
+            assertThat(billRepository.deleteById("deleted")).isFalse();
+        }
+
+        @Test
+        @DisplayName("Should recover every acknowledged bill when the last write was torn")
+        void shouldRecoverFromTornWrite() throws IOException {
+            // Given - the process died halfway through appending a record
+            billRepository.save(bill("acknowledged", employee, BASE));
+            close();
+            Files.write(directory.resolve(FileBillRepository.LOG_FILE),
+                    new byte[]{0, 0, 1, 0, 7, 7, 7}, StandardOpenOption.APPEND);
+
+            // When
+            open();
+            billRepository.save(bill("after-restart", employee, BASE.plusHours(1)));
+            close();
+            open();
+
+            // Then
+            assertThat(billRepository.findByCustomerId("EMP001"))
+                    .extracting(Bill::getBillId)
+                    .containsExactly("after-restart", "acknowledged");
+        }
+
+        @Test
+        @DisplayName("Should keep only live bills after compaction and survive a restart")
+        void shouldCompactLog() {
+            // Given - many superseded records
+            for (int i = 0; i < 1500; i++) {
+                billRepository.save(bill("bill-" + i, employee, BASE.plusMinutes(i)));
+            }
+            for (int i = 0; i < 1400; i++) {
+                billRepository.deleteById("bill-" + i);
+            }
+
+            // When
+            billRepository.compactIfNeeded();
+            close();
+            open();
+
+            // Then
+            assertThat(billRepository.findByCustomerId("EMP001")).hasSize(100);
+            assertThat(billRepository.findRecentBills(1)).extracting(Bill::getBillId).containsExactly("bill-1499");
+        }
+    }
+
+    private void open() {
+        customerRepository = new FileCustomerRepository(directory, Duration.ZERO);
+        billRepository = new FileBillRepository(directory, Duration.ZERO, customerRepository);
+    }
+
+    private void close() {
+        billRepository.close();
+        customerRepository.close();
+    }
+
+    private static Bill bill(String billId, Customer customer, LocalDateTime createdAt) {
+        return Bill.reconstitute(billId, customer, List.of(
+                BillItem.of("Laptop", ItemCategory.ELECTRONICS, Money.of(1000.00), 1),
+                BillItem.of("Rice", ItemCategory.GROCERY, Money.of(12.50), 2)), createdAt);
+    }
+}
@@ -0,0 +1,113 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.BillItem;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.domain.model.ItemCategory;
+import io.mosaed.retaildiscountservice.domain.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("InMemoryBillRepository Tests")
+class InMemoryBillRepositoryTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    private InMemoryCustomerRepository customerRepository;
+    private InMemoryBillRepository billRepository;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        customerRepository = new InMemoryCustomerRepository();
+        billRepository = new InMemoryBillRepository(customerRepository);
+        customer = customerRepository.save(Customer.of("CUST001", CustomerType.REGULAR, LocalDate.now().minusYears(3)));
+    }
+
+    @Test
+    @DisplayName("Should move a re-saved bill to its new position in every index")
+    void shouldReindexResavedBill() {
+        // Given
+        billRepository.save(bill("a", BASE));
+        billRepository.save(bill("b", BASE.plusDays(1)));
+
+        // When - "a" is saved again with a later creation time
+        billRepository.save(bill("a", BASE.plusDays(2)));
+
+        // Then
+        assertThat(billRepository.findByCustomerId("CUST001")).extracting(Bill::getBillId).containsExactly("a", "b");
+        assertThat(billRepository.findRecentBills(10)).extracting(Bill::getBillId).containsExactly("a", "b");
+        assertThat(billRepository.findByCustomerIdAndDateRange("CUST001", BASE.minusDays(1), BASE.plusDays(1)))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep all indexes consistent under concurrent saves and deletes")
+    void shouldStayConsistentUnderConcurrency() throws Exception {
+        // Given
+        int threads = 8;
+        int perThread = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        // When - every thread saves its bills and deletes every other one
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    billRepository.save(bill(thread + "-" + i, BASE.plusSeconds((long) thread * perThread + i)));
+                    if (i % 2 == 1) {
+                        billRepository.deleteById(thread + "-" + (i - 1));
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then
+        int expected = threads * perThread / 2;
+        assertThat(billRepository.findByCustomerId("CUST001")).hasSize(expected);
+        assertThat(billRepository.findRecentBills(Integer.MAX_VALUE)).hasSize(expected)
+                .allMatch(bill -> bill.getBillId().matches("\\d+-\\d*[13579]"));
+    }
+
+    @Test
+    @DisplayName("Should skip bills whose customer no longer exists")
+    void shouldSkipBillsOfUnknownCustomer() {
+        // Given
+        Customer other = Customer.of("GONE", CustomerType.REGULAR, LocalDate.now());
+        billRepository.save(Bill.reconstitute("orphan", other, items(), BASE));
+
+        // When / Then
+        assertThat(billRepository.existsById("orphan")).isTrue();
+        assertThat(billRepository.findById("orphan")).isEmpty();
+    }
+
+    private Bill bill(String billId, LocalDateTime createdAt) {
+        return Bill.reconstitute(billId, customer, items(), createdAt);
+    }
+
+    private static List<BillItem> items() {
+        return List.of(BillItem.of("Shirt", ItemCategory.CLOTHING, Money.of(40.00), 2));
+    }
+}
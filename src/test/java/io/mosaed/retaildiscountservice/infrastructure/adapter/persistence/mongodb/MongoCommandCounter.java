@@ -0,0 +1,97 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.monitoring.CommandShape;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Test harness counting the MongoDB commands an action sends.
+ *
+ * Registered on the MongoClient as a command listener (import {@link Config}).
+ * Only commands sent from the thread running {@link #record} are counted, so
+ * scheduled jobs running in the background do not leak into a budget. The
+ * sync driver notifies listeners on the thread that sends the command.
+ */
+public class MongoCommandCounter implements CommandListener {
+
+    private final List<String> commands = new CopyOnWriteArrayList<>();
+    private final List<BsonDocument> documents = new CopyOnWriteArrayList<>();
+    private volatile Thread recordingThread;
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        if (Thread.currentThread() == recordingThread) {
+            BsonValue target = event.getCommand().get(event.getCommandName());
+            commands.add(event.getCommandName()
+                    + (target != null && target.isString() ? " " + target.asString().getValue() : ""));
+            // The driver only lends the document for the duration of the callback
+            documents.add(CommandShape.withoutDriverFields(event.getCommand()).clone());
+        }
+    }
+
+    /**
+     * Run the action and return the commands it sent, in order ("find customers", "update bills", ...)
+     */
+    public Recorded record(Action action) throws Exception {
+        commands.clear();
+        documents.clear();
+        recordingThread = Thread.currentThread();
+        try {
+            action.run();
+        } finally {
+            recordingThread = null;
+        }
+        return new Recorded(List.copyOf(commands), List.copyOf(documents));
+    }
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    /**
+     * @param documents the commands as sent, without driver fields (session, cluster time, ...)
+     */
+    public record Recorded(List<String> commands, List<BsonDocument> documents) {
+
+        /**
+         * Number of commands per command name ("find", "update", "aggregate", ...)
+         */
+        public Map<String, Integer> byType() {
+            Map<String, Integer> counts = new TreeMap<>();
+            for (String command : commands) {
+                counts.merge(command.split(" ", 2)[0], 1, Integer::sum);
+            }
+            return counts;
+        }
+    }
+
+    @TestConfiguration(proxyBeanMethods = false)
+    public static class Config {
+
+        @Bean
+        public MongoCommandCounter mongoCommandCounter() {
+            return new MongoCommandCounter();
+        }
+
+        @Bean
+        public MongoClientSettingsBuilderCustomizer mongoCommandCounterCustomizer(MongoCommandCounter counter) {
+            return settings -> settings.addCommandListener(counter);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("BillDocument conversion Tests")
+class BillDocumentConversionTest {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    void setUp() {
+        // Same conversions as the application's MongoTemplate, without a database
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    @DisplayName("Should store every amount as Decimal128")
+    void shouldWriteAmountsAsDecimal128() {
+        // Given
+        BillDocument bill = bill();
+
+        // When
+        Document stored = new Document();
+        converter.write(bill, stored);
+
+        // Then
+        assertThat(stored.get("total_amount")).isEqualTo(new Decimal128(new BigDecimal("1025.00")));
+        assertThat(stored.get("percentage_discount")).isInstanceOf(Decimal128.class);
+        assertThat(stored.get("bill_based_discount")).isInstanceOf(Decimal128.class);
+        assertThat(stored.get("total_discount")).isInstanceOf(Decimal128.class);
+        assertThat(stored.get("net_payable")).isInstanceOf(Decimal128.class);
+        Document item = stored.getList("items", Document.class).get(0);
+        assertThat(item.get("unit_price")).isEqualTo(new Decimal128(new BigDecimal("1000.00")));
+    }
+
+    @Test
+    @DisplayName("Should read bills written before the change with string amounts")
+    void shouldReadLegacyStringAmounts() {
+        // Given - the shape of a bill stored with the old string mapping
+        Document legacy = new Document("_id", "bill-1")
+                .append("customer_id", "EMP001")
+                .append("items", List.of(new Document("name", "Laptop")
+                        .append("category", "ELECTRONICS")
+                        .append("unit_price", "1000.00")
+                        .append("quantity", 1)))
+                .append("total_amount", "1000.00")
+                .append("net_payable", "650.00");
+
+        // When
+        BillDocument read = converter.read(BillDocument.class, legacy);
+
+        // Then
+        assertThat(read.getTotalAmount()).isEqualByComparingTo("1000.00");
+        assertThat(read.getNetPayable()).isEqualByComparingTo("650.00");
+        assertThat(read.getItems().get(0).getUnitPrice()).isEqualByComparingTo("1000.00");
+    }
+
+    @Test
+    @DisplayName("Should read back exactly what was written")
+    void shouldRoundTripAmounts() {
+        // Given
+        BillDocument bill = bill();
+        Document stored = new Document();
+        converter.write(bill, stored);
+
+        // When
+        BillDocument read = converter.read(BillDocument.class, stored);
+
+        // Then - scale included, so 30.00 stays 30.00
+        assertThat(read.getTotalAmount()).isEqualTo(bill.getTotalAmount());
+        assertThat(read.getBillBasedDiscount()).isEqualTo(bill.getBillBasedDiscount());
+        assertThat(read.getNetPayable()).isEqualTo(bill.getNetPayable());
+        assertThat(read.getItems()).isEqualTo(bill.getItems());
+    }
+
+    private static BillDocument bill() {
+        return new BillDocument(
+                "bill-1", "EMP001", "EMPLOYEE",
+                List.of(new BillItemDocument("Laptop", "ELECTRONICS", new BigDecimal("1000.00"), 1),
+                        new BillItemDocument("Rice", "GROCERY", new BigDecimal("12.50"), 2)),
+                LocalDateTime.of(2024, 1, 15, 10, 30),
+                new BigDecimal("1025.00"),
+                new BigDecimal("300.00"),
+                30,
+                new BigDecimal("35.00"),
+                new BigDecimal("335.00"),
+                new BigDecimal("690.00"));
+    }
+}
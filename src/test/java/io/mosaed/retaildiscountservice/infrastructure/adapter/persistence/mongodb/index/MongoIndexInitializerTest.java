@@ -0,0 +1,81 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.index;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.CustomerDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.FlatBillCollectionLayout;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.MonthlyBillCollectionLayout;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MongoIndexInitializer Tests")
+class MongoIndexInitializerTest {
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    private IndexResolver indexResolver;
+
+    @BeforeEach
+    void setUp() {
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        indexResolver = IndexResolver.create(mappingContext);
+
+        when(mongoOperations.getCollectionName(CustomerDocument.class)).thenReturn("customers");
+        when(mongoOperations.indexOps(anyString())).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("Should not create empty monthly buckets just to index them")
+    void shouldSkipMissingMonthlyBuckets() {
+        // Given - January and March exist, February and the months up to now do not
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of("bills_2024_01", "bills_2024_03"));
+        when(mongoOperations.collectionExists(anyString()))
+                .thenAnswer(invocation -> Set.of("bills_2024_01", "bills_2024_03").contains(invocation.getArgument(0)));
+        MonthlyBillCollectionLayout layout = new MonthlyBillCollectionLayout(mongoOperations, indexResolver);
+
+        // When
+        new MongoIndexInitializer(mongoOperations, indexResolver, layout).ensureIndexes();
+
+        // Then
+        verify(mongoOperations, atLeastOnce()).indexOps("bills_2024_01");
+        verify(mongoOperations, atLeastOnce()).indexOps("bills_2024_03");
+        verify(mongoOperations, never()).indexOps("bills_2024_02");
+        verify(mongoOperations, never()).indexOps("bills_2024_04");
+    }
+
+    @Test
+    @DisplayName("Should index the flat bills collection before its first write")
+    void shouldIndexMissingFlatCollection() {
+        // When - on a fresh database
+        new MongoIndexInitializer(mongoOperations, indexResolver, new FlatBillCollectionLayout()).ensureIndexes();
+
+        // Then
+        verify(mongoOperations, atLeastOnce()).indexOps(FlatBillCollectionLayout.COLLECTION);
+        verify(mongoOperations, never()).collectionExists(anyString());
+    }
+}
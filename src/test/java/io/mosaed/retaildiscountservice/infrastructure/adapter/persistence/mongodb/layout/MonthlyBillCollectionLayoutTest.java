@@ -0,0 +1,142 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MonthlyBillCollectionLayout Tests")
+class MonthlyBillCollectionLayoutTest {
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    private IndexResolver indexResolver;
+
+    @BeforeEach
+    void setUp() {
+        // Same simple types as the application's mapping context (BigDecimal is converted, not an entity)
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+        indexResolver = IndexResolver.create(mappingContext);
+
+        // Given buckets for January to March, plus unrelated collections
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of(
+                "bills_2024_01", "bills_2024_02", "bills_2024_03", "customers", "bills_archive"));
+    }
+
+    @Test
+    @DisplayName("Should route a range query only to the overlapping months, newest first")
+    void shouldRouteRangeQueryToOverlappingMonths() {
+        MonthlyBillCollectionLayout layout = new MonthlyBillCollectionLayout(mongoOperations, indexResolver);
+
+        List<String> collections = layout.collectionsFor(
+                LocalDateTime.of(2024, 2, 10, 0, 0),
+                LocalDateTime.of(2024, 3, 5, 0, 0));
+
+        assertThat(collections).containsExactly("bills_2024_03", "bills_2024_02");
+    }
+
+    @Test
+    @DisplayName("Should clamp an open-ended range to the oldest existing bucket")
+    void shouldClampOpenEndedRangeToOldestBucket() {
+        MonthlyBillCollectionLayout layout = new MonthlyBillCollectionLayout(mongoOperations, indexResolver);
+
+        List<String> collections = layout.collectionsFor(
+                LocalDateTime.of(1970, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 1, 31, 0, 0));
+
+        assertThat(collections).containsExactly("bills_2024_01");
+    }
+
+    @Test
+    @DisplayName("Should always include the current month in full scans")
+    void shouldIncludeCurrentMonthInFullScans() {
+        MonthlyBillCollectionLayout layout = new MonthlyBillCollectionLayout(mongoOperations, indexResolver);
+
+        List<String> collections = layout.allCollections();
+
+        assertThat(collections.get(0)).isEqualTo(MonthlyBillCollectionLayout.nameOf(YearMonth.now()));
+        assertThat(collections).endsWith("bills_2024_02", "bills_2024_01");
+    }
+
+    @Test
+    @DisplayName("Should see the current month created by another instance after this one started")
+    void shouldSeeCurrentMonthBeforeAnyBucketExists() {
+        // Given - this instance starts on a database without any bucket
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of());
+        MonthlyBillCollectionLayout layout = new MonthlyBillCollectionLayout(mongoOperations, indexResolver);
+        String currentMonth = MonthlyBillCollectionLayout.nameOf(YearMonth.now());
+
+        // Then - once another instance writes the first bill of the month, reads here find it
+        assertThat(layout.allCollections()).containsExactly(currentMonth);
+        assertThat(layout.collectionsFor(LocalDateTime.MIN, LocalDateTime.now().plusDays(1))).containsExactly(currentMonth);
+        assertThat(layout.collectionsFor(LocalDateTime.of(2024, 1, 1, 0, 0), LocalDateTime.of(2024, 2, 1, 0, 0))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should create indexes once when writing to a new month")
+    void shouldCreateIndexesOnceForNewMonth() {
+        when(mongoOperations.indexOps(anyString())).thenReturn(indexOperations);
+        MonthlyBillCollectionLayout layout = new MonthlyBillCollectionLayout(mongoOperations, indexResolver);
+
+        String first = layout.collectionFor(LocalDateTime.of(2024, 4, 1, 12, 0));
+        String second = layout.collectionFor(LocalDateTime.of(2024, 4, 20, 12, 0));
+
+        assertThat(first).isEqualTo("bills_2024_04");
+        assertThat(second).isEqualTo("bills_2024_04");
+        verify(mongoOperations, times(1)).indexOps("bills_2024_04");
+        verify(indexOperations, atLeastOnce()).ensureIndex(any());
+    }
+
+    @Test
+    @DisplayName("Should not touch indexes when writing to an existing month")
+    void shouldNotTouchIndexesForExistingMonth() {
+        MonthlyBillCollectionLayout layout = new MonthlyBillCollectionLayout(mongoOperations, indexResolver);
+
+        assertThat(layout.collectionFor(LocalDateTime.of(2024, 2, 1, 0, 0))).isEqualTo("bills_2024_02");
+        verify(mongoOperations, never()).indexOps(anyString());
+    }
+
+    @Test
+    @DisplayName("Should drop whole buckets older than the cutoff")
+    void shouldDropBucketsOlderThanCutoff() {
+        MonthlyBillCollectionLayout layout = new MonthlyBillCollectionLayout(mongoOperations, indexResolver);
+
+        List<String> dropped = layout.dropCollectionsBefore(YearMonth.of(2024, 3));
+
+        assertThat(dropped).containsExactly("bills_2024_01", "bills_2024_02");
+        verify(mongoOperations).dropCollection("bills_2024_01");
+        verify(mongoOperations).dropCollection("bills_2024_02");
+        verify(mongoOperations, never()).dropCollection("bills_2024_03");
+        assertThat(layout.collectionsFor(
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                LocalDateTime.of(2024, 3, 31, 0, 0)))
+                .containsExactly("bills_2024_03");
+    }
+}
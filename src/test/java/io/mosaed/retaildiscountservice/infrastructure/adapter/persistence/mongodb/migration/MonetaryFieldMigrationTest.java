@@ -0,0 +1,115 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.migration;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.result.UpdateResult;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.FlatBillCollectionLayout;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MonetaryFieldMigration Tests")
+class MonetaryFieldMigrationTest {
+
+    private static final String TO_DECIMAL_IF_STRING =
+            "{\"$cond\": [{\"$eq\": [{\"$type\": \"%1$s\"}, \"string\"]}, {\"$toDecimal\": \"%1$s\"}, \"%1$s\"]}";
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private MongoCollection<Document> collection;
+
+    @Mock
+    private FindIterable<Document> found;
+
+    @Test
+    @DisplayName("Should select bills with any amount or item price still stored as a string")
+    void shouldSelectLegacyBills() {
+        assertThat(MonetaryFieldMigration.legacyFilter().toJson()).isEqualTo("{\"$or\": ["
+                + "{\"total_amount\": {\"$type\": \"string\"}}, "
+                + "{\"percentage_discount\": {\"$type\": \"string\"}}, "
+                + "{\"bill_based_discount\": {\"$type\": \"string\"}}, "
+                + "{\"total_discount\": {\"$type\": \"string\"}}, "
+                + "{\"net_payable\": {\"$type\": \"string\"}}, "
+                + "{\"items.unit_price\": {\"$type\": \"string\"}}]}");
+    }
+
+    @Test
+    @DisplayName("Should convert only string amounts, leaving missing ones missing instead of null")
+    void shouldConvertOnlyStringAmounts() {
+        // When
+        BsonDocument set = set(MonetaryFieldMigration.conversionPipeline());
+
+        // Then - a bill without total_discount falls into the else branch, "$total_discount", which $set leaves out
+        for (String field : List.of(
+                "total_amount", "percentage_discount", "bill_based_discount", "total_discount", "net_payable")) {
+            assertThat(set.getDocument(field).toJson()).isEqualTo(TO_DECIMAL_IF_STRING.formatted("$" + field));
+        }
+    }
+
+    @Test
+    @DisplayName("Should map item prices only when the bill has items")
+    void shouldConvertItemPricesOfExistingItems() {
+        // When
+        BsonDocument items = set(MonetaryFieldMigration.conversionPipeline()).getDocument("items");
+
+        // Then
+        assertThat(items.toJson()).isEqualTo("{\"$cond\": [{\"$isArray\": \"$items\"}, "
+                + "{\"$map\": {\"input\": \"$items\", \"as\": \"item\", \"in\": {\"$mergeObjects\": [\"$$item\", "
+                + "{\"unit_price\": " + TO_DECIMAL_IF_STRING.formatted("$$item.unit_price") + "}]}}}, "
+                + "\"$items\"]}");
+    }
+
+    @Test
+    @DisplayName("Should convert legacy bills batch by batch until none is left")
+    @SuppressWarnings("unchecked")
+    void shouldMigrateInBatches() {
+        // Given one batch of two legacy bills, then nothing
+        when(mongoOperations.getCollection("bills")).thenReturn(collection);
+        when(collection.find(any(Bson.class))).thenReturn(found);
+        when(found.projection(any())).thenReturn(found);
+        when(found.limit(100)).thenReturn(found);
+        doAnswer(invocation -> {
+            Consumer<Document> action = invocation.getArgument(0);
+            action.accept(new Document("_id", "b1"));
+            action.accept(new Document("_id", "b2"));
+            return null;
+        }).doNothing().when(found).forEach(any(Consumer.class));
+        when(collection.updateMany(any(Bson.class), anyList())).thenReturn(UpdateResult.acknowledged(2, 2L, null));
+        MonetaryFieldMigration migration =
+                new MonetaryFieldMigration(mongoOperations, new FlatBillCollectionLayout(), 100, Duration.ZERO);
+
+        // When
+        long converted = migration.migrate();
+
+        // Then
+        assertThat(converted).isEqualTo(2);
+        verify(collection, times(1)).updateMany(any(Bson.class), eq(MonetaryFieldMigration.conversionPipeline()));
+    }
+
+    private static BsonDocument set(List<Bson> pipeline) {
+        assertThat(pipeline).hasSize(1);
+        return pipeline.get(0).toBsonDocument().getDocument("$set");
+    }
+}
@@ -0,0 +1,162 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.monitoring;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.TokenBucket;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SlowCommandLog Tests")
+class SlowCommandLogTest {
+
+    private static final ConnectionDescription CONNECTION =
+            new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    private static final BsonDocument FIND = BsonDocument.parse("""
+            {"find": "bills",
+             "filter": {"customer_id": "EMP001", "created_at": {"$gt": {"$date": "2024-01-01T00:00:00Z"}}},
+             "sort": {"created_at": -1}, "limit": 10,
+             "$db": "retail", "lsid": {"id": "x"}}
+            """);
+
+    private SimpleMeterRegistry meterRegistry;
+    private SlowCommandLog slowCommandLog;
+    private int requestId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // Two log lines, then nothing more within the test
+        slowCommandLog = new SlowCommandLog(Duration.ofMillis(100), new TokenBucket(0.001, 2), 0,
+                () -> {
+                    throw new AssertionError("explain is disabled");
+                }, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should redact values but keep field names, operators, sort and limit")
+    void shouldRedactCommandShape() {
+        BsonDocument shape = CommandShape.of(FIND);
+
+        assertThat(shape.toJson()).isEqualTo(
+                "{\"find\": \"bills\", "
+                        + "\"filter\": {\"customer_id\": \"?\", \"created_at\": {\"$gt\": \"?\"}}, "
+                        + "\"sort\": {\"created_at\": -1}, \"limit\": 10}");
+    }
+
+    @Test
+    @DisplayName("Should collapse long arrays such as $in lists")
+    void shouldCollapseArrays() {
+        BsonDocument shape = CommandShape.of(BsonDocument.parse(
+                "{\"find\": \"customers\", \"filter\": {\"_id\": {\"$in\": [\"A\", \"B\", \"C\"]}}}"));
+
+        assertThat(shape.getDocument("filter").toJson())
+                .isEqualTo("{\"_id\": {\"$in\": [\"?\", \"... 2 more\"]}}");
+    }
+
+    @Test
+    @DisplayName("Should summarize the winning plan, outermost stage first")
+    void shouldSummarizeWinningPlan() {
+        BsonDocument explain = BsonDocument.parse("""
+                {"queryPlanner": {"winningPlan": {"stage": "LIMIT", "inputStage":
+                    {"stage": "FETCH", "inputStage":
+                        {"stage": "IXSCAN", "indexName": "customer_created_idx"}}}}}
+                """);
+
+        assertThat(PlanSummary.of(explain)).isEqualTo("LIMIT > FETCH > IXSCAN customer_created_idx");
+    }
+
+    @Test
+    @DisplayName("Should find the plan of an aggregation inside its $cursor stage")
+    void shouldSummarizeAggregationPlan() {
+        BsonDocument explain = BsonDocument.parse("""
+                {"stages": [{"$cursor": {"queryPlanner": {"winningPlan": {"stage": "COLLSCAN"}}}},
+                            {"$group": {}}]}
+                """);
+
+        assertThat(PlanSummary.of(explain)).isEqualTo("COLLSCAN");
+    }
+
+    @Test
+    @DisplayName("Should ignore commands faster than the threshold")
+    void shouldIgnoreFastCommands() {
+        run(FIND, 5);
+
+        assertThat(meterRegistry.find("mongodb.driver.commands.slow").counter()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should count every slow command and rate limit the log lines")
+    void shouldCountSlowCommandsAndRateLimitLog() {
+        for (int i = 0; i < 5; i++) {
+            run(FIND, 250);
+        }
+
+        assertThat(meterRegistry.get("mongodb.driver.commands.slow")
+                .tag("command", "find")
+                .tag("collection", "bills")
+                .counter().count()).isEqualTo(5);
+        assertThat(meterRegistry.get("mongodb.driver.commands.slow.unlogged").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should explain only the sampled slow queries")
+    void shouldExplainSampledQueriesOnly() {
+        // Given
+        SlowCommandLog sampled = spy(new SlowCommandLog(Duration.ofMillis(100), new TokenBucket(0.001, 10), 1,
+                () -> null, meterRegistry));
+        doReturn("IXSCAN customer_created_idx").when(sampled).explain(anyString(), any());
+
+        // When
+        run(sampled, FIND, 250);
+
+        // Then - the copy left out the driver's fields
+        verify(sampled, timeout(5_000)).explain(eq("retail"), argThat(command -> !command.containsKey("lsid")));
+    }
+
+    @Test
+    @DisplayName("Should not copy commands that are not sampled")
+    void shouldNotCopyUnsampledCommands() {
+        // Given
+        SlowCommandLog unsampled = spy(slowCommandLog);
+
+        // When
+        run(unsampled, FIND, 250);
+
+        // Then
+        verify(unsampled, after(200).never()).explain(anyString(), any());
+    }
+
+    private void run(BsonDocument command, long elapsedMillis) {
+        run(slowCommandLog, command, elapsedMillis);
+    }
+
+    private void run(SlowCommandLog log, BsonDocument command, long elapsedMillis) {
+        int id = ++requestId;
+        String commandName = command.getFirstKey();
+        log.commandStarted(new CommandStartedEvent(
+                null, 1, id, CONNECTION, "retail", commandName, command));
+        log.commandSucceeded(new CommandSucceededEvent(
+                null, 1, id, CONNECTION, "retail", commandName, new BsonDocument(),
+                TimeUnit.MILLISECONDS.toNanos(elapsedMillis)));
+    }
+}
@@ -0,0 +1,130 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.repository;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.client.result.DeleteResult;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.*;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive.BillArchive;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.MonthlyBillCollectionLayout;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.mapper.PersistenceMapper;
+import io.mosaed.retaildiscountservice.infrastructure.deadline.RequestDeadlines;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MongoBillRepository Tests")
+class MongoBillRepositoryTest {
+
+    private static final LocalDateTime CREATED_AT = LocalDateTime.of(2024, 3, 15, 10, 0);
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private ObjectProvider<BillArchive> archive;
+
+    @Mock
+    private ObjectProvider<RecentBillsBuffer> recentBills;
+
+    @Mock
+    private ObjectProvider<RequestDeadlines> deadlines;
+
+    private MonthlyBillCollectionLayout layout;
+    private MongoBillRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        // Given a year of monthly buckets
+        when(mongoOperations.getCollectionNames()).thenReturn(Set.of(
+                "bills_2023_04", "bills_2023_05", "bills_2023_06", "bills_2023_07", "bills_2023_08", "bills_2023_09",
+                "bills_2023_10", "bills_2023_11", "bills_2023_12", "bills_2024_01", "bills_2024_02", "bills_2024_03"));
+        layout = new MonthlyBillCollectionLayout(mongoOperations, IndexResolver.create(new MongoMappingContext()));
+        repository = new MongoBillRepository(mongoOperations, layout, customerRepository,
+                archive, recentBills, deadlines);
+    }
+
+    @Test
+    @DisplayName("Should find a bill with a time-ordered id in its own month with one query")
+    void shouldRouteTimeOrderedIdToItsMonth() {
+        // Given
+        Customer customer = Customer.of("CUST001", CustomerType.REGULAR, LocalDate.of(2020, 1, 1));
+        String billId = timeOrderedId(CREATED_AT);
+        BillDocument document = PersistenceMapper.toDocument(Bill.reconstitute(billId, customer,
+                List.of(BillItem.of("Shirt", ItemCategory.CLOTHING, Money.of(40.00), 1)), CREATED_AT));
+        when(mongoOperations.findOne(any(Query.class), eq(BillDocument.class), eq("bills_2024_03"))).thenReturn(document);
+        when(customerRepository.findById("CUST001")).thenReturn(Optional.of(customer));
+
+        // When
+        Optional<Bill> found = repository.findById(billId);
+
+        // Then
+        assertThat(found).map(Bill::getBillId).contains(billId);
+        verify(mongoOperations, times(1)).findOne(any(Query.class), eq(BillDocument.class), anyString());
+    }
+
+    @Test
+    @DisplayName("Should check and delete a bill with a time-ordered id in its own month first")
+    void shouldRouteExistsAndDeleteToItsMonth() {
+        // Given
+        String billId = timeOrderedId(CREATED_AT);
+        when(mongoOperations.exists(any(Query.class), eq(BillDocument.class), eq("bills_2024_03"))).thenReturn(true);
+        when(mongoOperations.remove(any(Query.class), eq(BillDocument.class), eq("bills_2024_03")))
+                .thenReturn(DeleteResult.acknowledged(1));
+
+        // When
+        boolean exists = repository.existsById(billId);
+        boolean deleted = repository.deleteById(billId);
+
+        // Then
+        assertThat(exists).isTrue();
+        assertThat(deleted).isTrue();
+        verify(mongoOperations, times(1)).exists(any(Query.class), eq(BillDocument.class), anyString());
+        verify(mongoOperations, times(1)).remove(any(Query.class), eq(BillDocument.class), anyString());
+    }
+
+    @Test
+    @DisplayName("Should still visit every month for ids that carry no time, one query each")
+    void shouldVisitEveryMonthForForeignIds() {
+        // When
+        Optional<Bill> found = repository.findById("BILL-3-4");
+
+        // Then - the documented cost: O(months) round trips
+        assertThat(found).isEmpty();
+        verify(mongoOperations, times(layout.allCollections().size()))
+                .findOne(any(Query.class), eq(BillDocument.class), anyString());
+    }
+
+    private static String timeOrderedId(LocalDateTime createdAt) {
+        long millis = createdAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new UUID((millis << 16) | 0x7000L, 0x8000000000000000L).toString();
+    }
+}
@@ -0,0 +1,170 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.repository;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RecentBillsBuffer Tests")
+class RecentBillsBufferTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 15, 10, 30);
+
+    @Test
+    @DisplayName("Should not answer before it has been seeded")
+    void shouldNotAnswerBeforeSeeding() {
+        RecentBillsBuffer buffer = new RecentBillsBuffer(10);
+        buffer.add(bill(1));
+
+        assertThat(buffer.newest(1)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should serve the newest bills within its capacity, newest first")
+    void shouldServeNewestBills() {
+        // Given - more bills in the database than the buffer holds
+        RecentBillsBuffer buffer = new RecentBillsBuffer(3);
+        buffer.reset(List.of(bill(3), bill(2), bill(1)));
+
+        // When
+        buffer.add(bill(4));
+
+        // Then
+        assertThat(ids(buffer.newest(3).orElseThrow())).containsExactly("bill-4", "bill-3", "bill-2");
+        assertThat(buffer.newest(4)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should answer for any limit while it holds every bill")
+    void shouldAnswerWhenHoldingEverything() {
+        // Given - the whole collection fits
+        RecentBillsBuffer buffer = new RecentBillsBuffer(10);
+        buffer.reset(List.of(bill(2), bill(1)));
+        buffer.add(bill(3));
+
+        // When / Then
+        assertThat(ids(buffer.newest(10).orElseThrow())).containsExactly("bill-3", "bill-2", "bill-1");
+    }
+
+    @Test
+    @DisplayName("Should fall back once a deletion leaves fewer bills than requested")
+    void shouldFallBackAfterDeletion() {
+        // Given
+        RecentBillsBuffer buffer = new RecentBillsBuffer(3);
+        buffer.reset(List.of(bill(3), bill(2), bill(1)));
+
+        // When
+        buffer.remove("bill-3");
+
+        // Then
+        assertThat(ids(buffer.newest(2).orElseThrow())).containsExactly("bill-2", "bill-1");
+        assertThat(buffer.newest(3)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep bills saved while a reset was loading")
+    void shouldKeepConcurrentSavesOnReset() {
+        // Given
+        RecentBillsBuffer buffer = new RecentBillsBuffer(5);
+        buffer.reset(List.of(bill(1)));
+        buffer.add(bill(3));
+
+        // When - the reload did not see bill-3 yet
+        buffer.reset(List.of(bill(2), bill(1)));
+
+        // Then
+        assertThat(ids(buffer.newest(3).orElseThrow())).containsExactly("bill-3", "bill-2", "bill-1");
+    }
+
+    @Test
+    @DisplayName("Should not answer past a bill saved out of order that outlived newer ones")
+    void shouldNotAnswerPastOutOfOrderBill() {
+        // Given - more bills in the database than the buffer holds
+        RecentBillsBuffer buffer = new RecentBillsBuffer(3);
+        buffer.reset(List.of(bill(3), bill(2), bill(1)));
+
+        // When - a late bill evicts bill-2, which is newer than it
+        buffer.add(bill(10));
+        buffer.add(bill(0));
+
+        // Then
+        assertThat(ids(buffer.newest(2).orElseThrow())).containsExactly("bill-10", "bill-3");
+        assertThat(buffer.newest(3)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not answer with an out-of-order bill older than those left in the database")
+    void shouldNotAnswerPastSeedFloor() {
+        // Given
+        RecentBillsBuffer buffer = new RecentBillsBuffer(3);
+        buffer.reset(List.of(bill(3), bill(2), bill(1)));
+        buffer.remove("bill-1");
+
+        // When - the late bill takes the freed slot without evicting anything
+        buffer.add(bill(0));
+
+        // Then - bills older than bill-1 may still be newer than bill-0
+        assertThat(ids(buffer.newest(2).orElseThrow())).containsExactly("bill-3", "bill-2");
+        assertThat(buffer.newest(3)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should answer only with the newest bills after concurrent saves")
+    void shouldHandleConcurrentSaves() throws Exception {
+        // Given
+        RecentBillsBuffer buffer = new RecentBillsBuffer(100);
+        buffer.reset(List.of());
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    buffer.add(bill(thread * 1000 + i));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        // Then - interleaved threads save out of order, so the buffer may have to decline
+        List<BillDocument> newest = new ArrayList<>();
+        for (int i = 3999; i >= 3900; i--) {
+            newest.add(bill(i));
+        }
+        buffer.newest(100).ifPresent(bills -> assertThat(ids(bills)).isEqualTo(ids(newest)));
+
+        // ... and answers again once reloaded
+        buffer.reset(newest);
+        assertThat(ids(buffer.newest(100).orElseThrow())).isEqualTo(ids(newest));
+    }
+
+    private static BillDocument bill(int minute) {
+        BillDocument bill = new BillDocument();
+        bill.setBillId("bill-" + minute);
+        bill.setCustomerId("CUST001");
+        bill.setCreatedAt(BASE.plusMinutes(minute));
+        return bill;
+    }
+
+    private static List<String> ids(List<BillDocument> bills) {
+        return bills.stream().map(BillDocument::getBillId).toList();
+    }
+}
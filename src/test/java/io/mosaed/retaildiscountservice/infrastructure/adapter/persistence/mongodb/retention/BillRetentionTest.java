@@ -0,0 +1,171 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.retention;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.client.result.DeleteResult;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.archive.BillArchive;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.BillCollectionLayout;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.FlatBillCollectionLayout;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BillRetention Tests")
+class BillRetentionTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2024, 3, 15, 0, 0);
+
+    @Mock
+    private MongoOperations mongoOperations;
+
+    @Mock
+    private BillArchive archive;
+
+    @Mock
+    private IndexOperations indexOperations;
+
+    private final BillCollectionLayout layout = new FlatBillCollectionLayout();
+
+    @Test
+    @DisplayName("Should delete expired bills in chunks up to the limit of a run")
+    void shouldDeleteInChunksUpToLimit() {
+        // Given 7 expired bills, chunks of 2 and at most 5 deletes per run
+        BillRetention retention = retention(null, 5);
+        when(mongoOperations.find(any(Query.class), eq(BillDocument.class), eq("bills")))
+                .thenReturn(bills("b1", "b2"))
+                .thenReturn(bills("b3", "b4"))
+                .thenReturn(bills("b5"));
+        removeMatching();
+
+        // When
+        long purged = retention.purgeBillsCreatedBefore(CUTOFF);
+
+        // Then three chunks, the last one cut down to the limit
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+        verify(mongoOperations, times(3)).find(queries.capture(), eq(BillDocument.class), eq("bills"));
+        assertThat(queries.getAllValues()).extracting(Query::getLimit).containsExactly(2, 2, 1);
+        assertThat(queries.getValue().getSortObject()).isEqualTo(new Document("createdAt", 1));
+        verify(mongoOperations, times(3)).remove(any(Query.class), eq(BillDocument.class), eq("bills"));
+        assertThat(purged).isEqualTo(5);
+        assertThat(retention.deleted()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Should export each chunk to the archive before deleting it")
+    void shouldExportBeforeDeleting() {
+        // Given
+        BillRetention retention = retention(archive, 100);
+        List<BillDocument> chunk = bills("b1", "b2");
+        when(mongoOperations.find(any(Query.class), eq(BillDocument.class), eq("bills"))).thenReturn(chunk).thenReturn(List.of());
+        removeMatching();
+
+        // When
+        long purged = retention.purgeBillsCreatedBefore(CUTOFF);
+
+        // Then
+        InOrder inOrder = inOrder(archive, mongoOperations);
+        inOrder.verify(archive).append(chunk);
+        inOrder.verify(mongoOperations).remove(any(Query.class), eq(BillDocument.class), eq("bills"));
+        assertThat(purged).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should drop months that expired as a whole and count their bills")
+    void shouldDropExpiredMonths() {
+        // Given monthly buckets, January and February expired as a whole
+        BillCollectionLayout monthly = mock(BillCollectionLayout.class);
+        when(monthly.collectionsFor(eq(LocalDateTime.MIN), any()))
+                .thenAnswer(invocation -> ((LocalDateTime) invocation.getArgument(1)).getMonthValue() == 2
+                        ? List.of("bills_2024_02", "bills_2024_01")
+                        : List.of("bills_2024_03"));
+        when(monthly.dropCollectionsBefore(YearMonth.of(2024, 3))).thenReturn(List.of("bills_2024_02", "bills_2024_01"));
+        when(mongoOperations.estimatedCount("bills_2024_02")).thenReturn(40L);
+        when(mongoOperations.estimatedCount("bills_2024_01")).thenReturn(60L);
+        when(mongoOperations.find(any(Query.class), eq(BillDocument.class), eq("bills_2024_03")))
+                .thenReturn(bills("b1"));
+        removeMatching();
+        BillRetention retention = new BillRetention(mongoOperations, monthly, null, BillRetention.Mode.DELETE,
+                Duration.ofDays(30), 10, Duration.ZERO, 100, DataSize.ofBytes(0));
+
+        // When
+        long purged = retention.purgeBillsCreatedBefore(CUTOFF);
+
+        // Then whole months are dropped, only March is deleted bill by bill
+        assertThat(purged).isEqualTo(101);
+        verify(mongoOperations, never()).find(any(Query.class), eq(BillDocument.class), matches("bills_2024_0[12]"));
+    }
+
+    @Test
+    @DisplayName("Should make the created_at index a TTL index")
+    void shouldMakeCreatedAtIndexTtl() {
+        // Given the index without expiry, as the index initializer creates it
+        BillRetention retention = new BillRetention(mongoOperations, layout, null, BillRetention.Mode.TTL,
+                Duration.ofDays(90), 1000, Duration.ZERO, 100_000, DataSize.ofBytes(0));
+        when(mongoOperations.indexOps("bills")).thenReturn(indexOperations);
+        when(indexOperations.getIndexInfo()).thenReturn(List.of(IndexInfo.indexInfoOf(
+                new Document("name", "created_at").append("key", new Document("created_at", 1)))));
+
+        // When
+        retention.ensureTtlIndexes();
+
+        // Then
+        verify(mongoOperations).executeCommand(new Document("collMod", "bills")
+                .append("index", new Document("name", "created_at")
+                        .append("expireAfterSeconds", Duration.ofDays(90).toSeconds())));
+    }
+
+    @Test
+    @DisplayName("Should refuse to export bills expired by a TTL index")
+    void shouldRefuseTtlWithExport() {
+        assertThatThrownBy(() -> new BillRetention(mongoOperations, layout, archive, BillRetention.Mode.TTL,
+                Duration.ofDays(90), 1000, Duration.ZERO, 100_000, DataSize.ofBytes(0)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private BillRetention retention(BillArchive archive, long maxDeletesPerRun) {
+        return new BillRetention(mongoOperations, layout, archive, BillRetention.Mode.DELETE,
+                Duration.ofDays(30), 2, Duration.ZERO, maxDeletesPerRun, DataSize.ofBytes(0));
+    }
+
+    private void removeMatching() {
+        when(mongoOperations.remove(any(Query.class), eq(BillDocument.class), anyString()))
+                .thenAnswer(invocation -> {
+                    Document criteria = invocation.<Query>getArgument(0).getQueryObject().get("billId", Document.class);
+                    return DeleteResult.acknowledged(((Collection<?>) criteria.get("$in")).size());
+                });
+    }
+
+    private static List<BillDocument> bills(String... ids) {
+        return Stream.of(ids).map(id -> {
+            BillDocument document = new BillDocument();
+            document.setBillId(id);
+            return document;
+        }).toList();
+    }
+}
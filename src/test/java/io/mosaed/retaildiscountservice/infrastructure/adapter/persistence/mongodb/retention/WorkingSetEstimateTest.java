@@ -0,0 +1,51 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.retention;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("WorkingSetEstimate Tests")
+class WorkingSetEstimateTest {
+
+    @Test
+    @DisplayName("Should scale data and index size with the retained bills")
+    void shouldScaleWithRetainedBills() {
+        // Given 1M bills taking 1 KB of data and 200 bytes of indexes each
+        WorkingSetEstimate current = new WorkingSetEstimate(1_000_000, 1_000_000_000L, 200_000_000L);
+
+        // When 10k bills a day are kept for 90 days
+        WorkingSetEstimate expected = current.retaining(10_000, Duration.ofDays(90));
+
+        // Then
+        assertThat(expected).isEqualTo(new WorkingSetEstimate(900_000, 900_000_000L, 180_000_000L));
+    }
+
+    @Test
+    @DisplayName("Should only project the bill count of an empty store")
+    void shouldOnlyProjectCountOfEmptyStore() {
+        // Given / When
+        WorkingSetEstimate expected = WorkingSetEstimate.EMPTY.retaining(100, Duration.ofDays(30));
+
+        // Then
+        assertThat(expected).isEqualTo(new WorkingSetEstimate(3_000, 0, 0));
+    }
+
+    @Test
+    @DisplayName("Should add up the collections")
+    void shouldAddUpCollections() {
+        // Given / When
+        WorkingSetEstimate total = new WorkingSetEstimate(10, 1_000, 300)
+                .plus(new WorkingSetEstimate(5, 500, 100));
+
+        // Then
+        assertThat(total).isEqualTo(new WorkingSetEstimate(15, 1_500, 400));
+    }
+}
@@ -0,0 +1,187 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.controller;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.github.benmanes.caffeine.cache.Cache;
+import io.mosaed.retaildiscountservice.application.port.in.ListBillsUseCase;
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.*;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.MongoCommandCounter;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.repository.MongoBillRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * MongoDB round trips per request, asserted exactly.
+ *
+ * Every request starts with a cold customer cache, so the budgets include
+ * the customer read done by authentication. A change that adds a query per
+ * request (or per bill, like the customer reload that used to follow every
+ * save) fails here with the list of commands that were sent.
+ *
+ * Customer batching is disabled so every command of a request is sent from
+ * the request thread; a single request costs the same round trips either way.
+ */
+@SpringBootTest(properties = {
+        "application.persistence.customer-batching.enabled=false",
+        "application.warm-up.enabled=false"
+})
+@AutoConfigureMockMvc
+@Testcontainers
+@Import(MongoCommandCounter.Config.class)
+@DisplayName("BillController MongoDB query budgets")
+class BillControllerQueryBudgetIntegrationTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    private static final String BILL_JSON = """
+            {"customerId": "EMP001",
+             "items": [{"name": "Laptop", "category": "ELECTRONICS", "unitPrice": 1000.00, "quantity": 1},
+                       {"name": "Milk", "category": "GROCERY", "unitPrice": 5.00, "quantity": 2}]}
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MongoCommandCounter counter;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private MongoBillRepository mongoBillRepository;
+
+    @Autowired
+    private ListBillsUseCase listBillsUseCase;
+
+    @Autowired
+    private Cache<String, Customer> customerCache;
+
+    private Bill savedBill;
+
+    @BeforeEach
+    void setUp() {
+        Customer employee = customerRepository.save(
+                Customer.of("EMP001", CustomerType.EMPLOYEE, LocalDate.now().minusYears(1)));
+        Customer regular = customerRepository.save(
+                Customer.of("CUST001", CustomerType.REGULAR, LocalDate.now().minusMonths(6)));
+
+        List<BillItem> items = List.of(BillItem.of("Laptop", ItemCategory.ELECTRONICS, Money.of(1000.00), 1));
+        savedBill = billRepository.save(Bill.create(employee, items));
+        billRepository.save(Bill.create(regular, items));
+
+        // Recent bills are served from memory once the buffer has been loaded
+        mongoBillRepository.refreshRecentBills();
+    }
+
+    @Test
+    @DisplayName("POST /bills - authenticate (1 find) and save the bill (1 update)")
+    void createBillBudget() throws Exception {
+        MongoCommandCounter.Recorded recorded = perform(post("/bills")
+                        .with(httpBasic("EMP001", "password"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BILL_JSON),
+                status().isCreated());
+
+        assertBudget(recorded, Map.of("find", 1, "update", 1));
+    }
+
+    @Test
+    @DisplayName("GET /bills/{id} - authenticate and read the bill; its customer is the cached one")
+    void getBillBudget() throws Exception {
+        MongoCommandCounter.Recorded recorded = perform(get("/bills/" + savedBill.getBillId())
+                        .with(httpBasic("EMP001", "password")),
+                status().isOk());
+
+        assertBudget(recorded, Map.of("find", 2));
+    }
+
+    @Test
+    @DisplayName("GET /bills?customerId - authenticate and one query for the customer's bills")
+    void listByCustomerBudget() throws Exception {
+        MongoCommandCounter.Recorded recorded = perform(get("/bills")
+                        .with(httpBasic("EMP001", "password"))
+                        .param("customerId", "EMP001"),
+                status().isOk());
+
+        assertBudget(recorded, Map.of("find", 2));
+    }
+
+    @Test
+    @DisplayName("GET /bills?customerId&from&to - authenticate and one range query")
+    void listByDateRangeBudget() throws Exception {
+        MongoCommandCounter.Recorded recorded = perform(get("/bills")
+                        .with(httpBasic("EMP001", "password"))
+                        .param("customerId", "EMP001")
+                        .param("from", LocalDateTime.now().minusDays(1).toString())
+                        .param("to", LocalDateTime.now().plusDays(1).toString()),
+                status().isOk());
+
+        assertBudget(recorded, Map.of("find", 2));
+    }
+
+    @Test
+    @DisplayName("Recent bills - served from memory, one query for all customers on the page")
+    void recentBillsBudget() throws Exception {
+        // Over HTTP GET /bills lists the authenticated customer's bills, so
+        // recent bills are only reachable through the use case
+        customerCache.invalidateAll();
+
+        MongoCommandCounter.Recorded recorded = counter.record(() -> assertThat(
+                listBillsUseCase.findRecentBills(10)).extracting("customerId").contains("EMP001", "CUST001"));
+
+        assertBudget(recorded, Map.of("find", 1));
+    }
+
+    private static void assertBudget(MongoCommandCounter.Recorded recorded, Map<String, Integer> budget) {
+        assertThat(recorded.byType())
+                .as("MongoDB commands sent: %s", recorded.commands())
+                .isEqualTo(budget);
+    }
+
+    /**
+     * Perform the request with a cold customer cache and return the commands it sent
+     */
+    private MongoCommandCounter.Recorded perform(RequestBuilder request, ResultMatcher expectedStatus) throws Exception {
+        customerCache.invalidateAll();
+        return counter.record(() -> mockMvc.perform(request).andExpect(expectedStatus));
+    }
+}
@@ -0,0 +1,105 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.deadline;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane.TrafficClass;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane.TrafficLane;
+import io.mosaed.retaildiscountservice.infrastructure.deadline.RequestDeadlines;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("DeadlineInterceptor Tests")
+class DeadlineInterceptorTest {
+
+    private final RequestDeadlines deadlines = new RequestDeadlines(new SimpleMeterRegistry());
+    private final DeadlineInterceptor interceptor = new DeadlineInterceptor(deadlines, Map.of(
+            TrafficClass.CHECKOUT, Duration.ofSeconds(2),
+            TrafficClass.SINGLE_READ, Duration.ofSeconds(2),
+            TrafficClass.REPORT, Duration.ofSeconds(5)), Duration.ofSeconds(10));
+
+    @AfterEach
+    void tearDown() {
+        deadlines.clear();
+    }
+
+    @Test
+    @DisplayName("Should apply the lane default without a header")
+    void shouldUseLaneDefault() throws Exception {
+        interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("report"));
+
+        assertThat(deadlines.remaining()).get()
+                .satisfies(remaining -> assertThat(remaining).isBetween(Duration.ofSeconds(4), Duration.ofSeconds(5)));
+    }
+
+    @Test
+    @DisplayName("Should take the client's timeout from the header, capped at the maximum")
+    void shouldUseHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "800");
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("checkout"));
+        assertThat(deadlines.remaining()).get()
+                .satisfies(remaining -> assertThat(remaining).isLessThanOrEqualTo(Duration.ofMillis(800)));
+
+        MockHttpServletRequest greedy = new MockHttpServletRequest();
+        greedy.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "600000");
+        interceptor.preHandle(greedy, new MockHttpServletResponse(), handler("checkout"));
+        assertThat(deadlines.remaining()).get()
+                .satisfies(remaining -> assertThat(remaining).isLessThanOrEqualTo(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    @DisplayName("Should ignore a malformed header")
+    void shouldIgnoreMalformedHeader() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(DeadlineInterceptor.TIMEOUT_HEADER, "soon");
+
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("checkout"));
+
+        assertThat(deadlines.remaining()).get()
+                .satisfies(remaining -> assertThat(remaining).isGreaterThan(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    @DisplayName("Should leave handlers without a lane alone and clear the deadline afterwards")
+    void shouldClearAfterCompletion() throws Exception {
+        interceptor.preHandle(new MockHttpServletRequest(), new MockHttpServletResponse(), handler("unclassified"));
+        assertThat(deadlines.remaining()).isEmpty();
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("checkout"));
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), handler("checkout"), null);
+
+        assertThat(deadlines.remaining()).isEmpty();
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(method));
+    }
+
+    public static class Handlers {
+
+        @TrafficLane(TrafficClass.CHECKOUT)
+        public void checkout() {
+        }
+
+        @TrafficLane(TrafficClass.REPORT)
+        public void report() {
+        }
+
+        public void unclassified() {
+        }
+    }
+}
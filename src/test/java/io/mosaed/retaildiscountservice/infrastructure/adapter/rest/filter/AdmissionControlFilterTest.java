@@ -0,0 +1,144 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.filter;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AdmissionControlFilter Tests")
+class AdmissionControlFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Should reject a customer over its burst with 429 and Retry-After")
+    void shouldRejectCustomerOverBurst() throws Exception {
+        // Given a bucket of 2 for CUST001
+        AdmissionControlFilter filter = filter(1, 2, 100);
+        authenticate("CUST001");
+
+        // When
+        int first = invoke(filter, "/bills").getStatus();
+        int second = invoke(filter, "/bills").getStatus();
+        MockHttpServletResponse third = invoke(filter, "/bills");
+
+        // Then
+        assertThat(first).isEqualTo(200);
+        assertThat(second).isEqualTo(200);
+        assertThat(third.getStatus()).isEqualTo(429);
+        assertThat(third.getHeader("Retry-After")).isEqualTo("1");
+        assertThat(third.getContentAsString()).contains("\"status\":429");
+        assertThat(meterRegistry.counter("admission.rejected", "limit", "customer").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep separate buckets per customer")
+    void shouldIsolateCustomers() throws Exception {
+        // Given CUST001 has used up its bucket
+        AdmissionControlFilter filter = filter(1, 1, 100);
+        authenticate("CUST001");
+        invoke(filter, "/bills");
+        assertThat(invoke(filter, "/bills").getStatus()).isEqualTo(429);
+
+        // When another customer calls
+        authenticate("CUST002");
+
+        // Then it is not affected
+        assertThat(invoke(filter, "/bills").getStatus()).isEqualTo(200);
+    }
+
+    @Test
+    @DisplayName("Should not rate limit the health endpoint")
+    void shouldSkipHealthEndpoint() throws Exception {
+        AdmissionControlFilter filter = filter(1, 1, 100);
+        authenticate("CUST001");
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(invoke(filter, "/bills/health").getStatus()).isEqualTo(200);
+        }
+    }
+
+    @Test
+    @DisplayName("Should shed load when the global concurrency cap is reached")
+    void shouldRejectOverGlobalCap() throws Exception {
+        // Given one request in flight with a cap of 1
+        AdmissionControlFilter filter = filter(1000, 1000, 1);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        Thread inFlight = Thread.ofVirtual().start(() -> {
+            try {
+                filter.doFilter(request("/bills"), new MockHttpServletResponse(), (req, res) -> {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            } catch (Exception e) {
+                failure.set(e);
+            }
+        });
+        entered.await();
+
+        // When
+        MockHttpServletResponse rejected = invoke(filter, "/bills");
+        release.countDown();
+        inFlight.join();
+
+        // Then
+        assertThat(failure.get()).isNull();
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(meterRegistry.counter("admission.rejected", "limit", "global").count()).isEqualTo(1);
+        assertThat(invoke(filter, "/bills").getStatus()).isEqualTo(200);
+    }
+
+    private AdmissionControlFilter filter(double rate, int burst, int maxConcurrent) {
+        return new AdmissionControlFilter(rate, burst, 1000, Duration.ofMinutes(10), maxConcurrent,
+                objectMapper, meterRegistry);
+    }
+
+    private static void authenticate(String customerId) {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated(customerId, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1" + path);
+        request.setContextPath("/api/v1");
+        request.setServletPath(path);
+        return request;
+    }
+
+    private static MockHttpServletResponse invoke(AdmissionControlFilter filter, String path) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path), response, new MockFilterChain());
+        return response;
+    }
+}
@@ -0,0 +1,99 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.lane;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.Bulkhead;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.BulkheadFullException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TrafficLaneInterceptor Tests")
+class TrafficLaneInterceptorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Bulkhead checkout;
+    private Bulkhead report;
+    private TrafficLaneInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        checkout = new Bulkhead("checkout", 1, 0, Duration.ZERO);
+        report = new Bulkhead("report", 1, 0, Duration.ZERO);
+        interceptor = new TrafficLaneInterceptor(Map.of(
+                TrafficClass.CHECKOUT, checkout,
+                TrafficClass.SINGLE_READ, new Bulkhead("single-read", 1, 0, Duration.ZERO),
+                TrafficClass.REPORT, report), meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should keep checkout available while the report lane is saturated")
+    void shouldIsolateLanes() throws Exception {
+        // Given a report request holding the only report slot
+        MockHttpServletRequest running = new MockHttpServletRequest();
+        interceptor.preHandle(running, new MockHttpServletResponse(), handler("report"));
+
+        // When / Then another report is shed, checkout still runs
+        assertThatThrownBy(() -> interceptor.preHandle(
+                new MockHttpServletRequest(), new MockHttpServletResponse(), handler("report")))
+                .isInstanceOf(BulkheadFullException.class);
+        assertThat(interceptor.preHandle(
+                new MockHttpServletRequest(), new MockHttpServletResponse(), handler("checkout"))).isTrue();
+        assertThat(meterRegistry.counter("bulkhead.rejected", "lane", "report").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("bulkhead.rejected", "lane", "checkout").count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should release the slot when the request completes")
+    void shouldReleaseOnCompletion() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, new MockHttpServletResponse(), handler("report"));
+        assertThat(report.active()).isEqualTo(1);
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), handler("report"), null);
+
+        assertThat(report.active()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should let handlers without a lane through")
+    void shouldIgnoreUnannotatedHandlers() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThat(interceptor.preHandle(
+                    new MockHttpServletRequest(), new MockHttpServletResponse(), handler("unclassified"))).isTrue();
+        }
+        assertThat(checkout.active()).isZero();
+        assertThat(report.active()).isZero();
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(method));
+    }
+
+    public static class Handlers {
+
+        @TrafficLane(TrafficClass.CHECKOUT)
+        public void checkout() {
+        }
+
+        @TrafficLane(TrafficClass.REPORT)
+        public void report() {
+        }
+
+        public void unclassified() {
+        }
+    }
+}
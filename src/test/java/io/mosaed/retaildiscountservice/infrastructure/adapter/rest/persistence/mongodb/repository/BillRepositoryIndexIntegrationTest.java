@@ -0,0 +1,205 @@
+package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.persistence.mongodb.repository;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.*;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.MongoCommandCounter;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.BillDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.document.CustomerDocument;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.index.MongoIndexInitializer;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.layout.FlatBillCollectionLayout;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.monitoring.PlanSummary;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.repository.MongoBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.repository.MongoCustomerRepository;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.MongoDBContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Every query and write MongoBillRepository sends is served by one of the
+ * declared indexes.
+ *
+ * The commands are captured as the repository sends them and explained
+ * (queryPlanner) against a collection holding bills of many customers, so
+ * the planner has real alternatives to choose from. A plan must not scan
+ * the collection nor sort in memory. Indexes are created the way the
+ * application does it, by MongoIndexInitializer.
+ */
+@DataMongoTest
+@Testcontainers
+@Import({
+        MongoBillRepository.class,
+        MongoCustomerRepository.class,
+        FlatBillCollectionLayout.class,
+        MongoCommandCounter.Config.class
+})
+@DisplayName("BillRepository index usage")
+class BillRepositoryIndexIntegrationTest {
+
+    @Container
+    static MongoDBContainer mongoDBContainer = new MongoDBContainer("mongo:5.0");
+
+    @DynamicPropertySource
+    static void setProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.mongodb.uri", mongoDBContainer::getReplicaSetUrl);
+    }
+
+    private static final String BILLS = FlatBillCollectionLayout.COLLECTION;
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final int CUSTOMERS = 50;
+    private static final int BILLS_PER_CUSTOMER = 10;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private BillRepository billRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @Autowired
+    private MongoCommandCounter counter;
+
+    private MongoIndexInitializer indexInitializer;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate.dropCollection(BillDocument.class);
+        mongoTemplate.dropCollection(CustomerDocument.class);
+
+        indexInitializer = new MongoIndexInitializer(mongoTemplate,
+                IndexResolver.create(mongoTemplate.getConverter().getMappingContext()),
+                new FlatBillCollectionLayout());
+        indexInitializer.ensureIndexes();
+
+        List<BillItem> items = List.of(BillItem.of("Shirt", ItemCategory.CLOTHING, Money.of(40.00), 2));
+        for (int c = 0; c < CUSTOMERS; c++) {
+            Customer customer = customerRepository.save(
+                    Customer.of(customerId(c), CustomerType.REGULAR, LocalDate.of(2020, 1, 1)));
+            for (int b = 0; b < BILLS_PER_CUSTOMER; b++) {
+                billRepository.save(Bill.reconstitute(
+                        "BILL-" + c + "-" + b, customer, items, BASE.plusHours((long) b * CUSTOMERS + c)));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should declare only _id, created_at and customer_created_idx on bills")
+    void shouldDeclareConsolidatedIndexSet() {
+        assertThat(indexNames()).containsExactlyInAnyOrder("_id_", "created_at", "customer_created_idx");
+    }
+
+    @Test
+    @DisplayName("Should drop the retired customer_id index from existing databases")
+    void shouldDropRetiredIndex() {
+        // Given a database created before the index was retired
+        mongoTemplate.indexOps(BILLS).ensureIndex(new Index().on("customer_id", Sort.Direction.ASC).named("customer_id"));
+        assertThat(indexNames()).contains("customer_id");
+
+        // When
+        indexInitializer.ensureIndexes();
+
+        // Then
+        assertThat(indexNames()).doesNotContain("customer_id");
+    }
+
+    @Test
+    @DisplayName("Should look bills up, check and delete them by _id")
+    void shouldUseIdIndexForSingleBills() throws Exception {
+        List<String> plans = plans(counter.record(() -> {
+            billRepository.findById("BILL-3-4");
+            billRepository.existsById("BILL-3-4");
+            billRepository.deleteById("BILL-3-4");
+        }));
+
+        assertThat(plans).hasSize(3).allSatisfy(plan -> assertThat(plan).containsAnyOf("IDHACK", "_id_"));
+    }
+
+    @Test
+    @DisplayName("Should save bills by _id")
+    void shouldUseIdIndexForSave() throws Exception {
+        Customer customer = customerRepository.findById(customerId(1)).orElseThrow();
+        Bill bill = Bill.create(customer, List.of(BillItem.of("Milk", ItemCategory.GROCERY, Money.of(5.00), 1)));
+
+        List<String> plans = plans(counter.record(() -> billRepository.save(bill)));
+
+        assertThat(plans).singleElement().asString().containsAnyOf("IDHACK", "_id_");
+    }
+
+    @Test
+    @DisplayName("Should read the bills of a customer newest first from customer_created_idx")
+    void shouldUseCompoundIndexForCustomerQueries() throws Exception {
+        List<String> plans = plans(counter.record(() -> {
+            billRepository.findByCustomerId(customerId(7));
+            billRepository.findByCustomerIdAndDateRange(customerId(7), BASE.plusDays(2), BASE.plusDays(5));
+        }));
+
+        assertThat(plans).hasSize(2).allSatisfy(plan -> assertThat(plan).contains("IXSCAN customer_created_idx"));
+    }
+
+    @Test
+    @DisplayName("Should read the newest bills from created_at")
+    void shouldUseCreatedAtIndexForRecentBills() throws Exception {
+        List<String> plans = plans(counter.record(() -> billRepository.findRecentBills(20)));
+
+        assertThat(plans).singleElement().asString().contains("IXSCAN created_at");
+    }
+
+    /**
+     * Winning plans of the commands sent to the bills collection; none may scan it or sort in memory
+     */
+    private List<String> plans(MongoCommandCounter.Recorded recorded) {
+        List<String> plans = new ArrayList<>();
+        for (int i = 0; i < recorded.commands().size(); i++) {
+            if (recorded.commands().get(i).endsWith(" " + BILLS)) {
+                BsonDocument explain = mongoTemplate.getDb().runCommand(
+                        new BsonDocument("explain", recorded.documents().get(i))
+                                .append("verbosity", new BsonString("queryPlanner")),
+                        BsonDocument.class);
+                plans.add(PlanSummary.of(explain));
+            }
+        }
+
+        assertThat(plans).as("plans of %s", recorded.commands())
+                .isNotEmpty()
+                .noneMatch(plan -> plan.contains("COLLSCAN"))
+                .noneMatch(plan -> plan.matches("(^|.* )SORT( .*|$)"));
+        return plans;
+    }
+
+    private List<String> indexNames() {
+        return mongoTemplate.indexOps(BILLS).getIndexInfo().stream().map(IndexInfo::getName).toList();
+    }
+
+    private static String customerId(int index) {
+        return String.format("CUST%03d", index);
+    }
+}
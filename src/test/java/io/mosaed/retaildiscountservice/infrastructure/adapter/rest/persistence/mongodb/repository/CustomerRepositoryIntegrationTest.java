@@ -8,6 +8,7 @@ package io.mosaed.retaildiscountservice.infrastructure.adapter.rest.persistence.
 import io.mosaed.retaildiscountservice.domain.model.Customer;
 import io.mosaed.retaildiscountservice.domain.model.CustomerType;
 import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.MongoCommandCounter;
 import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.mongodb.repository.MongoCustomerRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.DisplayName;
@@ -21,6 +22,8 @@ import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.*;
@@ -57,7 +60,7 @@ import static org.assertj.core.api.Assertions.*;
  */
 @DataMongoTest
 @Testcontainers
-@Import(MongoCustomerRepository.class)
+@Import({MongoCustomerRepository.class, MongoCommandCounter.Config.class})
 @DisplayName("CustomerRepository Integration Tests")
 class CustomerRepositoryIntegrationTest {
 
@@ -94,6 +97,9 @@ class CustomerRepositoryIntegrationTest {
     @Autowired
     private CustomerRepository customerRepository;
 
+    @Autowired
+    private MongoCommandCounter counter;
+
     @Test
     @DisplayName("Should save and retrieve customer successfully")
     void shouldSaveAndRetrieveCustomerSuccessfully() {
@@ -233,4 +239,23 @@ class CustomerRepositoryIntegrationTest {
         assertThat(retrieved.getEffectiveType()).isEqualTo(CustomerType.LONG_TERM_CUSTOMER);
         assertThat(retrieved.getDiscountPercentage()).isEqualTo(5);
     }
+
+    @Test
+    @DisplayName("Should load several customers with a single query")
+    void shouldLoadSeveralCustomersWithSingleQuery() throws Exception {
+        // Given three saved customers
+        customerRepository.save(Customer.of("BATCH1", CustomerType.REGULAR, LocalDate.now()));
+        customerRepository.save(Customer.of("BATCH2", CustomerType.AFFILIATE, LocalDate.now()));
+        customerRepository.save(Customer.of("BATCH3", CustomerType.EMPLOYEE, LocalDate.now()));
+
+        // When loading them together, plus an unknown id
+        MongoCommandCounter.Recorded recorded = counter.record(() -> assertThat(
+                customerRepository.findAllById(List.of("BATCH1", "BATCH2", "BATCH3", "UNKNOWN")))
+                .containsOnlyKeys("BATCH1", "BATCH2", "BATCH3"));
+
+        // Then one round trip answered all of them
+        assertThat(recorded.byType())
+                .as("MongoDB commands sent: %s", recorded.commands())
+                .isEqualTo(Map.of("find", 1));
+    }
 }
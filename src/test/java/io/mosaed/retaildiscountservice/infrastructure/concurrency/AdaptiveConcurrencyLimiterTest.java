@@ -0,0 +1,160 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("AdaptiveConcurrencyLimiter Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    @Test
+    @DisplayName("Should grow the limit while latency stays at the baseline and the limit is used")
+    void shouldGrowUnderSteadyLatency() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("checkout", 20, 4, 100, 1.5, 0.2);
+
+        for (int i = 0; i < 500; i++) {
+            limiter.onSample(10 * MILLIS, limiter.limit());
+        }
+
+        assertThat(limiter.limit()).isEqualTo(100);
+        assertThat(limiter.baselineMillis()).isCloseTo(10.0, within(0.01));
+    }
+
+    @Test
+    @DisplayName("Should not grow the limit when less than half of it is used")
+    void shouldNotGrowWhenUnderused() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("checkout", 20, 4, 100, 1.5, 0.2);
+
+        for (int i = 0; i < 500; i++) {
+            limiter.onSample(10 * MILLIS, 2);
+        }
+
+        assertThat(limiter.limit()).isEqualTo(20);
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when latency rises well above the baseline")
+    void shouldShrinkWhenLatencyRises() {
+        // Given a limiter that settled at its maximum with 10 ms calls
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("checkout", 20, 4, 100, 1.5, 0.2);
+        for (int i = 0; i < 500; i++) {
+            limiter.onSample(10 * MILLIS, limiter.limit());
+        }
+
+        // When calls become five times slower
+        for (int i = 0; i < 30; i++) {
+            limiter.onSample(50 * MILLIS, limiter.limit());
+        }
+
+        // Then the limit is cut towards the minimum
+        assertThat(limiter.limit()).isLessThan(20);
+    }
+
+    @Test
+    @DisplayName("Should tolerate latency within the tolerance without shrinking")
+    void shouldTolerateSmallSlowdown() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("checkout", 50, 4, 100, 1.5, 0.2);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(10 * MILLIS, 2);
+        }
+
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(14 * MILLIS, limiter.limit());
+        }
+
+        assertThat(limiter.limit()).isGreaterThanOrEqualTo(50);
+    }
+
+    @Test
+    @DisplayName("Should never go below the minimum limit")
+    void shouldRespectMinimum() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("checkout", 20, 4, 100, 1.5, 0.2);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(MILLIS, 2);
+        }
+
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(1000 * MILLIS, limiter.limit());
+        }
+
+        assertThat(limiter.limit()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Should accept a lasting latency shift as the new baseline")
+    void shouldRecoverAfterLastingShift() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("checkout", 20, 4, 100, 1.5, 0.2);
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(10 * MILLIS, 2);
+        }
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(30 * MILLIS, limiter.limit());
+        }
+        int shrunk = limiter.limit();
+
+        for (int i = 0; i < 3000; i++) {
+            limiter.onSample(30 * MILLIS, limiter.limit());
+        }
+
+        assertThat(limiter.limit()).isGreaterThan(shrunk).isEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should reject immediately once the limit is in flight")
+    void shouldRejectBeyondLimit() throws Exception {
+        // Given a limiter whose single slot is held by a blocked call
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("list-bills", 1, 1, 10, 1.5, 0.2);
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = Thread.ofVirtual().start(() -> limiter.call(() -> {
+            running.countDown();
+            await(release);
+            return null;
+        }));
+        running.await();
+
+        // When / Then
+        assertThatThrownBy(() -> limiter.call(() -> "second"))
+                .isInstanceOf(ConcurrencyLimitExceededException.class)
+                .hasMessageContaining("list-bills");
+        assertThat(limiter.rejected()).isEqualTo(1);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+
+        release.countDown();
+        holder.join();
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.call(() -> "third")).isEqualTo("third");
+    }
+
+    @Test
+    @DisplayName("Should release the slot when the call fails")
+    void shouldReleaseOnFailure() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter("checkout", 1, 1, 10, 1.5, 0.2);
+
+        assertThatThrownBy(() -> limiter.call(() -> {
+            throw new IllegalStateException("store down");
+        })).isInstanceOf(IllegalStateException.class);
+
+        assertThat(limiter.inFlight()).isZero();
+        assertThat(limiter.call(() -> "next")).isEqualTo("next");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
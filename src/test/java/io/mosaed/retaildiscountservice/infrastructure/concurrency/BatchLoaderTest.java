@@ -0,0 +1,203 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("BatchLoader Tests")
+class BatchLoaderTest {
+
+    private final List<List<String>> batches = new CopyOnWriteArrayList<>();
+
+    private final Function<Collection<String>, Map<String, String>> upperCase = keys -> {
+        batches.add(List.copyOf(keys));
+        return keys.stream()
+                .filter(key -> !key.startsWith("unknown"))
+                .collect(Collectors.toMap(Function.identity(), String::toUpperCase));
+    };
+
+    @Test
+    @DisplayName("Should load keys requested within the window in one batch")
+    void shouldBatchKeysWithinWindow() {
+        try (BatchLoader<String, String> loader = new BatchLoader<>("test", upperCase, Duration.ofMillis(50), 100)) {
+            // When
+            CompletableFuture<String> first = loader.loadAsync("cust001");
+            CompletableFuture<String> second = loader.loadAsync("cust002");
+            CompletableFuture<String> unknown = loader.loadAsync("unknown");
+
+            // Then
+            assertThat(first.orTimeout(5, TimeUnit.SECONDS).join()).isEqualTo("CUST001");
+            assertThat(second.join()).isEqualTo("CUST002");
+            assertThat(unknown.join()).isNull();
+            assertThat(batches).containsExactly(List.of("cust001", "cust002", "unknown"));
+            assertThat(loader.batches()).isEqualTo(1);
+            assertThat(loader.keys()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    @DisplayName("Should dispatch as soon as the batch is full, without waiting for the window")
+    void shouldDispatchFullBatchImmediately() {
+        try (BatchLoader<String, String> loader = new BatchLoader<>("test", upperCase, Duration.ofHours(1), 2)) {
+            CompletableFuture<String> first = loader.loadAsync("a");
+            CompletableFuture<String> second = loader.loadAsync("b");
+
+            assertThat(first).isCompletedWithValue("A");
+            assertThat(second).isCompletedWithValue("B");
+            assertThat(batches).containsExactly(List.of("a", "b"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should ask for a key only once per batch")
+    void shouldDeduplicateKeysInBatch() {
+        try (BatchLoader<String, String> loader = new BatchLoader<>("test", upperCase, Duration.ofMillis(20), 100)) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                futures.add(loader.loadAsync("same"));
+            }
+
+            futures.forEach(future -> assertThat(future.orTimeout(5, TimeUnit.SECONDS).join()).isEqualTo("SAME"));
+            assertThat(batches).containsExactly(List.of("same"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail every caller of a batch when the batch load fails")
+    void shouldFailWholeBatch() {
+        Function<Collection<String>, Map<String, String>> failing = keys -> {
+            throw new IllegalStateException("store down");
+        };
+        try (BatchLoader<String, String> loader = new BatchLoader<>("test", failing, Duration.ofHours(1), 2)) {
+            CompletableFuture<String> first = loader.loadAsync("a");
+
+            assertThatThrownBy(() -> loader.load("b"))
+                    .isInstanceOf(IllegalStateException.class)
+                    .hasMessage("store down");
+            assertThat(first).isCompletedExceptionally();
+        }
+    }
+
+    @Test
+    @DisplayName("Should load a window-flushed batch with the latest deadline of its callers")
+    void shouldFlushWithLatestCallerDeadline() {
+        TestDeadlines deadlines = new TestDeadlines();
+        long now = System.nanoTime();
+        try (BatchLoader<String, String> loader =
+                     new BatchLoader<>("test", upperCase, Duration.ofMillis(20), 100, deadlines)) {
+            // Given two callers with different deadlines
+            CompletableFuture<String> early = deadlines.during(now + 1_000_000_000L, () -> loader.loadAsync("a"));
+            CompletableFuture<String> late = deadlines.during(now + 5_000_000_000L, () -> loader.loadAsync("b"));
+
+            // When
+            late.orTimeout(5, TimeUnit.SECONDS).join();
+
+            // Then the timer thread ran the batch with the later one
+            assertThat(early).isCompletedWithValue("A");
+            assertThat(deadlines.batchExpiries).containsExactly(now + 5_000_000_000L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should not load a full batch with the deadline of the caller that filled it")
+    void shouldNotUseFillingCallerDeadline() {
+        TestDeadlines deadlines = new TestDeadlines();
+        long now = System.nanoTime();
+        try (BatchLoader<String, String> loader =
+                     new BatchLoader<>("test", upperCase, Duration.ofHours(1), 2, deadlines)) {
+            deadlines.during(now + 5_000_000_000L, () -> loader.loadAsync("a"));
+            deadlines.during(now + 1_000_000_000L, () -> loader.loadAsync("b"));
+
+            assertThat(deadlines.batchExpiries).containsExactly(now + 5_000_000_000L);
+        }
+    }
+
+    @Test
+    @DisplayName("Should load a batch without a deadline when one of its callers has none")
+    void shouldNotBoundBatchOfUnboundedCaller() {
+        TestDeadlines deadlines = new TestDeadlines();
+        try (BatchLoader<String, String> loader =
+                     new BatchLoader<>("test", upperCase, Duration.ofHours(1), 2, deadlines)) {
+            loader.loadAsync("a");
+            deadlines.during(System.nanoTime() + 1_000_000_000L, () -> loader.loadAsync("b"));
+
+            assertThat(deadlines.batchExpiries).containsExactly(BatchLoader.NO_DEADLINE);
+        }
+    }
+
+    @Test
+    @DisplayName("Should stop waiting for a batch at the caller's own deadline")
+    void shouldBoundWaitByCallerDeadline() {
+        TestDeadlines deadlines = new TestDeadlines();
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Collection<String>, Map<String, String>> slow = keys -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return upperCase.apply(keys);
+        };
+        try (BatchLoader<String, String> loader =
+                     new BatchLoader<>("test", slow, Duration.ofMillis(1), 100, deadlines)) {
+            // When
+            long started = System.nanoTime();
+            assertThatThrownBy(() -> deadlines.during(started + 100_000_000L, () -> loader.load("a")))
+                    .isInstanceOf(DeadlineExceededException.class);
+
+            // Then
+            assertThat(Duration.ofNanos(System.nanoTime() - started)).isLessThan(Duration.ofSeconds(2));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    /**
+     * Deadlines kept per thread, recording the expiry each batch was loaded with
+     */
+    private static final class TestDeadlines implements BatchLoader.Deadlines {
+
+        private final ThreadLocal<Long> current = ThreadLocal.withInitial(() -> BatchLoader.NO_DEADLINE);
+        private final List<Long> batchExpiries = new CopyOnWriteArrayList<>();
+
+        @Override
+        public long currentExpiry() {
+            return current.get();
+        }
+
+        @Override
+        public <T> T runUntil(long expiry, Supplier<T> call) {
+            batchExpiries.add(expiry);
+            return during(expiry, call);
+        }
+
+        <T> T during(long expiry, Supplier<T> call) {
+            long previous = current.get();
+            current.set(expiry);
+            try {
+                return call.get();
+            } finally {
+                current.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Bulkhead Tests")
+class BulkheadTest {
+
+    @Test
+    @DisplayName("Should reject immediately when slots and queue are full")
+    void shouldRejectWhenSaturated() {
+        // Given a bulkhead with one slot, taken, and no queue
+        Bulkhead bulkhead = new Bulkhead("report", 1, 0, Duration.ofSeconds(10));
+        bulkhead.acquire();
+
+        // When / Then
+        long start = System.nanoTime();
+        assertThatThrownBy(bulkhead::acquire)
+                .isInstanceOf(BulkheadFullException.class)
+                .hasMessageContaining("report");
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.SECONDS.toNanos(1));
+        assertThat(bulkhead.active()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should give up after the queue timeout")
+    void shouldTimeOutInQueue() {
+        Bulkhead bulkhead = new Bulkhead("checkout", 1, 1, Duration.ofMillis(20));
+        bulkhead.acquire();
+
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(BulkheadFullException.class);
+        assertThat(bulkhead.queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hand a released slot to a queued caller")
+    void shouldServeQueuedCaller() throws Exception {
+        // Given the only slot is taken
+        Bulkhead bulkhead = new Bulkhead("checkout", 1, 1, Duration.ofSeconds(10));
+        bulkhead.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+
+        // When a second caller queues and the slot is released
+        Thread waiter = Thread.ofVirtual().start(() -> {
+            bulkhead.acquire();
+            acquired.countDown();
+        });
+        while (bulkhead.queued() == 0) {
+            Thread.onSpinWait();
+        }
+        bulkhead.release();
+
+        // Then the waiter gets it
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        waiter.join();
+        assertThat(bulkhead.active()).isEqualTo(1);
+        assertThat(bulkhead.queued()).isZero();
+    }
+}
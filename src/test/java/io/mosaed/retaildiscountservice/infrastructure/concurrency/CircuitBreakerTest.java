@@ -0,0 +1,150 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("CircuitBreaker Tests")
+class CircuitBreakerTest {
+
+    private static final Duration OPEN_DURATION = Duration.ofSeconds(10);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        // Window of 10 calls, opens at 50% failures once 4 calls are recorded, 2 probes
+        circuitBreaker = new CircuitBreaker("store", 10, 4, 0.5, OPEN_DURATION, 2,
+                e -> e instanceof UnavailableException, nanos::get);
+    }
+
+    @Test
+    @DisplayName("Should stay closed below the failure rate threshold")
+    void shouldStayClosedBelowThreshold() {
+        // Given / When 2 failures in 5 calls
+        succeed(3);
+        fail(2);
+
+        // Then
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should not open before the minimum number of calls")
+    void shouldNotOpenBeforeMinimumCalls() {
+        // Given / When
+        fail(3);
+
+        // Then
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should open at the threshold and reject calls without running them")
+    void shouldOpenAndReject() {
+        // Given
+        succeed(2);
+        fail(2);
+
+        // When / Then
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> circuitBreaker.call(() -> {
+            throw new AssertionError("must not run while open");
+        })).isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(circuitBreaker.rejected()).isEqualTo(1);
+        assertThat(circuitBreaker.failures()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should count other exceptions as successes")
+    void shouldCountOtherExceptionsAsSuccesses() {
+        // Given / When the downstream answers with errors about the calls themselves
+        for (int i = 0; i < 10; i++) {
+            assertThatThrownBy(() -> circuitBreaker.call(() -> {
+                throw new IllegalArgumentException("bad query");
+            })).isInstanceOf(IllegalArgumentException.class);
+        }
+
+        // Then
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(circuitBreaker.failures()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should close again after successful probes")
+    void shouldCloseAfterSuccessfulProbes() {
+        // Given an open breaker whose open duration has passed
+        fail(4);
+        nanos.addAndGet(OPEN_DURATION.toNanos());
+
+        // When the first probe succeeds
+        succeed(1);
+
+        // Then it waits for the second one
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        succeed(1);
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("Should reopen when a probe fails")
+    void shouldReopenWhenProbeFails() {
+        // Given
+        fail(4);
+        nanos.addAndGet(OPEN_DURATION.toNanos());
+
+        // When
+        fail(1);
+
+        // Then it stays open for another open duration
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        nanos.addAndGet(OPEN_DURATION.toNanos() - 1);
+        assertThatThrownBy(() -> circuitBreaker.call(() -> "probe"))
+                .isInstanceOf(CircuitBreakerOpenException.class);
+    }
+
+    @Test
+    @DisplayName("Should only let the configured number of probes through")
+    void shouldLimitProbes() {
+        // Given
+        fail(4);
+        nanos.addAndGet(OPEN_DURATION.toNanos());
+
+        // When two probes are still in flight
+        String result = circuitBreaker.call(() -> circuitBreaker.call(() ->
+                // Then a third call is rejected
+                catchThrowableOfType(() -> circuitBreaker.call(() -> "third"), CircuitBreakerOpenException.class)
+                        .getBreaker()));
+
+        assertThat(result).isEqualTo("store");
+        assertThat(circuitBreaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    private void succeed(int calls) {
+        for (int i = 0; i < calls; i++) {
+            circuitBreaker.call(() -> "ok");
+        }
+    }
+
+    private void fail(int calls) {
+        for (int i = 0; i < calls; i++) {
+            assertThatThrownBy(() -> circuitBreaker.call(() -> {
+                throw new UnavailableException();
+            })).isInstanceOf(UnavailableException.class);
+        }
+    }
+
+    private static class UnavailableException extends RuntimeException {
+    }
+}
@@ -0,0 +1,162 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("SingleFlight Tests")
+class SingleFlightTest {
+
+    @Test
+    @DisplayName("Should share one load between concurrent callers of the same key")
+    void shouldCoalesceConcurrentCalls() throws Exception {
+        // Given a slow load held open until every caller has arrived
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        int callers = 8;
+
+        // When
+        List<Thread> threads = new ArrayList<>();
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        for (int i = 0; i < callers; i++) {
+            threads.add(Thread.ofVirtual().start(() -> results.add(singleFlight.execute("BILL-1", () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "bill";
+            }))));
+        }
+        while (singleFlight.leaders() + singleFlight.followers() < callers) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Then
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(results).hasSize(callers).containsOnly("bill");
+        assertThat(singleFlight.followers()).isEqualTo(callers - 1);
+        assertThat(singleFlight.inFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should hand the leader's failure to every follower and not remember it")
+    void shouldPropagateFailureToFollowers() throws Exception {
+        // Given a failing load with one follower waiting on it
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Throwable> followerFailure = new AtomicReference<>();
+
+        Thread leader = Thread.ofVirtual().start(() -> catchFailure(() -> singleFlight.execute("BILL-1", () -> {
+            await(release);
+            throw new IllegalStateException("store down");
+        })));
+        while (singleFlight.leaders() == 0) {
+            Thread.onSpinWait();
+        }
+        Thread follower = Thread.ofVirtual().start(() -> followerFailure.set(
+                catchFailure(() -> singleFlight.execute("BILL-1", () -> "unused"))));
+        while (singleFlight.followers() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        // Then the follower saw the same failure, and the next call loads afresh
+        assertThat(followerFailure.get()).isInstanceOf(IllegalStateException.class).hasMessage("store down");
+        assertThat(singleFlight.execute("BILL-1", () -> "recovered")).isEqualTo("recovered");
+    }
+
+    @Test
+    @DisplayName("Should let a follower load on its own when the leader ran out of its deadline")
+    void shouldNotShareLeaderDeadline() throws Exception {
+        // Given a leader whose request deadline passes during the load
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofSeconds(10));
+        CountDownLatch release = new CountDownLatch(1);
+        Thread leader = Thread.ofVirtual().start(() -> catchFailure(() -> singleFlight.execute("BILL-1", () -> {
+            await(release);
+            throw new DeadlineExceededException("bills.findById");
+        })));
+        while (singleFlight.leaders() == 0) {
+            Thread.onSpinWait();
+        }
+        AtomicReference<String> followerResult = new AtomicReference<>();
+        Thread follower = Thread.ofVirtual().start(() -> followerResult.set(
+                singleFlight.execute("BILL-1", () -> "own")));
+        while (singleFlight.followers() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        release.countDown();
+        leader.join();
+        follower.join();
+
+        // Then
+        assertThat(followerResult.get()).isEqualTo("own");
+    }
+
+    @Test
+    @DisplayName("Should let a follower load on its own after waiting too long")
+    void shouldFallBackAfterTimeout() throws Exception {
+        // Given a leader stuck in its load
+        SingleFlight<String, String> singleFlight = new SingleFlight<>(Duration.ofMillis(20));
+        CountDownLatch release = new CountDownLatch(1);
+        Thread leader = Thread.ofVirtual().start(() -> singleFlight.execute("BILL-1", () -> {
+            await(release);
+            return "slow";
+        }));
+        while (singleFlight.leaders() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // When
+        String result = singleFlight.execute("BILL-1", () -> "own");
+
+        // Then
+        assertThat(result).isEqualTo("own");
+        assertThat(singleFlight.timeouts()).isEqualTo(1);
+        release.countDown();
+        leader.join();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Latch not released");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Throwable catchFailure(Runnable call) {
+        try {
+            call.run();
+            return null;
+        } catch (RuntimeException e) {
+            return e;
+        }
+    }
+}
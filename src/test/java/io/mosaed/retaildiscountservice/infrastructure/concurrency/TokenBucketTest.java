@@ -0,0 +1,62 @@
+package io.mosaed.retaildiscountservice.infrastructure.concurrency;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("TokenBucket Tests")
+class TokenBucketTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000_000_000L);
+
+    @Test
+    @DisplayName("Should allow a full burst and then reject with the time until the next token")
+    void shouldAllowBurstThenReject() {
+        // Given 10 tokens per second with room for 3
+        TokenBucket bucket = new TokenBucket(10, 3, clock::get);
+
+        // When / Then
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    @DisplayName("Should refill at the configured rate")
+    void shouldRefillAtRate() {
+        // Given an empty bucket
+        TokenBucket bucket = new TokenBucket(10, 1, clock::get);
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+
+        // When 100ms pass
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+        // Then exactly one more token is available
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Should not accumulate more than the capacity while idle")
+    void shouldCapTokensAtCapacity() {
+        // Given a bucket idle for a long time
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+        clock.addAndGet(TimeUnit.MINUTES.toNanos(10));
+
+        // When / Then only the burst is available
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isZero();
+        assertThat(bucket.tryAcquire()).isPositive();
+    }
+}
@@ -0,0 +1,70 @@
+package io.mosaed.retaildiscountservice.infrastructure.config;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Keeps the pre-generated OpenAPI document served in fast-start mode in sync
+ * with the controllers.
+ *
+ * Regenerate it after an API change with:
+ * mvn test -Dtest=OpenApiDocumentTest -Dopenapi.update=true
+ */
+@SpringBootTest(properties = "application.seed-data.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("perf") // In-memory store, no MongoDB needed
+@DisplayName("OpenAPI Document Tests")
+class OpenApiDocumentTest {
+
+    private static final Path STATIC_DOCUMENT = Path.of("src/main/resources/static/openapi.json");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @WithMockUser
+    @DisplayName("Static OpenAPI document should match the one generated from the controllers")
+    void staticDocumentShouldMatchGeneratedDocument() throws Exception {
+        // Given the document springdoc generates at runtime
+        String generated = mockMvc.perform(get("/v3/api-docs"))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        JsonNode generatedTree = objectMapper.readTree(generated);
+
+        if (Boolean.getBoolean("openapi.update")) {
+            Files.writeString(STATIC_DOCUMENT,
+                    objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(generatedTree) + "\n");
+        }
+
+        // Then the checked-in document is identical
+        assertThat(STATIC_DOCUMENT)
+                .as("%s is out of date, regenerate it with -Dopenapi.update=true", STATIC_DOCUMENT)
+                .exists();
+        assertThat(objectMapper.readTree(Files.readString(STATIC_DOCUMENT)))
+                .as("%s is out of date, regenerate it with -Dopenapi.update=true", STATIC_DOCUMENT)
+                .isEqualTo(generatedTree);
+    }
+}
@@ -0,0 +1,133 @@
+package io.mosaed.retaildiscountservice.infrastructure.deadline;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import com.mongodb.MongoExecutionTimeoutException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.mosaed.retaildiscountservice.infrastructure.concurrency.DeadlineExceededException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("RequestDeadlines Tests")
+class RequestDeadlinesTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong clock = new AtomicLong();
+
+    private RequestDeadlines deadlines;
+
+    @BeforeEach
+    void setUp() {
+        deadlines = new RequestDeadlines(meterRegistry, clock::get);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deadlines.clear();
+    }
+
+    @Test
+    @DisplayName("Should leave queries alone when the request has no deadline")
+    void shouldPassThroughWithoutDeadline() {
+        Query query = new Query();
+
+        String result = deadlines.bounded("bills.find", query, bounded -> "documents");
+
+        assertThat(result).isEqualTo("documents");
+        assertThat(query.getMeta().getMaxTimeMsec()).isNull();
+        assertThat(deadlines.remaining()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should give queries the time the request has left as maxTimeMS")
+    void shouldSetMaxTimeToRemaining() {
+        deadlines.start(Duration.ofSeconds(2));
+        clock.addAndGet(Duration.ofMillis(500).toNanos());
+        Query query = new Query();
+
+        deadlines.bounded("bills.find", query, bounded -> "documents");
+
+        assertThat(query.getMeta().getMaxTimeMsec()).isEqualTo(1500);
+        assertThat(deadlines.remaining()).contains(Duration.ofMillis(1500));
+    }
+
+    @Test
+    @DisplayName("Should never send maxTimeMS 0, which means no limit")
+    void shouldRoundUpSubMillisecondRemainder() {
+        deadlines.start(Duration.ofNanos(400_000));
+        Query query = new Query();
+
+        deadlines.bounded("bills.find", query, bounded -> "documents");
+
+        assertThat(query.getMeta().getMaxTimeMsec()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should skip the query once the deadline has passed and count it")
+    void shouldSkipAfterDeadline() {
+        deadlines.start(Duration.ofSeconds(2));
+        clock.addAndGet(Duration.ofSeconds(3).toNanos());
+
+        assertThatThrownBy(() -> deadlines.bounded("bills.find", new Query(), bounded -> {
+            throw new AssertionError("query must not run");
+        })).isInstanceOf(DeadlineExceededException.class).hasMessageContaining("bills.find");
+        assertThatThrownBy(() -> deadlines.checkNotExceeded("bill.save"))
+                .isInstanceOf(DeadlineExceededException.class);
+
+        assertThat(meterRegistry.counter("request.deadline.exceeded",
+                "stage", "bills.find", "outcome", "skipped").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("request.deadline.exceeded",
+                "stage", "bill.save", "outcome", "skipped").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should report a query the database stopped at maxTimeMS as a deadline, and count it")
+    void shouldTranslateServerTimeout() {
+        deadlines.start(Duration.ofSeconds(2));
+
+        assertThatThrownBy(() -> deadlines.bounded("bills.find", new Query(), bounded -> {
+            throw new UncategorizedMongoDbException("operation exceeded time limit",
+                    new MongoExecutionTimeoutException(50, "operation exceeded time limit"));
+        })).isInstanceOf(DeadlineExceededException.class);
+
+        assertThat(meterRegistry.counter("request.deadline.exceeded",
+                "stage", "bills.find", "outcome", "stopped").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should forget the deadline when the request ends")
+    void shouldClear() {
+        deadlines.start(Duration.ZERO);
+        deadlines.clear();
+
+        deadlines.checkNotExceeded("bill.save");
+        assertThat(deadlines.remaining()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should bound a batch loaded on another thread by the expiry it carries, then restore")
+    void shouldRunUntilCarriedExpiry() {
+        // Given a thread without a deadline of its own
+        long expiry = clock.get() + Duration.ofMillis(800).toNanos();
+        Query query = new Query();
+
+        // When
+        deadlines.runUntil(expiry, () -> deadlines.bounded("customers.findAllById", query, bounded -> "documents"));
+
+        // Then
+        assertThat(query.getMeta().getMaxTimeMsec()).isEqualTo(800);
+        assertThat(deadlines.remaining()).isEmpty();
+    }
+}
@@ -0,0 +1,78 @@
+package io.mosaed.retaildiscountservice.infrastructure.fault;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryCustomerRepository;
+import io.mosaed.retaildiscountservice.infrastructure.fault.FaultInjectionEndpoint.FaultDescriptor;
+import io.mosaed.retaildiscountservice.infrastructure.fault.FaultProfile.Latency;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("FaultInjectionEndpoint Tests")
+class FaultInjectionEndpointTest {
+
+    private final FaultInjectors faultInjectors = new FaultInjectors();
+    private final FaultInjectionEndpoint endpoint = new FaultInjectionEndpoint(faultInjectors);
+
+    @Test
+    @DisplayName("Should turn faults on and off for a decorated repository")
+    void shouldToggleFaultsAtRuntime() {
+        // Given
+        BillRepository bills = faultInjectors.decorate(new InMemoryBillRepository(new InMemoryCustomerRepository()));
+        assertThat(bills.existsById("BILL-1")).isFalse();
+
+        // When every call is made to fail
+        FaultDescriptor configured = endpoint.configure("bills", null, null, null, null, 1.0, null, null);
+
+        // Then
+        assertThat(configured.profile().errorRate()).isEqualTo(1.0);
+        assertThatThrownBy(() -> bills.existsById("BILL-1")).isInstanceOf(InjectedFaultException.class);
+        assertThat(endpoint.fault("bills").failed()).isEqualTo(1);
+
+        // When turned off again
+        endpoint.clear("bills");
+
+        // Then
+        assertThat(bills.existsById("BILL-1")).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep the settings that are not given")
+    void shouldMergeWithCurrentProfile() {
+        // Given
+        endpoint.configure("customers", "long_tail", Duration.ofMillis(2), Duration.ofSeconds(1), null, null, null, null);
+
+        // When
+        FaultDescriptor updated = endpoint.configure("customers", null, null, null, null, 0.05, null, null);
+
+        // Then
+        assertThat(updated.profile().latency()).isEqualTo(Latency.LONG_TAIL);
+        assertThat(updated.profile().base()).isEqualTo(Duration.ofMillis(2));
+        assertThat(updated.profile().errorRate()).isEqualTo(0.05);
+
+        // And clearing all leaves nothing active
+        assertThat(endpoint.clearAll()).allSatisfy(fault -> assertThat(fault.profile().isActive()).isFalse());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown targets and invalid settings")
+    void shouldRejectInvalidRequests() {
+        assertThatThrownBy(() -> endpoint.configure("events", null, null, null, null, 0.1, null, null))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+        assertThatThrownBy(() -> endpoint.configure("bills", "spiky", null, null, null, null, null, null))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+        assertThatThrownBy(() -> endpoint.configure("bills", null, null, null, null, 2.0, null, null))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+        assertThat(endpoint.fault("events")).isNull();
+    }
+}
@@ -0,0 +1,117 @@
+package io.mosaed.retaildiscountservice.infrastructure.fault;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.fault.FaultProfile.Latency;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("FaultInjector Tests")
+class FaultInjectorTest {
+
+    private static final Duration BASE = Duration.ofMillis(5);
+    private static final Duration MAX = Duration.ofSeconds(2);
+
+    @Test
+    @DisplayName("Should do nothing without a profile")
+    void shouldDoNothingByDefault() {
+        // Given
+        FaultInjector injector = new FaultInjector("bills");
+
+        // When
+        for (int i = 0; i < 1000; i++) {
+            injector.beforeCall();
+        }
+
+        // Then
+        assertThat(injector.delayed() + injector.stalled() + injector.failed()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fail about errorRate of the calls like an unreachable store")
+    void shouldFailAtErrorRate() {
+        // Given
+        FaultInjector injector = new FaultInjector("customers");
+        injector.setProfile(new FaultProfile(Latency.NONE, Duration.ZERO, Duration.ZERO, 1.5, 0.2, 0.0, Duration.ZERO));
+
+        // When
+        int failures = 0;
+        for (int i = 0; i < 10_000; i++) {
+            try {
+                injector.beforeCall();
+            } catch (InjectedFaultException e) {
+                failures++;
+            }
+        }
+
+        // Then
+        assertThat(failures).isBetween(1_700, 2_300);
+        assertThat(injector.failed()).isEqualTo(failures);
+    }
+
+    @Test
+    @DisplayName("Should sample fixed and uniform latencies within bounds")
+    void shouldSampleFixedAndUniform() {
+        // Given
+        RandomGenerator random = new SplittableRandom(42);
+        FaultProfile fixed = new FaultProfile(Latency.FIXED, BASE, MAX, 1.5, 0, 0, Duration.ZERO);
+        FaultProfile uniform = new FaultProfile(Latency.UNIFORM, BASE, Duration.ofMillis(15), 1.5, 0, 0, Duration.ZERO);
+
+        // When
+        long[] uniformSamples = samples(uniform, random, 10_000);
+
+        // Then
+        assertThat(fixed.sampleLatencyNanos(random)).isEqualTo(BASE.toNanos());
+        assertThat(Arrays.stream(uniformSamples).min().orElseThrow()).isGreaterThanOrEqualTo(BASE.toNanos());
+        assertThat(Arrays.stream(uniformSamples).max().orElseThrow()).isLessThanOrEqualTo(15_000_000L);
+        assertThat(Arrays.stream(uniformSamples).average().orElseThrow()).isBetween(9.5e6, 10.5e6);
+    }
+
+    @Test
+    @DisplayName("Should sample a long tail: close to base mostly, far above it at p99, never above max")
+    void shouldSampleLongTail() {
+        // Given
+        FaultProfile longTail = new FaultProfile(Latency.LONG_TAIL, BASE, MAX, 1.5, 0, 0, Duration.ZERO);
+
+        // When
+        long[] samples = samples(longTail, new SplittableRandom(42), 100_000);
+        Arrays.sort(samples);
+
+        // Then (Pareto with alpha 1.5: p50 ~1.6x base, p99 ~21.5x base)
+        long p50 = samples[samples.length / 2];
+        long p99 = samples[samples.length * 99 / 100];
+        assertThat(samples[0]).isGreaterThanOrEqualTo(BASE.toNanos());
+        assertThat(p50).isBetween(7_000_000L, 9_000_000L);
+        assertThat(p99).isBetween(90_000_000L, 130_000_000L);
+        assertThat(samples[samples.length - 1]).isLessThanOrEqualTo(MAX.toNanos());
+    }
+
+    @Test
+    @DisplayName("Should reject invalid profiles")
+    void shouldRejectInvalidProfiles() {
+        assertThatThrownBy(() -> new FaultProfile(Latency.UNIFORM, MAX, BASE, 1.5, 0, 0, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FaultProfile(Latency.NONE, BASE, MAX, 1.5, 1.5, 0, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new FaultProfile(Latency.LONG_TAIL, BASE, MAX, 0, 0, 0, Duration.ZERO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static long[] samples(FaultProfile profile, RandomGenerator random, int count) {
+        long[] samples = new long[count];
+        for (int i = 0; i < count; i++) {
+            samples[i] = profile.sampleLatencyNanos(random);
+        }
+        return samples;
+    }
+}
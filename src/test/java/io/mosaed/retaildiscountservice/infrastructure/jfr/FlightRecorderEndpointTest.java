@@ -0,0 +1,78 @@
+package io.mosaed.retaildiscountservice.infrastructure.jfr;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.infrastructure.jfr.FlightRecorderEndpoint.RecordingDescriptor;
+import jdk.jfr.RecordingState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.InvalidEndpointRequestException;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("FlightRecorderEndpoint Tests")
+class FlightRecorderEndpointTest {
+
+    private final FlightRecorderEndpoint endpoint = new FlightRecorderEndpoint(Duration.ofMinutes(5));
+
+    @AfterEach
+    void discardRecordings() {
+        // Stop, then discard
+        for (String name : new String[] {"endpoint-test", "endpoint-test-profile"}) {
+            if (endpoint.stop(name) != null) {
+                endpoint.stop(name);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should start, list, dump, stop and discard a recording")
+    void shouldDriveRecordingLifecycle() throws IOException {
+        // Start
+        RecordingDescriptor started = endpoint.start("endpoint-test", null, null);
+        assertThat(started.state()).isEqualTo(RecordingState.RUNNING);
+        assertThat(started.maxAge()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(endpoint.recordings()).extracting(RecordingDescriptor::name).contains("endpoint-test");
+
+        // Dump while running: a .jfr file starts with the "FLR" magic
+        Resource dump = endpoint.dump("endpoint-test");
+        try (InputStream in = dump.getInputStream()) {
+            assertThat(in.readNBytes(3)).isEqualTo("FLR".getBytes());
+        }
+
+        // Stop keeps the data around for a dump
+        assertThat(endpoint.stop("endpoint-test").state()).isEqualTo(RecordingState.STOPPED);
+        assertThat(endpoint.dump("endpoint-test")).isNotNull();
+
+        // Second delete discards it
+        assertThat(endpoint.stop("endpoint-test").state()).isEqualTo(RecordingState.CLOSED);
+        assertThat(endpoint.recordings()).extracting(RecordingDescriptor::name).doesNotContain("endpoint-test");
+    }
+
+    @Test
+    @DisplayName("Should answer null, which the actuator maps to 404, for unknown recordings")
+    void shouldReturnNullForUnknownRecording() throws IOException {
+        assertThat(endpoint.dump("missing")).isNull();
+        assertThat(endpoint.stop("missing")).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject unknown settings and duplicate names")
+    void shouldRejectInvalidRequests() {
+        assertThatThrownBy(() -> endpoint.start("endpoint-test", "everything", null))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+
+        endpoint.start("endpoint-test-profile", "profile", Duration.ofMinutes(1));
+        assertThatThrownBy(() -> endpoint.start("endpoint-test-profile", null, null))
+                .isInstanceOf(InvalidEndpointRequestException.class);
+    }
+}
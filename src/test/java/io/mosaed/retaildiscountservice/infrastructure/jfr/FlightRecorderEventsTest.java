@@ -0,0 +1,150 @@
+package io.mosaed.retaildiscountservice.infrastructure.jfr;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.dto.BillItemDto;
+import io.mosaed.retaildiscountservice.application.dto.CalculateBillCommand;
+import io.mosaed.retaildiscountservice.application.port.in.CalculateBillUseCase;
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.service.BillService;
+import io.mosaed.retaildiscountservice.domain.exception.CustomerNotFoundException;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryBillRepository;
+import io.mosaed.retaildiscountservice.infrastructure.adapter.persistence.memory.InMemoryCustomerRepository;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Flight recorder events")
+class FlightRecorderEventsTest {
+
+    private static final String CALCULATION = "io.mosaed.retaildiscount.DiscountCalculation";
+    private static final String REPOSITORY = "io.mosaed.retaildiscount.BillRepository";
+    private static final String USE_CASE = "io.mosaed.retaildiscount.CalculateBill";
+
+    @TempDir
+    Path directory;
+
+    private CalculateBillUseCase useCase;
+    private BillRepository billRepository;
+
+    @BeforeEach
+    void setUp() {
+        InMemoryCustomerRepository customers = new InMemoryCustomerRepository();
+        customers.save(Customer.of("EMP001", CustomerType.EMPLOYEE, LocalDate.of(2020, 1, 1)));
+        billRepository = new RecordingBillRepository(new InMemoryBillRepository(customers));
+        useCase = new RecordingCalculateBillUseCase(new BillService(customers, billRepository));
+    }
+
+    @Test
+    @DisplayName("Should record the use case, the calculation and the store call of one bill")
+    void shouldRecordCalculateBill() throws IOException {
+        // Given
+        CalculateBillCommand command = CalculateBillCommand.of("EMP001", List.of(
+                BillItemDto.of("Laptop", "ELECTRONICS", 1000.0, 1),
+                BillItemDto.of("Milk", "GROCERY", 5.0, 2)));
+
+        // When
+        List<RecordedEvent> events = record(() -> useCase.execute(command));
+
+        // Then
+        RecordedEvent useCaseEvent = single(events, USE_CASE);
+        assertThat(useCaseEvent.getString("customerId")).isEqualTo("EMP001");
+        assertThat(useCaseEvent.getInt("itemCount")).isEqualTo(2);
+        assertThat(useCaseEvent.getInt("percentageDiscountRate")).isEqualTo(30);
+        assertThat(useCaseEvent.getString("failure")).isNull();
+
+        // The store hands back a new Bill instance, which calculates again for the response
+        List<RecordedEvent> calculationEvents = ofType(events, CALCULATION);
+        assertThat(calculationEvents).isNotEmpty().allSatisfy(calculationEvent -> {
+            assertThat(calculationEvent.getString("billId")).isEqualTo(useCaseEvent.getString("billId"));
+            assertThat(calculationEvent.getString("customerType")).isEqualTo("EMPLOYEE");
+            assertThat(calculationEvent.getInt("itemCount")).isEqualTo(2);
+        });
+
+        RecordedEvent repositoryEvent = single(events, REPOSITORY);
+        assertThat(repositoryEvent.getString("operation")).isEqualTo("save");
+        assertThat(repositoryEvent.getString("store")).isEqualTo("InMemoryBillRepository");
+        assertThat(repositoryEvent.getInt("bills")).isEqualTo(1);
+        assertThat(repositoryEvent.getInt("items")).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should record a failed calculation with the exception type")
+    void shouldRecordFailure() throws IOException {
+        // Given
+        CalculateBillCommand command = CalculateBillCommand.of("UNKNOWN", List.of(
+                BillItemDto.of("Milk", "GROCERY", 5.0, 2)));
+
+        // When
+        List<RecordedEvent> events = record(() -> assertThatThrownBy(() -> useCase.execute(command))
+                .isInstanceOf(CustomerNotFoundException.class));
+
+        // Then
+        assertThat(single(events, USE_CASE).getString("failure")).isEqualTo("CustomerNotFoundException");
+        assertThat(ofType(events, CALCULATION)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should count the bills and items a query returns")
+    void shouldRecordQuerySizes() throws IOException {
+        // Given
+        useCase.execute(CalculateBillCommand.of("EMP001", List.of(BillItemDto.of("Milk", "GROCERY", 5.0, 2))));
+        useCase.execute(CalculateBillCommand.of("EMP001", List.of(
+                BillItemDto.of("Milk", "GROCERY", 5.0, 2),
+                BillItemDto.of("Bread", "GROCERY", 3.0, 1))));
+
+        // When
+        List<RecordedEvent> events = record(() -> billRepository.findByCustomerId("EMP001"));
+
+        // Then
+        RecordedEvent event = single(events, REPOSITORY);
+        assertThat(event.getString("operation")).isEqualTo("findByCustomerId");
+        assertThat(event.getInt("bills")).isEqualTo(2);
+        assertThat(event.getInt("items")).isEqualTo(3);
+    }
+
+    private List<RecordedEvent> record(Runnable action) throws IOException {
+        Path file = directory.resolve("events.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(CALCULATION);
+            recording.enable(REPOSITORY);
+            recording.enable(USE_CASE);
+            recording.start();
+            action.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static RecordedEvent single(List<RecordedEvent> events, String type) {
+        List<RecordedEvent> matching = ofType(events, type);
+        assertThat(matching).as(type).hasSize(1);
+        return matching.get(0);
+    }
+
+    private static List<RecordedEvent> ofType(List<RecordedEvent> events, String type) {
+        // Other tests in the same JVM may be calculating bills in the background
+        long testThread = Thread.currentThread().threadId();
+        return events.stream()
+                .filter(event -> event.getEventType().getName().equals(type))
+                .filter(event -> event.getThread().getJavaThreadId() == testThread)
+                .toList();
+    }
+}
@@ -0,0 +1,132 @@
+package io.mosaed.retaildiscountservice.infrastructure.warmup;
+
+/**
+ *
+ * @author MOSAED ALOTAIBI
+ */
+
+import io.mosaed.retaildiscountservice.application.port.out.BillRepository;
+import io.mosaed.retaildiscountservice.application.port.out.CustomerRepository;
+import io.mosaed.retaildiscountservice.domain.model.Bill;
+import io.mosaed.retaildiscountservice.domain.model.BillItem;
+import io.mosaed.retaildiscountservice.domain.model.Customer;
+import io.mosaed.retaildiscountservice.domain.model.CustomerType;
+import io.mosaed.retaildiscountservice.domain.model.ItemCategory;
+import io.mosaed.retaildiscountservice.domain.model.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ApplicationWarmUp Tests")
+class ApplicationWarmUpTest {
+
+    @Mock
+    private BillRepository billRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    private ApplicationWarmUp warmUp;
+
+    @BeforeEach
+    void setUp() {
+        warmUp = warmUp(new WarmUpSettings(true, Duration.ofSeconds(30), 100, 2, 500, 0, ""));
+    }
+
+    @Test
+    @DisplayName("Should keep readiness down until the warm-up has run")
+    void shouldReportOutOfServiceUntilDone() {
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        // When
+        warmUp.run(-1);
+
+        // Then
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmUp.health().getDetails()).containsEntry("calculations", 500);
+    }
+
+    @Test
+    @DisplayName("Should prime the cache with the customers having the most recent bills")
+    void shouldPrimeMostActiveCustomers() {
+        // Given three bills for CUST002, two for CUST001 and one for CUST003
+        when(billRepository.findRecentBills(100)).thenReturn(List.of(
+                bill("CUST001"), bill("CUST002"), bill("CUST003"),
+                bill("CUST002"), bill("CUST001"), bill("CUST002")));
+        when(customerRepository.findAllById(anyCollection())).thenReturn(Map.of(
+                "CUST002", customer("CUST002"), "CUST001", customer("CUST001")));
+
+        // When
+        int primed = warmUp.primeCustomers();
+
+        // Then only the two most active are loaded
+        assertThat(primed).isEqualTo(2);
+        verify(customerRepository).findAllById(List.of("CUST002", "CUST001"));
+    }
+
+    @Test
+    @DisplayName("Should report ready even when a step fails")
+    void shouldBecomeReadyWhenStepFails() {
+        // Given the store is down
+        when(billRepository.findRecentBills(anyInt()))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // When
+        warmUp.run(-1);
+
+        // Then
+        assertThat(warmUp.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(warmUp.health().getDetails()).containsEntry("customersPrimed", 0);
+    }
+
+    @Test
+    @DisplayName("Should stop exercising once the budget is spent")
+    void shouldRespectBudget() {
+        ApplicationWarmUp limited = warmUp(new WarmUpSettings(true, Duration.ZERO, 100, 0, 1_000_000, 0, ""));
+
+        limited.run(-1);
+
+        assertThat(limited.health().getDetails())
+                .containsEntry("calculations", 0)
+                .containsEntry("budgetExhausted", true);
+    }
+
+    @Test
+    @DisplayName("Should report ready right away when disabled")
+    void shouldBeUpWhenDisabled() {
+        ApplicationWarmUp disabled = warmUp(new WarmUpSettings(false, Duration.ofSeconds(30), 0, 0, 0, 0, ""));
+
+        assertThat(disabled.health().getStatus()).isEqualTo(Status.UP);
+        verifyNoInteractions(billRepository, customerRepository);
+    }
+
+    private ApplicationWarmUp warmUp(WarmUpSettings settings) {
+        return new ApplicationWarmUp(billRepository, customerRepository,
+                Jackson2ObjectMapperBuilder.json().build(), settings);
+    }
+
+    private static Customer customer(String customerId) {
+        return Customer.of(customerId, CustomerType.REGULAR, LocalDate.of(2020, 1, 1));
+    }
+
+    private static Bill bill(String customerId) {
+        return Bill.create(customer(customerId),
+                List.of(BillItem.of("Milk", ItemCategory.GROCERY, Money.of(5.0), 1)));
+    }
+}